@@ -0,0 +1,92 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.runtime.json;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonGeneratorFactory;
+import javax.json.stream.JsonParserFactory;
+
+/**
+ * This class keeps the JSON-P factories used by the JSON readers and writers. The static methods of the
+ * {@link Json} class look up the JSON-P provider each time they are called, which is expensive compared to parsing
+ * or generating a small document, so the factories are created once and then reused. The factories can be used
+ * from multiple threads to create parsers and generators.
+ */
+public class JsonFactories {
+    // The generator factories that have already been created, indexed by the indentation flag:
+    private static final Map<Boolean, JsonGeneratorFactory> generatorFactories = new ConcurrentHashMap<>();
+
+    // The parser factory, created when it is first requested:
+    private static volatile JsonParserFactory parserFactory;
+
+    private JsonFactories() {
+        // No instances allowed.
+    }
+
+    /**
+     * Returns the shared parser factory.
+     */
+    public static JsonParserFactory getParserFactory() {
+        JsonParserFactory factory = parserFactory;
+        if (factory == null) {
+            synchronized (JsonFactories.class) {
+                factory = parserFactory;
+                if (factory == null) {
+                    factory = Json.createParserFactory(Collections.emptyMap());
+                    parserFactory = factory;
+                }
+            }
+        }
+        return factory;
+    }
+
+    /**
+     * Replaces the shared parser factory. This is intended for applications that want to use a specific JSON-P
+     * implementation, or that need to configure it in ways not supported by default.
+     *
+     * @param factory the pre-built factory, or {@code null} to go back to the default one
+     */
+    public static void setParserFactory(JsonParserFactory factory) {
+        parserFactory = factory;
+    }
+
+    /**
+     * Returns the generator factory for the given indentation. The factory is created the first time that it is
+     * requested, and reused after that.
+     *
+     * @param indent indicates if the generators created by the factory should indent the output
+     */
+    public static JsonGeneratorFactory getGeneratorFactory(boolean indent) {
+        return generatorFactories.computeIfAbsent(indent, JsonFactories::createGeneratorFactory);
+    }
+
+    /**
+     * Replaces the generator factory used for the given indentation.
+     *
+     * @param indent the indentation that will select the factory
+     * @param factory the pre-built factory, or {@code null} to go back to a factory created on demand
+     */
+    public static void setGeneratorFactory(boolean indent, JsonGeneratorFactory factory) {
+        if (factory != null) {
+            generatorFactories.put(indent, factory);
+        }
+        else {
+            generatorFactories.remove(indent);
+        }
+    }
+
+    private static JsonGeneratorFactory createGeneratorFactory(boolean indent) {
+        Map<String, Object> configuration = Collections.emptyMap();
+        if (indent) {
+            configuration = Collections.singletonMap(JsonGenerator.PRETTY_PRINTING, Boolean.TRUE);
+        }
+        return Json.createGeneratorFactory(configuration);
+    }
+}
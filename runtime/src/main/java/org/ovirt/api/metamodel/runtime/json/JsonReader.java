@@ -13,16 +13,24 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
-import java.util.TimeZone;
-import javax.json.Json;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.json.JsonException;
 import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParserFactory;
+
+import org.ovirt.api.metamodel.runtime.util.ByteBufferReader;
+import org.ovirt.api.metamodel.runtime.util.DateCodec;
 
 /**
  * This class wraps the {@link JsonParser} class so that the methods don't send checked exceptions, in order to
@@ -32,18 +40,6 @@ public class JsonReader implements AutoCloseable {
     // The wrapped JSON parser:
     private JsonParser parser;
 
-    /**
-     * Thread local used to store the date formats.
-     */
-    private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT = new ThreadLocal<SimpleDateFormat>(){
-        @Override
-        protected SimpleDateFormat initialValue() {
-            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
-            format.setTimeZone(TimeZone.getTimeZone("UTC"));
-            return format;
-        }
-    };
-
     /**
      * Creates a JSON reader that will read from the given stream, using UTF-8 as the encoding.
      *
@@ -63,6 +59,16 @@ public class JsonReader implements AutoCloseable {
         init(reader);
     }
 
+    /**
+     * Creates a JSON reader that will read from the given reader, using the given factory instead of the shared one.
+     *
+     * @param reader the reader where the document will be read from
+     * @param factory the factory used to create the underlying JSON parser
+     */
+    public JsonReader(Reader reader, JsonParserFactory factory) {
+        parser = factory.createParser(reader);
+    }
+
     /**
      * Creates a reader that will read from the given file, using UTF-8 as the encoding.
      *
@@ -79,8 +85,34 @@ public class JsonReader implements AutoCloseable {
         }
     }
 
+    /**
+     * Creates a reader that will read from the given file, using UTF-8 as the encoding. The file is mapped into
+     * memory and decoded directly from there, which is faster than reading it with a stream, in particular for large
+     * files.
+     *
+     * @param path the path of the file where the document will be read from
+     */
+    public JsonReader(Path path) {
+        try {
+            init(ByteBufferReader.open(path));
+        }
+        catch (IOException exception) {
+            throw new JsonException("Can't open file \"" + path.toAbsolutePath() + "\" for reading", exception);
+        }
+    }
+
+    /**
+     * Creates a reader that will read from the remaining bytes of the given buffer, using UTF-8 as the encoding. The
+     * position of the buffer isn't modified, so the same buffer can be read multiple times.
+     *
+     * @param buffer the buffer containing the document, for example a memory mapped file
+     */
+    public JsonReader(ByteBuffer buffer) {
+        init(new ByteBufferReader(buffer.duplicate()));
+    }
+
     private void init(Reader reader) {
-        parser = Json.createParser(reader);
+        parser = JsonFactories.getParserFactory().createParser(reader);
     }
 
     /**
@@ -129,6 +161,21 @@ public class JsonReader implements AutoCloseable {
         }
     }
 
+    /**
+     * Skips the next value, which can be a simple value, an object or an array. This is intended for skipping the
+     * value of a member that isn't known, after reading its name.
+     */
+    public void skipValue() {
+        switch (parser.next()) {
+        case START_ARRAY:
+        case START_OBJECT:
+            skip();
+            break;
+        default:
+            break;
+        }
+    }
+
     /**
      * Reads a boolean value from the JSON parser.
      */
@@ -157,6 +204,34 @@ public class JsonReader implements AutoCloseable {
         }
     }
 
+    /**
+     * Reads a number from the JSON parser and returns its text, without converting it.
+     */
+    public String readNumber() {
+        JsonParser.Event event = parser.next();
+        switch (event) {
+        case VALUE_NUMBER:
+            return parser.getString();
+        default:
+            throw new JsonException("Expected integer value");
+        }
+    }
+
+    /**
+     * Converts the text of a number returned by the {@link #readNumber()} method to an integer, discarding the
+     * fractional part if there is any, like the {@link #readInteger()} method does.
+     *
+     * @param image the text of the number
+     */
+    public BigInteger parseInteger(String image) {
+        try {
+            return new BigDecimal(image).toBigInteger();
+        }
+        catch (NumberFormatException exception) {
+            throw new JsonException("The text \"" + image + "\" isn't a valid integer value");
+        }
+    }
+
     /**
      * Reads a decimal value from the JSON parser.
      */
@@ -192,9 +267,9 @@ public class JsonReader implements AutoCloseable {
             case VALUE_STRING:
                 String image = parser.getString();
                 try {
-                    return DATE_FORMAT.get().parse(image);
+                    return DateCodec.parseDate(image);
                 }
-                catch (ParseException exception) {
+                catch (IllegalArgumentException exception) {
                     throw new JsonException("The text \"" + image + "\" isn't a valid date", exception);
                 }
             default:
@@ -287,11 +362,12 @@ public class JsonReader implements AutoCloseable {
                 case VALUE_STRING:
                     String image = parser.getString();
                     try {
-                        list.add(DATE_FORMAT.get().parse(image));
+                        list.add(DateCodec.parseDate(image));
                     }
-                    catch (ParseException exception) {
+                    catch (IllegalArgumentException exception) {
                         throw new JsonException("The text \"" + image + "\" isn't a valid date", exception);
                     }
+                    break;
                 case END_ARRAY:
                     listEnd = true;
                     break;
@@ -325,6 +401,30 @@ public class JsonReader implements AutoCloseable {
         return list;
     }
 
+    /**
+     * Returns a lazy stream of the objects returned by the given iterator function, for example
+     * {@code VmReader::iterateMany}. The objects are read one by one as the stream is consumed, so that large lists
+     * can be processed without loading all the objects in memory. The stream takes ownership of this reader, and
+     * will close it when the stream is closed, so it should be used inside a {@code try} with resources block.
+     *
+     * @param function the function that creates the iterator that reads the objects from this reader
+     */
+    public <T> Stream<T> stream(Function<JsonReader, Iterator<T>> function) {
+        Iterator<T> iterator;
+        try {
+            iterator = function.apply(this);
+        }
+        catch (RuntimeException exception) {
+            close();
+            throw exception;
+        }
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(
+            iterator,
+            Spliterator.ORDERED | Spliterator.NONNULL
+        );
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
     /**
      * Closes the JSON document and the underlying source.
      */
@@ -14,17 +14,14 @@ import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
-import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.TimeZone;
-import javax.json.Json;
 import javax.json.JsonException;
 import javax.json.stream.JsonGenerator;
 import javax.json.stream.JsonGeneratorFactory;
 
+import org.ovirt.api.metamodel.runtime.util.DateCodec;
+
 /**
  * This class wraps the {@link JsonGenerator} class so that the methods don't send checked exceptions, in order to
  * simplify its usage together with streams and lambdas.
@@ -33,18 +30,6 @@ public class JsonWriter implements AutoCloseable {
     // The wrapped JSON generator:
     private JsonGenerator generator;
 
-    /**
-     * Thread local used to store the date formats.
-     */
-    private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT = new ThreadLocal<SimpleDateFormat>(){
-        @Override
-        protected SimpleDateFormat initialValue() {
-            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
-            format.setTimeZone(TimeZone.getTimeZone("UTC"));
-            return format;
-        }
-    };
-
     /**
      * Creates a JSON writer that will write to the given stream, using UTF-8 as the encoding.
      *
@@ -66,6 +51,17 @@ public class JsonWriter implements AutoCloseable {
         init(writer, indent);
     }
 
+    /**
+     * Creates a JSON writer that will write to the given writer, using the given factory instead of the shared one.
+     * The indentation of the output is determined by the configuration of the factory.
+     *
+     * @param writer the writer where the document will be written
+     * @param factory the factory used to create the underlying JSON generator
+     */
+    public JsonWriter(Writer writer, JsonGeneratorFactory factory) {
+        generator = factory.createGenerator(writer);
+    }
+
     /**
      * Creates a writer that will write to the given file, using UTF-8 as the encoding.
      *
@@ -84,12 +80,7 @@ public class JsonWriter implements AutoCloseable {
     }
 
     private void init(Writer writer, boolean indent) {
-        Map<String, Object> configuration = new HashMap<>();
-        if (indent) {
-            configuration.put(JsonGenerator.PRETTY_PRINTING, Boolean.TRUE);
-        }
-        JsonGeneratorFactory factory = Json.createGeneratorFactory(configuration);
-        generator = factory.createGenerator(writer);
+        generator = JsonFactories.getGeneratorFactory(indent).createGenerator(writer);
     }
 
     /**
@@ -161,6 +152,17 @@ public class JsonWriter implements AutoCloseable {
         generator.write(name, value);
     }
 
+    /**
+     * Writes an integer name and value pair, for a value that fits in a {@code long}, without converting it to a
+     * {@code BigInteger}.
+     *
+     * @param name the name
+     * @param value the value
+     */
+    public void writeInteger(String name, long value) {
+        generator.write(name, value);
+    }
+
     /**
      * Writes a decimal name and value pair.
      *
@@ -175,7 +177,7 @@ public class JsonWriter implements AutoCloseable {
      * Writes a date.
      */
     public void writeDate(String name, Date value) {
-        generator.write(name, DATE_FORMAT.get().format(value));
+        generator.write(name, DateCodec.format(value));
     }
 
     /**
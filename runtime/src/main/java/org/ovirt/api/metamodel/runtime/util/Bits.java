@@ -0,0 +1,79 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.runtime.util;
+
+/**
+ * This class contains methods to work with sets of bits stored in arrays of {@code long} values, where bit {@code i}
+ * is bit {@code i % 64} of element {@code i / 64}. The generated containers use them to track which members are
+ * present, and the generated writers use them to visit only those members. Unlike {@link java.util.BitSet} the array
+ * doesn't grow, and it can be shared without wrapping it in an object.
+ */
+public class Bits {
+    private Bits() {
+        // No instances allowed.
+    }
+
+    /**
+     * Returns the number of {@code long} values needed to store the given number of bits.
+     *
+     * @param size the number of bits
+     */
+    public static int words(int size) {
+        return (size + Long.SIZE - 1) >>> 6;
+    }
+
+    /**
+     * Checks if the given bit is set. Bits beyond the end of the array are considered not set.
+     *
+     * @param bits the array containing the bits
+     * @param index the index of the bit
+     */
+    public static boolean isSet(long[] bits, int index) {
+        int word = index >>> 6;
+        return word < bits.length && (bits[word] & (1L << index)) != 0;
+    }
+
+    /**
+     * Sets the given bit.
+     *
+     * @param bits the array containing the bits
+     * @param index the index of the bit
+     */
+    public static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    /**
+     * Clears the given bit.
+     *
+     * @param bits the array containing the bits
+     * @param index the index of the bit
+     */
+    public static void clear(long[] bits, int index) {
+        bits[index >>> 6] &= ~(1L << index);
+    }
+
+    /**
+     * Returns the index of the first bit that is set starting at the given index, or -1 if there is no such bit.
+     *
+     * @param bits the array containing the bits
+     * @param from the index where the search starts, inclusive
+     */
+    public static int next(long[] bits, int from) {
+        int word = from >>> 6;
+        if (word >= bits.length) {
+            return -1;
+        }
+        long value = bits[word] & (-1L << from);
+        while (value == 0) {
+            if (++word == bits.length) {
+                return -1;
+            }
+            value = bits[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(value);
+    }
+}
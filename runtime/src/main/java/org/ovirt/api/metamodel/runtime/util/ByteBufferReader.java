@@ -0,0 +1,179 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.runtime.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * This class reads characters from a buffer containing text encoded using UTF-8, usually a memory mapped file. The
+ * characters are decoded directly into the array given by the caller, without the intermediate stream and buffers
+ * used by {@link java.io.InputStreamReader}. The UTF-8 decoder is much faster when the bytes are in an array, so
+ * when the buffer isn't backed by an array, like memory mapped buffers, the bytes are first copied in large chunks
+ * to an array. Malformed input is replaced with the replacement character, like the
+ * {@link java.io.InputStreamReader} class does.
+ *
+ * Instances of this class aren't thread safe.
+ */
+public class ByteBufferReader extends Reader {
+    // The size of the chunks copied from buffers that aren't backed by an array:
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    // The buffer containing the bytes, will be null once the reader is closed:
+    private ByteBuffer buffer;
+
+    // The buffer that is passed to the decoder, the same than the source buffer if it is backed by an array, or a
+    // chunk containing a copy of part of it otherwise:
+    private ByteBuffer input;
+
+    // The decoder, and a flag indicating if it has already been flushed, which means that all the characters have
+    // been returned:
+    private final CharsetDecoder decoder;
+    private boolean flushed;
+
+    // A supplementary character needs two chars, so when the caller asks for only one this buffer keeps the second:
+    private final CharBuffer pending;
+
+    /**
+     * Creates a reader that will decode the remaining bytes of the given buffer. The position of the buffer will be
+     * advanced as the characters are read.
+     *
+     * @param buffer the buffer containing the text encoded using UTF-8
+     */
+    public ByteBufferReader(ByteBuffer buffer) {
+        this.buffer = Objects.requireNonNull(buffer);
+        if (buffer.hasArray()) {
+            input = buffer;
+        }
+        else {
+            input = ByteBuffer.allocate(CHUNK_SIZE);
+            input.flip();
+        }
+        decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        pending = CharBuffer.allocate(2);
+        pending.flip();
+    }
+
+    /**
+     * Opens a reader for the given file, mapping it into memory. Files larger than the maximum size of a buffer are
+     * read using a regular buffered reader instead.
+     *
+     * @param path the path of the file, that should contain text encoded using UTF-8
+     * @throws IOException if the file can't be opened or mapped
+     */
+    public static Reader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                return Files.newBufferedReader(path, StandardCharsets.UTF_8);
+            }
+            // The mapping stays valid after closing the channel, so no file descriptor is kept open:
+            return new ByteBufferReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    @Override
+    public int read(char[] chars, int offset, int length) throws IOException {
+        ensureOpen();
+        Objects.checkFromIndexSize(offset, length, chars.length);
+        if (length == 0) {
+            return 0;
+        }
+
+        // Return first the characters that were left pending by the previous call:
+        int count = 0;
+        while (pending.hasRemaining() && count < length) {
+            chars[offset + count++] = pending.get();
+        }
+        if (count == length) {
+            return count;
+        }
+
+        // Decode directly into the array of the caller:
+        CharBuffer out = CharBuffer.wrap(chars, offset + count, length - count);
+        decode(out);
+        count = out.position() - offset;
+
+        // If nothing was decoded, but there is more input, it means that the next character is a supplementary one
+        // that doesn't fit in the space given by the caller, so decode it into the pending buffer:
+        if (count == 0 && !flushed) {
+            pending.clear();
+            decode(pending);
+            pending.flip();
+            if (pending.hasRemaining()) {
+                chars[offset] = pending.get();
+                count = 1;
+            }
+        }
+        return count == 0 ? -1 : count;
+    }
+
+    private void decode(CharBuffer out) {
+        while (!flushed) {
+            boolean endOfInput = fill();
+            CoderResult result = decoder.decode(input, out, endOfInput);
+            if (result.isOverflow()) {
+                return;
+            }
+            if (endOfInput) {
+                if (decoder.flush(out).isUnderflow()) {
+                    flushed = true;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Copies the next chunk of bytes to the input buffer, if needed. Returns {@code true} if the input buffer
+     * contains all the remaining bytes.
+     */
+    private boolean fill() {
+        if (input == buffer) {
+            return true;
+        }
+        int count = Math.min(input.capacity() - input.remaining(), buffer.remaining());
+        if (count > 0) {
+            input.compact();
+            int limit = buffer.limit();
+            buffer.limit(buffer.position() + count);
+            input.put(buffer);
+            buffer.limit(limit);
+            input.flip();
+        }
+        return !buffer.hasRemaining();
+    }
+
+    @Override
+    public boolean ready() throws IOException {
+        ensureOpen();
+        return pending.hasRemaining() || input.hasRemaining() || buffer.hasRemaining();
+    }
+
+    @Override
+    public void close() {
+        buffer = null;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("The reader is closed");
+        }
+    }
+}
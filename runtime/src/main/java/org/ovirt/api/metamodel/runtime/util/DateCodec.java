@@ -0,0 +1,283 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.runtime.util;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+
+/**
+ * This class converts dates to and from the {@code yyyy-MM-dd'T'HH:mm:ss.SSSXXX} format used by the XML and JSON
+ * readers and writers. It replaces the per thread {@code SimpleDateFormat} objects that were used before: parsing
+ * and formatting are done by hand, without creating intermediate objects, and the class doesn't have any state, so
+ * it can be used from any thread, including virtual threads.
+ *
+ * When parsing, the fraction of the second is optional and can have any number of digits, only the first three are
+ * used. The offset is mandatory, and can be {@code Z}, {@code +HH}, {@code +HHMM} or {@code +HH:MM}. When formatting,
+ * the date is always written in UTC, with milliseconds, and with {@code Z} as the offset, for example
+ * {@code 2016-01-17T16:18:23.123Z}.
+ *
+ * Years outside of the {@code 0000} to {@code 9999} range are handled using the {@code java.time} classes, which are
+ * slower but support the extended year syntax of ISO 8601. Dates are always converted using the proleptic Gregorian
+ * calendar.
+ */
+public class DateCodec {
+    /**
+     * The maximum number of characters that the {@link #format(long, char[], int)} method writes.
+     */
+    public static final int MAX_LENGTH = 32;
+
+    // Number of milliseconds in a day:
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    // Formatter used for dates that don't have a four digits year:
+    private static final DateTimeFormatter EXTENDED_FORMATTER =
+        DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSXXX").withZone(ZoneOffset.UTC);
+
+    private DateCodec() {
+        // No instances allowed.
+    }
+
+    /**
+     * Parses the given text and returns the number of milliseconds since the epoch.
+     *
+     * @param image the text to parse
+     * @return the number of milliseconds since {@code 1970-01-01T00:00:00Z}
+     * @throws IllegalArgumentException if the text isn't a valid date
+     */
+    public static long parse(CharSequence image) {
+        int length = image.length();
+        if (length > 4 && isDigit(image.charAt(0)) && image.charAt(4) == '-') {
+            return parseBasic(image, length);
+        }
+        return parseExtended(image);
+    }
+
+    /**
+     * Parses the given text and returns the corresponding date object.
+     *
+     * @param image the text to parse
+     * @throws IllegalArgumentException if the text isn't a valid date
+     */
+    public static Date parseDate(CharSequence image) {
+        return new Date(parse(image));
+    }
+
+    /**
+     * Formats the given date into a new string.
+     *
+     * @param date the date to format
+     */
+    public static String format(Date date) {
+        char[] buffer = new char[MAX_LENGTH];
+        int length = format(date.getTime(), buffer, 0);
+        return new String(buffer, 0, length);
+    }
+
+    /**
+     * Formats the given number of milliseconds since the epoch into the given buffer. The buffer must have at least
+     * {@link #MAX_LENGTH} characters available starting at the given offset.
+     *
+     * @param millis the number of milliseconds since {@code 1970-01-01T00:00:00Z}
+     * @param buffer the buffer where the characters will be written
+     * @param offset the position of the buffer where the first character will be written
+     * @return the number of characters written
+     */
+    public static int format(long millis, char[] buffer, int offset) {
+        long epochDay = Math.floorDiv(millis, MILLIS_PER_DAY);
+        int millisOfDay = (int) Math.floorMod(millis, MILLIS_PER_DAY);
+
+        // Convert the day to year, month and day of month, see the civil_from_days algorithm described here
+        // http://howardhinnant.github.io/date_algorithms.html:
+        long z = epochDay + 719_468;
+        long era = (z >= 0 ? z : z - 146_096) / 146_097;
+        long doe = z - era * 146_097;
+        long yoe = (doe - doe / 1460 + doe / 36_524 - doe / 146_096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        int day = (int) (doy - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+        if (year < 0 || year > 9999) {
+            String text = EXTENDED_FORMATTER.format(Instant.ofEpochMilli(millis));
+            text.getChars(0, text.length(), buffer, offset);
+            return text.length();
+        }
+
+        int i = offset;
+        i = putDigits(buffer, i, (int) year, 4);
+        buffer[i++] = '-';
+        i = putDigits(buffer, i, month, 2);
+        buffer[i++] = '-';
+        i = putDigits(buffer, i, day, 2);
+        buffer[i++] = 'T';
+        i = putDigits(buffer, i, millisOfDay / 3_600_000, 2);
+        buffer[i++] = ':';
+        i = putDigits(buffer, i, millisOfDay / 60_000 % 60, 2);
+        buffer[i++] = ':';
+        i = putDigits(buffer, i, millisOfDay / 1000 % 60, 2);
+        buffer[i++] = '.';
+        i = putDigits(buffer, i, millisOfDay % 1000, 3);
+        buffer[i++] = 'Z';
+        return i - offset;
+    }
+
+    private static long parseBasic(CharSequence image, int length) {
+        if (length < 20) {
+            throw invalid(image);
+        }
+        int year = getDigits(image, 0, 4);
+        expect(image, 4, '-');
+        int month = getDigits(image, 5, 2);
+        expect(image, 7, '-');
+        int day = getDigits(image, 8, 2);
+        expect(image, 10, 'T');
+        int hour = getDigits(image, 11, 2);
+        expect(image, 13, ':');
+        int minute = getDigits(image, 14, 2);
+        expect(image, 16, ':');
+        int second = getDigits(image, 17, 2);
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month) || hour > 23 || minute > 59 ||
+            second > 59) {
+            throw invalid(image);
+        }
+
+        // Optional fraction of second, only the first three digits are significant:
+        int i = 19;
+        int millis = 0;
+        if (image.charAt(i) == '.') {
+            i++;
+            int start = i;
+            while (i < length && isDigit(image.charAt(i))) {
+                if (i - start < 3) {
+                    millis = millis * 10 + (image.charAt(i) - '0');
+                }
+                i++;
+            }
+            int count = i - start;
+            if (count == 0) {
+                throw invalid(image);
+            }
+            for (; count < 3; count++) {
+                millis *= 10;
+            }
+        }
+
+        // Mandatory offset:
+        if (i >= length) {
+            throw invalid(image);
+        }
+        int offset;
+        char sign = image.charAt(i++);
+        if (sign == 'Z' || sign == 'z') {
+            offset = 0;
+        }
+        else if (sign == '+' || sign == '-') {
+            int offsetHours = getDigits(image, i, 2);
+            int offsetMinutes = 0;
+            i += 2;
+            if (i < length) {
+                if (image.charAt(i) == ':') {
+                    i++;
+                }
+                offsetMinutes = getDigits(image, i, 2);
+                i += 2;
+            }
+            if (offsetHours > 18 || offsetMinutes > 59) {
+                throw invalid(image);
+            }
+            offset = offsetHours * 3600 + offsetMinutes * 60;
+            if (sign == '-') {
+                offset = -offset;
+            }
+        }
+        else {
+            throw invalid(image);
+        }
+        if (i != length) {
+            throw invalid(image);
+        }
+
+        long seconds = daysFromCivil(year, month, day) * 86_400 + hour * 3600 + minute * 60 + second - offset;
+        return seconds * 1000 + millis;
+    }
+
+    private static long parseExtended(CharSequence image) {
+        try {
+            return OffsetDateTime.parse(image, DateTimeFormatter.ISO_OFFSET_DATE_TIME).toInstant().toEpochMilli();
+        }
+        catch (DateTimeParseException exception) {
+            throw invalid(image);
+        }
+    }
+
+    /**
+     * Calculates the number of days since the epoch, see the days_from_civil algorithm described here
+     * http://howardhinnant.github.io/date_algorithms.html.
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yoe = y - era * 400;
+        int doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146_097L + doe - 719_468;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static int getDigits(CharSequence image, int start, int count) {
+        if (start + count > image.length()) {
+            throw invalid(image);
+        }
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = image.charAt(i);
+            if (!isDigit(c)) {
+                throw invalid(image);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int putDigits(char[] buffer, int offset, int value, int count) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + count;
+    }
+
+    private static void expect(CharSequence image, int index, char expected) {
+        if (image.charAt(index) != expected) {
+            throw invalid(image);
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static IllegalArgumentException invalid(CharSequence image) {
+        return new IllegalArgumentException("The text \"" + image + "\" isn't a valid date");
+    }
+}
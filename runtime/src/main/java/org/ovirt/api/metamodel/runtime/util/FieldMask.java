@@ -0,0 +1,131 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.runtime.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This class describes the subset of the members of an object that should be read by the generated XML and JSON
+ * readers. It is built from a list of paths, for example {@code name}, {@code cluster.id} or {@code disks.id}, where
+ * each segment is the name of a member as it appears in the XML or JSON document. When a path ends in a member that
+ * is an object, or a list of objects, all the members of those objects are included. Members that aren't included
+ * are skipped by the readers without creating any objects.
+ *
+ * Masks are immutable, so they can be built once and then used by multiple threads.
+ */
+public class FieldMask {
+    /**
+     * The mask that includes all the members.
+     */
+    public static final FieldMask ALL = new FieldMask(null);
+
+    // The masks for the included members, indexed by name, or null if all the members are included:
+    private final Map<String, FieldMask> children;
+
+    private FieldMask(Map<String, FieldMask> children) {
+        this.children = children;
+    }
+
+    /**
+     * Creates a mask that includes only the members indicated by the given paths.
+     *
+     * @param paths the paths of the members to include, using dots to separate the segments
+     * @throws IllegalArgumentException if any of the paths is empty or contains empty segments
+     */
+    public static FieldMask of(String... paths) {
+        Map<String, Object> tree = new TreeMap<>();
+        for (String path : paths) {
+            if (path == null || path.isEmpty()) {
+                throw new IllegalArgumentException("The path can't be empty");
+            }
+            Map<String, Object> node = tree;
+            String[] segments = path.split("\\.", -1);
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (segment.isEmpty()) {
+                    throw new IllegalArgumentException("The path \"" + path + "\" contains empty segments");
+                }
+                boolean last = i == segments.length - 1;
+                Object value = node.get(segment);
+                if (last || value == ALL) {
+                    // The member is included completely, so there is no need to look at more segments, and the
+                    // segments of other paths that go inside this member don't matter:
+                    node.put(segment, ALL);
+                    break;
+                }
+                if (value == null) {
+                    value = new TreeMap<String, Object>();
+                    node.put(segment, value);
+                }
+                @SuppressWarnings("unchecked")
+                Map<String, Object> next = (Map<String, Object>) value;
+                node = next;
+            }
+        }
+        return build(tree);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static FieldMask build(Map<String, Object> tree) {
+        Map<String, FieldMask> children = new HashMap<>();
+        tree.forEach((name, value) -> {
+            FieldMask child = value == ALL ? ALL : build((Map<String, Object>) value);
+            children.put(name, child);
+        });
+        return new FieldMask(Collections.unmodifiableMap(children));
+    }
+
+    /**
+     * Checks if this mask includes all the members.
+     */
+    public boolean isAll() {
+        return children == null;
+    }
+
+    /**
+     * Checks if the member with the given name is included in this mask.
+     *
+     * @param name the name of the member, as it appears in the XML or JSON document
+     */
+    public boolean includes(String name) {
+        return children == null || children.containsKey(name);
+    }
+
+    /**
+     * Returns the mask that should be used to read the members of the given member. If the member isn't included in
+     * this mask the result is undefined, so {@link #includes(String)} should be checked first.
+     *
+     * @param name the name of the member, as it appears in the XML or JSON document
+     */
+    public FieldMask child(String name) {
+        if (children == null) {
+            return ALL;
+        }
+        FieldMask child = children.get(name);
+        return child != null ? child : ALL;
+    }
+
+    @Override
+    public String toString() {
+        if (children == null) {
+            return "*";
+        }
+        StringBuilder buffer = new StringBuilder();
+        new TreeMap<>(children).forEach((name, child) -> {
+            if (buffer.length() > 0) {
+                buffer.append(",");
+            }
+            buffer.append(name);
+            if (!child.isAll()) {
+                buffer.append("(").append(child).append(")");
+            }
+        });
+        return buffer.toString();
+    }
+}
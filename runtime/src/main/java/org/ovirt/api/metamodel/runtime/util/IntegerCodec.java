@@ -0,0 +1,74 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.runtime.util;
+
+/**
+ * This class contains methods used by the readers generated in compact integers mode, to decide if the text of an
+ * integer can be stored in a primitive {@code long} or needs a {@link java.math.BigInteger}. The check doesn't create
+ * any object, so values that fit, which are almost all of them, can be parsed with {@link Long#parseLong(String)}
+ * without paying for the conversion to and from {@code BigInteger}.
+ */
+public class IntegerCodec {
+    // The digits of the largest positive and negative values of a long, without the sign:
+    private static final String MAX_DIGITS = "9223372036854775807";
+    private static final String MIN_DIGITS = "9223372036854775808";
+
+    private IntegerCodec() {
+        // No instances allowed.
+    }
+
+    /**
+     * Checks if the given text is an integer, with an optional sign and only ASCII digits, whose value fits in a
+     * {@code long}. If this returns {@code true} the text can be parsed with {@link Long#parseLong(String)}. If it
+     * returns {@code false} the text may still be a valid integer, but it has to be parsed as a
+     * {@code BigInteger}.
+     *
+     * @param image the text to check
+     * @return {@code true} if the text can be parsed as a {@code long}, {@code false} otherwise
+     */
+    public static boolean isLong(CharSequence image) {
+        int length = image.length();
+        int start = 0;
+        boolean negative = false;
+        if (length > 0) {
+            char first = image.charAt(0);
+            if (first == '-' || first == '+') {
+                negative = first == '-';
+                start = 1;
+            }
+        }
+        int digits = length - start;
+        if (digits == 0) {
+            return false;
+        }
+        for (int i = start; i < length; i++) {
+            char c = image.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        if (digits < MAX_DIGITS.length()) {
+            return true;
+        }
+        // Leading zeros don't change the value, so skip them before comparing with the limit:
+        while (digits > 1 && image.charAt(start) == '0') {
+            start++;
+            digits--;
+        }
+        String limit = negative ? MIN_DIGITS : MAX_DIGITS;
+        if (digits != limit.length()) {
+            return digits < limit.length();
+        }
+        for (int i = 0; i < digits; i++) {
+            char c = image.charAt(start + i);
+            char l = limit.charAt(i);
+            if (c != l) {
+                return c < l;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.runtime.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class limits how often a message is written to the log. The generated enums use it when they receive invalid
+ * values, so that a client that sends many of them can't fill the log with repeated messages. The messages that
+ * aren't allowed are counted, so that the next message can report how many were suppressed.
+ *
+ * Instances of this class are thread safe.
+ */
+public class LogThrottle {
+    // The minimum time between messages, in nanoseconds:
+    private final long interval;
+
+    // The time, as returned by System.nanoTime(), when the next message will be allowed:
+    private final AtomicLong next;
+
+    // The number of messages suppressed since the last one that was allowed:
+    private final AtomicLong suppressed = new AtomicLong();
+
+    /**
+     * Creates a throttle that allows one message for each interval of the given duration. The first message is
+     * always allowed.
+     *
+     * @param duration the minimum time between messages
+     * @param unit the unit of the duration
+     */
+    public LogThrottle(long duration, TimeUnit unit) {
+        interval = unit.toNanos(duration);
+        next = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Checks if a message can be written now. If it can't, the message is counted as suppressed.
+     *
+     * @return {@code true} if the message can be written, {@code false} if it should be discarded
+     */
+    public boolean allow() {
+        long now = System.nanoTime();
+        long current = next.get();
+        if (now - current >= 0 && next.compareAndSet(current, now + interval)) {
+            return true;
+        }
+        suppressed.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Returns the number of messages suppressed since the last call to this method, and resets it to zero.
+     */
+    public long takeSuppressed() {
+        return suppressed.getAndSet(0);
+    }
+}
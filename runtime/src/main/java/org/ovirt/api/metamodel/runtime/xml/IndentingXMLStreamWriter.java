@@ -39,7 +39,7 @@
  */
 package org.ovirt.api.metamodel.runtime.xml;
 
-import java.util.Stack;
+import java.util.Arrays;
 
 import javax.xml.namespace.NamespaceContext;
 import javax.xml.stream.XMLStreamException;
@@ -53,17 +53,30 @@ import javax.xml.stream.XMLStreamWriter;
  */
 public class IndentingXMLStreamWriter implements XMLStreamWriter {
 
-    private final static Object SEEN_NOTHING = new Object();
-    private final static Object SEEN_ELEMENT = new Object();
-    private final static Object SEEN_DATA = new Object();
+    private final static byte SEEN_NOTHING = 0;
+    private final static byte SEEN_ELEMENT = 1;
+    private final static byte SEEN_DATA = 2;
 
-    private Object state = SEEN_NOTHING;
+    private static final String INDENT_STEP = "  ";
+
+    // Pre-computed new line and indentation for the most common depths, deeper levels are computed when needed:
+    private static final String[] INDENTS = new String[32];
+
+    static {
+        StringBuilder buffer = new StringBuilder("\n");
+        for (int i = 0; i < INDENTS.length; i++) {
+            INDENTS[i] = buffer.toString();
+            buffer.append(INDENT_STEP);
+        }
+    }
+
+    private byte state = SEEN_NOTHING;
 
     private final XMLStreamWriter writer;
 
-    private Stack<Object> stateStack = new Stack<Object>();
+    // The states of the elements that are currently open, used as a stack:
+    private byte[] stateStack = new byte[16];
 
-    private String indentStep = "  ";
     private int depth = 0;
 
     public IndentingXMLStreamWriter(XMLStreamWriter writer) {
@@ -101,29 +114,41 @@ public class IndentingXMLStreamWriter implements XMLStreamWriter {
     }
 
     private void onStartElement() throws XMLStreamException {
-        stateStack.push(SEEN_ELEMENT);
+        if (depth == stateStack.length) {
+            stateStack = Arrays.copyOf(stateStack, depth * 2);
+        }
+        stateStack[depth] = SEEN_ELEMENT;
         state = SEEN_NOTHING;
         if (depth > 0) {
-            writeCharacters("\n");
+            doIndent();
         }
-        doIndent();
         depth++;
     }
 
     private void onEndElement() throws XMLStreamException {
         depth--;
         if (state == SEEN_ELEMENT) {
-            writeCharacters("\n");
             doIndent();
         }
-        state = stateStack.pop();
+        state = stateStack[depth];
     }
 
+    /**
+     * Writes a new line followed by the indentation for the current depth, with one call to the underlying writer.
+     */
     private void doIndent() throws XMLStreamException {
-        if (depth > 0) {
-            for (int i = 0; i < depth; i++)
-                writeCharacters(indentStep);
+        writeCharacters(getIndent(depth));
+    }
+
+    private static String getIndent(int depth) {
+        if (depth < INDENTS.length) {
+            return INDENTS[depth];
+        }
+        StringBuilder buffer = new StringBuilder(INDENTS[INDENTS.length - 1]);
+        for (int i = INDENTS.length - 1; i < depth; i++) {
+            buffer.append(INDENT_STEP);
         }
+        return buffer.toString();
     }
 
     @Override
@@ -229,6 +254,7 @@ public class IndentingXMLStreamWriter implements XMLStreamWriter {
 
     @Override
     public void writeCharacters(char[] text, int start, int len) throws XMLStreamException {
+        state = SEEN_DATA;
         writer.writeCharacters(text, start, len);
     }
 
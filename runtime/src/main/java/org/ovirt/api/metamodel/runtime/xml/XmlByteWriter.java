@@ -0,0 +1,347 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.runtime.xml;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class writes XML documents directly as UTF-8 bytes to an output stream, without the validation, escaping and
+ * encoding layers of the StAX writers. Names of elements and attributes are written as they are, and only the text
+ * values are escaped. It is used by the {@link XmlWriter} class when it is created in direct mode, and produces the
+ * same output than the default StAX writer, including the indentation done by the
+ * {@link IndentingXMLStreamWriter} class.
+ */
+class XmlByteWriter {
+    // Size of the buffer, and the maximum number of bytes that writing one character can generate:
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_CHAR_SIZE = 6;
+
+    // Indentation states, the same used by the indenting StAX writer:
+    private static final byte SEEN_NOTHING = 0;
+    private static final byte SEEN_ELEMENT = 1;
+    private static final byte SEEN_DATA = 2;
+
+    // Escape sequences:
+    private static final byte[] LT = ascii("&lt;");
+    private static final byte[] GT = ascii("&gt;");
+    private static final byte[] AMP = ascii("&amp;");
+    private static final byte[] QUOT = ascii("&quot;");
+
+    // The stream where the bytes are written, and a flag indicating if it should be closed when this writer is
+    // closed:
+    private final OutputStream out;
+    private final boolean owned;
+
+    // The buffer where the bytes are accumulated before writing them to the stream:
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int count;
+
+    // The names of the elements that have been started and not yet ended, and a flag indicating if the last start
+    // tag is still open, waiting for attributes:
+    private byte[][] open = new byte[16][];
+    private int depth;
+    private boolean startOpen;
+
+    // Indentation state:
+    private final boolean indent;
+    private byte state = SEEN_NOTHING;
+    private byte[] states = new byte[16];
+    private int indentDepth;
+
+    // The prefixes associated to namespace URIs, created when the first one is associated:
+    private Map<String, String> prefixes;
+
+    XmlByteWriter(OutputStream out, boolean indent, boolean owned) {
+        this.out = out;
+        this.indent = indent;
+        this.owned = owned;
+    }
+
+    void writeStartDocument(String encoding, String version) {
+        closeStart();
+        writeAscii("<?xml version=\"");
+        writeText(version, true);
+        writeAscii("\" encoding=\"");
+        writeText(encoding, true);
+        writeAscii("\"?>");
+    }
+
+    void writeEndDocument() {
+        // Note that the indenting StAX writer doesn't indent the end tags written when the document ends:
+        while (depth > 0) {
+            writeEndTag();
+        }
+    }
+
+    void setPrefix(String prefix, String uri) {
+        if (prefixes == null) {
+            prefixes = new HashMap<>();
+        }
+        prefixes.put(uri, prefix);
+    }
+
+    void writeStartElement(String uri, String name) {
+        String prefix = prefixes != null ? prefixes.get(uri) : null;
+        if (prefix != null && !prefix.isEmpty()) {
+            name = prefix + ":" + name;
+        }
+        writeStartElement(name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    void writeStartElement(byte[] name) {
+        closeStart();
+        if (indent) {
+            onStartElement();
+        }
+        ensure(1);
+        buffer[count++] = '<';
+        writeName(name);
+        if (depth == open.length) {
+            open = Arrays.copyOf(open, depth * 2);
+        }
+        open[depth++] = name;
+        startOpen = true;
+    }
+
+    void writeEndElement() {
+        if (depth == 0) {
+            throw new XmlException("There is no element to end");
+        }
+        if (indent) {
+            onEndElement();
+        }
+        writeEndTag();
+    }
+
+    void writeAttribute(byte[] name, String value) {
+        if (!startOpen) {
+            throw new XmlException("Can't write an attribute outside of a start tag");
+        }
+        ensure(1);
+        buffer[count++] = ' ';
+        writeName(name);
+        ensure(2);
+        buffer[count++] = '=';
+        buffer[count++] = '"';
+        writeText(value, true);
+        ensure(1);
+        buffer[count++] = '"';
+    }
+
+    void writeCharacters(String text) {
+        closeStart();
+        state = SEEN_DATA;
+        writeText(text, false);
+    }
+
+    void writeCharacters(char[] text, int offset, int length) {
+        closeStart();
+        state = SEEN_DATA;
+        for (int i = offset; i < offset + length; i++) {
+            char c = text[i];
+            if (Character.isHighSurrogate(c) && i + 1 < offset + length && Character.isLowSurrogate(text[i + 1])) {
+                writeCodePoint(Character.toCodePoint(c, text[++i]));
+            }
+            else {
+                writeChar(c, false);
+            }
+        }
+    }
+
+    void flush() {
+        flushBuffer();
+        try {
+            out.flush();
+        }
+        catch (IOException exception) {
+            throw new XmlException("Can't flush", exception);
+        }
+    }
+
+    void close() {
+        writeEndDocument();
+        flush();
+        if (owned) {
+            try {
+                out.close();
+            }
+            catch (IOException exception) {
+                throw new XmlException("Can't close", exception);
+            }
+        }
+    }
+
+    private void onStartElement() {
+        if (indentDepth == states.length) {
+            states = Arrays.copyOf(states, indentDepth * 2);
+        }
+        states[indentDepth] = SEEN_ELEMENT;
+        state = SEEN_NOTHING;
+        if (indentDepth > 0) {
+            writeNewLine(indentDepth);
+        }
+        indentDepth++;
+    }
+
+    private void onEndElement() {
+        indentDepth--;
+        if (state == SEEN_ELEMENT) {
+            writeNewLine(indentDepth);
+        }
+        state = states[indentDepth];
+    }
+
+    private void writeNewLine(int level) {
+        closeStart();
+        ensure(1);
+        buffer[count++] = '\n';
+        for (int i = 0; i < level; i++) {
+            ensure(2);
+            buffer[count++] = ' ';
+            buffer[count++] = ' ';
+        }
+        state = SEEN_DATA;
+    }
+
+    private void writeEndTag() {
+        byte[] name = open[--depth];
+        open[depth] = null;
+        closeStart();
+        ensure(2);
+        buffer[count++] = '<';
+        buffer[count++] = '/';
+        writeName(name);
+        ensure(1);
+        buffer[count++] = '>';
+    }
+
+    private void closeStart() {
+        if (startOpen) {
+            ensure(1);
+            buffer[count++] = '>';
+            startOpen = false;
+        }
+    }
+
+    private void writeText(String text, boolean attribute) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                writeCodePoint(Character.toCodePoint(c, text.charAt(++i)));
+            }
+            else {
+                writeChar(c, attribute);
+            }
+        }
+    }
+
+    private void writeChar(char c, boolean attribute) {
+        if (count + MAX_CHAR_SIZE > buffer.length) {
+            flushBuffer();
+        }
+        if (c < 0x80) {
+            switch (c) {
+            case '<':
+                writeBytes(LT);
+                break;
+            case '>':
+                writeBytes(GT);
+                break;
+            case '&':
+                writeBytes(AMP);
+                break;
+            case '"':
+                if (attribute) {
+                    writeBytes(QUOT);
+                }
+                else {
+                    buffer[count++] = (byte) c;
+                }
+                break;
+            default:
+                buffer[count++] = (byte) c;
+            }
+        }
+        else if (c < 0x800) {
+            buffer[count++] = (byte) (0xc0 | (c >> 6));
+            buffer[count++] = (byte) (0x80 | (c & 0x3f));
+        }
+        else if (Character.isSurrogate(c)) {
+            // Unpaired surrogates can't be encoded in UTF-8, so they are written as character references, like the
+            // StAX writer does:
+            writeCodePoint(c);
+        }
+        else {
+            buffer[count++] = (byte) (0xe0 | (c >> 12));
+            buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+            buffer[count++] = (byte) (0x80 | (c & 0x3f));
+        }
+    }
+
+    private void writeCodePoint(int c) {
+        // Supplementary characters are written as character references, like the StAX writer does:
+        writeAscii("&#x");
+        writeAscii(Integer.toHexString(c));
+        writeAscii(";");
+    }
+
+    private void writeAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            ensure(1);
+            buffer[count++] = (byte) text.charAt(i);
+        }
+    }
+
+    private void writeName(byte[] name) {
+        if (count + name.length > buffer.length) {
+            flushBuffer();
+            if (name.length > buffer.length) {
+                try {
+                    out.write(name);
+                }
+                catch (IOException exception) {
+                    throw new XmlException("Can't write", exception);
+                }
+                return;
+            }
+        }
+        System.arraycopy(name, 0, buffer, count, name.length);
+        count += name.length;
+    }
+
+    private void writeBytes(byte[] bytes) {
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+    }
+
+    private void ensure(int size) {
+        if (count + size > buffer.length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() {
+        if (count > 0) {
+            try {
+                out.write(buffer, 0, count);
+            }
+            catch (IOException exception) {
+                throw new XmlException("Can't write", exception);
+            }
+            count = 0;
+        }
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
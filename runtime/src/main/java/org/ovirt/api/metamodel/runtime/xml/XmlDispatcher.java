@@ -0,0 +1,58 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.runtime.xml;
+
+import java.util.Iterator;
+import java.util.function.Function;
+
+/**
+ * This interface is implemented by a class generated for each model, and is used by the {@link XmlReader#read()}
+ * method to select the reader for a document based on the tag name of its root element. For example, for the
+ * {@code vm} tag it will call the {@code VmReader.readOne} method, and for the {@code vms} tag it will call the
+ * {@code VmReader.readMany} method. The name of the generated class is stored in the
+ * {@link XmlReader#DISPATCHER_FILE} resource.
+ */
+public interface XmlDispatcher {
+    /**
+     * Returns a reference to the reader corresponding to the given tag. Implementations shouldn't load the class of the reader until
+     * this method is called for one of its tags, so that applications that only read a few types don't need to load
+     * all the readers.
+     *
+     * @param tag the name of the root element of the document
+     * @return the function that reads the object, or {@code null} if there is no reader for the given tag
+     */
+    Function<XmlReader, ?> lookup(String tag);
+
+    /**
+     * Returns the function that iterates the objects of the list corresponding to the given tag. For example, for the
+     * {@code vms} tag it will return a reference to the {@code VmReader.iterateMany} method. This is used by the
+     * {@link XmlReader#stream(Class)} method to read lists without loading all the objects in memory.
+     *
+     * @param tag the name of the root element of the document
+     * @return the function that creates the iterator, or {@code null} if the tag doesn't correspond to a list
+     */
+    default Function<XmlReader, Iterator<?>> lookupIterator(String tag) {
+        return null;
+    }
+
+    /**
+     * Reads the object corresponding to the given tag, assuming that the reader is positioned at the start element.
+     * Generated implementations override this method to call the reader directly, without going through the
+     * function returned by {@link #lookup(String)}.
+     *
+     * @param tag the name of the root element of the document
+     * @param reader the reader positioned at the start of the root element
+     * @return the object read
+     * @throws XmlException if there is no reader for the given tag
+     */
+    default Object read(String tag, XmlReader reader) {
+        Function<XmlReader, ?> function = lookup(tag);
+        if (function == null) {
+            throw new XmlException(String.format("Can't find a reader for tag '%s'", tag));
+        }
+        return function.apply(reader);
+    }
+}
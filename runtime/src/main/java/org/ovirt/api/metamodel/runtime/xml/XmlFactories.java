@@ -0,0 +1,143 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.runtime.xml;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+
+/**
+ * This class keeps the StAX factories used by the XML readers and writers. Creating a factory requires a lookup of
+ * the StAX implementation, which is expensive compared to parsing or generating a small document, so the factories
+ * are created once for each set of configuration properties and then reused. A configured factory can be used
+ * from multiple threads to create readers and writers, but it must not be reconfigured once it has been handed to
+ * this class.
+ */
+public class XmlFactories {
+    // The factories that have already been created, indexed by the configuration properties:
+    private static final Map<Map<String, Object>, XMLInputFactory> inputFactories = new ConcurrentHashMap<>();
+    private static final Map<Map<String, Object>, XMLOutputFactory> outputFactories = new ConcurrentHashMap<>();
+
+    private XmlFactories() {
+        // No instances allowed.
+    }
+
+    /**
+     * Returns the input factory used when no configuration properties are given.
+     */
+    public static XMLInputFactory getInputFactory() {
+        return getInputFactory(Collections.emptyMap());
+    }
+
+    /**
+     * Returns an input factory configured with the given properties, for example
+     * {@link XMLInputFactory#IS_COALESCING} or {@link XMLInputFactory#IS_NAMESPACE_AWARE}. The factory is created
+     * the first time that a set of properties is requested, and reused after that.
+     *
+     * @param properties the configuration properties of the factory
+     */
+    public static XMLInputFactory getInputFactory(Map<String, Object> properties) {
+        XMLInputFactory factory = inputFactories.get(properties);
+        if (factory == null) {
+            factory = inputFactories.computeIfAbsent(copy(properties), XmlFactories::createInputFactory);
+        }
+        return factory;
+    }
+
+    /**
+     * Replaces the input factory used when no configuration properties are given. This is intended for applications
+     * that want to use a specific StAX implementation, or that need to configure it in ways not supported by
+     * plain properties.
+     *
+     * @param factory the pre-built factory, or {@code null} to go back to the default one
+     */
+    public static void setInputFactory(XMLInputFactory factory) {
+        setInputFactory(Collections.emptyMap(), factory);
+    }
+
+    /**
+     * Replaces the input factory used for the given set of configuration properties.
+     *
+     * @param properties the configuration properties that will select the factory
+     * @param factory the pre-built factory, or {@code null} to go back to a factory created on demand
+     */
+    public static void setInputFactory(Map<String, Object> properties, XMLInputFactory factory) {
+        if (factory != null) {
+            inputFactories.put(copy(properties), factory);
+        }
+        else {
+            inputFactories.remove(properties);
+        }
+    }
+
+    /**
+     * Returns the output factory used when no configuration properties are given.
+     */
+    public static XMLOutputFactory getOutputFactory() {
+        return getOutputFactory(Collections.emptyMap());
+    }
+
+    /**
+     * Returns an output factory configured with the given properties, for example
+     * {@link XMLOutputFactory#IS_REPAIRING_NAMESPACES}. The factory is created the first time that a set of
+     * properties is requested, and reused after that.
+     *
+     * @param properties the configuration properties of the factory
+     */
+    public static XMLOutputFactory getOutputFactory(Map<String, Object> properties) {
+        XMLOutputFactory factory = outputFactories.get(properties);
+        if (factory == null) {
+            factory = outputFactories.computeIfAbsent(copy(properties), XmlFactories::createOutputFactory);
+        }
+        return factory;
+    }
+
+    /**
+     * Replaces the output factory used when no configuration properties are given.
+     *
+     * @param factory the pre-built factory, or {@code null} to go back to the default one
+     */
+    public static void setOutputFactory(XMLOutputFactory factory) {
+        setOutputFactory(Collections.emptyMap(), factory);
+    }
+
+    /**
+     * Replaces the output factory used for the given set of configuration properties.
+     *
+     * @param properties the configuration properties that will select the factory
+     * @param factory the pre-built factory, or {@code null} to go back to a factory created on demand
+     */
+    public static void setOutputFactory(Map<String, Object> properties, XMLOutputFactory factory) {
+        if (factory != null) {
+            outputFactories.put(copy(properties), factory);
+        }
+        else {
+            outputFactories.remove(properties);
+        }
+    }
+
+    private static XMLInputFactory createInputFactory(Map<String, Object> properties) {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        properties.forEach(factory::setProperty);
+        return factory;
+    }
+
+    private static XMLOutputFactory createOutputFactory(Map<String, Object> properties) {
+        XMLOutputFactory factory = XMLOutputFactory.newFactory();
+        properties.forEach(factory::setProperty);
+        return factory;
+    }
+
+    private static Map<String, Object> copy(Map<String, Object> properties) {
+        if (properties.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return Collections.unmodifiableMap(new HashMap<>(properties));
+    }
+}
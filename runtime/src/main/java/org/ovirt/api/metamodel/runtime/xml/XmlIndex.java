@@ -0,0 +1,289 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.runtime.xml;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class records where an XML element and its direct children are located inside the text of a document, without
+ * decoding them. The generated views use it to decode each member only when it is requested, and to forward the
+ * element without writing it again.
+ *
+ * The text is never copied: the index of a child shares the text of the document, and only records different
+ * offsets. The children of an element are located when the index is created, scanning the text of the element once.
+ * Namespace declarations and entities defined in a document type declaration aren't preserved when a part of the
+ * element is decoded, as the documents used by the API don't use them.
+ *
+ * Instances of this class are immutable.
+ */
+public class XmlIndex {
+    // The text of the complete document:
+    private final String text;
+
+    // The offsets of the start of the element, the end of the start tag, and the end of the element:
+    private final int start;
+    private final int content;
+    private final int end;
+
+    // The qualified name of the element, and if it is written as an empty element tag:
+    private final String name;
+    private final boolean empty;
+
+    // The local names of the direct children, and their start and end offsets:
+    private String[] names = new String[8];
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private int count;
+
+    private XmlIndex(String text, int start) {
+        this.text = text;
+        this.start = start;
+        int position = start + 1;
+        while (position < text.length() && !isNameEnd(text.charAt(position))) {
+            position++;
+        }
+        name = text.substring(start + 1, position);
+        content = skipTag(position);
+        empty = text.charAt(content - 2) == '/';
+        end = empty? content: scanContent(content);
+    }
+
+    /**
+     * Creates the index of the root element of the given document.
+     *
+     * @param text the text of the document
+     * @throws XmlException if the document doesn't contain an element, or if the element isn't well formed
+     */
+    public static XmlIndex of(String text) {
+        int position = 0;
+        while (true) {
+            position = text.indexOf('<', position);
+            if (position < 0) {
+                throw new XmlException("The document doesn't contain any element");
+            }
+            if (text.startsWith("<?", position)) {
+                position = skipPast(text, "?>", position);
+            }
+            else if (text.startsWith("<!--", position)) {
+                position = skipPast(text, "-->", position);
+            }
+            else if (text.startsWith("<!", position)) {
+                position = skipDeclaration(text, position);
+            }
+            else {
+                return new XmlIndex(text, position);
+            }
+        }
+    }
+
+    /**
+     * Returns the local name of the element.
+     */
+    public String getName() {
+        int colon = name.indexOf(':');
+        return colon >= 0? name.substring(colon + 1): name;
+    }
+
+    /**
+     * Returns the index of the first direct child that has the given local name, or {@code null} if there is no
+     * such child.
+     */
+    public XmlIndex child(String name) {
+        for (int i = 0; i < count; i++) {
+            if (names[i].equals(name)) {
+                return new XmlIndex(text, starts[i]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a reader for a document that contains only the start tag of this element, with all its attributes, and
+     * the direct children that have the given local names. The reader is positioned at the beginning of that
+     * document, so it can be passed directly to the generated readers.
+     *
+     * @param tags the local names of the children that will be included
+     */
+    public XmlReader open(String... tags) {
+        List<String> included = Arrays.asList(tags);
+        StringBuilder buffer = new StringBuilder();
+        if (empty) {
+            buffer.append(text, start, content - 2).append('>');
+        }
+        else {
+            buffer.append(text, start, content);
+        }
+        for (int i = 0; i < count; i++) {
+            if (included.contains(names[i])) {
+                buffer.append(text, starts[i], ends[i]);
+            }
+        }
+        buffer.append("</").append(name).append('>');
+        return new XmlReader(new StringReader(buffer.toString()));
+    }
+
+    /**
+     * Returns the text of the element, including the start and end tags.
+     */
+    public String getText() {
+        return text.substring(start, end);
+    }
+
+    /**
+     * Writes the text of the element, including the start and end tags, without creating an intermediate string.
+     */
+    public void writeTo(Writer writer) throws IOException {
+        writer.write(text, start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return getText();
+    }
+
+    /**
+     * Scans the content of the element, starting right after the start tag, recording the direct children, and
+     * returns the offset right after the end tag.
+     */
+    private int scanContent(int position) {
+        while (true) {
+            position = text.indexOf('<', position);
+            if (position < 0) {
+                throw new XmlException("The element \"" + name + "\" isn't closed");
+            }
+            if (text.startsWith("</", position)) {
+                return skipTag(position);
+            }
+            if (text.startsWith("<!--", position)) {
+                position = skipPast(text, "-->", position);
+            }
+            else if (text.startsWith("<![CDATA[", position)) {
+                position = skipPast(text, "]]>", position);
+            }
+            else if (text.startsWith("<?", position)) {
+                position = skipPast(text, "?>", position);
+            }
+            else {
+                int child = position;
+                position = skipElement(position);
+                addChild(child, position);
+            }
+        }
+    }
+
+    /**
+     * Skips the element that starts at the given offset, including all its content, and returns the offset right
+     * after its end tag.
+     */
+    private int skipElement(int position) {
+        int depth = 0;
+        while (true) {
+            if (text.startsWith("</", position)) {
+                position = skipTag(position);
+                depth--;
+            }
+            else if (text.startsWith("<!--", position)) {
+                position = skipPast(text, "-->", position);
+            }
+            else if (text.startsWith("<![CDATA[", position)) {
+                position = skipPast(text, "]]>", position);
+            }
+            else if (text.startsWith("<?", position)) {
+                position = skipPast(text, "?>", position);
+            }
+            else {
+                position = skipTag(position);
+                if (text.charAt(position - 2) != '/') {
+                    depth++;
+                }
+            }
+            if (depth == 0) {
+                return position;
+            }
+            position = text.indexOf('<', position);
+            if (position < 0) {
+                throw new XmlException("The element \"" + name + "\" isn't closed");
+            }
+        }
+    }
+
+    /**
+     * Skips a tag, taking into account that the values of the attributes may contain the {@code >} character, and
+     * returns the offset right after the tag.
+     */
+    private int skipTag(int position) {
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if (c == '>') {
+                return position + 1;
+            }
+            if (c == '"' || c == '\'') {
+                int close = text.indexOf(c, position + 1);
+                if (close < 0) {
+                    break;
+                }
+                position = close;
+            }
+            position++;
+        }
+        throw new XmlException("A tag inside element \"" + name + "\" isn't closed");
+    }
+
+    private void addChild(int start, int end) {
+        if (count == starts.length) {
+            names = Arrays.copyOf(names, count * 2);
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+        }
+        int position = start + 1;
+        int colon = -1;
+        while (!isNameEnd(text.charAt(position))) {
+            if (text.charAt(position) == ':') {
+                colon = position;
+            }
+            position++;
+        }
+        names[count] = text.substring(colon >= 0? colon + 1: start + 1, position);
+        starts[count] = start;
+        ends[count] = end;
+        count++;
+    }
+
+    private static int skipPast(String text, String terminator, int position) {
+        int found = text.indexOf(terminator, position);
+        if (found < 0) {
+            throw new XmlException("Can't find the end \"" + terminator + "\" of the markup");
+        }
+        return found + terminator.length();
+    }
+
+    private static int skipDeclaration(String text, int position) {
+        // The document type declaration may contain an internal subset enclosed in brackets, and it may contain the
+        // > character:
+        int depth = 0;
+        for (int i = position; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '[') {
+                depth++;
+            }
+            else if (c == ']') {
+                depth--;
+            }
+            else if (c == '>' && depth == 0) {
+                return i + 1;
+            }
+        }
+        throw new XmlException("Can't find the end of the declaration");
+    }
+
+    private static boolean isNameEnd(char c) {
+        return c == '>' || c == '/' || Character.isWhitespace(c);
+    }
+}
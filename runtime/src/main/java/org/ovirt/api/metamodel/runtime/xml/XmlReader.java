@@ -15,17 +15,24 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
-import java.util.Enumeration;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.TimeZone;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamConstants;
@@ -34,6 +41,8 @@ import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
 
+import org.ovirt.api.metamodel.runtime.util.ByteBufferReader;
+import org.ovirt.api.metamodel.runtime.util.DateCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,59 +55,81 @@ public class XmlReader implements AutoCloseable {
     private static final Logger log = LoggerFactory.getLogger(XmlReader.class);
 
     /**
-     * This dictionary stores for each known tag a reference to the method that read the object corresponding for that
-     * tag. For example, for the {@code vm} tag it will contain a reference to the {@code VmReader.readOne} method,
-     * and for the {@code vms} tag it will contain a reference to the {@code VmReader.readMany} method.
+     * This dictionary stores the readers that have been explicitly registered with the {@link #register} methods.
+     * These take precedence over the generated dispatcher.
      */
-    private static Map<String, Method> readers = new HashMap<>();
+    private static final Map<String, Function<XmlReader, ?>> readers = new ConcurrentHashMap<>();
 
-    public static final String METHODS_FILE = "methods.properties";
+    /**
+     * This set contains the tags that have been read using the generated dispatcher. The dispatcher calls the reader
+     * classes directly, so only the reader classes that are actually used are loaded.
+     */
+    private static final Set<String> resolved = ConcurrentHashMap.newKeySet();
 
     /**
-     * This static block is needed to initialize with proper data the {@code readers} variable. Those data are stored
-     * in @{code methods.properties} of the result .jar file and should be of the following format:
-     *   tag=Full.Class.Name.methodName
-     * This block parses the properties values of the properties file and store them in the {@code readers} variable.
+     * This dictionary caches the functions that iterate lists, obtained from the generated dispatcher.
      */
-    static {
-        try (
-            InputStream in = XmlReader.class.getResourceAsStream(METHODS_FILE);
-            java.io.Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)
-        ) {
-            Properties props = new Properties();
-            props.load(reader);
+    private static final Map<String, Function<XmlReader, Iterator<?>>> resolvedIterators = new ConcurrentHashMap<>();
+
+    /**
+     * The name of the resource file that contains the name of the generated class that implements the
+     * {@link XmlDispatcher} interface. This file is generated by the tool, and should have the following format:
+     *   dispatcher=Full.Class.Name
+     */
+    public static final String DISPATCHER_FILE = "dispatcher.properties";
+
+    /**
+     * The name of the resource file that contained the names of the generated read methods.
+     *
+     * @deprecated The tool no longer generates this file, and the runtime no longer reads it, use
+     *     {@link #DISPATCHER_FILE} instead.
+     */
+    @Deprecated
+    public static final String METHODS_FILE = "methods.properties";
 
-            Enumeration propertiesEnumeration = props.propertyNames();
-            while (propertiesEnumeration.hasMoreElements()) {
-                String key = (String) propertiesEnumeration.nextElement();
-                String value = props.getProperty(key);
-                String className = value.substring(0, value.lastIndexOf("."));
-                String methodName = value.substring(value.lastIndexOf(".") + 1);
+    // The name of the property that contains the name of the dispatcher class:
+    private static final String DISPATCHER_PROPERTY = "dispatcher";
+
+    // The time, in nanoseconds, that it took to load the dispatcher, or -1 if it hasn't been loaded yet:
+    private static volatile long dispatcherLoadTime = -1;
+
+    /**
+     * Holds the generated dispatcher, loaded from the class indicated in the {@link #DISPATCHER_FILE} resource. It is
+     * a separate class so that the dispatcher is loaded the first time that a document is read, and not when the
+     * {@link XmlReader} class is initialized. The dispatcher will be {@code null} if the resource doesn't exist or if
+     * the class can't be instantiated.
+     */
+    private static class DispatcherHolder {
+        private static final XmlDispatcher dispatcher = loadDispatcher();
+    }
 
-                Class<?> clazz = Class.forName(className);
-                register(key, clazz.getDeclaredMethod(methodName, XmlReader.class));
+    private static XmlDispatcher loadDispatcher() {
+        long start = System.nanoTime();
+        try (InputStream in = XmlReader.class.getResourceAsStream(DISPATCHER_FILE)) {
+            if (in == null) {
+                log.error("The XML dispatcher file \"{}\" wasn't found", DISPATCHER_FILE);
+                return null;
             }
-        } catch (Exception e) {
-            log.error("methods.properties file wasn't found: {}", e.getMessage());
-            log.debug("Exception:", e);
+            Properties props = new Properties();
+            props.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String className = props.getProperty(DISPATCHER_PROPERTY);
+            Class<?> clazz = Class.forName(className);
+            return (XmlDispatcher) clazz.getDeclaredConstructor().newInstance();
+        }
+        catch (Exception exception) {
+            log.error("Can't load the XML dispatcher: {}", exception.getMessage());
+            log.debug("Exception:", exception);
+            return null;
+        }
+        finally {
+            dispatcherLoadTime = System.nanoTime() - start;
+            log.debug("Loading the XML dispatcher took {} ms", dispatcherLoadTime / 1_000_000);
         }
     }
 
     // The wrapped XML reader:
     private XMLStreamReader reader;
 
-    /**
-     * Thread local used to store the date formats.
-     */
-    private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT = new ThreadLocal<SimpleDateFormat>(){
-        @Override
-        protected SimpleDateFormat initialValue() {
-            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
-            format.setTimeZone(TimeZone.getTimeZone("UTC"));
-            return format;
-        }
-    };
-
     /**
      * Creates an XML reader that will read from the given source.
      *
@@ -108,6 +139,17 @@ public class XmlReader implements AutoCloseable {
         init(source);
     }
 
+    /**
+     * Creates an XML reader that will read from the given source, using the given StAX factory instead of the
+     * shared one.
+     *
+     * @param source the source where the document will be read from
+     * @param factory the factory used to create the underlying StAX reader
+     */
+    public XmlReader(Source source, XMLInputFactory factory) {
+        init(source, factory);
+    }
+
     /**
      * Creates an XML reader that will read from the given stream, using UTF-8 as the encoding.
      *
@@ -146,9 +188,40 @@ public class XmlReader implements AutoCloseable {
         }
     }
 
+    /**
+     * Creates a reader that will read from the given file, using UTF-8 as the encoding. The file is mapped into
+     * memory and decoded directly from there, which is faster than reading it with a stream, in particular for large
+     * files.
+     *
+     * @param path the path of the file where the document will be read from
+     */
+    public XmlReader(Path path) {
+        try {
+            Source source = new StreamSource(ByteBufferReader.open(path));
+            init(source);
+        }
+        catch (IOException exception) {
+            throw new XmlException("Can't open file \"" + path.toAbsolutePath() + "\" for reading", exception);
+        }
+    }
+
+    /**
+     * Creates a reader that will read from the remaining bytes of the given buffer, using UTF-8 as the encoding. The
+     * position of the buffer isn't modified, so the same buffer can be read multiple times.
+     *
+     * @param buffer the buffer containing the document, for example a memory mapped file
+     */
+    public XmlReader(ByteBuffer buffer) {
+        Source source = new StreamSource(new ByteBufferReader(buffer.duplicate()));
+        init(source);
+    }
+
     private void init(Source source) {
+        init(source, XmlFactories.getInputFactory());
+    }
+
+    private void init(Source source, XMLInputFactory factory) {
         try {
-            XMLInputFactory factory = XMLInputFactory.newFactory();
             reader = factory.createXMLStreamReader(source);
         }
         catch (XMLStreamException exception) {
@@ -428,9 +501,9 @@ public class XmlReader implements AutoCloseable {
 
     public Date parseDate(String image) {
         try {
-            return DATE_FORMAT.get().parse(image);
+            return DateCodec.parseDate(image);
         }
-        catch(ParseException exception) {
+        catch (IllegalArgumentException exception) {
             throw new XmlException("The text \"" + image + "\" isn't a valid date value");
         }
     }
@@ -465,11 +538,111 @@ public class XmlReader implements AutoCloseable {
      *
      * @param tag The tag name.
      * @param reader The reference to the method that reads the object corresponding to the `tag`.
+     * @deprecated Use {@link #register(String, Function)} instead, as it doesn't require reflection to call the
+     *     reader.
      */
+    @Deprecated
     public static void register(String tag, Method reader) {
+        register(tag, xmlReader -> {
+            try {
+                return reader.invoke(null, xmlReader);
+            }
+            catch (IllegalAccessException | InvocationTargetException exception) {
+                throw new XmlException(
+                    String.format("Failed to invoke method '%1$s' to read element for tag '%2$s'", reader, tag),
+                    exception
+                );
+            }
+        });
+    }
+
+    /**
+     * Registers a reader for a tag, replacing the one provided by the generated dispatcher, if any.
+     *
+     * @param tag The tag name.
+     * @param reader The function that reads the object corresponding to the `tag`.
+     */
+    public static void register(String tag, Function<XmlReader, ?> reader) {
         readers.put(tag, reader);
     }
 
+    /**
+     * Removes the reader explicitly registered for a tag, so that the one provided by the generated dispatcher, if
+     * any, is used again.
+     *
+     * @param tag The tag name.
+     */
+    public static void unregister(String tag) {
+        readers.remove(tag);
+    }
+
+    /**
+     * Returns the number of distinct tags that have been read using the generated dispatcher since the application
+     * started. Note that this counts tags, not reader classes: the singular and plural tags of a type, like
+     * {@code vm} and {@code vms}, count as two, but they use the same reader class. This doesn't include the tags
+     * of the readers explicitly registered with the {@link #register} methods.
+     */
+    public static int getResolvedTagCount() {
+        return resolved.size();
+    }
+
+    /**
+     * Returns the tags that have been read using the generated dispatcher since the application started. The
+     * returned set is a snapshot, it won't change when more tags are read.
+     */
+    public static Set<String> getResolvedTags() {
+        return Collections.unmodifiableSet(new TreeSet<>(resolved));
+    }
+
+    /**
+     * Returns the time, in nanoseconds, that it took to load the generated dispatcher, or -1 if it hasn't been loaded
+     * yet. The dispatcher is loaded the first time that a tag that doesn't have an explicitly registered reader is
+     * found.
+     */
+    public static long getDispatcherLoadTime() {
+        return dispatcherLoadTime;
+    }
+
+    /**
+     * Reads the object corresponding to the given tag, using the explicitly registered reader if there is one, and
+     * otherwise calling the generated dispatcher, which calls the reader method directly.
+     */
+    private Object read(String tag) {
+        Function<XmlReader, ?> reader = readers.get(tag);
+        if (reader != null) {
+            return reader.apply(this);
+        }
+        XmlDispatcher dispatcher = DispatcherHolder.dispatcher;
+        if (dispatcher == null) {
+            throw new XmlException(String.format("Can't find a reader for tag '%s'", tag));
+        }
+        Object result = dispatcher.read(tag, this);
+        if (!resolved.contains(tag) && resolved.add(tag)) {
+            log.debug("Resolved XML reader for tag '{}', {} tags resolved so far", tag, resolved.size());
+        }
+        return result;
+    }
+
+    /**
+     * Finds the function that iterates the list corresponding to the given tag, first in the cache and then asking
+     * the generated dispatcher.
+     */
+    private static Function<XmlReader, Iterator<?>> lookupIterator(String tag) {
+        Function<XmlReader, Iterator<?>> iterator = resolvedIterators.get(tag);
+        if (iterator != null) {
+            return iterator;
+        }
+        XmlDispatcher dispatcher = DispatcherHolder.dispatcher;
+        if (dispatcher == null) {
+            return null;
+        }
+        iterator = dispatcher.lookupIterator(tag);
+        if (iterator == null) {
+            return null;
+        }
+        Function<XmlReader, Iterator<?>> existing = resolvedIterators.putIfAbsent(tag, iterator);
+        return existing != null ? existing : iterator;
+    }
 
     /**
      * Reads one object, determining the reader method to use based on the tag name of the first element. For example,
@@ -477,36 +650,109 @@ public class XmlReader implements AutoCloseable {
      * will create an array of {@code Vm} objects, so on.
      */
     public Object read() {
-        String tag = null;
-        Method method = null;
-
         try {
             // Do nothing if there aren't more tags:
             if (!forward()) {
                 return null;
             }
 
-            tag = getLocalName();
-            method = readers.get(tag);
+            return read(getLocalName());
+        }
+        finally {
+            close();
+        }
+    }
 
-            // Select the specific reader according to the tag:
-            if (method == null) {
-                throw new RuntimeException(
-                    String.format("Can't find a reader for tag '%s'", tag)
-                );
-            }
+    /**
+     * Returns a lazy stream of the objects contained in the document, determining the reader to use based on the tag
+     * name of the first element. For example, if the first tag name is {@code vms} the stream will contain the
+     * {@code Vm} objects, and they will be read one by one as the stream is consumed, so that large lists can be
+     * processed without loading all the objects in memory. If the first tag corresponds to a single object, or to a
+     * reader explicitly registered with the {@link #register} methods, the document is read completely and the stream
+     * will contain the resulting objects.
+     *
+     * The stream takes ownership of this reader, and will close it when the stream is closed, so it should be used
+     * inside a {@code try} with resources block.
+     *
+     * @param type the type of the objects of the stream
+     * @throws XmlException if there is no reader for the tag of the first element
+     */
+    public <T> Stream<T> stream(Class<T> type) {
+        return stream(xmlReader -> xmlReader.iterate(type));
+    }
 
-            // Read the object using the specific reader:
-            return method.invoke(null, this);
-        }
-        catch (IllegalAccessException | InvocationTargetException exception) {
-            throw new RuntimeException(
-                String.format("Failed to invoke method '%1$s' to read element for tag '%2$s'", method, tag),
-                exception
-            );
+    /**
+     * Returns a lazy stream of the objects returned by the given iterator function, for example
+     * {@code VmReader::iterateMany}. The stream takes ownership of this reader, and will close it when the stream is
+     * closed, so it should be used inside a {@code try} with resources block.
+     *
+     * @param function the function that creates the iterator that reads the objects from this reader
+     */
+    public <T> Stream<T> stream(Function<XmlReader, Iterator<T>> function) {
+        Iterator<T> iterator;
+        try {
+            iterator = function.apply(this);
         }
-        finally {
+        catch (RuntimeException exception) {
             close();
+            throw exception;
         }
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(
+            iterator,
+            Spliterator.ORDERED | Spliterator.NONNULL
+        );
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    private <T> Iterator<T> iterate(Class<T> type) {
+        // Return an empty iterator if there aren't more tags:
+        if (!forward()) {
+            return Collections.emptyIterator();
+        }
+
+        // Use the iterator provided by the dispatcher, unless a reader has been explicitly registered for the tag:
+        String tag = getLocalName();
+        Iterator<?> iterator = null;
+        if (!readers.containsKey(tag)) {
+            Function<XmlReader, Iterator<?>> function = lookupIterator(tag);
+            if (function != null) {
+                iterator = function.apply(this);
+            }
+        }
+
+        // If there is no iterator, read the complete document:
+        if (iterator == null) {
+            Object result = read(tag);
+            if (result instanceof List) {
+                iterator = ((List<?>) result).iterator();
+            }
+            else if (result != null) {
+                iterator = Collections.singletonList(result).iterator();
+            }
+            else {
+                iterator = Collections.emptyIterator();
+            }
+        }
+
+        // Check the type of the objects as they are returned:
+        Iterator<?> objects = iterator;
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return objects.hasNext();
+            }
+
+            @Override
+            public T next() {
+                Object next = objects.next();
+                if (!type.isInstance(next)) {
+                    throw new XmlException(String.format(
+                        "The object read from tag '%s' is of type '%s' instead of '%s'",
+                        tag, next.getClass().getName(), type.getName()
+                    ));
+                }
+                return type.cast(next);
+            }
+        };
     }
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.runtime.xml;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class represents the name of an XML element or attribute, together with its UTF-8 encoded form. The
+ * generated writers create one instance for each name that they use, and keep them in constants, so that when
+ * writing with a direct {@link XmlWriter} the names are copied to the output without validating or encoding them
+ * again.
+ */
+public final class XmlTag {
+    // The name, and its UTF-8 encoded bytes:
+    private final String name;
+    private final byte[] bytes;
+
+    private XmlTag(String name) {
+        this.name = name;
+        this.bytes = name.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates a tag with the given name.
+     *
+     * @param name the name of the element or attribute
+     * @throws IllegalArgumentException if the name is {@code null} or empty
+     */
+    public static XmlTag of(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("The name of the tag can't be empty");
+        }
+        return new XmlTag(name);
+    }
+
+    /**
+     * Returns the name of the element or attribute.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the UTF-8 encoded name. The returned array is shared, so it must not be modified.
+     */
+    byte[] getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
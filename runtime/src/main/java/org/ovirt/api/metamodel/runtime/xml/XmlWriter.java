@@ -14,35 +14,34 @@ import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
-import java.util.TimeZone;
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.Result;
 import javax.xml.transform.stream.StreamResult;
 
+import org.ovirt.api.metamodel.runtime.util.DateCodec;
+
 /**
  * This class wraps the {@link XMLStreamWriter} class so that the methods don't send checked exceptions, in order to
  * simplify its usage together with streams and lambdas.
+ *
+ * When created in direct mode the StAX writer isn't used, and the document is written directly as UTF-8 bytes to the
+ * output stream. In that mode names of elements and attributes aren't validated, and the methods that receive
+ * {@link XmlTag} objects copy the pre-encoded names to the output, so only the text values need to be escaped and
+ * encoded.
  */
 public class XmlWriter implements AutoCloseable {
     // The wrapped XML writer:
     private XMLStreamWriter writer;
 
-    /**
-     * Thread local used to store the date formats.
-     */
-    private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT = new ThreadLocal<SimpleDateFormat>(){
-        @Override
-        protected SimpleDateFormat initialValue() {
-            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
-            format.setTimeZone(TimeZone.getTimeZone("UTC"));
-            return format;
-        }
-    };
+    // The writer used in direct mode, null otherwise:
+    private XmlByteWriter direct;
+
+    // Buffer used to format dates, created when the first date is written:
+    private char[] dateBuffer;
 
     /**
      * Creates an XML writer that will write to the given result, using UTF-8 as the encoding.
@@ -54,6 +53,18 @@ public class XmlWriter implements AutoCloseable {
         init(result, indent);
     }
 
+    /**
+     * Creates an XML writer that will write to the given result, using the given StAX factory instead of the
+     * shared one.
+     *
+     * @param result the result where the document will be written
+     * @param indent indicates if the output should be indented
+     * @param factory the factory used to create the underlying StAX writer
+     */
+    public XmlWriter(Result result, boolean indent, XMLOutputFactory factory) {
+        init(result, indent, factory);
+    }
+
     /**
      * Creates an XML writer that will write to the given stream, using UTF-8 as the encoding.
      *
@@ -61,9 +72,25 @@ public class XmlWriter implements AutoCloseable {
      * @param indent indicates if the output should be indented
      */
     public XmlWriter(OutputStream out, boolean indent) {
-        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
-        Result result = new StreamResult(writer);
-        init(result, indent);
+        this(out, indent, false);
+    }
+
+    /**
+     * Creates an XML writer that will write to the given stream, using UTF-8 as the encoding.
+     *
+     * @param out the stream where the document will be written
+     * @param indent indicates if the output should be indented
+     * @param direct indicates if the document should be written directly as bytes, without using a StAX writer
+     */
+    public XmlWriter(OutputStream out, boolean indent, boolean direct) {
+        if (direct) {
+            this.direct = new XmlByteWriter(out, indent, false);
+        }
+        else {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            Result result = new StreamResult(writer);
+            init(result, indent);
+        }
     }
 
     /**
@@ -84,11 +111,27 @@ public class XmlWriter implements AutoCloseable {
      * @param indent indicates if the output should be indented
      */
     public XmlWriter(File file, boolean indent) {
+        this(file, indent, false);
+    }
+
+    /**
+     * Creates a writer that will write to the given file, using UTF-8 as the encoding.
+     *
+     * @param file the file where the document will be written
+     * @param indent indicates if the output should be indented
+     * @param direct indicates if the document should be written directly as bytes, without using a StAX writer
+     */
+    public XmlWriter(File file, boolean indent, boolean direct) {
         try {
             OutputStream out = new FileOutputStream(file);
-            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
-            Result result = new StreamResult(writer);
-            init(result, indent);
+            if (direct) {
+                this.direct = new XmlByteWriter(out, indent, true);
+            }
+            else {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                Result result = new StreamResult(writer);
+                init(result, indent);
+            }
         }
         catch (IOException exception) {
             throw new XmlException("Can't open file \"" + file.getAbsolutePath() + "\" for writing", exception);
@@ -96,8 +139,11 @@ public class XmlWriter implements AutoCloseable {
     }
 
     private void init(Result result, boolean indent) {
+        init(result, indent, XmlFactories.getOutputFactory());
+    }
+
+    private void init(Result result, boolean indent, XMLOutputFactory factory) {
         try {
-            XMLOutputFactory factory = XMLOutputFactory.newFactory();
             writer = factory.createXMLStreamWriter(result);
             if (indent) {
                 IndentingXMLStreamWriter indenter = new IndentingXMLStreamWriter(writer);
@@ -116,6 +162,10 @@ public class XmlWriter implements AutoCloseable {
      * @param version the XML version used in the document
      */
     public void writeStartDocument(String encoding, String version) {
+        if (direct != null) {
+            direct.writeStartDocument(encoding, version);
+            return;
+        }
         try {
             writer.writeStartDocument(encoding, version);
         }
@@ -128,6 +178,10 @@ public class XmlWriter implements AutoCloseable {
      * Writes the end of the document.
      */
     public void writeEndDocument() {
+        if (direct != null) {
+            direct.writeEndDocument();
+            return;
+        }
         try {
             writer.writeEndDocument();
         }
@@ -143,6 +197,10 @@ public class XmlWriter implements AutoCloseable {
      * @param uri the namespace URI
      */
     public void setPrefix(String prefix, String uri) {
+        if (direct != null) {
+            direct.setPrefix(prefix, uri);
+            return;
+        }
         try {
             writer.setPrefix(prefix, uri);
         }
@@ -181,6 +239,19 @@ public class XmlWriter implements AutoCloseable {
         writeEndElement();
     }
 
+    /**
+     * Writes an XML element with the given name and value. For example, if the name is {@code size} and the value is
+     * {@code 100} it will write {@code <size>100</size>}.
+     *
+     * @param tag the name of the XML element
+     * @param value the text content of the XML element
+     */
+    public void writeElement(XmlTag tag, String value) {
+        writeStartElement(tag);
+        writeCharacters(value);
+        writeEndElement();
+    }
+
     /**
      * Writes the start of an XML element with the given name. For example, if the name is {@code size} it will
      * write {@code <size>}.
@@ -189,6 +260,10 @@ public class XmlWriter implements AutoCloseable {
      * @param name the name of the XML element
      */
     public void writeStartElement(String uri, String name) {
+        if (direct != null) {
+            direct.writeStartElement(uri, name);
+            return;
+        }
         try {
             writer.writeStartElement(uri, name);
         }
@@ -204,6 +279,10 @@ public class XmlWriter implements AutoCloseable {
      * @param name the name of the XML element
      */
     public void writeStartElement(String name) {
+        if (direct != null) {
+            direct.writeStartElement(name.getBytes(StandardCharsets.UTF_8));
+            return;
+        }
         try {
             writer.writeStartElement(name);
         }
@@ -212,10 +291,28 @@ public class XmlWriter implements AutoCloseable {
         }
     }
 
+    /**
+     * Writes the start of an XML element with the given name. For example, if the name is {@code size} it will
+     * write {@code <size>}.
+     *
+     * @param tag the name of the XML element
+     */
+    public void writeStartElement(XmlTag tag) {
+        if (direct != null) {
+            direct.writeStartElement(tag.getBytes());
+            return;
+        }
+        writeStartElement(tag.getName());
+    }
+
     /**
      * Closes the latest XML element started with the {@link #writeStartElement(String)}.
      */
     public void writeEndElement() {
+        if (direct != null) {
+            direct.writeEndElement();
+            return;
+        }
         try {
             writer.writeEndElement();
         }
@@ -232,6 +329,10 @@ public class XmlWriter implements AutoCloseable {
      * @param value the text content of the XML attribute
      */
     public void writeAttribute(String name, String value) {
+        if (direct != null) {
+            direct.writeAttribute(name.getBytes(StandardCharsets.UTF_8), value);
+            return;
+        }
         try {
             writer.writeAttribute(name, value);
         }
@@ -243,12 +344,31 @@ public class XmlWriter implements AutoCloseable {
         }
     }
 
+    /**
+     * Writes an XML attribute with the given name and value. For example, if the name is {@code size} and the value
+     * is {@code 100} it will write {@code size="100"}.
+     *
+     * @param tag the name of the XML attribute
+     * @param value the text content of the XML attribute
+     */
+    public void writeAttribute(XmlTag tag, String value) {
+        if (direct != null) {
+            direct.writeAttribute(tag.getBytes(), value);
+            return;
+        }
+        writeAttribute(tag.getName(), value);
+    }
+
     /**
      * Writes the given characters as text content.
      *
      * @param text the characters to write
      */
     public void writeCharacters(String text) {
+        if (direct != null) {
+            direct.writeCharacters(text);
+            return;
+        }
         try {
             writer.writeCharacters(text);
         }
@@ -279,6 +399,13 @@ public class XmlWriter implements AutoCloseable {
         writeElement(name, renderInteger(value));
     }
 
+    /**
+     * Writes an integer value that fits in a {@code long}, without converting it to a {@code BigInteger}.
+     */
+    public void writeInteger(String name, long value) {
+        writeElement(name, renderInteger(value));
+    }
+
     /**
      * Writes a decimal value.
      */
@@ -290,7 +417,9 @@ public class XmlWriter implements AutoCloseable {
      * Writes a date.
      */
     public void writeDate(String name, Date value) {
-        writeElement(name, renderDate(value));
+        writeStartElement(name);
+        writeDateCharacters(value);
+        writeEndElement();
     }
 
     /**
@@ -300,6 +429,67 @@ public class XmlWriter implements AutoCloseable {
         writeElement(name, renderString(value));
     }
 
+    /**
+     * Writes a boolean value.
+     */
+    public void writeBoolean(XmlTag tag, boolean value) {
+        writeElement(tag, renderBoolean(value));
+    }
+
+    /**
+     * Writes an integer value.
+     */
+    public void writeInteger(XmlTag tag, BigInteger value) {
+        writeElement(tag, renderInteger(value));
+    }
+
+    /**
+     * Writes an integer value that fits in a {@code long}, without converting it to a {@code BigInteger}.
+     */
+    public void writeInteger(XmlTag tag, long value) {
+        writeElement(tag, renderInteger(value));
+    }
+
+    /**
+     * Writes a decimal value.
+     */
+    public void writeDecimal(XmlTag tag, BigDecimal value) {
+        writeElement(tag, renderDecimal(value));
+    }
+
+    /**
+     * Writes a date.
+     */
+    public void writeDate(XmlTag tag, Date value) {
+        writeStartElement(tag);
+        writeDateCharacters(value);
+        writeEndElement();
+    }
+
+    /**
+     * Writes a string.
+     */
+    public void writeString(XmlTag tag, String value) {
+        writeElement(tag, renderString(value));
+    }
+
+    private void writeDateCharacters(Date value) {
+        if (dateBuffer == null) {
+            dateBuffer = new char[DateCodec.MAX_LENGTH];
+        }
+        int length = DateCodec.format(value.getTime(), dateBuffer, 0);
+        if (direct != null) {
+            direct.writeCharacters(dateBuffer, 0, length);
+            return;
+        }
+        try {
+            writer.writeCharacters(dateBuffer, 0, length);
+        }
+        catch (XMLStreamException exception) {
+            throw new XmlException("Can't write date \"" + value + "\"", exception);
+        }
+    }
+
     /**
      * Writes a list of boolean values.
      */
@@ -345,6 +535,51 @@ public class XmlWriter implements AutoCloseable {
         }
     }
 
+    /**
+     * Writes a list of boolean values.
+     */
+    public void writeBooleans(XmlTag tag, List<Boolean> values) {
+        for (Boolean value : values) {
+            writeBoolean(tag, value);
+        }
+    }
+
+    /**
+     * Writes a list of integer values.
+     */
+    public void writeIntegers(XmlTag tag, List<BigInteger> values) {
+        for (BigInteger value : values) {
+            writeInteger(tag, value);
+        }
+    }
+
+    /**
+     * Writes a list of decimal values.
+     */
+    public void writeDecimals(XmlTag tag, List<BigDecimal> values) {
+        for (BigDecimal value : values) {
+            writeDecimal(tag, value);
+        }
+    }
+
+    /**
+     * Writes a list of date values.
+     */
+    public void writeDates(XmlTag tag, List<Date> values) {
+        for (Date value : values) {
+            writeDate(tag, value);
+        }
+    }
+
+    /**
+     * Writes a list of string values.
+     */
+    public void writeElements(XmlTag tag, List<String> values) {
+        for (String value : values) {
+            writeElement(tag, value);
+        }
+    }
+
     /**
      * Render a string representation of string value
      */
@@ -366,6 +601,13 @@ public class XmlWriter implements AutoCloseable {
         return value.toString();
     }
 
+    /**
+     * Render a string representation of long value
+     */
+    public static String renderInteger(long value) {
+        return Long.toString(value);
+    }
+
     /**
      * Render a string representation of BigDecimal value
      */
@@ -377,7 +619,7 @@ public class XmlWriter implements AutoCloseable {
      * Render a string representation of Date value
      */
     public static String renderDate(Date value) {
-        return DATE_FORMAT.get().format(value);
+        return DateCodec.format(value);
     }
 
     /**
@@ -393,6 +635,10 @@ public class XmlWriter implements AutoCloseable {
      * Flushes the output.
      */
     public void flush() {
+        if (direct != null) {
+            direct.flush();
+            return;
+        }
         try {
             writer.flush();
         }
@@ -406,6 +652,10 @@ public class XmlWriter implements AutoCloseable {
      */
     @Override
     public void close() {
+        if (direct != null) {
+            direct.close();
+            return;
+        }
         try {
             writer.writeEndDocument();
             writer.close();
@@ -0,0 +1,39 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.server;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * This class contains methods used by the asynchronous variants of the generated JAX-RS interfaces to call the
+ * synchronous methods, so that resources that are implemented synchronously keep working when the interfaces are
+ * generated with asynchronous variants.
+ */
+public class CompletionStages {
+    private CompletionStages() {
+    }
+
+    /**
+     * Calls the given method in the current thread and returns a completion stage that is already completed with its
+     * result, or completed exceptionally with the exception that it throws.
+     *
+     * @param method the method to call
+     * @param <T> the type of the result of the method
+     * @return the completed stage
+     */
+    public static <T> CompletionStage<T> call(Supplier<T> method) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            result.complete(method.get());
+        }
+        catch (RuntimeException exception) {
+            result.completeExceptionally(exception);
+        }
+        return result;
+    }
+}
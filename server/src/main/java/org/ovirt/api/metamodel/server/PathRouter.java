@@ -0,0 +1,321 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.server;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class selects the point of the API that corresponds to the path and HTTP method of a request, using a tree
+ * that has a node for each segment of the path. Literal segments are located with a binary search among the
+ * children of the node, and segments that contain identifiers, written as {@code {id}} in the templates, are
+ * captured. This avoids evaluating one regular expression for each candidate resource, which is what JAX-RS
+ * implementations usually do. The generated {@code ApiRouter} class creates an instance of this class containing all
+ * the points of the model.
+ *
+ * Routes should be added before the router is used to match requests. Once all the routes have been added the
+ * router can be used by multiple threads simultaneously.
+ */
+public class PathRouter {
+    private static final String[] NO_STRINGS = {};
+    private static final Node[] NO_NODES = {};
+    private static final int[] NO_INTS = {};
+
+    // The root of the tree of nodes:
+    private final Node root = new Node();
+
+    // The HTTP methods and templates of the routes, indexed by point:
+    private String[] methods = NO_STRINGS;
+    private String[] templates = NO_STRINGS;
+
+    // The maximum number of identifiers in a template:
+    private int depth;
+
+    /**
+     * Adds a route.
+     *
+     * @param point the number that identifies the point, which will be returned when a request matches the route
+     * @param method the HTTP method, for example {@code GET}
+     * @param template the template of the path, relative to the root of the API, for example {@code vms/{id}/start}
+     * @throws IllegalArgumentException if the point number is negative or already used, or if there is already a
+     *     route with the same method and template
+     */
+    public void add(int point, String method, String template) {
+        if (point < 0 || (point < methods.length && methods[point] != null)) {
+            throw new IllegalArgumentException("The point number " + point + " is negative or already used");
+        }
+        Node node = root;
+        int count = 0;
+        for (String segment : template.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (segment.startsWith("{") && segment.endsWith("}")) {
+                if (node.parameter == null) {
+                    node.parameter = new Node();
+                }
+                node = node.parameter;
+                count++;
+            }
+            else {
+                node = node.addChild(segment);
+            }
+        }
+        if (node.find(method) >= 0) {
+            throw new IllegalArgumentException(
+                "There is already a route for method \"" + method + "\" and template \"" + template + "\""
+            );
+        }
+        node.addPoint(method, point);
+        if (point >= methods.length) {
+            int length = Math.max(point + 1, methods.length * 2);
+            methods = Arrays.copyOf(methods, length);
+            templates = Arrays.copyOf(templates, length);
+        }
+        methods[point] = method;
+        templates[point] = template;
+        depth = Math.max(depth, count);
+    }
+
+    /**
+     * Finds the route that matches the given HTTP method and path. A {@code HEAD} request matches the {@code GET}
+     * route of the path if there is no explicit {@code HEAD} route, like in JAX-RS. Empty segments are ignored, and
+     * so is the query string, if present.
+     *
+     * @param method the HTTP method of the request
+     * @param path the path of the request, relative to the root of the API, for example {@code vms/123/start}
+     * @return the match, or {@code null} if there is no route for the path or if there is no route for the method
+     */
+    public Match match(String method, String path) {
+        String[] ids = depth > 0? new String[depth]: NO_STRINGS;
+        Node node = find(root, path, 0, pathEnd(path), ids, 0);
+        if (node == null) {
+            return null;
+        }
+        int index = node.find(method);
+        if (index < 0 && "HEAD".equals(method)) {
+            index = node.find("GET");
+        }
+        if (index < 0) {
+            return null;
+        }
+        int point = node.points[index];
+        int count = 0;
+        while (count < ids.length && ids[count] != null) {
+            count++;
+        }
+        return new Match(point, count < ids.length? Arrays.copyOf(ids, count): ids);
+    }
+
+    /**
+     * Returns the HTTP methods that have routes for the given path. This is intended to report the allowed methods
+     * when {@link #match(String, String)} returns {@code null} but the path exists.
+     *
+     * @param path the path of the request, relative to the root of the API
+     * @return the list of methods, which will be empty if there is no route for the path
+     */
+    public List<String> getAllowedMethods(String path) {
+        String[] ids = depth > 0? new String[depth]: NO_STRINGS;
+        Node node = find(root, path, 0, pathEnd(path), ids, 0);
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(new ArrayList<>(Arrays.asList(node.methods)));
+    }
+
+    /**
+     * Returns the HTTP method of the route of the given point, or {@code null} if there is no such point.
+     */
+    public String getMethod(int point) {
+        return point >= 0 && point < methods.length? methods[point]: null;
+    }
+
+    /**
+     * Returns the template of the route of the given point, or {@code null} if there is no such point.
+     */
+    public String getTemplate(int point) {
+        return point >= 0 && point < templates.length? templates[point]: null;
+    }
+
+    /**
+     * Finds the node that corresponds to the part of the path that starts at the given position. Literal segments are
+     * preferred to identifiers, but if the rest of the path doesn't match after a literal segment then the segment is
+     * tried again as an identifier.
+     */
+    private static Node find(Node node, String path, int position, int end, String[] ids, int count) {
+        while (position < end && path.charAt(position) == '/') {
+            position++;
+        }
+        if (position == end) {
+            return node.methods.length > 0? node: null;
+        }
+        int stop = path.indexOf('/', position);
+        if (stop < 0 || stop > end) {
+            stop = end;
+        }
+        int index = node.findChild(path, position, stop);
+        if (index >= 0) {
+            Node found = find(node.children[index], path, stop, end, ids, count);
+            if (found != null) {
+                return found;
+            }
+        }
+        if (node.parameter != null) {
+            ids[count] = path.substring(position, stop);
+            Node found = find(node.parameter, path, stop, end, ids, count + 1);
+            if (found != null) {
+                return found;
+            }
+            ids[count] = null;
+        }
+        return null;
+    }
+
+    private static int pathEnd(String path) {
+        int end = path.indexOf('?');
+        return end >= 0? end: path.length();
+    }
+
+    /**
+     * The result of matching a request.
+     */
+    public static class Match {
+        private final int point;
+        private final String[] ids;
+
+        private Match(int point, String[] ids) {
+            this.point = point;
+            this.ids = ids;
+        }
+
+        /**
+         * Returns the number that identifies the point.
+         */
+        public int getPoint() {
+            return point;
+        }
+
+        /**
+         * Returns the number of identifiers captured from the path.
+         */
+        public int getIdCount() {
+            return ids.length;
+        }
+
+        /**
+         * Returns the identifier captured from the path at the given position, counting from the root. For example,
+         * for the path {@code vms/123/disks/456} the identifier at position 0 is {@code 123} and the identifier at
+         * position 1 is {@code 456}. The identifiers are returned as they appear in the path, without decoding them.
+         */
+        public String getId(int index) {
+            return ids[index];
+        }
+
+        /**
+         * Returns the list of identifiers captured from the path, in the order that they appear.
+         */
+        public List<String> getIds() {
+            return Collections.unmodifiableList(Arrays.asList(ids));
+        }
+
+        @Override
+        public String toString() {
+            return point + " " + Arrays.toString(ids);
+        }
+    }
+
+    /**
+     * A node of the tree, corresponding to a segment of the path.
+     */
+    private static class Node {
+        // The literal segments that can follow this one, sorted, and the corresponding nodes:
+        private String[] keys = NO_STRINGS;
+        private Node[] children = NO_NODES;
+
+        // The node for an identifier following this segment:
+        private Node parameter;
+
+        // The HTTP methods that have routes ending in this node, and the corresponding points:
+        private String[] methods = NO_STRINGS;
+        private int[] points = NO_INTS;
+
+        private Node addChild(String key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                return children[index];
+            }
+            index = -index - 1;
+            Node child = new Node();
+            keys = insert(keys, index, key);
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newChildren[index] = child;
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            children = newChildren;
+            return child;
+        }
+
+        private void addPoint(String method, int point) {
+            methods = insert(methods, methods.length, method);
+            points = Arrays.copyOf(points, points.length + 1);
+            points[points.length - 1] = point;
+        }
+
+        private int find(String method) {
+            for (int i = 0; i < methods.length; i++) {
+                if (methods[i].equals(method)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Finds the child whose key is equal to the given region of the path, using a binary search that compares
+         * the characters directly, without extracting the segment.
+         */
+        private int findChild(String path, int start, int stop) {
+            int low = 0;
+            int high = keys.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int result = compare(keys[middle], path, start, stop);
+                if (result < 0) {
+                    low = middle + 1;
+                }
+                else if (result > 0) {
+                    high = middle - 1;
+                }
+                else {
+                    return middle;
+                }
+            }
+            return -1;
+        }
+
+        private static int compare(String key, String path, int start, int stop) {
+            int length = stop - start;
+            int limit = Math.min(key.length(), length);
+            for (int i = 0; i < limit; i++) {
+                int difference = key.charAt(i) - path.charAt(start + i);
+                if (difference != 0) {
+                    return difference;
+                }
+            }
+            return key.length() - length;
+        }
+
+        private static String[] insert(String[] array, int index, String value) {
+            String[] result = new String[array.length + 1];
+            System.arraycopy(array, 0, result, 0, index);
+            result[index] = value;
+            System.arraycopy(array, index, result, index + 1, array.length - index);
+            return result;
+        }
+    }
+}
@@ -5,11 +5,47 @@
 
 package org.ovirt.api.metamodel.server;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 public class ValidationException extends IllegalArgumentException {
 
     private static final long serialVersionUID = 1L;
 
+    // The descriptions of all the problems found:
+    private final List<String> violations;
+
     public ValidationException(String message) {
         super(message);
+        violations = Collections.singletonList(message);
+    }
+
+    /**
+     * Creates an exception that reports several problems at once. The message of the exception contains the
+     * descriptions of all of them, separated by spaces.
+     */
+    public ValidationException(List<String> violations) {
+        super(String.join(" ", violations));
+        this.violations = Collections.unmodifiableList(new ArrayList<>(violations));
+    }
+
+    /**
+     * Returns the descriptions of all the problems found.
+     */
+    public List<String> getViolations() {
+        return violations;
+    }
+
+    /**
+     * Adds the description of a problem to the given list, creating it if it is {@code null}. The generated
+     * validators use this so that the list is created only when a problem is actually found.
+     */
+    public static List<String> addViolation(List<String> violations, String violation) {
+        if (violations == null) {
+            violations = new ArrayList<>();
+        }
+        violations.add(violation);
+        return violations;
     }
 }
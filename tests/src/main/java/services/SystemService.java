@@ -0,0 +1,18 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package services;
+
+import org.ovirt.api.metamodel.annotations.Root;
+import org.ovirt.api.metamodel.annotations.Service;
+
+/**
+ * This service exists only to be a victim of the metamodel tests.
+ */
+@Root
+@Service
+public interface SystemService {
+    @Service VmsService vms();
+}
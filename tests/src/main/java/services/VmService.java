@@ -0,0 +1,57 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package services;
+
+import static org.ovirt.api.metamodel.language.ApiLanguage.mandatory;
+
+import org.ovirt.api.metamodel.annotations.In;
+import org.ovirt.api.metamodel.annotations.InputDetail;
+import org.ovirt.api.metamodel.annotations.Out;
+import org.ovirt.api.metamodel.annotations.Service;
+import types.Vm;
+
+/**
+ * This service exists only to be a victim of the metamodel tests.
+ */
+@Service
+public interface VmService {
+    interface Get {
+        @Out Vm vm();
+    }
+
+    interface Update {
+        @In @Out Vm vm();
+
+        @InputDetail
+        default void inputDetail() {
+            mandatory(vm().name());
+            mandatory(vm().cpu().mode());
+        }
+    }
+
+    interface Remove {
+    }
+
+    interface Start {
+        @In Boolean pause();
+        @In Boolean force();
+
+        interface Basic extends Start {
+            @InputDetail
+            default void inputDetail() {
+                mandatory(pause());
+            }
+        }
+
+        interface Forced extends Start {
+            @InputDetail
+            default void inputDetail() {
+                mandatory(pause());
+                mandatory(force());
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package services;
+
+import static org.ovirt.api.metamodel.language.ApiLanguage.mandatory;
+
+import org.ovirt.api.metamodel.annotations.In;
+import org.ovirt.api.metamodel.annotations.InputDetail;
+import org.ovirt.api.metamodel.annotations.Out;
+import org.ovirt.api.metamodel.annotations.Service;
+import types.Vm;
+
+/**
+ * This service exists only to be a victim of the metamodel tests.
+ */
+@Service
+public interface VmsService {
+    interface Add {
+        @In @Out Vm vm();
+
+        interface Basic extends Add {
+            @InputDetail
+            default void inputDetail() {
+                mandatory(vm().name());
+            }
+        }
+
+        interface FromName extends Add {
+            @InputDetail
+            default void inputDetail() {
+                mandatory(vm().name());
+                mandatory(vm().cpu().mode());
+            }
+        }
+    }
+
+    interface List {
+        @Out Vm[] vms();
+    }
+
+    @Service VmService vm(String id);
+}
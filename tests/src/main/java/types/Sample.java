@@ -0,0 +1,20 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package types;
+
+import java.util.Date;
+
+import org.ovirt.api.metamodel.annotations.Type;
+
+/**
+ * This class exists only to be a victim of the metamodel tests. It is identified by a date, so that the code that
+ * reads and writes dates represented as XML attributes is generated.
+ */
+@Type
+public interface Sample {
+    Date id();
+    String value();
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+import org.ovirt.api.metamodel.runtime.util.ByteBufferReader;
+
+/**
+ * Tests for the reader that decodes UTF-8 text directly from byte buffers.
+ */
+public class ByteBufferReaderTest {
+    // Text that contains characters encoded with one, two, three and four bytes:
+    private static final String TEXT = "abc \u00f1\u00e1 \u20ac \ud83d\ude00 xyz";
+
+    /**
+     * Checks that all the characters are decoded correctly when they are read in one call.
+     */
+    @Test
+    public void testReadAll() throws IOException {
+        try (Reader reader = open(TEXT)) {
+            assertEquals(TEXT, readAll(reader, 1024));
+        }
+    }
+
+    /**
+     * Checks that characters are decoded correctly when they are read one by one, including the supplementary
+     * characters that need two chars.
+     */
+    @Test
+    public void testReadOneByOne() throws IOException {
+        try (Reader reader = open(TEXT)) {
+            assertEquals(TEXT, readAll(reader, 1));
+        }
+    }
+
+    /**
+     * Checks that characters are decoded correctly from buffers that aren't backed by an array, like memory mapped
+     * files, including the characters that are split between the chunks that are copied from those buffers.
+     */
+    @Test
+    public void testReadDirectBuffer() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            text.append(TEXT);
+        }
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        buffer.flip();
+        try (Reader reader = new ByteBufferReader(buffer)) {
+            assertEquals(text.toString(), readAll(reader, 1000));
+        }
+    }
+
+    /**
+     * Checks that malformed input is replaced with the replacement character.
+     */
+    @Test
+    public void testMalformedInput() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 'a', (byte) 0xff, 'b' });
+        try (Reader reader = new ByteBufferReader(buffer)) {
+            assertEquals("a\ufffdb", readAll(reader, 16));
+        }
+    }
+
+    /**
+     * Checks that the end of the input is reported when the buffer is empty.
+     */
+    @Test
+    public void testEmpty() throws IOException {
+        try (Reader reader = open("")) {
+            assertFalse(reader.ready());
+            assertEquals(-1, reader.read());
+        }
+    }
+
+    /**
+     * Checks that a file can be opened and read.
+     */
+    @Test
+    public void testOpenFile() throws IOException {
+        Path file = Files.createTempFile("test", ".txt");
+        try {
+            Files.write(file, TEXT.getBytes(StandardCharsets.UTF_8));
+            try (Reader reader = ByteBufferReader.open(file)) {
+                assertTrue(reader instanceof ByteBufferReader);
+                assertEquals(TEXT, readAll(reader, 1024));
+            }
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+    private Reader open(String text) {
+        return new ByteBufferReader(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private String readAll(Reader reader, int size) throws IOException {
+        StringBuilder result = new StringBuilder();
+        char[] chars = new char[size];
+        int count;
+        while ((count = reader.read(chars, 0, size)) != -1) {
+            result.append(chars, 0, count);
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.ovirt.engine.api.compact.builders.V4Builders.vm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import org.ovirt.api.metamodel.runtime.json.JsonReader;
+import org.ovirt.api.metamodel.runtime.json.JsonWriter;
+import org.ovirt.api.metamodel.runtime.util.IntegerCodec;
+import org.ovirt.api.metamodel.runtime.xml.XmlReader;
+import org.ovirt.api.metamodel.runtime.xml.XmlWriter;
+import org.ovirt.engine.api.compact.containers.V4VmContainer;
+import org.ovirt.engine.api.compact.json.V4JsonVmReader;
+import org.ovirt.engine.api.compact.json.V4JsonVmWriter;
+import org.ovirt.engine.api.compact.types.V4Vm;
+import org.ovirt.engine.api.compact.xml.V4XmlVmReader;
+import org.ovirt.engine.api.compact.xml.V4XmlVmView;
+import org.ovirt.engine.api.compact.xml.V4XmlVmWriter;
+
+/**
+ * Tests for the code generated with the compact integers mode, where integer members are stored as primitive
+ * {@code long} values. The code used by these tests is generated in the {@code org.ovirt.engine.api.compact}
+ * packages.
+ */
+public class CompactIntegersTest {
+    // A value that doesn't fit in a long:
+    private static final BigInteger HUGE = BigInteger.ONE.shiftLeft(70);
+
+    /**
+     * Checks that a value that fits in a long is read from XML and returned by all the getters.
+     */
+    @Test
+    public void testReadXml() {
+        V4Vm object = objectFromXml("<vm><memory>1073741824</memory></vm>");
+        assertTrue(object.memoryPresent());
+        assertEquals(BigInteger.valueOf(1073741824L), object.memory());
+        assertEquals(Long.valueOf(1073741824L), object.memoryAsLong());
+        assertEquals(Integer.valueOf(1073741824), object.memoryAsInteger());
+    }
+
+    /**
+     * Checks that a value that doesn't fit in a long is read from XML without losing precision.
+     */
+    @Test
+    public void testReadXmlOverflow() {
+        V4Vm object = objectFromXml("<vm><memory>" + HUGE + "</memory></vm>");
+        assertTrue(object.memoryPresent());
+        assertEquals(HUGE, object.memory());
+    }
+
+    /**
+     * Checks that the limits of the long type are stored without overflow.
+     */
+    @Test
+    public void testReadXmlLimits() {
+        V4Vm max = objectFromXml("<vm><memory>" + Long.MAX_VALUE + "</memory></vm>");
+        assertEquals(Long.valueOf(Long.MAX_VALUE), max.memoryAsLong());
+        V4Vm min = objectFromXml("<vm><memory>" + Long.MIN_VALUE + "</memory></vm>");
+        assertEquals(Long.valueOf(Long.MIN_VALUE), min.memoryAsLong());
+    }
+
+    /**
+     * Checks that a value that fits in a long is read from JSON.
+     */
+    @Test
+    public void testReadJson() {
+        V4Vm object = objectFromJson("{\"memory\":1073741824}");
+        assertEquals(Long.valueOf(1073741824L), object.memoryAsLong());
+    }
+
+    /**
+     * Checks that values that don't fit in a long, or that aren't plain integers, are read from JSON in the same way
+     * than when the compact mode isn't used.
+     */
+    @Test
+    public void testReadJsonOverflow() {
+        assertEquals(HUGE, objectFromJson("{\"memory\":" + HUGE + "}").memory());
+        assertEquals(BigInteger.valueOf(1), objectFromJson("{\"memory\":1.5}").memory());
+        assertEquals(BigInteger.valueOf(1000), objectFromJson("{\"memory\":1e3}").memory());
+    }
+
+    /**
+     * Checks that a member that hasn't been set isn't present and that all its getters return {@code null}.
+     */
+    @Test
+    public void testAbsent() {
+        V4Vm object = vm().build();
+        assertFalse(object.memoryPresent());
+        assertNull(object.memory());
+        assertNull(object.memoryAsLong());
+        assertNull(object.memoryAsByte());
+    }
+
+    /**
+     * Checks that conversions to smaller types fail when the value doesn't fit, like when the value is stored as a
+     * big integer.
+     */
+    @Test
+    public void testConversionsCheckRange() {
+        V4Vm object = vm().memory(1L << 40).build();
+        assertEquals(Long.valueOf(1L << 40), object.memoryAsLong());
+        assertArithmeticException(object::memoryAsInteger);
+        assertArithmeticException(object::memoryAsShort);
+        V4Vm huge = vm().memory(HUGE).build();
+        assertArithmeticException(huge::memoryAsLong);
+    }
+
+    /**
+     * Checks that objects that store the integers as primitive values are written in the same way.
+     */
+    @Test
+    public void testWriteXml() {
+        assertEquals("<vm><memory>1024</memory></vm>", objectToXml(vm().memory(1024).build()));
+        assertEquals("<vm><memory>" + HUGE + "</memory></vm>", objectToXml(vm().memory(HUGE).build()));
+    }
+
+    /**
+     * Checks that objects that aren't containers, like the XML views, are also written correctly.
+     */
+    @Test
+    public void testWriteXmlFromView() {
+        assertEquals("<vm><memory>1024</memory></vm>", objectToXml(new V4XmlVmView("<vm><memory>1024</memory></vm>")));
+        String huge = "<vm><memory>" + HUGE + "</memory></vm>";
+        assertEquals(huge, objectToXml(new V4XmlVmView(huge)));
+    }
+
+    /**
+     * Checks that objects that store the integers as primitive values are written to JSON in the same way.
+     */
+    @Test
+    public void testWriteJson() {
+        assertEquals("{\"memory\":1024}", objectToJson(vm().memory(1024).build()));
+        assertEquals("{\"memory\":" + HUGE + "}", objectToJson(vm().memory(HUGE).build()));
+    }
+
+    /**
+     * Checks the accessors that the writers use to get the values without creating big integers.
+     */
+    @Test
+    public void testLongValue() {
+        V4VmContainer object = (V4VmContainer) vm().memory(1024).build();
+        assertTrue(object.memoryFitsLong());
+        assertEquals(1024, object.memoryLongValue());
+        V4VmContainer huge = (V4VmContainer) vm().memory(HUGE).build();
+        assertFalse(huge.memoryFitsLong());
+    }
+
+    /**
+     * Checks the detection of the texts that can be parsed as long values.
+     */
+    @Test
+    public void testIsLong() {
+        assertTrue(IntegerCodec.isLong("0"));
+        assertTrue(IntegerCodec.isLong("-1"));
+        assertTrue(IntegerCodec.isLong("+1"));
+        assertTrue(IntegerCodec.isLong("9223372036854775807"));
+        assertTrue(IntegerCodec.isLong("-9223372036854775808"));
+        assertTrue(IntegerCodec.isLong("00000000000000000000001"));
+        assertFalse(IntegerCodec.isLong("9223372036854775808"));
+        assertFalse(IntegerCodec.isLong("-9223372036854775809"));
+        assertFalse(IntegerCodec.isLong(""));
+        assertFalse(IntegerCodec.isLong("-"));
+        assertFalse(IntegerCodec.isLong("1.0"));
+        assertFalse(IntegerCodec.isLong(" 1"));
+    }
+
+    private void assertArithmeticException(Runnable runnable) {
+        try {
+            runnable.run();
+        }
+        catch (ArithmeticException exception) {
+            return;
+        }
+        throw new AssertionError("Expected an arithmetic exception");
+    }
+
+    private V4Vm objectFromXml(String text) {
+        try (XmlReader reader = new XmlReader(new StringReader(text))) {
+            reader.next();
+            return V4XmlVmReader.readOne(reader);
+        }
+    }
+
+    private V4Vm objectFromJson(String text) {
+        try (JsonReader reader = new JsonReader(new StringReader(text))) {
+            return V4JsonVmReader.readOne(reader);
+        }
+    }
+
+    private String objectToJson(V4Vm object) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (JsonWriter writer = new JsonWriter(buffer, false)) {
+            V4JsonVmWriter.writeOne(object, writer);
+        }
+        return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private String objectToXml(V4Vm object) {
+        StringWriter buffer = new StringWriter();
+        try (XmlWriter writer = new XmlWriter(buffer, false)) {
+            V4XmlVmWriter.writeOne(object, writer);
+            writer.flush();
+            return buffer.toString();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Test;
+import org.ovirt.api.metamodel.server.CompletionStages;
+
+/**
+ * Tests for the methods that the asynchronous variants of the generated JAX-RS interfaces use to call the synchronous
+ * methods.
+ */
+public class CompletionStagesTest {
+    /**
+     * Checks that the result of the method is used to complete the stage.
+     */
+    @Test
+    public void testResult() throws Exception {
+        CompletableFuture<String> future = CompletionStages.call(() -> "myvm").toCompletableFuture();
+        assertTrue(future.isDone());
+        assertEquals("myvm", future.get());
+    }
+
+    /**
+     * Checks that an exception thrown by the method completes the stage exceptionally instead of being thrown to the
+     * caller.
+     */
+    @Test
+    public void testException() throws Exception {
+        IllegalStateException exception = new IllegalStateException();
+        CompletableFuture<String> future = CompletionStages.<String>call(() -> {
+            throw exception;
+        }).toCompletableFuture();
+        assertTrue(future.isCompletedExceptionally());
+        try {
+            future.get();
+            fail("The stage should have been completed exceptionally");
+        }
+        catch (ExecutionException expected) {
+            assertSame(exception, expected.getCause());
+        }
+    }
+}
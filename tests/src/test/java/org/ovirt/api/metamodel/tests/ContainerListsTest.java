@@ -0,0 +1,156 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.ovirt.engine.api.builders.V4Builders.disk;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.ovirt.api.metamodel.runtime.util.ArrayListWithHref;
+import org.ovirt.api.metamodel.runtime.util.FieldMask;
+import org.ovirt.api.metamodel.runtime.util.ListWithHref;
+import org.ovirt.api.metamodel.runtime.xml.XmlReader;
+import org.ovirt.engine.api.containers.V4VmContainer;
+import org.ovirt.engine.api.types.V4Disk;
+import org.ovirt.engine.api.types.V4Permission;
+import org.ovirt.engine.api.types.V4Vm;
+import org.ovirt.engine.api.xml.V4XmlPermissionReader;
+import org.ovirt.engine.api.xml.V4XmlVmReader;
+
+/**
+ * Tests for the lists stored in the generated containers.
+ */
+public class ContainerListsTest {
+    /**
+     * Checks that the getter of a list that hasn't been set returns an empty list.
+     */
+    @Test
+    public void testNotSetIsEmpty() {
+        V4VmContainer object = new V4VmContainer();
+        assertTrue(object.disks().isEmpty());
+    }
+
+    /**
+     * Checks that calling the getter repeatedly doesn't create a new list each time.
+     */
+    @Test
+    public void testGetterReturnsSameList() {
+        V4VmContainer object = new V4VmContainer();
+        List<V4Disk> disks = new ArrayList<>();
+        disks.add(disk().id("123").build());
+        object.disks(disks);
+        assertSame(object.disks(), object.disks());
+    }
+
+    /**
+     * Checks that the setter copies the list, so that later changes to the original don't affect the container.
+     */
+    @Test
+    public void testSetterCopies() {
+        V4VmContainer object = new V4VmContainer();
+        List<V4Disk> disks = new ArrayList<>();
+        disks.add(disk().id("123").build());
+        object.disks(disks);
+        disks.add(disk().id("456").build());
+        assertEquals(1, object.disks().size());
+    }
+
+    /**
+     * Checks that the list returned by the getter can't be modified.
+     */
+    @Test
+    public void testGetterIsUnmodifiable() {
+        V4VmContainer object = new V4VmContainer();
+        List<V4Disk> disks = new ArrayList<>();
+        disks.add(disk().id("123").build());
+        object.disks(disks);
+        try {
+            object.disks().clear();
+            fail("The list can be modified");
+        }
+        catch (UnsupportedOperationException expected) {
+            // This is the expected result.
+        }
+    }
+
+    /**
+     * Checks that the reference of a list is preserved.
+     */
+    @Test
+    public void testHrefIsPreserved() {
+        V4VmContainer object = new V4VmContainer();
+        ArrayListWithHref<V4Disk> disks = new ArrayListWithHref<>();
+        disks.href("/vms/123/disks");
+        disks.add(disk().id("123").build());
+        object.disks(disks);
+        assertTrue(object.disks() instanceof ListWithHref);
+        assertEquals("/vms/123/disks", ((ListWithHref<V4Disk>) object.disks()).href());
+        assertSame(object.disks(), object.disks());
+    }
+
+    /**
+     * Checks that the method used by the readers takes the list without copying it, and that the result can't be
+     * modified either.
+     */
+    @Test
+    public void testAdoptDoesNotCopy() {
+        V4VmContainer object = new V4VmContainer();
+        List<V4Disk> disks = new ArrayList<>();
+        disks.add(disk().id("123").build());
+        object.adoptDisks(disks);
+        assertTrue(object.disksPresent());
+        disks.add(disk().id("456").build());
+        assertEquals(2, object.disks().size());
+        try {
+            object.disks().clear();
+            fail("The list can be modified");
+        }
+        catch (UnsupportedOperationException expected) {
+            // This is the expected result.
+        }
+    }
+
+    /**
+     * Checks that the XML reader fills the list that it is given, so that links can be read into a list that already
+     * supports the href, and that the href is then set on that list without copying it.
+     */
+    @Test
+    public void testReadLinkIntoListWithHref() {
+        ArrayListWithHref<V4Permission> list = new ArrayListWithHref<>();
+        try (XmlReader reader = new XmlReader(new StringReader("<permissions><permission id=\"456\"/></permissions>"))) {
+            assertSame(list, V4XmlPermissionReader.readMany(reader, FieldMask.ALL, list));
+        }
+        assertEquals(1, list.size());
+
+        V4Vm object;
+        try (XmlReader reader = new XmlReader(new StringReader(
+            "<vm><permissions><permission id=\"456\"/></permissions><link rel=\"permissions\" href=\"123\"/></vm>"
+        ))) {
+            object = V4XmlVmReader.readOne(reader);
+        }
+        assertTrue(object.permissions() instanceof ListWithHref);
+        assertEquals("123", ((ListWithHref<V4Permission>) object.permissions()).href());
+        assertEquals("456", object.permissions().get(0).id());
+    }
+
+    /**
+     * Checks that adopting an empty list makes the member not present.
+     */
+    @Test
+    public void testAdoptEmpty() {
+        V4VmContainer object = new V4VmContainer();
+        object.adoptDisks(new ArrayList<>());
+        assertFalse(object.disksPresent());
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.ovirt.engine.api.builders.V4Builders.cpu;
+import static org.ovirt.engine.api.builders.V4Builders.disk;
+import static org.ovirt.engine.api.builders.V4Builders.host;
+import static org.ovirt.engine.api.builders.V4Builders.vm;
+
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.Date;
+
+import org.junit.Test;
+import org.ovirt.api.metamodel.runtime.json.JsonWriter;
+import org.ovirt.api.metamodel.runtime.util.Bits;
+import org.ovirt.api.metamodel.runtime.xml.XmlWriter;
+import org.ovirt.engine.api.containers.V4HostContainer;
+import org.ovirt.engine.api.containers.V4IdentifiedContainer;
+import org.ovirt.engine.api.containers.V4VmContainer;
+import org.ovirt.engine.api.json.V4JsonHostWriter;
+import org.ovirt.engine.api.json.V4JsonVmWriter;
+import org.ovirt.engine.api.types.V4Host;
+import org.ovirt.engine.api.types.V4Vm;
+import org.ovirt.engine.api.xml.V4XmlHostWriter;
+import org.ovirt.engine.api.xml.V4XmlIdentifiedWriter;
+import org.ovirt.engine.api.xml.V4XmlVmWriter;
+
+/**
+ * Tests for the bits that the generated containers use to track which members are present, and for the writers that
+ * use those bits to visit only the members that are present.
+ */
+public class ContainerPresenceTest {
+    /**
+     * Checks that the bits returned by the container correspond to the index constants of the members that have been
+     * set.
+     */
+    @Test
+    public void testPresentMembersMatchIndexes() {
+        V4VmContainer object = new V4VmContainer();
+        object.name("myvm");
+        object.memory(BigInteger.ONE);
+        long[] expected = new long[1];
+        Bits.set(expected, V4VmContainer.NAME_INDEX);
+        Bits.set(expected, V4VmContainer.MEMORY_INDEX);
+        assertArrayEquals(expected, object.presentMembers());
+    }
+
+    /**
+     * Checks that the methods that the writers use to visit the present members without copying the bits return the
+     * index constants of the members that have been set.
+     */
+    @Test
+    public void testNextPresent() {
+        V4VmContainer object = new V4VmContainer();
+        object.name("myvm");
+        object.memory(BigInteger.ONE);
+        assertTrue(object.isPresent(V4VmContainer.NAME_INDEX));
+        assertFalse(object.isPresent(V4VmContainer.ID_INDEX));
+        int first = Math.min(V4VmContainer.NAME_INDEX, V4VmContainer.MEMORY_INDEX);
+        int second = Math.max(V4VmContainer.NAME_INDEX, V4VmContainer.MEMORY_INDEX);
+        assertEquals(first, object.nextPresent(0));
+        assertEquals(second, object.nextPresent(first + 1));
+        assertEquals(-1, object.nextPresent(second + 1));
+    }
+
+    /**
+     * Checks that the method that the writers use to read the presence bits without copying them returns the same
+     * bits than the copy.
+     */
+    @Test
+    public void testPresentWord() {
+        V4HostContainer object = new V4HostContainer();
+        object.name("myhost");
+        object.port(BigInteger.TEN);
+        assertEquals(object.presentMembers()[0], object.presentWord(0));
+        assertEquals(
+            (1L << V4HostContainer.NAME_INDEX) | (1L << V4HostContainer.PORT_INDEX),
+            object.presentWord(0)
+        );
+    }
+
+    /**
+     * Checks that modifying the array returned by the container doesn't change the container.
+     */
+    @Test
+    public void testPresentMembersIsCopy() {
+        V4VmContainer object = new V4VmContainer();
+        object.presentMembers()[0] = -1L;
+        assertFalse(object.namePresent());
+        assertEquals(0L, object.presentMembers()[0]);
+    }
+
+    /**
+     * Checks that setting a member to {@code null} clears its presence bit.
+     */
+    @Test
+    public void testNullClearsPresence() {
+        V4VmContainer object = new V4VmContainer();
+        object.name("myvm");
+        assertTrue(object.namePresent());
+        object.name(null);
+        assertFalse(object.namePresent());
+        assertNull(object.name());
+    }
+
+    /**
+     * Checks that an empty list isn't considered present.
+     */
+    @Test
+    public void testEmptyListIsNotPresent() {
+        V4VmContainer object = new V4VmContainer();
+        object.disks(Collections.singletonList(disk().id("123").build()));
+        assertTrue(object.disksPresent());
+        object.disks(Collections.emptyList());
+        assertFalse(object.disksPresent());
+    }
+
+    /**
+     * Checks that booleans are stored as primitive values, and that a {@code null} boolean clears the presence bit.
+     */
+    @Test
+    public void testBoolean() {
+        V4VmContainer object = new V4VmContainer();
+        object.runOnce(Boolean.TRUE);
+        assertTrue(object.runOncePresent());
+        assertTrue(object.runOnce());
+        object.runOnce((Boolean) null);
+        assertFalse(object.runOncePresent());
+        assertFalse(object.runOnce());
+        object.runOnce(false);
+        assertTrue(object.runOncePresent());
+        assertFalse(object.runOnce());
+    }
+
+    /**
+     * Checks that dates are copied when they are stored and when they are returned.
+     */
+    @Test
+    public void testDateIsCopied() {
+        Date date = new Date(1000);
+        V4VmContainer object = new V4VmContainer();
+        object.creationTime(date);
+        date.setTime(2000);
+        Date returned = object.creationTime();
+        assertEquals(1000, returned.getTime());
+        returned.setTime(3000);
+        assertEquals(1000, object.creationTime().getTime());
+        assertNotSame(object.creationTime(), object.creationTime());
+    }
+
+    /**
+     * Checks that the members of a base type have the same bits in the containers of the derived types, and that the
+     * members declared by the derived type use the next bits.
+     */
+    @Test
+    public void testInheritedIndexes() {
+        assertEquals(V4IdentifiedContainer.ID_INDEX, V4HostContainer.ID_INDEX);
+        assertEquals(3, V4HostContainer.ACTIVE_INDEX);
+        V4HostContainer object = new V4HostContainer();
+        object.id("123");
+        object.port(BigInteger.TEN);
+        long[] expected = new long[1];
+        Bits.set(expected, V4IdentifiedContainer.ID_INDEX);
+        Bits.set(expected, V4HostContainer.PORT_INDEX);
+        assertArrayEquals(expected, object.presentMembers());
+    }
+
+    /**
+     * Checks that the XML writer writes the members of a derived type sorted by name, mixing the members of the base
+     * type and the members declared by the derived type.
+     */
+    @Test
+    public void testWriteHostXml() {
+        V4Host object = host()
+            .port(22)
+            .name("myhost")
+            .active(true)
+            .id("123")
+            .description("mydesc")
+            .address("example.com")
+            .build();
+        assertEquals(
+            "<host id=\"123\">" +
+            "<active>true</active>" +
+            "<address>example.com</address>" +
+            "<description>mydesc</description>" +
+            "<name>myhost</name>" +
+            "<port>22</port>" +
+            "</host>",
+            hostToXml(object)
+        );
+    }
+
+    /**
+     * Checks that the JSON writer writes the members of a derived type sorted by name, mixing the members of the base
+     * type and the members declared by the derived type.
+     */
+    @Test
+    public void testWriteHostJson() {
+        V4Host object = host()
+            .port(22)
+            .name("myhost")
+            .active(false)
+            .id("123")
+            .build();
+        assertEquals(
+            "{'active':false,'id':'123','name':'myhost','port':22}",
+            hostToJson(object)
+        );
+    }
+
+    /**
+     * Checks that when a container of a derived type is written with the writer of the base type only the members of
+     * the base type are written, even if the members of the derived type are present.
+     */
+    @Test
+    public void testWriteHostWithBaseWriter() {
+        V4Host object = host()
+            .port(22)
+            .name("myhost")
+            .id("123")
+            .address("example.com")
+            .build();
+        StringWriter buffer = new StringWriter();
+        try (XmlWriter writer = new XmlWriter(buffer, false)) {
+            V4XmlIdentifiedWriter.writeOne(object, "host", writer);
+        }
+        assertEquals(
+            "<host id=\"123\">" +
+            "<name>myhost</name>" +
+            "</host>",
+            buffer.toString()
+        );
+    }
+
+    /**
+     * Checks that objects that aren't containers are written checking each member, and that the result is the same
+     * than for containers.
+     */
+    @Test
+    public void testWriteNonContainer() {
+        V4Vm object = vm()
+            .id("123")
+            .name("myvm")
+            .runOnce(true)
+            .memory(1024)
+            .cpu(cpu().mode("mymode").build())
+            .build();
+        V4Vm proxy = wrap(object, V4Vm.class);
+        assertEquals(vmToXml(object), vmToXml(proxy));
+        assertEquals(vmToJson(object), vmToJson(proxy));
+    }
+
+    /**
+     * Checks that derived types that aren't containers are written checking each member, and that the result is the
+     * same than for containers.
+     */
+    @Test
+    public void testWriteHostNonContainer() {
+        V4Host object = host()
+            .id("123")
+            .description("mydesc")
+            .port(22)
+            .build();
+        V4Host proxy = wrap(object, V4Host.class);
+        assertEquals(hostToXml(object), hostToXml(proxy));
+        assertEquals(hostToJson(object), hostToJson(proxy));
+    }
+
+    /**
+     * Creates a proxy that implements the given interface delegating all the calls to the given object, so that the
+     * writers can't use the bits of the container.
+     */
+    private <T> T wrap(T object, Class<T> type) {
+        Object proxy = Proxy.newProxyInstance(
+            type.getClassLoader(),
+            new Class<?>[] { type },
+            (instance, method, args) -> {
+                try {
+                    return method.invoke(object, args);
+                }
+                catch (InvocationTargetException exception) {
+                    throw exception.getCause();
+                }
+            }
+        );
+        return type.cast(proxy);
+    }
+
+    private String vmToXml(V4Vm object) {
+        StringWriter buffer = new StringWriter();
+        try (XmlWriter writer = new XmlWriter(buffer, false)) {
+            V4XmlVmWriter.writeOne(object, writer);
+        }
+        return buffer.toString();
+    }
+
+    private String hostToXml(V4Host object) {
+        StringWriter buffer = new StringWriter();
+        try (XmlWriter writer = new XmlWriter(buffer, false)) {
+            V4XmlHostWriter.writeOne(object, writer);
+        }
+        return buffer.toString();
+    }
+
+    private String vmToJson(V4Vm object) {
+        StringWriter buffer = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(buffer, false)) {
+            V4JsonVmWriter.writeOne(object, writer);
+        }
+        return buffer.toString();
+    }
+
+    private String hostToJson(V4Host object) {
+        StringWriter buffer = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(buffer, false)) {
+            V4JsonHostWriter.writeOne(object, writer);
+        }
+        return buffer.toString().replace('"', '\'');
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.ovirt.api.metamodel.runtime.util.LogThrottle;
+import org.ovirt.engine.api.types.V4SsoMethodId;
+import org.ovirt.engine.api.types.V4VmType;
+
+/**
+ * Tests for the {@code fromValue} method of the generated enums, and for the class that limits the messages that it
+ * writes to the log.
+ */
+public class EnumFromValueTest {
+    /**
+     * Checks that the exact images are converted to the corresponding values.
+     */
+    @Test
+    public void testExactImage() {
+        assertSame(V4VmType.DESKTOP, V4VmType.fromValue("desktop"));
+        assertSame(V4VmType.SERVER, V4VmType.fromValue("server"));
+        assertSame(V4SsoMethodId.GUEST_AGENT, V4SsoMethodId.fromValue("guest_agent"));
+    }
+
+    /**
+     * Checks that images are still accepted ignoring case.
+     */
+    @Test
+    public void testIgnoresCase() {
+        assertSame(V4VmType.DESKTOP, V4VmType.fromValue("DESKTOP"));
+        assertSame(V4VmType.SERVER, V4VmType.fromValue("Server"));
+        assertSame(V4SsoMethodId.GUEST_AGENT, V4SsoMethodId.fromValue("GUEST_AGENT"));
+    }
+
+    /**
+     * Checks that invalid values, even many of them, return {@code null} without throwing exceptions.
+     */
+    @Test
+    public void testInvalidReturnsNull() {
+        for (int i = 0; i < 1000; i++) {
+            assertNull(V4VmType.fromValue("junk" + i));
+        }
+    }
+
+    /**
+     * Checks that the throttle allows the first message, and suppresses the following ones until the interval
+     * finishes.
+     */
+    @Test
+    public void testThrottleSuppresses() {
+        LogThrottle throttle = new LogThrottle(1, TimeUnit.HOURS);
+        assertTrue(throttle.allow());
+        assertFalse(throttle.allow());
+        assertFalse(throttle.allow());
+        assertEquals(2, throttle.takeSuppressed());
+        assertEquals(0, throttle.takeSuppressed());
+    }
+
+    /**
+     * Checks that the throttle allows a new message once the interval has finished.
+     */
+    @Test
+    public void testThrottleAllowsAfterInterval() throws InterruptedException {
+        LogThrottle throttle = new LogThrottle(10, TimeUnit.MILLISECONDS);
+        assertTrue(throttle.allow());
+        assertFalse(throttle.allow());
+        Thread.sleep(20);
+        assertTrue(throttle.allow());
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.tests;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import javax.ws.rs.core.Response;
+
+import org.junit.Test;
+import org.ovirt.api.metamodel.server.ValidationException;
+import org.ovirt.engine.api.model.Action;
+import org.ovirt.engine.api.model.Cpu;
+import org.ovirt.engine.api.model.Vm;
+import org.ovirt.engine.api.resource.ActionResource;
+import org.ovirt.engine.api.resource.VmResource;
+import org.ovirt.engine.api.resource.VmResourceHelper;
+import org.ovirt.engine.api.resource.VmResourceHelper.StartSignature;
+import org.ovirt.engine.api.resource.VmsResource;
+import org.ovirt.engine.api.resource.VmsResourceHelper;
+import org.ovirt.engine.api.resource.VmsResourceHelper.AddSignature;
+
+/**
+ * Tests for the generated JAX-RS interfaces and helpers, that select the signatures of methods and validate their
+ * mandatory attributes.
+ */
+public class JaxrsHelpersTest {
+    private static Vm vm(String name, String mode) {
+        Vm vm = new Vm();
+        vm.setName(name);
+        if (mode != null) {
+            Cpu cpu = new Cpu();
+            cpu.setMode(mode);
+            vm.setCpu(cpu);
+        }
+        return vm;
+    }
+
+    private static Action action(Boolean pause, Boolean force) {
+        Action action = new Action();
+        action.setPause(pause);
+        action.setForce(force);
+        return action;
+    }
+
+    /**
+     * Checks that a signature whose mandatory attributes contain the mandatory attributes of another signature is
+     * selected when all its attributes are present, even if its name sorts after the name of the other signature.
+     */
+    @Test
+    public void testAddSelectsLargestSignature() {
+        assertEquals(AddSignature.FROM_NAME, VmsResourceHelper.getAddSignature(vm("myvm", "host_passthrough")));
+        assertEquals(AddSignature.BASIC, VmsResourceHelper.getAddSignature(vm("myvm", null)));
+    }
+
+    /**
+     * Checks that the action signatures are ordered by the containment of their mandatory parameters.
+     */
+    @Test
+    public void testActionSelectsLargestSignature() {
+        assertEquals(StartSignature.FORCED, VmResourceHelper.getStartSignature(action(true, true)));
+        assertEquals(StartSignature.BASIC, VmResourceHelper.getStartSignature(action(true, null)));
+    }
+
+    /**
+     * Checks that a validation error is reported when no signature matches.
+     */
+    @Test(expected = ValidationException.class)
+    public void testNoSignatureMatches() {
+        VmsResourceHelper.getAddSignature(vm(null, "host_passthrough"));
+    }
+
+    /**
+     * Checks that the generated interface calls the method of the selected signature. The methods of the other
+     * signatures aren't implemented, so calling them would fail.
+     */
+    @Test
+    public void testAddCallsSelectedSignature() {
+        VmsResource resource = new VmsResource() {
+            @Override
+            public Response addFromName(Vm vm) {
+                return null;
+            }
+        };
+        assertNull(resource.add(vm("myvm", "host_passthrough")));
+    }
+
+    /**
+     * Checks that the asynchronous variant of a method that has signatures calls the synchronous method, so that a
+     * resource that only implements the synchronous method works when JAX-RS calls the asynchronous variant.
+     */
+    @Test
+    public void testAsyncAddCallsSynchronousAdd() throws Exception {
+        List<Vm> added = new ArrayList<>();
+        VmsResource resource = new VmsResource() {
+            @Override
+            public Response add(Vm vm) {
+                added.add(vm);
+                return null;
+            }
+        };
+        Vm vm = vm("myvm", "host_passthrough");
+        CompletableFuture<Response> future = resource.addAsync(vm).toCompletableFuture();
+        assertFalse(future.isCompletedExceptionally());
+        assertNull(future.get());
+        assertEquals(asList(vm), added);
+    }
+
+    /**
+     * Checks that the asynchronous variant of an action that has signatures calls the synchronous action.
+     */
+    @Test
+    public void testAsyncActionCallsSynchronousAction() throws Exception {
+        List<Action> started = new ArrayList<>();
+        VmResource resource = new VmResource() {
+            @Override
+            public Response start(Action action) {
+                started.add(action);
+                return null;
+            }
+
+            @Override
+            public ActionResource getActionResource(String action, String oid) {
+                return null;
+            }
+        };
+        Action action = action(true, true);
+        CompletableFuture<Response> future = resource.startAsync(action).toCompletableFuture();
+        assertFalse(future.isCompletedExceptionally());
+        assertEquals(asList(action), started);
+    }
+
+    /**
+     * Checks that the asynchronous variant of a method that has signatures still selects the synchronous method of
+     * the signature, when that is what the resource implements.
+     */
+    @Test
+    public void testAsyncAddCallsSynchronousSignature() throws Exception {
+        VmsResource resource = new VmsResource() {
+            @Override
+            public Response addFromName(Vm vm) {
+                return null;
+            }
+        };
+        CompletableFuture<Response> future = resource.addAsync(vm("myvm", "host_passthrough")).toCompletableFuture();
+        assertFalse(future.isCompletedExceptionally());
+        assertNull(future.get());
+    }
+
+    /**
+     * Checks that all the missing mandatory attributes are reported in one validation error.
+     */
+    @Test
+    public void testUpdateReportsAllMissingAttributes() {
+        VmResource resource = new VmResource() {
+            @Override
+            public Vm update(Vm vm) {
+                return vm;
+            }
+
+            @Override
+            public ActionResource getActionResource(String action, String oid) {
+                return null;
+            }
+        };
+        try {
+            resource.doUpdate(new Vm());
+            fail();
+        }
+        catch (ValidationException exception) {
+            assertEquals(
+                asList(
+                    "Parameter 'vm.name' is mandatory but was not provided.",
+                    "Parameter 'vm.cpu.mode' is mandatory but was not provided."
+                ),
+                exception.getViolations()
+            );
+        }
+        Vm vm = vm("myvm", "host_passthrough");
+        assertEquals(vm, resource.doUpdate(vm));
+    }
+}
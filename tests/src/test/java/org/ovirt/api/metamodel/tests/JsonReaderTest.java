@@ -5,10 +5,12 @@
 
 package org.ovirt.api.metamodel.tests;
 
+import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
@@ -16,16 +18,25 @@ import java.io.PipedReader;
 import java.io.PipedWriter;
 import java.io.StringReader;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+import javax.json.Json;
+import javax.json.stream.JsonParserFactory;
 
 import org.junit.Ignore;
 import org.junit.Test;
+import org.ovirt.api.metamodel.runtime.json.JsonFactories;
 import org.ovirt.api.metamodel.runtime.json.JsonReader;
+import org.ovirt.api.metamodel.runtime.util.FieldMask;
 import org.ovirt.engine.api.json.V4JsonVmReader;
 import org.ovirt.engine.api.types.V4Disk;
 import org.ovirt.engine.api.types.V4Vm;
@@ -185,6 +196,72 @@ public class JsonReaderTest {
         assertEquals(date, object.creationTime());
     }
 
+    /**
+     * Checks that lists of dates are read completely.
+     */
+    @Test
+    public void testDates() {
+        StringReader buffer = new StringReader("[\"2016-01-17T16:18:23.123Z\", \"2016-01-17T16:18:24Z\"]");
+        try (JsonReader reader = new JsonReader(buffer)) {
+            assertEquals(Arrays.asList(new Date(1453047503123L), new Date(1453047504000L)), reader.readDates());
+        }
+    }
+
+    /**
+     * Checks that members whose names have the same length and share characters with the names of members of the
+     * type are ignored.
+     */
+    @Test
+    public void testIgnoresMembersWithSimilarNames() {
+        V4Vm object = objectFromJson("{'nbme':{'x':'junk'},'fqdm':['junk'],'name':'myvm','ix':'junk'}");
+        assertEquals("myvm", object.name());
+        assertNull(object.fqdn());
+        assertNull(object.id());
+    }
+
+    /**
+     * Checks that when a mask is given only the members included in it are read, and that the mask is also applied to
+     * the members of nested objects and lists.
+     */
+    @Test
+    public void testReadWithMask() {
+        String text = (
+            "{" +
+                "'id':'123'," +
+                "'name':'myvm'," +
+                "'cpu':{'mode':'host'}," +
+                "'disks':[{'id':'456','alias':'disk0'},{'id':'789','alias':'disk1'}]," +
+                "'fqdn':'myvm.example.com'" +
+            "}"
+        ).replace('\'', '\"');
+        V4Vm object;
+        try (JsonReader reader = new JsonReader(new StringReader(text))) {
+            object = V4JsonVmReader.readOne(reader, FieldMask.of("name", "disks.id"));
+        }
+        assertNull(object.id());
+        assertEquals("myvm", object.name());
+        assertNull(object.cpu());
+        assertNull(object.fqdn());
+        assertEquals(2, object.disks().size());
+        assertEquals("456", object.disks().get(0).id());
+        assertNull(object.disks().get(0).alias());
+        assertEquals("789", object.disks().get(1).id());
+        assertNull(object.disks().get(1).alias());
+    }
+
+    /**
+     * Checks that the {@code stream} method returns the objects of the list, reading them only when they are consumed.
+     */
+    @Test
+    public void testStream() {
+        String text = "[{'name':'vm0'},{'name':'vm1'},{'name':".replace('\'', '\"');
+        JsonReader reader = new JsonReader(new StringReader(text));
+        try (Stream<V4Vm> stream = reader.stream(V4JsonVmReader::iterateMany)) {
+            List<String> names = stream.limit(2).map(V4Vm::name).collect(toList());
+            assertEquals(Arrays.asList("vm0", "vm1"), names);
+        }
+    }
+
     /**
      * Checks that lower case enums are read correctly.
      */
@@ -352,6 +429,58 @@ public class JsonReaderTest {
         }
     }
 
+    /**
+     * Checks that the parser factory is created once and then reused.
+     */
+    @Test
+    public void testParserFactoryIsReused() {
+        assertSame(JsonFactories.getParserFactory(), JsonFactories.getParserFactory());
+    }
+
+    /**
+     * Checks that a reader can be created with a caller supplied factory.
+     */
+    @Test
+    public void testReadWithCustomFactory() {
+        JsonParserFactory factory = Json.createParserFactory(null);
+        try (JsonReader reader = new JsonReader(new StringReader("{\"name\":\"myvm\"}"), factory)) {
+            V4Vm object = V4JsonVmReader.readOne(reader);
+            assertEquals("myvm", object.name());
+        }
+    }
+
+    /**
+     * Checks that a document can be read from a file, using memory mapping.
+     */
+    @Test
+    public void testReadFromPath() throws IOException {
+        Path file = Files.createTempFile("test", ".json");
+        try {
+            Files.write(file, "{\"name\":\"my\u00f1vm\"}".getBytes(StandardCharsets.UTF_8));
+            try (JsonReader reader = new JsonReader(file)) {
+                V4Vm vm = V4JsonVmReader.readOne(reader);
+                assertEquals("my\u00f1vm", vm.name());
+            }
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Checks that a document can be read from a byte buffer, and that the buffer can be read again.
+     */
+    @Test
+    public void testReadFromByteBuffer() {
+        ByteBuffer buffer = ByteBuffer.wrap("{\"name\":\"myvm\"}".getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < 2; i++) {
+            try (JsonReader reader = new JsonReader(buffer)) {
+                V4Vm vm = V4JsonVmReader.readOne(reader);
+                assertEquals("myvm", vm.name());
+            }
+        }
+    }
+
     /**
      * Converts the given JSON text to an object. Single quotes in the JSON text are replaced by double quotes before
      * performing the conversion, to simplify writing and reading the strings used by the texts.
@@ -6,6 +6,8 @@
 package org.ovirt.api.metamodel.tests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.ovirt.engine.api.builders.V4Builders.cpu;
 import static org.ovirt.engine.api.builders.V4Builders.disk;
@@ -21,10 +23,15 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonGeneratorFactory;
 
 import org.apache.commons.io.output.NullOutputStream;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.ovirt.api.metamodel.runtime.json.JsonFactories;
 import org.ovirt.api.metamodel.runtime.json.JsonWriter;
 import org.ovirt.engine.api.json.V4JsonVmWriter;
 import org.ovirt.engine.api.types.V4Vm;
@@ -373,6 +380,39 @@ public class JsonWriterTest {
         assertTrue(elapsed < 60_000_000);
     }
 
+    /**
+     * Checks that the generator factories are created once for each indentation and then reused.
+     */
+    @Test
+    public void testGeneratorFactoriesAreReused() {
+        assertSame(JsonFactories.getGeneratorFactory(false), JsonFactories.getGeneratorFactory(false));
+        assertSame(JsonFactories.getGeneratorFactory(true), JsonFactories.getGeneratorFactory(true));
+        assertNotSame(JsonFactories.getGeneratorFactory(false), JsonFactories.getGeneratorFactory(true));
+        assertEquals(
+            Boolean.TRUE,
+            JsonFactories.getGeneratorFactory(true).getConfigInUse().get(JsonGenerator.PRETTY_PRINTING)
+        );
+    }
+
+    /**
+     * Checks that a writer can be created with a caller supplied factory.
+     */
+    @Test
+    public void testWriteWithCustomFactory() {
+        Map<String, Object> configuration = Collections.singletonMap(JsonGenerator.PRETTY_PRINTING, Boolean.TRUE);
+        JsonGeneratorFactory factory = Json.createGeneratorFactory(configuration);
+        V4Vm object = vm().name("myvm").build();
+        StringWriter buffer = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(buffer, factory)) {
+            V4JsonVmWriter.writeOne(object, writer);
+        }
+        StringWriter expected = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(expected, true)) {
+            V4JsonVmWriter.writeOne(object, writer);
+        }
+        assertEquals(expected.toString(), buffer.toString());
+    }
+
     /**
      * Converts the given object to JSON and returns a string containing the JSON text. Double quotes in the generated
      * JSON are replaced by single quotes to simplify writing and reading the string constants that are used in the
@@ -0,0 +1,383 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ovirt.engine.api.types.V4Vm;
+
+/**
+ * This class contains tests that check the size of the methods of the generated classes.
+ */
+public class MethodSizeTest {
+    /**
+     * The value of the {@code HugeMethodLimit} parameter of the HotSpot virtual machine. Methods larger than this
+     * are never compiled by the JIT compiler.
+     */
+    private static final int HUGE_METHOD_LIMIT = 8000;
+
+    /**
+     * The method size limit used to generate the code of the model, must be the same that is passed to the tool with
+     * the {@code --method-size-limit} option in the {@code pom.xml} file.
+     */
+    private static final int METHOD_SIZE_LIMIT = 300;
+
+    /**
+     * The tool splits the code generated for the members using half of the limit, and leaves the other half for the
+     * fixed part of the method. The sizes are estimated, and with such a small limit the fixed part of some methods,
+     * like the code that processes the attributes and the links in {@code readOne}, is already close to the limit. So
+     * the methods are allowed to be up to 50% larger than the limit.
+     */
+    private static final double METHOD_SIZE_TOLERANCE = 1.5;
+
+    /**
+     * The names of the generated methods whose size is controlled by the limit.
+     */
+    private static final Pattern SPLIT_METHODS = Pattern.compile(
+        "readOne|readElements\\d+|readMembers\\d+|writeOne|writeMember|writeElements\\d+|writeMembers\\d+|" +
+        "build\\d*|memberIndex\\d*|read\\d*|lookup\\d*|lookupIterator\\d*|tagIndex\\d*"
+    );
+
+    /**
+     * The number of struct types of the synthetic model used to check that the methods whose number of cases grows
+     * with the size of the model, like the ones of the XML dispatcher, are split. The real model has about 400.
+     */
+    private static final int SYNTHETIC_TYPES = 400;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Checks that the code of all the methods of the generated classes is smaller than the limit of the JIT compiler.
+     */
+    @Test
+    public void testNoHugeMethods() throws Exception {
+        List<Path> files = findGeneratedClasses();
+        assertFalse(files.isEmpty());
+        for (Path file : files) {
+            for (Map.Entry<String, Integer> entry : getMethodSizes(file).entrySet()) {
+                String method = entry.getKey();
+                int size = entry.getValue();
+                assertTrue(
+                    "Method '" + method + "' of class '" + file + "' has " + size + " bytes of code",
+                    size < HUGE_METHOD_LIMIT
+                );
+            }
+        }
+    }
+
+    /**
+     * Checks that the methods of the readers, writers and builders generated with a small limit are close to that
+     * limit. This verifies the estimates of the size of the generated code.
+     */
+    @Test
+    public void testMethodsRespectLimit() throws Exception {
+        Path dir = getClassesDir();
+        List<Path> files = new ArrayList<>();
+        for (String name : new String[] { "xml", "json", "builders" }) {
+            files.addAll(findClasses(dir.resolve(name)));
+        }
+        assertFalse(files.isEmpty());
+        int limit = (int) (METHOD_SIZE_LIMIT * METHOD_SIZE_TOLERANCE);
+        for (Path file : files) {
+            for (Map.Entry<String, Integer> entry : getMethodSizes(file).entrySet()) {
+                String method = entry.getKey();
+                int size = entry.getValue();
+                if (SPLIT_METHODS.matcher(method).matches()) {
+                    assertTrue(
+                        "Method '" + method + "' of class '" + file + "' has " + size + " bytes of code, but the " +
+                        "limit is " + METHOD_SIZE_LIMIT + " and the tolerance " + METHOD_SIZE_TOLERANCE,
+                        size <= limit
+                    );
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that the code generated with the default limit, which is used for the compact integers mode, doesn't
+     * split the methods.
+     */
+    @Test
+    public void testDefaultLimitDoesntSplit() throws Exception {
+        Path dir = getClassesDir().resolve("compact");
+        Map<String, Integer> reader = getMethodSizes(dir.resolve("xml/V4XmlVmReader.class"));
+        assertTrue(reader.containsKey("readOne"));
+        assertFalse(reader.containsKey("readElements0"));
+        assertFalse(reader.containsKey("memberIndex0"));
+        Map<String, Integer> writer = getMethodSizes(dir.resolve("json/V4JsonVmWriter.class"));
+        assertTrue(writer.containsKey("writeOne"));
+        assertFalse(writer.containsKey("writeMembers0"));
+        Map<String, Integer> builder = getMethodSizes(dir.resolve("builders/V4VmBuilder.class"));
+        assertTrue(builder.containsKey("build"));
+        assertFalse(builder.containsKey("build0"));
+    }
+
+    /**
+     * Checks that the code that reads and writes types with many members has been split into several methods, as the
+     * tool is configured with a very small limit for the tests.
+     */
+    @Test
+    public void testLargeMethodsAreSplit() throws Exception {
+        Path dir = getClassesDir();
+        Map<String, Integer> reader = getMethodSizes(dir.resolve("xml/V4XmlVmReader.class"));
+        assertTrue(reader.containsKey("readElements0"));
+        assertTrue(reader.containsKey("readElements1"));
+        Map<String, Integer> writer = getMethodSizes(dir.resolve("json/V4JsonVmWriter.class"));
+        assertTrue(writer.containsKey("writeMembers0"));
+        assertTrue(writer.containsKey("writeMembers1"));
+        Map<String, Integer> builder = getMethodSizes(dir.resolve("builders/V4VmBuilder.class"));
+        assertTrue(builder.containsKey("build0"));
+        assertTrue(builder.containsKey("build1"));
+    }
+
+    /**
+     * Checks that the methods of the XML dispatcher, that have cases for the tags of all the types of the model, are
+     * split when the model is large. This generates the code for a synthetic model with many types, using the default
+     * method size limit, and then compiles the dispatcher.
+     */
+    @Test
+    public void testDispatcherIsSplitForLargeModels() throws Exception {
+        // Write the synthetic model:
+        Path root = temporaryFolder.getRoot().toPath();
+        Path modelDir = root.resolve("model/types");
+        Files.createDirectories(modelDir);
+        // The built-in action type has a job element, so the model has to define the job type:
+        List<String> names = new ArrayList<>();
+        names.add("Job");
+        for (int i = 0; i < SYNTHETIC_TYPES; i++) {
+            names.add("Struct" + getSyntheticSuffix(i));
+        }
+        for (String name : names) {
+            String source =
+                "package types;\n" +
+                "import org.ovirt.api.metamodel.annotations.Type;\n" +
+                "@Type\n" +
+                "public interface " + name + " {\n" +
+                "    String id();\n" +
+                "}\n";
+            Files.write(modelDir.resolve(name + ".java"), source.getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Run the tool in a separate process, as it needs its own CDI container:
+        Path javaDir = root.resolve("java");
+        Path log = root.resolve("tool.log");
+        Process process = new ProcessBuilder(
+            Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+            "-classpath", System.getProperty("java.class.path"),
+            "org.ovirt.api.metamodel.tool.Main",
+            "org.ovirt.api.metamodel.tool.Tool",
+            "--model=" + root.resolve("model"),
+            "--java=" + javaDir,
+            "--version-prefix=V4"
+        )
+        .redirectErrorStream(true)
+        .redirectOutput(log.toFile())
+        .start();
+        int code = process.waitFor();
+        assertEquals(
+            "The tool failed:\n" + new String(Files.readAllBytes(log), StandardCharsets.UTF_8),
+            0, code
+        );
+
+        // Compile the dispatcher. The classes that it uses are compiled from the generated sources as well, but not
+        // written:
+        Path classesDir = root.resolve("classes");
+        Files.createDirectories(classesDir);
+        Path dispatcher = javaDir.resolve("org/ovirt/engine/api/xml/V4XmlReaders.java");
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        int result = compiler.run(
+            null, null, null,
+            "-classpath", System.getProperty("java.class.path"),
+            "-sourcepath", javaDir.toString(),
+            "-Xprefer:source",
+            "-implicit:none",
+            "-proc:none",
+            "-nowarn",
+            "-d", classesDir.toString(),
+            dispatcher.toString()
+        );
+        assertEquals(0, result);
+
+        // Check the sizes:
+        Map<String, Integer> sizes = getMethodSizes(classesDir.resolve("org/ovirt/engine/api/xml/V4XmlReaders.class"));
+        assertTrue(sizes.containsKey("read"));
+        assertTrue(sizes.containsKey("lookup"));
+        assertTrue(sizes.containsKey("lookupIterator"));
+        for (Map.Entry<String, Integer> entry : sizes.entrySet()) {
+            String method = entry.getKey();
+            int size = entry.getValue();
+            assertTrue(
+                "Method '" + method + "' of the dispatcher of a model with " + SYNTHETIC_TYPES + " types has " +
+                size + " bytes of code",
+                size < HUGE_METHOD_LIMIT
+            );
+        }
+    }
+
+    /**
+     * Returns a suffix made of letters, different for each index, so that the names of the synthetic types are
+     * parsed as a single word.
+     */
+    private String getSyntheticSuffix(int index) {
+        StringBuilder suffix = new StringBuilder();
+        for (int i = 0; i < 3; i++) {
+            suffix.append((char) ('a' + index % 26));
+            index /= 26;
+        }
+        return suffix.toString();
+    }
+
+    /**
+     * Returns the directory that contains the generated classes.
+     */
+    private Path getClassesDir() throws Exception {
+        Path root = Paths.get(V4Vm.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        return root.resolve(V4Vm.class.getPackage().getName().replace('.', '/')).getParent();
+    }
+
+    /**
+     * Finds all the generated class files.
+     */
+    private List<Path> findGeneratedClasses() throws Exception {
+        return findClasses(getClassesDir());
+    }
+
+    /**
+     * Finds all the class files inside the given directory.
+     */
+    private List<Path> findClasses(Path dir) throws Exception {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths
+                .filter(x -> x.toString().endsWith(".class"))
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Reads a class file and returns a map containing the names of the methods and the size of their code. Only the
+     * parts of the class file format needed to locate the {@code Code} attributes are decoded.
+     */
+    private Map<String, Integer> getMethodSizes(Path file) throws IOException {
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(file))) {
+            DataInputStream in = new DataInputStream(stream);
+
+            // Magic number and version:
+            in.readInt();
+            in.readUnsignedShort();
+            in.readUnsignedShort();
+
+            // Constant pool, only the UTF-8 entries are kept:
+            int count = in.readUnsignedShort();
+            List<String> strings = new ArrayList<>(count);
+            strings.add(null);
+            for (int i = 1; i < count; i++) {
+                int tag = in.readUnsignedByte();
+                String string = null;
+                switch (tag) {
+                case 1:
+                    string = in.readUTF();
+                    break;
+                case 3:
+                case 4:
+                case 9:
+                case 10:
+                case 11:
+                case 12:
+                case 17:
+                case 18:
+                    in.skipBytes(4);
+                    break;
+                case 5:
+                case 6:
+                    in.skipBytes(8);
+                    strings.add(null);
+                    i++;
+                    break;
+                case 7:
+                case 8:
+                case 16:
+                case 19:
+                case 20:
+                    in.skipBytes(2);
+                    break;
+                case 15:
+                    in.skipBytes(3);
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag + " in file '" + file + "'");
+                }
+                strings.add(string);
+            }
+
+            // Access flags, this class, super class and interfaces:
+            in.skipBytes(6);
+            in.skipBytes(2 * in.readUnsignedShort());
+
+            // Fields:
+            int fields = in.readUnsignedShort();
+            for (int i = 0; i < fields; i++) {
+                in.skipBytes(6);
+                skipAttributes(in);
+            }
+
+            // Methods:
+            int methods = in.readUnsignedShort();
+            for (int i = 0; i < methods; i++) {
+                in.skipBytes(2);
+                String name = strings.get(in.readUnsignedShort());
+                in.skipBytes(2);
+                int attributes = in.readUnsignedShort();
+                for (int j = 0; j < attributes; j++) {
+                    String attribute = strings.get(in.readUnsignedShort());
+                    int length = in.readInt();
+                    if ("Code".equals(attribute)) {
+                        in.skipBytes(4);
+                        int size = in.readInt();
+                        sizes.merge(name, size, Math::max);
+                        in.skipBytes(length - 8);
+                    }
+                    else {
+                        in.skipBytes(length);
+                    }
+                }
+            }
+        }
+        return sizes;
+    }
+
+    private void skipAttributes(DataInputStream in) throws IOException {
+        int attributes = in.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            in.skipBytes(2);
+            in.skipBytes(in.readInt());
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.tests;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+import org.ovirt.api.metamodel.server.PathRouter;
+
+/**
+ * Tests for the router that matches the paths and HTTP methods of requests to the points of the model.
+ */
+public class PathRouterTest {
+    private static final int VMS_ADD = 0;
+    private static final int VMS_LIST = 1;
+    private static final int VM_GET = 2;
+    private static final int VM_REMOVE = 3;
+    private static final int VM_START = 4;
+    private static final int VM_DISK_GET = 5;
+    private static final int VMS_SEARCH = 6;
+    private static final int VM_SEARCH_GET = 7;
+
+    private static PathRouter createRouter() {
+        PathRouter router = new PathRouter();
+        router.add(VMS_ADD, "POST", "vms");
+        router.add(VMS_LIST, "GET", "vms");
+        router.add(VM_GET, "GET", "vms/{id}");
+        router.add(VM_REMOVE, "DELETE", "vms/{id}");
+        router.add(VM_START, "POST", "vms/{id}/start");
+        router.add(VM_DISK_GET, "GET", "vms/{id}/disks/{id}");
+        router.add(VMS_SEARCH, "POST", "vms/search");
+        router.add(VM_SEARCH_GET, "GET", "vms/{id}/search");
+        return router;
+    }
+
+    /**
+     * Checks that a path without identifiers selects the point of the method.
+     */
+    @Test
+    public void testLiteral() {
+        PathRouter router = createRouter();
+        assertEquals(VMS_ADD, router.match("POST", "vms").getPoint());
+        assertEquals(VMS_LIST, router.match("GET", "vms").getPoint());
+        assertEquals(0, router.match("GET", "vms").getIdCount());
+    }
+
+    /**
+     * Checks that the identifiers are captured in the order that they appear in the path.
+     */
+    @Test
+    public void testIdentifiers() {
+        PathRouter router = createRouter();
+        PathRouter.Match match = router.match("GET", "vms/123/disks/456");
+        assertEquals(VM_DISK_GET, match.getPoint());
+        assertEquals(asList("123", "456"), match.getIds());
+        assertEquals("456", match.getId(1));
+        assertEquals(VM_START, router.match("POST", "vms/123/start").getPoint());
+    }
+
+    /**
+     * Checks that leading, trailing and repeated slashes are ignored, and so is the query string.
+     */
+    @Test
+    public void testSlashesAndQuery() {
+        PathRouter router = createRouter();
+        PathRouter.Match match = router.match("GET", "/vms//123/?follow=disks");
+        assertEquals(VM_GET, match.getPoint());
+        assertEquals(asList("123"), match.getIds());
+    }
+
+    /**
+     * Checks that a path that doesn't exist, or a method that isn't supported by the path, don't match.
+     */
+    @Test
+    public void testNoMatch() {
+        PathRouter router = createRouter();
+        assertNull(router.match("GET", "hosts"));
+        assertNull(router.match("GET", "vms/123/junk"));
+        assertNull(router.match("GET", ""));
+        assertNull(router.match("PUT", "vms/123"));
+        assertEquals(asList("GET", "DELETE"), router.getAllowedMethods("vms/123"));
+        assertTrue(router.getAllowedMethods("hosts").isEmpty());
+    }
+
+    /**
+     * Checks that a {@code HEAD} request matches the {@code GET} route.
+     */
+    @Test
+    public void testHead() {
+        PathRouter router = createRouter();
+        assertEquals(VM_GET, router.match("HEAD", "vms/123").getPoint());
+    }
+
+    /**
+     * Checks that literal segments are preferred to identifiers, and that a segment is tried as an identifier when the
+     * rest of the path doesn't match after the literal segment.
+     */
+    @Test
+    public void testLiteralPreferred() {
+        PathRouter router = createRouter();
+        assertEquals(VMS_SEARCH, router.match("POST", "vms/search").getPoint());
+        PathRouter.Match match = router.match("POST", "vms/search/start");
+        assertEquals(VM_START, match.getPoint());
+        assertEquals(asList("search"), match.getIds());
+        assertEquals(VM_SEARCH_GET, router.match("GET", "vms/123/search").getPoint());
+    }
+
+    /**
+     * Checks that the method and template of each point are kept.
+     */
+    @Test
+    public void testTemplates() {
+        PathRouter router = createRouter();
+        assertEquals("POST", router.getMethod(VM_START));
+        assertEquals("vms/{id}/start", router.getTemplate(VM_START));
+        assertNull(router.getTemplate(100));
+    }
+
+    /**
+     * Checks that adding the same method and template twice is rejected.
+     */
+    @Test
+    public void testDuplicateRoute() {
+        PathRouter router = createRouter();
+        try {
+            router.add(100, "GET", "vms/{id}");
+            fail("The route already exists");
+        }
+        catch (IllegalArgumentException expected) {
+            // This is the expected result.
+        }
+    }
+
+    /**
+     * Checks that adding a point number that is already used is rejected.
+     */
+    @Test
+    public void testDuplicatePoint() {
+        PathRouter router = createRouter();
+        try {
+            router.add(VM_GET, "GET", "hosts");
+            fail("The point number is already used");
+        }
+        catch (IllegalArgumentException expected) {
+            // This is the expected result.
+        }
+    }
+
+    /**
+     * Compares the time that it takes to match requests with the router and with a list of regular expressions, one
+     * for each route, like JAX-RS implementations do. This is a benchmark, not a real test, so it only runs when the
+     * {@code benchmark} system property is {@code true}.
+     */
+    @Test
+    public void testRegexBenchmark() {
+        assumeTrue(Boolean.getBoolean("benchmark"));
+
+        // Create routes similar to the ones of a real API, with many collections and many actions:
+        String[] actions = { "start", "stop", "suspend", "shutdown", "migrate", "reboot", "clone", "export" };
+        List<String> methods = new ArrayList<>();
+        List<String> templates = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String collection = "collection" + i;
+            addRoute(methods, templates, "GET", collection);
+            addRoute(methods, templates, "POST", collection);
+            addRoute(methods, templates, "GET", collection + "/{id}");
+            addRoute(methods, templates, "PUT", collection + "/{id}");
+            addRoute(methods, templates, "DELETE", collection + "/{id}");
+            for (String action : actions) {
+                addRoute(methods, templates, "POST", collection + "/{id}/" + action);
+            }
+            addRoute(methods, templates, "GET", collection + "/{id}/disks");
+            addRoute(methods, templates, "GET", collection + "/{id}/disks/{id}");
+        }
+        PathRouter router = new PathRouter();
+        List<Pattern> patterns = new ArrayList<>();
+        for (int i = 0; i < templates.size(); i++) {
+            router.add(i, methods.get(i), templates.get(i));
+            patterns.add(Pattern.compile(templates.get(i).replace("{id}", "([^/]+)")));
+        }
+
+        // Create the requests, using all the routes:
+        int count = 100_000;
+        String[] requestMethods = new String[count];
+        String[] requestPaths = new String[count];
+        for (int i = 0; i < count; i++) {
+            int route = (int) ((i * 7919L) % templates.size());
+            requestMethods[i] = methods.get(route);
+            requestPaths[i] = templates.get(route).replace("{id}", "123e4567-e89b-12d3-a456-" + i);
+        }
+
+        // Run each variant several times, so that the last results aren't affected by the JIT compiler:
+        for (int round = 0; round < 5; round++) {
+            long before = System.nanoTime();
+            long routerSum = 0;
+            for (int i = 0; i < count; i++) {
+                routerSum += router.match(requestMethods[i], requestPaths[i]).getPoint();
+            }
+            long middle = System.nanoTime();
+            long regexSum = 0;
+            for (int i = 0; i < count; i++) {
+                regexSum += matchRegex(patterns, methods, requestMethods[i], requestPaths[i]);
+            }
+            long after = System.nanoTime();
+            assertEquals(regexSum, routerSum);
+            System.out.printf(
+                "Round %d: router %d ms, regular expressions %d ms%n",
+                round, (middle - before) / 1_000_000, (after - middle) / 1_000_000
+            );
+        }
+    }
+
+    private static void addRoute(List<String> methods, List<String> templates, String method, String template) {
+        methods.add(method);
+        templates.add(template);
+    }
+
+    private static int matchRegex(List<Pattern> patterns, List<String> methods, String method, String path) {
+        for (int i = 0; i < patterns.size(); i++) {
+            Matcher matcher = patterns.get(i).matcher(path);
+            if (matcher.matches() && methods.get(i).equals(method)) {
+                for (int j = 1; j <= matcher.groupCount(); j++) {
+                    matcher.group(j);
+                }
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.ovirt.engine.api.builders.V4Builders.cpu;
+import static org.ovirt.engine.api.builders.V4Builders.disk;
+
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+
+import org.junit.Test;
+import org.ovirt.api.metamodel.runtime.json.JsonReader;
+import org.ovirt.api.metamodel.runtime.util.FieldMask;
+import org.ovirt.api.metamodel.runtime.xml.XmlReader;
+import org.ovirt.engine.api.containers.V4HostContainer;
+import org.ovirt.engine.api.containers.V4VmContainer;
+import org.ovirt.engine.api.json.V4JsonVmReader;
+import org.ovirt.engine.api.types.V4Vm;
+import org.ovirt.engine.api.types.V4VmType;
+import org.ovirt.engine.api.xml.V4XmlVmReader;
+
+/**
+ * Tests for the mode of the generated readers that reuses the same container for all the objects of a list, and for
+ * the {@code reset} method of the containers that it uses.
+ */
+public class ReaderReuseTest {
+    // A list of two virtual machines where the first has many members and the second only a few:
+    private static final String XML =
+        "<vms>" +
+        "<vm id=\"1\">" +
+        "<name>first</name>" +
+        "<memory>1024</memory>" +
+        "<run_once>true</run_once>" +
+        "<cpu><mode>mymode</mode></cpu>" +
+        "<disks><disk id=\"d1\"/></disks>" +
+        "</vm>" +
+        "<vm id=\"2\">" +
+        "<fqdn>second.example.com</fqdn>" +
+        "</vm>" +
+        "</vms>";
+
+    private static final String JSON =
+        "[" +
+        "{\"id\":\"1\",\"name\":\"first\",\"memory\":1024,\"run_once\":true,\"cpu\":{\"mode\":\"mymode\"}," +
+        "\"disks\":[{\"id\":\"d1\"}]}," +
+        "{\"id\":\"2\",\"fqdn\":\"second.example.com\"}" +
+        "]";
+
+    /**
+     * Checks that resetting a container clears all its members.
+     */
+    @Test
+    public void testResetClearsAllMembers() {
+        V4VmContainer object = new V4VmContainer();
+        object.id("123");
+        object.name("myvm");
+        object.memory(BigInteger.TEN);
+        object.runOnce(true);
+        object.creationTime(new Date());
+        object.type(V4VmType.SERVER);
+        object.cpu(cpu().mode("mymode").build());
+        object.disks(Collections.singletonList(disk().id("456").build()));
+        object.reset();
+        assertArrayEquals(new V4VmContainer().presentMembers(), object.presentMembers());
+        assertNull(object.id());
+        assertNull(object.name());
+        assertNull(object.memory());
+        assertFalse(object.runOnce());
+        assertNull(object.creationTime());
+        assertNull(object.type());
+        assertNull(object.cpu());
+        assertTrue(object.disks().isEmpty());
+    }
+
+    /**
+     * Checks that resetting the container of a derived type also clears the members declared by the base type.
+     */
+    @Test
+    public void testResetClearsBaseMembers() {
+        V4HostContainer object = new V4HostContainer();
+        object.id("123");
+        object.address("example.com");
+        object.reset();
+        assertFalse(object.idPresent());
+        assertNull(object.id());
+        assertFalse(object.addressPresent());
+        assertNull(object.address());
+    }
+
+    /**
+     * Checks that the XML iterator returns the same container for all the objects when reuse is requested, and that
+     * nothing of the first object remains when the second is read.
+     */
+    @Test
+    public void testXmlIterateReuse() {
+        try (XmlReader reader = new XmlReader(new StringReader(XML))) {
+            Iterator<V4Vm> iterator = V4XmlVmReader.iterateMany(reader, FieldMask.ALL, true);
+            assertTrue(iterator.hasNext());
+            V4Vm first = iterator.next();
+            checkFirst(first);
+            assertTrue(iterator.hasNext());
+            V4Vm second = iterator.next();
+            assertSame(first, second);
+            checkSecond(second);
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    /**
+     * Checks that the XML iterator returns a new object each time when reuse isn't requested.
+     */
+    @Test
+    public void testXmlIterateNoReuse() {
+        try (XmlReader reader = new XmlReader(new StringReader(XML))) {
+            Iterator<V4Vm> iterator = V4XmlVmReader.iterateMany(reader, FieldMask.ALL);
+            assertTrue(iterator.hasNext());
+            V4Vm first = iterator.next();
+            assertTrue(iterator.hasNext());
+            V4Vm second = iterator.next();
+            assertNotSame(first, second);
+            checkFirst(first);
+            checkSecond(second);
+        }
+    }
+
+    /**
+     * Checks that reading one XML object into an existing container clears what it contained before.
+     */
+    @Test
+    public void testXmlReadOneReuse() {
+        V4VmContainer container = new V4VmContainer();
+        container.name("old");
+        container.memory(BigInteger.ONE);
+        try (XmlReader reader = new XmlReader(new StringReader("<vm id=\"2\"><fqdn>second.example.com</fqdn></vm>"))) {
+            V4Vm object = V4XmlVmReader.readOne(reader, FieldMask.ALL, container);
+            assertSame(container, object);
+            checkSecond(object);
+        }
+    }
+
+    /**
+     * Checks that the JSON iterator returns the same container for all the objects when reuse is requested, and that
+     * nothing of the first object remains when the second is read.
+     */
+    @Test
+    public void testJsonIterateReuse() {
+        try (JsonReader reader = new JsonReader(new StringReader(JSON))) {
+            Iterator<V4Vm> iterator = V4JsonVmReader.iterateMany(reader, FieldMask.ALL, true);
+            assertTrue(iterator.hasNext());
+            V4Vm first = iterator.next();
+            checkFirst(first);
+            assertTrue(iterator.hasNext());
+            V4Vm second = iterator.next();
+            assertSame(first, second);
+            checkSecond(second);
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    /**
+     * Checks that the JSON iterator returns a new object each time when reuse isn't requested.
+     */
+    @Test
+    public void testJsonIterateNoReuse() {
+        try (JsonReader reader = new JsonReader(new StringReader(JSON))) {
+            Iterator<V4Vm> iterator = V4JsonVmReader.iterateMany(reader, FieldMask.ALL);
+            assertTrue(iterator.hasNext());
+            V4Vm first = iterator.next();
+            assertTrue(iterator.hasNext());
+            V4Vm second = iterator.next();
+            assertNotSame(first, second);
+            checkFirst(first);
+            checkSecond(second);
+        }
+    }
+
+    private void checkFirst(V4Vm object) {
+        assertEquals("1", object.id());
+        assertEquals("first", object.name());
+        assertEquals(BigInteger.valueOf(1024), object.memory());
+        assertTrue(object.runOnce());
+        assertEquals("mymode", object.cpu().mode());
+        assertEquals(1, object.disks().size());
+        assertFalse(object.fqdnPresent());
+    }
+
+    private void checkSecond(V4Vm object) {
+        assertEquals("2", object.id());
+        assertEquals("second.example.com", object.fqdn());
+        assertFalse(object.namePresent());
+        assertNull(object.name());
+        assertFalse(object.memoryPresent());
+        assertNull(object.memory());
+        assertFalse(object.runOncePresent());
+        assertFalse(object.runOnce());
+        assertFalse(object.cpuPresent());
+        assertNull(object.cpu());
+        assertFalse(object.disksPresent());
+        assertTrue(object.disks().isEmpty());
+    }
+}
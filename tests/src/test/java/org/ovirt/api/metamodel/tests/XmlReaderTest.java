@@ -5,37 +5,62 @@
 
 package org.ovirt.api.metamodel.tests;
 
+import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
 
 import java.io.IOException;
 import java.io.PipedReader;
 import java.io.PipedWriter;
 import java.io.StringReader;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamConstants;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
 
 import org.junit.Ignore;
 import org.junit.Test;
+import org.ovirt.api.metamodel.runtime.util.FieldMask;
 import org.ovirt.api.metamodel.runtime.util.ListWithHref;
 import org.ovirt.api.metamodel.runtime.xml.XmlException;
+import org.ovirt.api.metamodel.runtime.xml.XmlFactories;
 import org.ovirt.api.metamodel.runtime.xml.XmlReader;
+import org.ovirt.api.metamodel.runtime.xml.XmlWriter;
 import org.ovirt.engine.api.types.V4Disk;
+import org.ovirt.engine.api.types.V4Sample;
 import org.ovirt.engine.api.types.V4SsoMethod;
 import org.ovirt.engine.api.types.V4SsoMethodId;
 import org.ovirt.engine.api.types.V4Vm;
 import org.ovirt.engine.api.types.V4VmDisplayType;
 import org.ovirt.engine.api.types.V4VmType;
+import org.ovirt.engine.api.xml.V4XmlSampleReader;
 import org.ovirt.engine.api.xml.V4XmlVmReader;
 
 /**
@@ -793,6 +818,179 @@ public class XmlReaderTest {
         assertEquals(date, object.creationTime());
     }
 
+    /**
+     * Checks that dates without fraction of second and with different offset syntaxes are read correctly.
+     */
+    @Test
+    public void testDateFormats() {
+        assertEquals(
+            new Date(1453047503000L),
+            objectFromXml("<vm><creation_time>2016-01-17T16:18:23Z</creation_time></vm>").creationTime()
+        );
+        assertEquals(
+            new Date(1453047503100L),
+            objectFromXml("<vm><creation_time>2016-01-17T17:18:23.1+0100</creation_time></vm>").creationTime()
+        );
+        assertEquals(
+            new Date(1453047503123L),
+            objectFromXml("<vm><creation_time>2016-01-17T15:18:23.123456-01</creation_time></vm>").creationTime()
+        );
+        assertEquals(
+            new Date(-1L),
+            objectFromXml("<vm><creation_time>1969-12-31T23:59:59.999Z</creation_time></vm>").creationTime()
+        );
+        assertEquals(
+            new Date(951782400000L),
+            objectFromXml("<vm><creation_time>2000-02-29T00:00:00.000Z</creation_time></vm>").creationTime()
+        );
+    }
+
+    /**
+     * Checks that elements whose names have the same length and share characters with the names of members of the
+     * type are ignored.
+     */
+    @Test
+    public void testIgnoresElementsWithSimilarNames() {
+        V4Vm object = objectFromXml(
+            "<vm><nbme>junk</nbme><cpx>junk</cpx><fqdm>junk</fqdm><name>myvm</name><ido>junk</ido></vm>"
+        );
+        assertEquals("myvm", object.name());
+        assertNull(object.cpu());
+        assertNull(object.fqdn());
+        assertNull(object.id());
+    }
+
+    /**
+     * Checks that when a mask is given only the members included in it are read, and that the mask is also applied to
+     * the members of nested objects and lists.
+     */
+    @Test
+    public void testReadWithMask() {
+        StringReader buffer = new StringReader(
+            "<vm id=\"123\">" +
+                "<name>myvm</name>" +
+                "<cpu><mode>host</mode></cpu>" +
+                "<disks>" +
+                    "<disk id=\"456\"><alias>disk0</alias></disk>" +
+                    "<disk id=\"789\"><alias>disk1</alias></disk>" +
+                "</disks>" +
+                "<fqdn>myvm.example.com</fqdn>" +
+            "</vm>"
+        );
+        V4Vm object;
+        try (XmlReader reader = new XmlReader(buffer)) {
+            object = V4XmlVmReader.readOne(reader, FieldMask.of("name", "disks.id"));
+        }
+        assertNull(object.id());
+        assertEquals("myvm", object.name());
+        assertNull(object.cpu());
+        assertNull(object.fqdn());
+        assertEquals(2, object.disks().size());
+        assertEquals("456", object.disks().get(0).id());
+        assertNull(object.disks().get(0).alias());
+        assertEquals("789", object.disks().get(1).id());
+        assertNull(object.disks().get(1).alias());
+    }
+
+    /**
+     * Checks that links are ignored when they point to members that aren't included in the mask.
+     */
+    @Test
+    public void testReadLinksWithMask() {
+        StringReader buffer = new StringReader(
+            "<vm>" +
+                "<link href=\"123\" rel=\"permissions\"/>" +
+                "<link href=\"789\" rel=\"tags\"/>" +
+            "</vm>"
+        );
+        V4Vm object;
+        try (XmlReader reader = new XmlReader(buffer)) {
+            object = V4XmlVmReader.readOne(reader, FieldMask.of("tags"));
+        }
+        assertTrue(object.permissions().isEmpty());
+        assertEquals("789", ((ListWithHref) object.tags()).href());
+    }
+
+    /**
+     * Checks that invalid dates are rejected.
+     */
+    @Test
+    public void testInvalidDates() {
+        String[] images = {
+            "junk",
+            "2016-01-17",
+            "2016-01-17T16:18:23",
+            "2016-01-17T16:18:23.Z",
+            "2016-13-17T16:18:23Z",
+            "2015-02-29T16:18:23Z",
+            "2016-01-17T24:18:23Z",
+            "2016-01-17T16:18:23.123+01:00x",
+        };
+        for (String image : images) {
+            try {
+                objectFromXml("<vm><creation_time>" + image + "</creation_time></vm>");
+                fail("Date \"" + image + "\" should have been rejected");
+            }
+            catch (XmlException expected) {
+                // Ok.
+            }
+        }
+    }
+
+    /**
+     * Checks that dates represented as XML attributes are read correctly.
+     */
+    @Test
+    public void testDateAttribute() {
+        try (XmlReader reader = new XmlReader(new StringReader("<sample id=\"2016-01-17T17:18:23.123+01:00\"/>"))) {
+            V4Sample object = V4XmlSampleReader.readOne(reader);
+            assertEquals(new Date(1453047503123L), object.id());
+        }
+    }
+
+    /**
+     * Checks that dates represented as XML attributes can be read from multiple threads simultaneously, and that each
+     * thread gets the dates that it expects.
+     */
+    @Test
+    public void testDateAttributesFromMultipleThreads() throws Exception {
+        int threads = 8;
+        int iterations = 200;
+        int samples = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long base = 1453047503123L + t * 86_400_000L;
+                futures.add(executor.submit(() -> {
+                    StringBuilder text = new StringBuilder("<samples>");
+                    for (int i = 0; i < samples; i++) {
+                        text.append("<sample id=\"").append(XmlWriter.renderDate(new Date(base + i * 1001L)));
+                        text.append("\"><value>").append(i).append("</value></sample>");
+                    }
+                    text.append("</samples>");
+                    for (int n = 0; n < iterations; n++) {
+                        try (XmlReader reader = new XmlReader(new StringReader(text.toString()))) {
+                            List<V4Sample> list = V4XmlSampleReader.readMany(reader);
+                            assertEquals(samples, list.size());
+                            for (int i = 0; i < samples; i++) {
+                                assertEquals(new Date(base + i * 1001L), list.get(i).id());
+                                assertEquals(String.valueOf(i), list.get(i).value());
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
     /**
      * Checks that empty lists of objects are read correctly.
      */
@@ -1012,6 +1210,259 @@ public class XmlReaderTest {
         }
     }
 
+    /**
+     * Checks that the generic {@code read} method selects the reader for a single object using the tag of the root
+     * element.
+     */
+    @Test
+    public void testReadSelectsReaderForObject() {
+        XmlReader reader = new XmlReader(new StringReader("<vm><name>myvm</name></vm>"));
+        Object result = reader.read();
+        assertTrue(result instanceof V4Vm);
+        assertEquals("myvm", ((V4Vm) result).name());
+    }
+
+    /**
+     * Checks that the generic {@code read} method selects the reader for a list of objects using the tag of the root
+     * element.
+     */
+    @Test
+    public void testReadSelectsReaderForList() {
+        XmlReader reader = new XmlReader(new StringReader("<vms><vm><name>vm0</name></vm><vm><name>vm1</name></vm></vms>"));
+        Object result = reader.read();
+        assertTrue(result instanceof List);
+        List<?> list = (List<?>) result;
+        assertEquals(2, list.size());
+        assertEquals("vm0", ((V4Vm) list.get(0)).name());
+        assertEquals("vm1", ((V4Vm) list.get(1)).name());
+    }
+
+    /**
+     * Checks that the generic {@code read} method fails if there is no reader for the tag of the root element.
+     */
+    @Test(expected = XmlException.class)
+    public void testReadFailsForUnknownTag() {
+        XmlReader reader = new XmlReader(new StringReader("<junk/>"));
+        reader.read();
+    }
+
+    /**
+     * Checks that the {@code stream} method selects the iterator based on the tag of the root element, and that it
+     * returns the objects of the list.
+     */
+    @Test
+    public void testStreamSelectsIteratorForList() {
+        XmlReader reader = new XmlReader(new StringReader("<vms><vm><name>vm0</name></vm><vm><name>vm1</name></vm></vms>"));
+        List<String> names;
+        try (Stream<V4Vm> stream = reader.stream(V4Vm.class)) {
+            names = stream.map(V4Vm::name).collect(toList());
+        }
+        assertEquals(Arrays.asList("vm0", "vm1"), names);
+    }
+
+    /**
+     * Checks that the {@code stream} method reads the objects only when they are consumed, so that the first object
+     * can be obtained even if the rest of the document is incomplete.
+     */
+    @Test
+    public void testStreamIsLazy() {
+        XmlReader reader = new XmlReader(new StringReader("<vms><vm><name>vm0</name></vm><vm><name>"));
+        try (Stream<V4Vm> stream = reader.stream(V4Vm.class)) {
+            V4Vm first = stream.findFirst().orElse(null);
+            assertNotNull(first);
+            assertEquals("vm0", first.name());
+        }
+    }
+
+    /**
+     * Checks that the {@code stream} method returns one object when the root element isn't a list.
+     */
+    @Test
+    public void testStreamWithOneObject() {
+        XmlReader reader = new XmlReader(new StringReader("<vm><name>vm0</name></vm>"));
+        List<V4Vm> list;
+        try (Stream<V4Vm> stream = reader.stream(V4Vm.class)) {
+            list = stream.collect(toList());
+        }
+        assertEquals(1, list.size());
+        assertEquals("vm0", list.get(0).name());
+    }
+
+    /**
+     * Checks that the {@code stream} method fails if the objects aren't of the requested type.
+     */
+    @Test(expected = XmlException.class)
+    public void testStreamFailsForIncorrectType() {
+        XmlReader reader = new XmlReader(new StringReader("<vms><vm><name>vm0</name></vm></vms>"));
+        try (Stream<V4Disk> stream = reader.stream(V4Disk.class)) {
+            stream.count();
+        }
+    }
+
+    /**
+     * Checks that the {@code stream} method accepts an explicit iterator function, so that a mask can be used.
+     */
+    @Test
+    public void testStreamWithIteratorFunction() {
+        XmlReader reader = new XmlReader(new StringReader("<vms><vm id=\"0\"><name>vm0</name></vm></vms>"));
+        List<V4Vm> list;
+        try (Stream<V4Vm> stream = reader.stream(x -> V4XmlVmReader.iterateMany(x, FieldMask.of("name")))) {
+            list = stream.collect(toList());
+        }
+        assertEquals(1, list.size());
+        assertEquals("vm0", list.get(0).name());
+        assertNull(list.get(0).id());
+    }
+
+    /**
+     * Checks that the generic {@code read} method resolves only the readers for the tags that it finds, and that it
+     * reports those tags in the startup metrics.
+     */
+    @Test
+    public void testReadResolvesReadersLazily() {
+        XmlReader reader = new XmlReader(new StringReader("<sso><methods/></sso>"));
+        reader.read();
+        assertTrue(XmlReader.getResolvedTags().contains("sso"));
+        assertFalse(XmlReader.getResolvedTags().contains("ssos"));
+        assertTrue(XmlReader.getDispatcherLoadTime() >= 0);
+        int count = XmlReader.getResolvedTagCount();
+        reader = new XmlReader(new StringReader("<sso><methods/></sso>"));
+        reader.read();
+        assertEquals(count, XmlReader.getResolvedTagCount());
+    }
+
+    /**
+     * Checks that a reader registered explicitly is used, and that the generated one is used again after removing it.
+     */
+    @Test
+    public void testRegisteredReaderIsUsed() {
+        XmlReader.register("registered", xmlReader -> "registered");
+        try {
+            XmlReader reader = new XmlReader(new StringReader("<registered/>"));
+            assertEquals("registered", reader.read());
+            assertFalse(XmlReader.getResolvedTags().contains("registered"));
+        }
+        finally {
+            XmlReader.unregister("registered");
+        }
+        try {
+            new XmlReader(new StringReader("<registered/>")).read();
+            fail("The reader should have been removed");
+        }
+        catch (XmlException exception) {
+            assertTrue(exception.getMessage().contains("registered"));
+        }
+    }
+
+    /**
+     * Checks that the StAX input factories are created once for each set of properties and then reused.
+     */
+    @Test
+    public void testInputFactoriesAreReused() {
+        Map<String, Object> properties = Collections.singletonMap(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        assertSame(XmlFactories.getInputFactory(), XmlFactories.getInputFactory());
+        assertSame(XmlFactories.getInputFactory(properties), XmlFactories.getInputFactory(properties));
+        assertNotSame(XmlFactories.getInputFactory(), XmlFactories.getInputFactory(properties));
+        assertEquals(Boolean.TRUE, XmlFactories.getInputFactory(properties).getProperty(XMLInputFactory.IS_COALESCING));
+    }
+
+    /**
+     * Checks that a reader can be created with a caller supplied factory.
+     */
+    @Test
+    public void testReadWithCustomFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        Source source = new StreamSource(new StringReader("<vm><name>myvm</name></vm>"));
+        try (XmlReader reader = new XmlReader(source, factory)) {
+            V4Vm object = V4XmlVmReader.readOne(reader);
+            assertEquals("myvm", object.name());
+        }
+    }
+
+    /**
+     * Checks that a document can be read from a file, using memory mapping.
+     */
+    @Test
+    public void testReadFromPath() throws IOException {
+        Path file = Files.createTempFile("test", ".xml");
+        try {
+            Files.write(file, "<vm><name>my\u00f1vm</name></vm>".getBytes(StandardCharsets.UTF_8));
+            try (XmlReader reader = new XmlReader(file)) {
+                V4Vm vm = V4XmlVmReader.readOne(reader);
+                assertEquals("my\u00f1vm", vm.name());
+            }
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Checks that a document can be read from a byte buffer, and that the buffer can be read again.
+     */
+    @Test
+    public void testReadFromByteBuffer() {
+        ByteBuffer buffer = ByteBuffer.wrap("<vm><name>myvm</name></vm>".getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < 2; i++) {
+            try (XmlReader reader = new XmlReader(buffer)) {
+                V4Vm vm = V4XmlVmReader.readOne(reader);
+                assertEquals("myvm", vm.name());
+            }
+        }
+    }
+
+    /**
+     * Compares the time that it takes to read a large file using a stream and mapping it into memory. This is a
+     * benchmark, not a real test, so it only runs when the {@code benchmark} system property is {@code true}.
+     */
+    @Test
+    public void testMappedFileBenchmark() throws IOException {
+        assumeTrue(Boolean.getBoolean("benchmark"));
+
+        // Generate the file:
+        Path file = Files.createTempFile("benchmark", ".xml");
+        try {
+            try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                out.write("<vms>");
+                for (int i = 0; i < 200_000; i++) {
+                    out.write(
+                        "<vm id=\"" + i + "\">" +
+                            "<name>vm" + i + "</name>" +
+                            "<disks>" +
+                                "<disk id=\"123\"><alias>disk1</alias></disk>" +
+                                "<disk id=\"456\"><alias>disk2</alias></disk>" +
+                            "</disks>" +
+                        "</vm>"
+                    );
+                }
+                out.write("</vms>");
+            }
+
+            // Run each variant several times, so that the last results aren't affected by the JIT compiler:
+            for (int round = 0; round < 5; round++) {
+                long before = System.nanoTime();
+                int streamed;
+                try (XmlReader reader = new XmlReader(file.toFile())) {
+                    streamed = V4XmlVmReader.readMany(reader).size();
+                }
+                long middle = System.nanoTime();
+                int mapped;
+                try (XmlReader reader = new XmlReader(file)) {
+                    mapped = V4XmlVmReader.readMany(reader).size();
+                }
+                long after = System.nanoTime();
+                assertEquals(streamed, mapped);
+                System.out.printf(
+                    "Round %d: stream %d ms, mapped %d ms%n",
+                    round, (middle - before) / 1_000_000, (after - middle) / 1_000_000
+                );
+            }
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
     /**
      * Opens a cursor for reading the given XML text and positions it in the first event.
      */
@@ -0,0 +1,222 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigInteger;
+
+import org.junit.Test;
+import org.ovirt.api.metamodel.runtime.util.ListWithHref;
+import org.ovirt.api.metamodel.runtime.xml.XmlException;
+import org.ovirt.api.metamodel.runtime.xml.XmlIndex;
+import org.ovirt.api.metamodel.runtime.xml.XmlReader;
+import org.ovirt.api.metamodel.runtime.xml.XmlWriter;
+import org.ovirt.engine.api.types.V4Disk;
+import org.ovirt.engine.api.types.V4Host;
+import org.ovirt.engine.api.types.V4Vm;
+import org.ovirt.engine.api.types.V4VmDisplayType;
+import org.ovirt.engine.api.types.V4VmType;
+import org.ovirt.engine.api.xml.V4XmlCpuView;
+import org.ovirt.engine.api.xml.V4XmlHostView;
+import org.ovirt.engine.api.xml.V4XmlVmReader;
+import org.ovirt.engine.api.xml.V4XmlVmView;
+import org.ovirt.engine.api.xml.V4XmlVmWriter;
+
+/**
+ * Tests for the generated views that decode the members of an object from the text of the XML document only when
+ * they are requested, and for the index that they use.
+ */
+public class XmlViewTest {
+    private static final String XML =
+        "<?xml version=\"1.0\"?>" +
+        "<!-- A virtual machine -->" +
+        "<vm id=\"123\" href=\"/vms/123\">" +
+        "<name>my&amp;vm</name>" +
+        "<memory>1024</memory>" +
+        "<run_once>true</run_once>" +
+        "<type>server</type>" +
+        "<creation_time>2016-01-17T17:18:23.123+01:00</creation_time>" +
+        "<cpu><mode>my&gt;mode</mode></cpu>" +
+        "<!-- <fqdn>commented.example.com</fqdn> -->" +
+        "<disks>" +
+        "<disk id=\"d1\"><alias><![CDATA[<first>]]></alias></disk>" +
+        "<disk id=\"d2\"/>" +
+        "</disks>" +
+        "<display_types><display_type>spice</display_type><display_type>vnc</display_type></display_types>" +
+        "<properties><property>a</property><property>b</property></properties>" +
+        "<link rel=\"permissions\" href=\"/vms/123/permissions\"/>" +
+        "</vm>";
+
+    /**
+     * Checks that the members returned by the view are the same that the regular reader returns.
+     */
+    @Test
+    public void testSameAsReader() {
+        V4Vm expected;
+        try (XmlReader reader = new XmlReader(new StringReader(XML))) {
+            expected = V4XmlVmReader.readOne(reader);
+        }
+        V4Vm actual = new V4XmlVmView(XML);
+        assertEquals(expected.id(), actual.id());
+        assertEquals(expected.name(), actual.name());
+        assertEquals(expected.memory(), actual.memory());
+        assertEquals(expected.memoryAsLong(), actual.memoryAsLong());
+        assertEquals(expected.runOnce(), actual.runOnce());
+        assertEquals(expected.type(), actual.type());
+        assertEquals(expected.creationTime(), actual.creationTime());
+        assertEquals(expected.cpu().mode(), actual.cpu().mode());
+        assertEquals(expected.disks().size(), actual.disks().size());
+        assertEquals(expected.disks().get(0).alias(), actual.disks().get(0).alias());
+        assertEquals(expected.displayTypes(), actual.displayTypes());
+        assertEquals(expected.properties(), actual.properties());
+        assertEquals(expected.fqdnPresent(), actual.fqdnPresent());
+        assertEquals(expected.permissionsPresent(), actual.permissionsPresent());
+        assertEquals(
+            ((ListWithHref<?>) expected.permissions()).href(),
+            ((ListWithHref<?>) actual.permissions()).href()
+        );
+        assertEquals(vmToXml(expected), vmToXml(actual));
+    }
+
+    /**
+     * Checks the values of the members decoded by the view.
+     */
+    @Test
+    public void testMembers() {
+        V4Vm object = new V4XmlVmView(XML);
+        assertEquals("123", object.id());
+        assertEquals("my&vm", object.name());
+        assertEquals(BigInteger.valueOf(1024), object.memory());
+        assertTrue(object.runOnce());
+        assertSame(V4VmType.SERVER, object.type());
+        assertEquals("my>mode", object.cpu().mode());
+        assertEquals(2, object.disks().size());
+        V4Disk first = object.disks().get(0);
+        assertEquals("d1", first.id());
+        assertEquals("<first>", first.alias());
+        assertEquals(V4VmDisplayType.VNC, object.displayTypes().get(1));
+        assertFalse(object.fqdnPresent());
+        assertNull(object.fqdn());
+        assertFalse(object.ssoPresent());
+        assertNull(object.sso());
+        assertFalse(object.deleteProtectedPresent());
+        assertFalse(object.deleteProtected());
+    }
+
+    /**
+     * Checks that members that are structs are returned as views of the inner element, and that the same view is
+     * returned each time.
+     */
+    @Test
+    public void testStructIsView() {
+        V4XmlVmView object = new V4XmlVmView(XML);
+        assertTrue(object.cpu() instanceof V4XmlCpuView);
+        assertSame(object.cpu(), object.cpu());
+        assertEquals("<cpu><mode>my&gt;mode</mode></cpu>", ((V4XmlCpuView) object.cpu()).getXmlIndex().getText());
+    }
+
+    /**
+     * Checks that decoded members are kept, so that calling the getter again doesn't decode them again.
+     */
+    @Test
+    public void testListDecodedOnce() {
+        V4Vm object = new V4XmlVmView(XML);
+        assertSame(object.disks(), object.disks());
+    }
+
+    /**
+     * Checks that the view of an empty element doesn't contain any member.
+     */
+    @Test
+    public void testEmpty() {
+        V4Vm object = new V4XmlVmView("<vm id=\"123\"/>");
+        assertEquals("123", object.id());
+        assertFalse(object.namePresent());
+        assertFalse(object.cpuPresent());
+        assertTrue(object.disks().isEmpty());
+    }
+
+    /**
+     * Checks that the view of a derived type decodes the members of the base type as well.
+     */
+    @Test
+    public void testDerivedType() {
+        V4Host object = new V4XmlHostView("<host id=\"1\"><name>myhost</name><port>22</port></host>");
+        assertEquals("1", object.id());
+        assertEquals("myhost", object.name());
+        assertEquals(Integer.valueOf(22), object.portAsInteger());
+        assertFalse(object.activePresent());
+    }
+
+    /**
+     * Checks that the original text of the element can be forwarded without modifications.
+     */
+    @Test
+    public void testForward() throws IOException {
+        String element = XML.substring(XML.indexOf("<vm "));
+        XmlIndex index = new V4XmlVmView(XML).getXmlIndex();
+        assertEquals("vm", index.getName());
+        assertEquals(element, index.getText());
+        StringWriter writer = new StringWriter();
+        index.writeTo(writer);
+        assertEquals(element, writer.toString());
+    }
+
+    /**
+     * Checks that the index locates the direct children, and ignores elements inside comments and inside other
+     * elements.
+     */
+    @Test
+    public void testIndexChildren() {
+        XmlIndex index = XmlIndex.of(XML);
+        XmlIndex disk = index.child("disks").child("disk");
+        assertEquals("<disk id=\"d1\"><alias><![CDATA[<first>]]></alias></disk>", disk.getText());
+        assertNull(disk.child("disk"));
+        assertNull(index.child("fqdn"));
+        assertNull(index.child("mode"));
+        assertEquals("<mode>my&gt;mode</mode>", index.child("cpu").child("mode").getText());
+    }
+
+    /**
+     * Checks that the values of attributes can contain the characters used to delimit tags.
+     */
+    @Test
+    public void testIndexAttributeWithDelimiters() {
+        XmlIndex index = XmlIndex.of("<vm name=\"a>b\" other='c/>'><cpu/></vm>");
+        assertEquals("<cpu/>", index.child("cpu").getText());
+    }
+
+    /**
+     * Checks that an element that isn't closed is reported.
+     */
+    @Test
+    public void testIndexNotClosed() {
+        try {
+            XmlIndex.of("<vm><name>myvm</name>");
+            fail("The element isn't closed");
+        }
+        catch (XmlException expected) {
+            // This is the expected result.
+        }
+    }
+
+    private String vmToXml(V4Vm object) {
+        StringWriter buffer = new StringWriter();
+        try (XmlWriter writer = new XmlWriter(buffer, false)) {
+            V4XmlVmWriter.writeOne(object, writer);
+        }
+        return buffer.toString();
+    }
+}
@@ -7,16 +7,20 @@ package org.ovirt.api.metamodel.tests;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 import static org.ovirt.engine.api.builders.V4Builders.boot;
 import static org.ovirt.engine.api.builders.V4Builders.cpu;
 import static org.ovirt.engine.api.builders.V4Builders.disk;
+import static org.ovirt.engine.api.builders.V4Builders.sample;
 import static org.ovirt.engine.api.builders.V4Builders.sso;
 import static org.ovirt.engine.api.builders.V4Builders.ssoMethod;
 import static org.ovirt.engine.api.builders.V4Builders.vm;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
@@ -30,9 +34,12 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.ovirt.api.metamodel.runtime.xml.XmlWriter;
 import org.ovirt.engine.api.types.V4BootDevice;
+import org.ovirt.engine.api.types.V4Sample;
 import org.ovirt.engine.api.types.V4SsoMethodId;
 import org.ovirt.engine.api.types.V4Vm;
+import org.ovirt.engine.api.types.V4VmDisplayType;
 import org.ovirt.engine.api.types.V4VmType;
+import org.ovirt.engine.api.xml.V4XmlSampleWriter;
 import org.ovirt.engine.api.xml.V4XmlVmWriter;
 
 /**
@@ -279,6 +286,34 @@ public class XmlWriterTest {
         );
     }
 
+    /**
+     * Checks that dates before the epoch and with years that need more than four digits are written correctly.
+     */
+    @Test
+    public void testDateOutsideCommonRange() {
+        assertEquals(
+            "<vm><creation_time>1969-12-31T23:59:59.999Z</creation_time></vm>",
+            objectToXml(vm().creationTime(new Date(-1L)).build())
+        );
+        assertEquals(
+            "<vm><creation_time>+10000-01-01T00:00:00.000Z</creation_time></vm>",
+            objectToXml(vm().creationTime(new Date(253402300800000L)).build())
+        );
+    }
+
+    /**
+     * Checks that dates represented as XML attributes are written correctly.
+     */
+    @Test
+    public void testDateAttribute() {
+        V4Sample object = sample().id(new Date(1453047503123L)).build();
+        StringWriter buffer = new StringWriter();
+        try (XmlWriter writer = new XmlWriter(buffer, false)) {
+            V4XmlSampleWriter.writeOne(object, writer);
+        }
+        assertEquals("<sample id=\"2016-01-17T16:18:23.123Z\"></sample>", buffer.toString());
+    }
+
     /**
      * Checks that enum values are written correctly.
      */
@@ -487,6 +522,177 @@ public class XmlWriterTest {
         assertTrue(elapsed < 60_000_000);
     }
 
+    /**
+     * Checks that the direct writer generates exactly the same output than the StAX writer, with and without
+     * indentation.
+     */
+    @Test
+    public void testDirectWriterMatchesStaxWriter() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(0);
+        calendar.set(2016, Calendar.JANUARY, 17, 16, 18, 23);
+        V4Vm first = vm()
+            .id("<&>\"'")
+            .name("my\u00f1vm \ud83d\ude00 <&>\"' ]]>")
+            .creationTime(calendar.getTime())
+            .deleteProtected(true)
+            .memory(1024)
+            .cpu(cpu().mode("host"))
+            .boot(boot().devices(V4BootDevice.CDROM, V4BootDevice.HD))
+            .disks(disk().id("123").alias("disk1"), disk().id("456"))
+            .displayTypes(V4VmDisplayType.SPICE, V4VmDisplayType.VNC)
+            .properties("a", "b")
+            .sso(sso().methods(ssoMethod().id(V4SsoMethodId.GUEST_AGENT)))
+            .type(V4VmType.DESKTOP)
+            .build();
+        V4Vm second = vm().build();
+        for (boolean indent : new boolean[] { false, true }) {
+            String expected = listToBytes(Arrays.asList(first, second), indent, false);
+            String actual = listToBytes(Arrays.asList(first, second), indent, true);
+            assertEquals(expected, actual);
+        }
+    }
+
+    /**
+     * Checks that the direct writer writes unpaired surrogates in the same way that the StAX writer does.
+     */
+    @Test
+    public void testDirectWriterMatchesStaxWriterForUnpairedSurrogates() {
+        V4Vm object = vm()
+            .id("a\ud83db")
+            .name("a\ude00b \ude00\ud83d x\ud83d")
+            .build();
+        for (boolean indent : new boolean[] { false, true }) {
+            String expected = listToBytes(Collections.singletonList(object), indent, false);
+            String actual = listToBytes(Collections.singletonList(object), indent, true);
+            assertEquals(expected, actual);
+        }
+    }
+
+    /**
+     * Checks that the direct writer escapes the special characters of text and attribute values.
+     */
+    @Test
+    public void testDirectWriterEscapes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XmlWriter writer = new XmlWriter(out, false, true)) {
+            V4XmlVmWriter.writeOne(vm().id("\"1\"").name("a<b>&c\"d").build(), "myvm", writer);
+        }
+        assertEquals(
+            "<myvm id=\"&quot;1&quot;\"><name>a&lt;b&gt;&amp;c\"d</name></myvm>",
+            new String(out.toByteArray(), StandardCharsets.UTF_8)
+        );
+    }
+
+    /**
+     * Checks that indented output puts each element in its own line, and that text values stay in the same line
+     * than their elements.
+     */
+    @Test
+    public void testIndentation() {
+        V4Vm object = vm().name("myvm").disks(disk().id("123").alias("disk1")).build();
+        StringWriter buffer = new StringWriter();
+        try (XmlWriter writer = new XmlWriter(buffer, true)) {
+            V4XmlVmWriter.writeOne(object, writer);
+        }
+        assertEquals(
+            "<vm>\n" +
+            "  <disks>\n" +
+            "    <disk id=\"123\">\n" +
+            "      <alias>disk1</alias>\n" +
+            "    </disk>\n" +
+            "  </disks>\n" +
+            "  <name>myvm</name>\n" +
+            "</vm>",
+            buffer.toString()
+        );
+    }
+
+    /**
+     * Checks that elements nested deeper than the pre-computed indentation levels are indented correctly.
+     */
+    @Test
+    public void testDeepIndentation() {
+        int levels = 40;
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < levels; i++) {
+            if (i > 0) {
+                expected.append("\n");
+            }
+            expected.append(String.join("", Collections.nCopies(i, "  "))).append("<e>");
+        }
+        for (int i = levels - 1; i >= 0; i--) {
+            if (i < levels - 1) {
+                expected.append("\n").append(String.join("", Collections.nCopies(i, "  ")));
+            }
+            expected.append("</e>");
+        }
+        StringWriter buffer = new StringWriter();
+        try (XmlWriter writer = new XmlWriter(buffer, true)) {
+            for (int i = 0; i < levels; i++) {
+                writer.writeStartElement("e");
+            }
+            for (int i = 0; i < levels; i++) {
+                writer.writeEndElement();
+            }
+        }
+        assertEquals(expected.toString(), buffer.toString());
+    }
+
+    /**
+     * Compares the time that it takes to write a large list of objects with and without indentation. This is a
+     * benchmark, not a real test, so it only runs when the {@code benchmark} system property is {@code true}.
+     */
+    @Test
+    public void testIndentationBenchmark() {
+        assumeTrue(Boolean.getBoolean("benchmark"));
+        List<V4Vm> list = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            list.add(
+                vm()
+                .id(String.valueOf(i))
+                .name("vm" + i)
+                .disks(disk().id("123").alias("disk1"))
+                .disks(disk().id("456").alias("disk2"))
+                .build()
+            );
+        }
+
+        // Run each variant several times, so that the last results aren't affected by the JIT compiler:
+        for (int round = 0; round < 5; round++) {
+            long before = System.nanoTime();
+            try (XmlWriter writer = new XmlWriter(new NullOutputStream(), false)) {
+                V4XmlVmWriter.writeMany(list.iterator(), writer);
+            }
+            long middle = System.nanoTime();
+            try (XmlWriter writer = new XmlWriter(new NullOutputStream(), true)) {
+                V4XmlVmWriter.writeMany(list.iterator(), writer);
+            }
+            long after = System.nanoTime();
+            System.out.printf(
+                "Round %d: compact %d ms, indented %d ms%n",
+                round, (middle - before) / 1_000_000, (after - middle) / 1_000_000
+            );
+        }
+    }
+
+    /**
+     * Converts the given list of objects to XML using a writer that writes to a stream, and returns the text.
+     *
+     * @param list the objects to convert
+     * @param indent indicates if the output should be indented
+     * @param direct indicates if the direct writer should be used
+     */
+    private String listToBytes(List<V4Vm> list, boolean indent, boolean direct) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XmlWriter writer = new XmlWriter(out, indent, direct)) {
+            writer.writeStartDocument("UTF-8", "1.0");
+            V4XmlVmWriter.writeMany(list.iterator(), writer);
+            writer.writeLine();
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
     /**
      * Converts the given object to XML and returns a string containing the XML text. Will use the default tag
      * for the object.
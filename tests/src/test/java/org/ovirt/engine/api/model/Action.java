@@ -0,0 +1,31 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.engine.api.model;
+
+/**
+ * Replacement of the class that the XJC compiler generates from the XML schema, containing only what the JAX-RS
+ * interfaces generated by the tests use.
+ */
+public class Action extends ActionableResource {
+    private Boolean pause;
+    private Boolean force;
+
+    public Boolean isPause() {
+        return pause;
+    }
+
+    public void setPause(Boolean newPause) {
+        pause = newPause;
+    }
+
+    public Boolean isForce() {
+        return force;
+    }
+
+    public void setForce(Boolean newForce) {
+        force = newForce;
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.engine.api.model;
+
+/**
+ * Replacement of the class that the XJC compiler generates from the XML schema, containing only what the JAX-RS
+ * interfaces generated by the tests use.
+ */
+public class Vm extends ActionableResource {
+    private String name;
+    private Cpu cpu;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String newName) {
+        name = newName;
+    }
+
+    public Cpu getCpu() {
+        return cpu;
+    }
+
+    public void setCpu(Cpu newCpu) {
+        cpu = newCpu;
+    }
+}
@@ -0,0 +1,13 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.engine.api.model;
+
+/**
+ * Replacement of the class that the XJC compiler generates from the XML schema, containing only what the JAX-RS
+ * interfaces generated by the tests use.
+ */
+public class Vms extends ActionableResource {
+}
@@ -0,0 +1,14 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.engine.api.resource;
+
+/**
+ * Replacement of the class that contains the media types used by the JAX-RS interfaces generated by the tests.
+ */
+public class ApiMediaType {
+    public static final String APPLICATION_XML = "application/xml";
+    public static final String APPLICATION_JSON = "application/json";
+}
@@ -0,0 +1,13 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.engine.api.resource;
+
+/**
+ * Replacement of the interface of the resources that can be created asynchronously, used by the JAX-RS interfaces
+ * generated by the tests.
+ */
+public interface AsynchronouslyCreatedResource {
+}
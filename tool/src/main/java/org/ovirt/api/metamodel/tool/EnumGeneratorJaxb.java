@@ -109,8 +109,11 @@ public class EnumGeneratorJaxb extends JavaGenerator {
 	}
 
     private String getEnumValueLine(EnumValue enumValue, boolean lastValue) {
-        String value = join("_", enumValue.getName().getWords()).toUpperCase();
-        return value + (lastValue ? ";" : ",");
+        return getValueName(enumValue) + (lastValue ? ";" : ",");
+    }
+
+    private String getValueName(EnumValue enumValue) {
+        return join("_", enumValue.getName().getWords()).toUpperCase();
     }
 
     private void writeValueMethod() {
@@ -121,13 +124,23 @@ public class EnumGeneratorJaxb extends JavaGenerator {
     }
 
     private void writeFromValueMethod(String enumName, EnumType enumType) {
+        // The exact images are checked with a switch, which doesn't create any object, other spellings are accepted
+        // ignoring case, and only invalid values pay for the exception:
         javaBuffer.addLine("public static " + enumName + " fromValue(String value) {");
-        javaBuffer.addLine(  "try {");
-        javaBuffer.addLine(    "return valueOf(value.toUpperCase());");
-        javaBuffer.addLine(  "}");
-        javaBuffer.addLine(  "catch (IllegalArgumentException e) {");
-        javaBuffer.addLine(    "throw new InvalidEnumValueException(\"" + nonExistingValueMessage(enumName, enumType)  + "\");");
+        javaBuffer.addLine(  "switch (value) {");
+        for (EnumValue enumValue : enumType.getValues()) {
+            javaBuffer.addLine("case \"%1$s\":", getValueText(enumValue));
+            javaBuffer.addLine(  "return %1$s;", getValueName(enumValue));
+        }
+        javaBuffer.addLine(  "default:");
+        javaBuffer.addLine(    "break;");
         javaBuffer.addLine(  "}");
+        for (EnumValue enumValue : enumType.getValues()) {
+            javaBuffer.addLine("if (\"%1$s\".equalsIgnoreCase(value)) {", getValueText(enumValue));
+            javaBuffer.addLine(  "return %1$s;", getValueName(enumValue));
+            javaBuffer.addLine("}");
+        }
+        javaBuffer.addLine(  "throw new InvalidEnumValueException(\"" + nonExistingValueMessage(enumName, enumType)  + "\");");
         javaBuffer.addLine("}");
     }
 
@@ -111,7 +111,8 @@ public class JavaClassBuffer {
             line.endsWith("{");
         boolean isEnd =
             line.endsWith("}") ||
-            line.endsWith("};");
+            line.endsWith("};") ||
+            line.startsWith("});");
 
         // If the line is the end of a block then reduce the indentation:
         if (isEnd) {
@@ -5,18 +5,42 @@
 
 package org.ovirt.api.metamodel.tool;
 
+import static java.util.stream.Collectors.joining;
+
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
 
 import org.ovirt.api.metamodel.concepts.Concept;
 import org.ovirt.api.metamodel.concepts.Model;
+import org.ovirt.api.metamodel.concepts.StructMember;
+import org.ovirt.api.metamodel.concepts.StructType;
+import org.ovirt.api.metamodel.concepts.Type;
+import org.ovirt.api.metamodel.runtime.util.Bits;
+import org.ovirt.api.metamodel.runtime.util.IntegerCodec;
 
 /**
  * This class contains methods useful for several different kinds of classes that generate Java source code.
  */
 public abstract class JavaGenerator {
+    /**
+     * The default maximum size, in bytes, of the code of the generated methods. This is the value of the
+     * {@code HugeMethodLimit} parameter of the HotSpot virtual machine, methods larger than that are never compiled by
+     * the JIT compiler.
+     */
+    public static final int DEFAULT_METHOD_SIZE_LIMIT = 8000;
+
+    // Estimated size of the code generated for each name by the generateNameIndex method:
+    private static final int NAME_INDEX_SIZE = 32;
+
     // The buffer used to generate Java code:
     protected JavaClassBuffer javaBuffer;
 
@@ -26,6 +50,12 @@ public abstract class JavaGenerator {
     // The directory were the resources file will be generated:
     protected File resourcesDir;
 
+    // The maximum size of the code of the generated methods:
+    protected int methodSizeLimit = DEFAULT_METHOD_SIZE_LIMIT;
+
+    // Indicates if integer members should be stored as primitive long values:
+    protected boolean compactIntegers;
+
     /**
      * Set the directory were the output will be generated.
      */
@@ -40,11 +70,257 @@ public abstract class JavaGenerator {
         resourcesDir = newResourcesDir;
     }
 
+    /**
+     * Set the maximum size, in bytes, of the code of the generated methods. Methods that would be larger than this are
+     * split into several smaller methods.
+     */
+    public void setMethodSizeLimit(int newMethodSizeLimit) {
+        methodSizeLimit = newMethodSizeLimit;
+    }
+
+    /**
+     * Set the flag that indicates if integer members should be stored in the generated containers as primitive
+     * {@code long} values, using {@link java.math.BigInteger} only for the values that don't fit. The generated readers
+     * use the same flag to parse those values without creating {@code BigInteger} objects.
+     */
+    public void setCompactIntegers(boolean newCompactIntegers) {
+        compactIntegers = newCompactIntegers;
+    }
+
     /**
      * Generate the code for the given model.
      */
     public abstract void generate(Model model);
 
+    /**
+     * Checks if the given type is the integer type and the compact integers mode is enabled, which means that the
+     * values are stored as primitive {@code long} values.
+     */
+    protected boolean isCompactInteger(Type type) {
+        return compactIntegers && type == type.getModel().getIntegerType();
+    }
+
+    /**
+     * Generates the code that sets an integer member from its text in compact integers mode. Values that fit in a
+     * {@code long} are parsed directly, and the rest are converted with the given fallback expression, which should
+     * return a {@code BigInteger}.
+     *
+     * @param field the name of the member
+     * @param image the name of the variable that contains the text
+     * @param fallback the expression used to convert the text when it doesn't fit in a {@code long}
+     */
+    protected void generateCompactIntegerSet(String field, String image, String fallback) {
+        javaBuffer.addImport(IntegerCodec.class);
+        javaBuffer.addLine("if (IntegerCodec.isLong(%1$s)) {", image);
+        javaBuffer.addLine(  "object.%1$s(Long.parseLong(%2$s));", field, image);
+        javaBuffer.addLine("}");
+        javaBuffer.addLine("else {");
+        javaBuffer.addLine(  "object.%1$s(%2$s);", field, fallback);
+        javaBuffer.addLine("}");
+    }
+
+    /**
+     * Generates the code that gets an integer member in compact integers mode and passes it to a writer. If the object
+     * is a container and the value fits in a {@code long} then it is passed as a {@code long}, without creating a
+     * {@code BigInteger}. Otherwise the {@code BigInteger} getter is used, as in the default mode.
+     *
+     * @param containerName the name of the container class of the type that is written
+     * @param field the name of the member
+     * @param format the format of the statement that writes the value, where {@code %1$s} is replaced by the
+     *     expression that returns it, of type {@code long} or {@code BigInteger}
+     */
+    protected void generateCompactIntegerWrite(JavaClassName containerName, String field, String format) {
+        String container = String.format("((%1$s) object)", containerName.getSimpleName());
+        javaBuffer.addImport(containerName);
+        javaBuffer.addLine(
+            "if (object instanceof %1$s && %2$s.%3$sFitsLong()) {",
+            containerName.getSimpleName(), container, field
+        );
+        javaBuffer.addLine(  format, String.format("%1$s.%2$sLongValue()", container, field));
+        javaBuffer.addLine("}");
+        javaBuffer.addLine("else {");
+        javaBuffer.addLine(  format, String.format("object.%1$s()", field));
+        javaBuffer.addLine("}");
+    }
+
+    /**
+     * Returns the members of the given type in the order used by the generated containers to assign the bits that
+     * indicate which members are present: first the members of the base type, in the same order, and then the members
+     * declared by the type, sorted by name. This way the bit of a member is the same in the container of the type that
+     * declares it and in the containers of the derived types.
+     */
+    protected List<StructMember> getContainerLayout(StructType type) {
+        List<StructMember> layout = new ArrayList<>();
+        Type base = type.getBase();
+        if (base instanceof StructType) {
+            layout.addAll(getContainerLayout((StructType) base));
+        }
+        Stream.concat(type.declaredAttributes(), type.declaredLinks()).sorted().forEach(layout::add);
+        return layout;
+    }
+
+    /**
+     * Returns the name of the constant that the generated containers use for the position of the presence bit of the
+     * given member, for example {@code CREATION_TIME_INDEX}.
+     */
+    protected String getIndexConstant(StructMember member) {
+        return member.getName().words().map(String::toUpperCase).collect(joining("_")) + "_INDEX";
+    }
+
+    /**
+     * Generates the loop used by the writers to write the members of an object that are present, calling for each of
+     * them the given method with the object, the position of the member in the order that the writer uses, and the
+     * writer. When the object is a container the presence bits are read in place, without copying them. If the
+     * order of the container is the same used by the writer the loop visits directly the bits that are set, otherwise
+     * it first moves each bit that is set to the position of the member in the order of the writer, using the table
+     * generated by the {@link #generatePresentMembers} method, and then visits the resulting bits. Either way only the
+     * members that are present are visited. For other implementations of the interface the loop uses the bits
+     * returned by the {@code presentMembers} method.
+     *
+     * @param containerName the name of the container of the type
+     * @param positions the position in the writer order of each member of the container, as returned by the
+     *     {@link #getContainerLayout(StructType)} method
+     * @param methodName the name of the method that writes a member
+     */
+    protected void generatePresentLoop(JavaClassName containerName, int[] positions, String methodName) {
+        javaBuffer.addImport(Bits.class);
+        javaBuffer.addImport(containerName);
+        javaBuffer.addLine("if (object instanceof %1$s) {", containerName.getSimpleName());
+        javaBuffer.addLine(  "%1$s container = (%1$s) object;", containerName.getSimpleName());
+        if (isIdentity(positions)) {
+            // The bits of derived containers that are beyond the members of this type are ignored:
+            javaBuffer.addLine(
+                "for (int index = container.nextPresent(0); index >= 0 && index < %1$d; " +
+                "index = container.nextPresent(index + 1)) {",
+                positions.length
+            );
+            javaBuffer.addLine(  "%1$s(object, index, writer);", methodName);
+            javaBuffer.addLine("}");
+        }
+        else if (positions.length <= Long.SIZE) {
+            // All the bits fit in one word, so they can be moved to a local variable. The bits of derived containers
+            // that are beyond the members of this type are removed with the mask:
+            long mask = positions.length < Long.SIZE ? (1L << positions.length) - 1 : -1L;
+            javaBuffer.addLine("long present = 0L;");
+            javaBuffer.addLine(
+                "for (long bits = container.presentWord(0) & 0x%1$sL; bits != 0; bits &= bits - 1) {",
+                Long.toHexString(mask)
+            );
+            javaBuffer.addLine(  "present |= 1L << CONTAINER_POSITIONS[Long.numberOfTrailingZeros(bits)];");
+            javaBuffer.addLine("}");
+            javaBuffer.addLine("for (; present != 0; present &= present - 1) {");
+            javaBuffer.addLine(  "%1$s(object, Long.numberOfTrailingZeros(present), writer);", methodName);
+            javaBuffer.addLine("}");
+        }
+        else {
+            // The bits need more than one word, so they are moved to a local array:
+            int words = (positions.length + Long.SIZE - 1) / Long.SIZE;
+            javaBuffer.addLine("long[] present = new long[%1$d];", words);
+            javaBuffer.addLine("for (int word = 0; word < %1$d; word++) {", words);
+            javaBuffer.addLine(  "for (long bits = container.presentWord(word); bits != 0; bits &= bits - 1) {");
+            javaBuffer.addLine(    "int index = (word << 6) + Long.numberOfTrailingZeros(bits);");
+            javaBuffer.addLine(    "if (index >= %1$d) {", positions.length);
+            javaBuffer.addLine(      "break;");
+            javaBuffer.addLine(    "}");
+            javaBuffer.addLine(    "Bits.set(present, CONTAINER_POSITIONS[index]);");
+            javaBuffer.addLine(  "}");
+            javaBuffer.addLine("}");
+            javaBuffer.addLine(
+                "for (int index = Bits.next(present, 0); index >= 0; index = Bits.next(present, index + 1)) {"
+            );
+            javaBuffer.addLine(  "%1$s(object, index, writer);", methodName);
+            javaBuffer.addLine("}");
+        }
+        javaBuffer.addLine("}");
+        javaBuffer.addLine("else {");
+        javaBuffer.addLine(  "long[] present = presentMembers(object);");
+        javaBuffer.addLine(
+            "for (int index = Bits.next(present, 0); index >= 0; index = Bits.next(present, index + 1)) {"
+        );
+        javaBuffer.addLine(    "%1$s(object, index, writer);", methodName);
+        javaBuffer.addLine(  "}");
+        javaBuffer.addLine("}");
+    }
+
+    /**
+     * Generates the {@code presentMembers} method used by the writers to find the members of an object that isn't a
+     * container that are present, calling each {@code ...Present} method. The bits returned by the method are indexed
+     * by the position of the member in the order that the writer uses. If the order of the container is different it
+     * also generates the {@code CONTAINER_POSITIONS} table used by the loop generated by the
+     * {@link #generatePresentLoop} method, which contains the position in the order of the writer of each member, in
+     * the order of the container.
+     *
+     * @param typeName the name of the interface of the type
+     * @param fields the names of the members, in the order used by the writer
+     * @param positions the position in the writer order of each member of the container, as returned by the
+     *     {@link #getContainerLayout(StructType)} method
+     */
+    protected void generatePresentMembers(JavaClassName typeName, List<String> fields, int[] positions) {
+        javaBuffer.addImport(Bits.class);
+
+        // Each check takes about 16 bytes of code:
+        List<List<String>> chunks = splitBySize(fields, field -> 16);
+        int words = (fields.size() + Long.SIZE - 1) / Long.SIZE;
+
+        // The positions in the order of the writer of the members of the container, if they are different:
+        if (!isIdentity(positions)) {
+            javaBuffer.addLine("private static final int[] CONTAINER_POSITIONS = {");
+            javaBuffer.addLine(
+                Arrays.stream(positions).mapToObj(Integer::toString).collect(joining(", "))
+            );
+            javaBuffer.addLine("};");
+            javaBuffer.addLine();
+        }
+
+        javaBuffer.addLine("private static long[] presentMembers(%1$s object) {", typeName.getSimpleName());
+        javaBuffer.addLine(  "long[] present = new long[%1$d];", words);
+        if (chunks.size() == 1) {
+            generatePresentChecks(fields, chunks.get(0));
+        }
+        else {
+            for (int i = 0; i < chunks.size(); i++) {
+                javaBuffer.addLine("presentMembers%1$d(object, present);", i);
+            }
+        }
+        javaBuffer.addLine(  "return present;");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+
+        // If the checks were too large for one method then generate a method for each chunk:
+        if (chunks.size() > 1) {
+            for (int i = 0; i < chunks.size(); i++) {
+                javaBuffer.addLine(
+                    "private static void presentMembers%1$d(%2$s object, long[] present) {",
+                    i, typeName.getSimpleName()
+                );
+                generatePresentChecks(fields, chunks.get(i));
+                javaBuffer.addLine("}");
+                javaBuffer.addLine();
+            }
+        }
+    }
+
+    /**
+     * Checks if the order of the container is the same used by the writer, as then the bits don't need to be
+     * translated.
+     */
+    private boolean isIdentity(int[] positions) {
+        for (int i = 0; i < positions.length; i++) {
+            if (positions[i] != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void generatePresentChecks(List<String> fields, List<String> chunk) {
+        for (String field : chunk) {
+            javaBuffer.addLine("if (object.%1$sPresent()) {", field);
+            javaBuffer.addLine(  "Bits.set(present, %1$d);", fields.indexOf(field));
+            javaBuffer.addLine("}");
+        }
+    }
+
     protected void generateDoc(Concept concept) {
         List<String> lines = new ArrayList<>();
         String doc = concept.getDoc();
@@ -55,5 +331,172 @@ public abstract class JavaGenerator {
             javaBuffer.addDocComment(lines);
         }
     }
+
+    /**
+     * Splits the given list of items into groups, preserving the order, so that the code generated for each group fits
+     * in a method. The size of the code generated for each item is estimated by the given function. Only half of the
+     * limit is used, to leave room for the rest of the code of the method and for errors in the estimates.
+     *
+     * @param items the items to split
+     * @param estimator the function that estimates the size, in bytes, of the code generated for an item
+     * @return the list of groups, which will contain only one group if all the items fit in one method
+     */
+    protected <T> List<List<T>> splitBySize(List<T> items, ToIntFunction<? super T> estimator) {
+        int budget = methodSizeLimit / 2;
+        List<List<T>> groups = new ArrayList<>();
+        List<T> group = new ArrayList<>();
+        int size = 0;
+        for (T item : items) {
+            int itemSize = estimator.applyAsInt(item);
+            if (!group.isEmpty() && size + itemSize > budget) {
+                groups.add(group);
+                group = new ArrayList<>();
+                size = 0;
+            }
+            group.add(item);
+            size += itemSize;
+        }
+        if (!group.isEmpty() || groups.isEmpty()) {
+            groups.add(group);
+        }
+        return groups;
+    }
+
+    /**
+     * Generates a static method that returns the position of a name inside the given list of names, or -1 if the name
+     * isn't in the list. The generated code selects the only possible candidate using the length of the name and the
+     * characters that distinguish it from the other names with the same length, and then compares it using
+     * {@code equals}. This avoids computing the hash code of the name, and comparing it with more than one candidate,
+     * which is what a {@code switch} on the string would do.
+     *
+     * If the code is too large for one method then the names of each length are handled by a separate method, and
+     * inside those methods the groups of candidates that are still too large are moved to separate methods as well.
+     * The additional methods are named adding a number to the name of the main method.
+     *
+     * @param methodName the name of the generated method
+     * @param names the list of names, the position of each name in this list is the value returned by the method
+     */
+    protected void generateNameIndex(String methodName, List<String> names) {
+        Map<Integer, List<String>> byLength = new TreeMap<>();
+        for (String name : names) {
+            byLength.computeIfAbsent(name.length(), x -> new ArrayList<>()).add(name);
+        }
+        boolean split = names.size() * NAME_INDEX_SIZE > methodSizeLimit / 2;
+
+        // Generate the main method, that selects the candidates by length:
+        List<NameIndexMethod> methods = new ArrayList<>();
+        javaBuffer.addLine("private static int %1$s(String name) {", methodName);
+        javaBuffer.addLine(  "switch (name.length()) {");
+        byLength.forEach((length, group) -> {
+            javaBuffer.addLine("case %1$d:", length);
+            if (split && group.size() > 1) {
+                addNameIndexMethod(methodName, methods, group, new HashSet<>());
+            }
+            else {
+                generateNameIndexBranch(methodName, methods, names, group, new HashSet<>());
+            }
+        });
+        javaBuffer.addLine(  "}");
+        javaBuffer.addLine(  "return -1;");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+
+        // Generate the additional methods. Note that generating one of them may add more to the list, so this can't
+        // use an iterator:
+        for (int i = 0; i < methods.size(); i++) {
+            NameIndexMethod method = methods.get(i);
+            javaBuffer.addLine("private static int %1$s(String name) {", method.name);
+            generateNameIndexBranch(methodName, methods, names, method.group, method.checked);
+            javaBuffer.addLine("}");
+            javaBuffer.addLine();
+        }
+    }
+
+    private void generateNameIndexBranch(String methodName, List<NameIndexMethod> methods, List<String> names,
+            List<String> group, Set<Integer> checked) {
+        // If there is only one candidate left then it is enough to compare it:
+        if (group.size() == 1) {
+            String candidate = group.get(0);
+            javaBuffer.addLine("return name.equals(\"%1$s\") ? %2$d : -1;", candidate, names.indexOf(candidate));
+            return;
+        }
+
+        // Find the position of the character that splits the candidates in more groups:
+        int length = group.get(0).length();
+        int best = -1;
+        long bestCount = 0;
+        for (int i = 0; i < length; i++) {
+            if (checked.contains(i)) {
+                continue;
+            }
+            int position = i;
+            long count = group.stream().map(x -> x.charAt(position)).distinct().count();
+            if (count > bestCount) {
+                best = i;
+                bestCount = count;
+            }
+        }
+        Map<Character, List<String>> byChar = new TreeMap<>();
+        for (String candidate : group) {
+            byChar.computeIfAbsent(candidate.charAt(best), x -> new ArrayList<>()).add(candidate);
+        }
+        Set<Integer> nextChecked = new HashSet<>(checked);
+        nextChecked.add(best);
+
+        // Generate the switch for that position. If the code for all the candidates doesn't fit in the method then
+        // the characters are split in chunks, and the candidates of each chunk are handled by a separate method:
+        javaBuffer.addLine("switch (name.charAt(%1$d)) {", best);
+        if (group.size() * NAME_INDEX_SIZE > methodSizeLimit / 2) {
+            List<List<Map.Entry<Character, List<String>>>> chunks = splitBySize(
+                new ArrayList<>(byChar.entrySet()),
+                entry -> entry.getValue().size() * NAME_INDEX_SIZE
+            );
+            for (List<Map.Entry<Character, List<String>>> chunk : chunks) {
+                List<String> candidates = new ArrayList<>();
+                for (Map.Entry<Character, List<String>> entry : chunk) {
+                    generateNameIndexCase(entry.getKey());
+                    candidates.addAll(entry.getValue());
+                }
+                if (candidates.size() == 1) {
+                    generateNameIndexBranch(methodName, methods, names, candidates, nextChecked);
+                }
+                else {
+                    addNameIndexMethod(methodName, methods, candidates, chunk.size() == 1 ? nextChecked : checked);
+                }
+            }
+        }
+        else {
+            byChar.forEach((c, subgroup) -> {
+                generateNameIndexCase(c);
+                generateNameIndexBranch(methodName, methods, names, subgroup, nextChecked);
+            });
+        }
+        javaBuffer.addLine("}");
+        javaBuffer.addLine("return -1;");
+    }
+
+    private void generateNameIndexCase(char c) {
+        javaBuffer.addLine("case '%1$s':", c == '\'' || c == '\\' ? "\\" + c : String.valueOf(c));
+    }
+
+    private void addNameIndexMethod(String methodName, List<NameIndexMethod> methods, List<String> group,
+            Set<Integer> checked) {
+        NameIndexMethod method = new NameIndexMethod();
+        method.name = methodName + methods.size();
+        method.group = group;
+        method.checked = checked;
+        methods.add(method);
+        javaBuffer.addLine("return %1$s(name);", method.name);
+    }
+
+    /**
+     * Describes an additional method generated by the {@link #generateNameIndex(String, List)} method to handle a
+     * group of candidates with the same length.
+     */
+    private static class NameIndexMethod {
+        String name;
+        List<String> group;
+        Set<Integer> checked;
+    }
 }
 
@@ -87,6 +87,11 @@ public interface JavaTypes {
      */
     JavaClassName getXmlWriterName(Type type);
 
+    /**
+     * Calculates the name of the lazily decoded XML view that should be generated for the given type.
+     */
+    JavaClassName getXmlViewName(Type type);
+
     /**
      * Calculates the type reference that should be generated for the given type. For example, for the type
      * {@code Vm[]} it returns the text {@code List<Vm>} and a list of imports containing {@code java.util.List}
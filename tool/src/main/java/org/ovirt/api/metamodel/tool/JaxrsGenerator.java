@@ -8,12 +8,15 @@ package org.ovirt.api.metamodel.tool;
 import static java.util.stream.Collectors.joining;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.ws.rs.Consumes;
@@ -37,6 +40,7 @@ import org.ovirt.api.metamodel.concepts.Parameter;
 import org.ovirt.api.metamodel.concepts.Service;
 import org.ovirt.api.metamodel.concepts.StructType;
 import org.ovirt.api.metamodel.concepts.Type;
+import org.ovirt.api.metamodel.server.CompletionStages;
 import org.ovirt.api.metamodel.tool.util.JaxrsGeneratorUtils;
 
 /**
@@ -50,6 +54,12 @@ public class JaxrsGenerator extends JavaGenerator {
         "ApiMediaType.APPLICATION_JSON",
     };
 
+    // The suffix added to the names of the asynchronous variants of the methods:
+    private static final String ASYNC_SUFFIX = "Async";
+
+    // The annotations of methods that JAX-RS doesn't call directly:
+    private static final List<String> NO_ANNOTATIONS = Collections.emptyList();
+
     // List of JAX-RS interfaces that support asynchronous creation:
     private static final Set<Name> ASYNCHRONOUS = new HashSet<>();
 
@@ -88,19 +98,150 @@ public class JaxrsGenerator extends JavaGenerator {
     @Inject private Names names;
     @Inject private JaxrsGeneratorUtils jaxrsGeneratorUtils;
 
+    // Indicates if asynchronous variants of the methods should be generated:
+    private boolean async;
+
+    /**
+     * Set the flag that indicates if asynchronous variants of the methods should be generated. When enabled, each
+     * method gets a variant, with the {@code Async} suffix, that returns a {@link CompletionStage} of the same type,
+     * and the JAX-RS annotations are moved to those variants, so that JAX-RS calls them instead of the synchronous
+     * methods. The default implementations of the variants call the synchronous methods, so existing resources keep
+     * working, and resources that don't want to block the thread override the variants instead.
+     */
+    public void setAsync(boolean newAsync) {
+        async = newAsync;
+    }
+
     @Override
     public void generate(Model model) {
         model.getServices().forEach(this::generateInterface);
     }
 
-    private void addMethod(String returnType, String methodNameWithArgs, Object ... args) {
-        javaBuffer.addLine("default public %s %s {", returnType, String.format(methodNameWithArgs, args));
+    /**
+     * Generates a method that the implementation of the resource overrides, with a default implementation that throws
+     * {@link UnsupportedOperationException}, and its asynchronous variant if they are enabled. The asynchronous variant
+     * calls the synchronous method, so resources that only implement the synchronous method keep working.
+     *
+     * @param annotations the JAX-RS annotations, or an empty list if JAX-RS doesn't call this method directly
+     * @param returnType the type returned by the synchronous method
+     * @param methodName the name of the synchronous method
+     * @param parameterType the type of the parameter, or {@code null} if the method doesn't have parameters
+     * @param parameterName the name of the parameter, or {@code null} if the method doesn't have parameters
+     */
+    private void addMethod(List<String> annotations, String returnType, String methodName, String parameterType,
+            String parameterName) {
+        if (!async) {
+            annotations.forEach(javaBuffer::addLine);
+        }
+        javaBuffer.addLine(
+            "default public %s %s(%s) {",
+            returnType, methodName, getParameterDeclaration(parameterType, parameterName)
+        );
         javaBuffer.addLine(  "throw new UnsupportedOperationException();");
         javaBuffer.addLine("}");
+        if (async) {
+            beginAsyncMethod(annotations, returnType, methodName, parameterType, parameterName);
+            writeSynchronousCall(methodName, parameterName);
+            javaBuffer.addLine("}");
+        }
+    }
+
+    /**
+     * Generates a method that has signatures, and its asynchronous variant if they are enabled. The synchronous method
+     * selects the signature and calls the method that corresponds to it. The asynchronous variant calls the
+     * synchronous method, so resources that override the synchronous method, or the synchronous methods of the
+     * signatures, keep working. Resources that want to handle some signatures asynchronously override the
+     * asynchronous variant and call the asynchronous variants of those signatures.
+     *
+     * @param annotations the JAX-RS annotations
+     * @param returnType the type returned by the synchronous method
+     * @param methodName the name of the synchronous method
+     * @param parameterType the type of the parameter
+     * @param parameterName the name of the parameter
+     * @param helperClassName the name of the helper class that selects the signature
+     * @param method the method of the model
+     * @param signatures the signatures of the method
+     */
+    private void addSignaturesMethod(List<String> annotations, String returnType, String methodName,
+            String parameterType, String parameterName, JavaClassName helperClassName, Method method,
+            Set<Method> signatures) {
+        if (!async) {
+            annotations.forEach(javaBuffer::addLine);
+        }
+        javaBuffer.addLine(
+            "default public %s %s(%s) {",
+            returnType, methodName, getParameterDeclaration(parameterType, parameterName)
+        );
+        if (signatures!=null && mandatoryAttributeExists(signatures)) {
+            writeHelperInvocation(helperClassName, parameterName, method, signatures);
+        }
+        else {
+            javaBuffer.addLine("throw new UnsupportedOperationException();");
+            //add log message - signatures with only 'optional' attributes indicate bad input
+        }
+        javaBuffer.addLine("}");
+        if (async) {
+            beginAsyncMethod(annotations, returnType, methodName, parameterType, parameterName);
+            writeSynchronousCall(methodName, parameterName);
+            javaBuffer.addLine("}");
+        }
+    }
+
+    /**
+     * Generates the body of an asynchronous variant that calls the synchronous method.
+     */
+    private void writeSynchronousCall(String methodName, String parameterName) {
+        javaBuffer.addImport(CompletionStages.class);
+        javaBuffer.addLine(
+            "return CompletionStages.call(() -> %s(%s));",
+            methodName, parameterName != null? parameterName: ""
+        );
+    }
+
+    /**
+     * Generates a method that JAX-RS calls and that delegates to other methods of the interface, and its asynchronous
+     * variant if they are enabled. The JAX-RS annotations are added to the asynchronous variant when it is generated,
+     * and to the synchronous method otherwise. The body is generated by the given function, which receives the suffix
+     * that has to be added to the names of the called methods: empty for the synchronous method and {@code Async}
+     * for the asynchronous variant.
+     */
+    private void addEntryMethod(List<String> annotations, String returnType, String methodName, String parameterType,
+            String parameterName, Consumer<String> body) {
+        if (!async) {
+            annotations.forEach(javaBuffer::addLine);
+        }
+        javaBuffer.addLine(
+            "default public %s %s(%s) {",
+            returnType, methodName, getParameterDeclaration(parameterType, parameterName)
+        );
+        body.accept("");
+        javaBuffer.addLine("}");
+        if (async) {
+            beginAsyncMethod(annotations, returnType, methodName, parameterType, parameterName);
+            body.accept(ASYNC_SUFFIX);
+            javaBuffer.addLine("}");
+        }
+    }
+
+    private void beginAsyncMethod(List<String> annotations, String returnType, String methodName,
+            String parameterType, String parameterName) {
+        javaBuffer.addImport(CompletionStage.class);
+        javaBuffer.addLine();
+        javaBuffer.addDocComment(
+            String.format(
+                "Asynchronous variant of {@link #%s(%s)}.",
+                methodName, parameterType != null? parameterType: ""
+            )
+        );
+        annotations.forEach(javaBuffer::addLine);
+        javaBuffer.addLine(
+            "default CompletionStage<%s> %s%s(%s) {",
+            returnType, methodName, ASYNC_SUFFIX, getParameterDeclaration(parameterType, parameterName)
+        );
     }
 
-    private void addResponseReturnMethod(String methodNameWithArgs, Object ... args) {
-        addMethod("Response", methodNameWithArgs, args);
+    private String getParameterDeclaration(String parameterType, String parameterName) {
+        return parameterType != null? parameterType + " " + parameterName: "";
     }
 
     private void generateInterface(Service service) {
@@ -255,9 +396,7 @@ public class JaxrsGenerator extends JavaGenerator {
         javaBuffer.addImport(javaPackages.getXjcPackageName(), "Action");
         Name methodName = new Name(method.getBase().getName());
         methodName.addWords(method.getName().getWords());
-        javaBuffer.addLine("default public Response %s(Action action) {", jaxrsNames.getMethodName(methodName));
-        javaBuffer.addLine("throw new UnsupportedOperationException();");
-        javaBuffer.addLine("}");
+        addMethod(NO_ANNOTATIONS, "Response", jaxrsNames.getMethodName(methodName), "Action", "action");
     }
 
     private void generateUpdateSignature(Method method) {
@@ -273,13 +412,13 @@ public class JaxrsGenerator extends JavaGenerator {
         Type mainType = mainParameter.getType();
         JavaTypeReference mainTypeReference = schemaNames.getXjcTypeReference(mainType);
         String methodName = javaNames.getJavaMemberStyleName(names.concatenate(method.getBase().getName(), method.getName()));
-        javaBuffer.addLine(
-            "default public %s " + methodName + "(%s %s) {",
+        addMethod(
+            NO_ANNOTATIONS,
             mainTypeReference.getText(),
+            methodName,
             mainTypeReference.getText(),
-            javaNames.getJavaMemberStyleName(mainParameter.getName()));
-        javaBuffer.addLine("throw new UnsupportedOperationException();");
-        javaBuffer.addLine("}");
+            javaNames.getJavaMemberStyleName(mainParameter.getName())
+        );
     }
 
     private void generateAddSignature(Method method) {
@@ -296,9 +435,7 @@ public class JaxrsGenerator extends JavaGenerator {
         javaBuffer.addImports(mainTypeReference.getImports());
         String parameterName = javaNames.getJavaMemberStyleName(mainParameter.getName());
         String methodName = javaNames.getJavaMemberStyleName(names.concatenate(method.getBase().getName(), method.getName()));
-        javaBuffer.addLine("default public Response %s(%s %s) {", methodName, mainTypeReference.getText(), parameterName);
-        javaBuffer.addLine("throw new UnsupportedOperationException();");
-        javaBuffer.addLine("}");
+        addMethod(NO_ANNOTATIONS, "Response", methodName, mainTypeReference.getText(), parameterName);
         javaBuffer.addLine();
     }
 
@@ -313,6 +450,7 @@ public class JaxrsGenerator extends JavaGenerator {
         // Calculate the Java type of the main parameter:
         Type mainType = mainParameter.getType();
         JavaTypeReference mainTypeReference = schemaNames.getXjcTypeReference(mainType);
+        String mainTypeName = mainTypeReference.getText();
 
         // Generate the imports:
         javaBuffer.addImport(Consumes.class);
@@ -322,49 +460,52 @@ public class JaxrsGenerator extends JavaGenerator {
 
         // Generate the method:
         generateDoc(method);
-        javaBuffer.addLine("@POST");
-        javaBuffer.addLine("@Consumes({ %s })", generateMediaTypes());
+        List<String> annotations = Arrays.asList(
+            "@POST",
+            String.format("@Consumes({ %s })", generateMediaTypes())
+        );
         String parameterName = javaNames.getJavaMemberStyleName(mainParameter.getName());
         if (baseMethods.containsKey(method)) {
-            javaBuffer.addLine("default public Response add(%s %s) {", mainTypeReference.getText(), parameterName);
             Set<Method> signatures = baseMethods.get(method);
-            if (signatures!=null && mandatoryAttributeExists(signatures)) {
-                writeHelperInvocation(helperClassName, parameterName, method.getName());
-            }
-            else {
-                javaBuffer.addLine("throw new UnsupportedOperationException();");
-                //add log message - signatures with only 'optional' attributes indicate bad input
-            }
-            javaBuffer.addLine("}");
+            addSignaturesMethod(annotations, "Response", "add", mainTypeName, parameterName, helperClassName, method,
+                signatures);
         }
         else {
             //generate doAdd() method
             if (method.isMandatoryAttributeExists()) {
-                javaBuffer.addLine("default public Response doAdd(%s %s) {", mainTypeReference.getText(), parameterName);
-                javaBuffer.addLine(helperClassName.getSimpleName() + ".validateAdd(" + parameterName + ");");
-                javaBuffer.addLine("return add(" + parameterName + ");");
-                javaBuffer.addLine("}");
+                addEntryMethod(annotations, "Response", "doAdd", mainTypeName, parameterName, suffix -> {
+                    javaBuffer.addLine(helperClassName.getSimpleName() + ".validateAdd(" + parameterName + ");");
+                    javaBuffer.addLine("return add" + suffix + "(" + parameterName + ");");
+                });
+                annotations = NO_ANNOTATIONS;
             }
             javaBuffer.addLine("");
             //generate add() method
-            addResponseReturnMethod("add(%s %s)", mainTypeReference.getText(),
-                    javaNames.getJavaMemberStyleName(mainParameter.getName()));
+            addMethod(annotations, "Response", "add", mainTypeName, parameterName);
         }
         javaBuffer.addLine();
     }
 
-    private void writeHelperInvocation(JavaClassName helperClassName, String parameterName, Name methodName) {
-        javaBuffer.addImport(InvocationTargetException.class);
+    /**
+     * Generates the code that selects the signature of the given method using the helper class, and then calls the
+     * method that corresponds to that signature directly.
+     */
+    private void writeHelperInvocation(JavaClassName helperClassName, String parameterName, Method method,
+            Set<Method> signatures) {
+        Name methodName = method.getName();
         String helperMethodName = "get" + javaNames.getJavaClassStyleName(methodName) + "Signature";
-        javaBuffer.addLine("try {");
-        javaBuffer.addLine("return (Response)(" + helperClassName.getSimpleName() + "." + helperMethodName + "(" + parameterName
-                + ").invoke(this, " + parameterName + "));");
-        javaBuffer.addLine("}");
-        javaBuffer.addLine("catch(InvocationTargetException e) {");
-        javaBuffer.addLine("throw (RuntimeException)e.getTargetException();");
-        javaBuffer.addLine("}");
-        javaBuffer.addLine("catch(IllegalAccessException | NoSuchMethodException | SecurityException e) {");
-        javaBuffer.addLine("throw new IllegalStateException(\"Failed to find or invoke API method. The failure is in auto-generated code and indicates a bug in the JAX-RS intrafaces generation process\", e);");
+        javaBuffer.addLine("switch (%s.%s(%s)) {", helperClassName.getSimpleName(), helperMethodName, parameterName);
+        signatures.stream()
+            .map(Method::getName)
+            .sorted()
+            .forEach(signatureName -> {
+                javaBuffer.addLine("case %s:", jaxrsNames.getSignatureConstantName(signatureName));
+                javaBuffer.addLine("return %s(%s);",
+                    jaxrsNames.getMethodName(names.concatenate(methodName, signatureName)), parameterName);
+            });
+        javaBuffer.addLine("default:");
+        javaBuffer.addLine("throw new IllegalStateException(\"Unknown signature of method '%s'. The failure is in "
+            + "auto-generated code and indicates a bug in the JAX-RS interfaces generation process.\");", methodName);
         javaBuffer.addLine("}");
     }
 
@@ -380,33 +521,47 @@ public class JaxrsGenerator extends JavaGenerator {
         Service service = method.getDeclaringService();
         boolean isRoot = service == service.getModel().getRoot();
         javaBuffer.addImport(GET.class);
-        javaBuffer.addLine("@GET");
+        List<String> annotations = Collections.singletonList("@GET");
         if (isRoot)  {
             javaBuffer.addImport(Response.class);
-            addResponseReturnMethod("get()");
+            addMethod(annotations, "Response", "get", null, null);
         }
         else {
             Type mainType = mainParameter.getType();
             JavaTypeReference mainTypeReference = schemaNames.getXjcTypeReference(mainType);
             javaBuffer.addImports(mainTypeReference.getImports());
             //add doGet() method with default implementation
-            generateDoGetMethod(mainParameter, mainTypeReference);
+            generateFollowingMethod(annotations, "doGet", "get", mainParameter, mainTypeReference);
             generateDoc(method);
             javaBuffer.addLine();
             //add get() method
-            addMethod(mainTypeReference.getText(), "get()");
+            addMethod(NO_ANNOTATIONS, mainTypeReference.getText(), "get", null, null);
         }
 
         javaBuffer.addLine();
     }
 
-    private void generateDoGetMethod(Parameter mainParameter, JavaTypeReference mainTypeReference) {
+    /**
+     * Generates a method that calls another method of the interface and then calls {@code follow} with the result,
+     * like {@code doGet} and {@code doList}.
+     */
+    private void generateFollowingMethod(List<String> annotations, String methodName, String calledName,
+            Parameter mainParameter, JavaTypeReference mainTypeReference) {
         String parameterName = javaNames.getJavaMemberStyleName(mainParameter.getName());
-        javaBuffer.addLine("default public %s doGet() {", mainTypeReference.getText());
-        javaBuffer.addLine("%s %s = get();", mainTypeReference.getText(), parameterName);
-        javaBuffer.addLine("follow(%s);", parameterName);
-        javaBuffer.addLine("return %s;", parameterName);
-        javaBuffer.addLine("}");
+        String typeName = mainTypeReference.getText();
+        addEntryMethod(annotations, typeName, methodName, null, null, suffix -> {
+            if (suffix.isEmpty()) {
+                javaBuffer.addLine("%s %s = %s();", typeName, parameterName, calledName);
+                javaBuffer.addLine("follow(%s);", parameterName);
+                javaBuffer.addLine("return %s;", parameterName);
+            }
+            else {
+                javaBuffer.addLine("return %s%s().thenApply(%s -> {", calledName, suffix, parameterName);
+                javaBuffer.addLine("follow(%s);", parameterName);
+                javaBuffer.addLine("return %s;", parameterName);
+                javaBuffer.addLine("});");
+            }
+        });
     }
 
     private void generateListMethod(Method method) {
@@ -428,25 +583,19 @@ public class JaxrsGenerator extends JavaGenerator {
         javaBuffer.addImport(GET.class);
         javaBuffer.addImports(mainTypeReference.getImports());
 
-        // Generate the method:
-        javaBuffer.addLine("@GET");
-
         // Generate doList() method:
-        generateDoListMethod(mainParameter, mainTypeReference);
+        generateFollowingMethod(
+            Collections.singletonList("@GET"),
+            "doList",
+            "list",
+            mainParameter,
+            mainTypeReference
+        );
         generateDoc(method);
-        addMethod(mainTypeReference.getText(), "list()");
+        addMethod(NO_ANNOTATIONS, mainTypeReference.getText(), "list", null, null);
         javaBuffer.addLine();
     }
 
-    private void generateDoListMethod(Parameter mainParameter, JavaTypeReference mainTypeReference) {
-        String parameterName = javaNames.getJavaMemberStyleName(mainParameter.getName());
-        javaBuffer.addLine("default public %s doList() {", mainTypeReference.getText());
-        javaBuffer.addLine("%s %s = list();", mainTypeReference.getText(), parameterName);
-        javaBuffer.addLine("follow(%s);", parameterName);
-        javaBuffer.addLine("return %s;", parameterName);
-        javaBuffer.addLine("}");
-    }
-
     private void generateRemoveMethod(Method method) {
         // Generate the imports:
         javaBuffer.addImport(DELETE.class);
@@ -459,13 +608,13 @@ public class JaxrsGenerator extends JavaGenerator {
             .map(Parameter::getType)
             .anyMatch(x -> x instanceof StructType || x instanceof ListType);
         generateDoc(method);
-        javaBuffer.addLine("@DELETE");
+        List<String> annotations = Collections.singletonList("@DELETE");
         if (needsAction) {
             javaBuffer.addImport(javaPackages.getXjcPackageName(), "Action");
-            addResponseReturnMethod("remove(Action action)");
+            addMethod(annotations, "Response", "remove", "Action", "action");
         }
         else {
-            addResponseReturnMethod("remove()");
+            addMethod(annotations, "Response", "remove", null, null);
         }
 
         javaBuffer.addLine();
@@ -482,6 +631,7 @@ public class JaxrsGenerator extends JavaGenerator {
         // Calculate the Java type of the main parameter:
         Type mainType = mainParameter.getType();
         JavaTypeReference mainTypeReference = schemaNames.getXjcTypeReference(mainType);
+        String mainTypeName = mainTypeReference.getText();
 
         // Generate the imports:
         javaBuffer.addImport(Consumes.class);
@@ -490,38 +640,26 @@ public class JaxrsGenerator extends JavaGenerator {
 
         // Generate the method:
         generateDoc(method);
-        javaBuffer.addLine("@PUT");
-        javaBuffer.addLine("@Consumes({ %s })", generateMediaTypes());
+        List<String> annotations = Arrays.asList(
+            "@PUT",
+            String.format("@Consumes({ %s })", generateMediaTypes())
+        );
         String parameterName = javaNames.getJavaMemberStyleName(mainParameter.getName());
         if (baseMethods.containsKey(method)) {
-            javaBuffer.addLine("default %s update(%s %s) {",
-                    mainTypeReference.getText(),
-                    mainTypeReference.getText(),
-                    parameterName);
             Set<Method> signatures = baseMethods.get(method);
-            if (signatures!=null && mandatoryAttributeExists(signatures)) {
-                writeHelperInvocation(helperClassName, parameterName, method.getName());
-            }
-            else {
-                javaBuffer.addLine("throw new UnsupportedOperationException();");
-                //add log message - signatures with only 'optional' attributes indicate bad input
-            }
-            javaBuffer.addLine("}");
+            addSignaturesMethod(annotations, mainTypeName, "update", mainTypeName, parameterName, helperClassName,
+                method, signatures);
         } else {
             //generate doUpdate() method
             if (method.isMandatoryAttributeExists()) {
-                javaBuffer.addLine("default %s doUpdate(%s %s) {",
-                        mainTypeReference.getText(),
-                        mainTypeReference.getText(),
-                        parameterName);
-                javaBuffer.addLine(helperClassName.getSimpleName() + ".validateUpdate(" + parameterName + ");");
-                javaBuffer.addLine("return update(" + parameterName + ");");
-                javaBuffer.addLine("}");
+                addEntryMethod(annotations, mainTypeName, "doUpdate", mainTypeName, parameterName, suffix -> {
+                    javaBuffer.addLine(helperClassName.getSimpleName() + ".validateUpdate(" + parameterName + ");");
+                    javaBuffer.addLine("return update" + suffix + "(" + parameterName + ");");
+                });
+                annotations = NO_ANNOTATIONS;
             }
             //generate update() method
-            addMethod(mainTypeReference.getText(), "update(%s %s)",
-                mainTypeReference.getText(),
-                javaNames.getJavaMemberStyleName(mainParameter.getName()));
+            addMethod(annotations, mainTypeName, "update", mainTypeName, parameterName);
         }
         javaBuffer.addLine();
     }
@@ -537,36 +675,31 @@ public class JaxrsGenerator extends JavaGenerator {
 
         // Generate the method:
         generateDoc(method);
-        javaBuffer.addLine("@POST");
-        javaBuffer.addLine("@Consumes({ %s })", generateMediaTypes());
-        javaBuffer.addLine("@Actionable");
-        javaBuffer.addLine(
-            "@Path(\"%s\")",
-            jaxrsNames.getActionPath(method.getName())
+        List<String> annotations = Arrays.asList(
+            "@POST",
+            String.format("@Consumes({ %s })", generateMediaTypes()),
+            "@Actionable",
+            String.format("@Path(\"%s\")", jaxrsNames.getActionPath(method.getName()))
         );
         String methodName = jaxrsNames.getMethodName(method.getName());
         if (baseMethods.containsKey(method)) {
-            javaBuffer.addLine("default Response %s(Action action) {", methodName);
             Set<Method> signatures = baseMethods.get(method);
-            if (signatures!=null && mandatoryAttributeExists(signatures)) {
-                writeHelperInvocation(helperClassName, "action", method.getName());
-            }
-            else {
-                javaBuffer.addLine("throw new UnsupportedOperationException();");
-                //add log message - signatures with only 'optional' attributes indicate bad input.
-            }
-            javaBuffer.addLine("}");
+            addSignaturesMethod(annotations, "Response", methodName, "Action", "action", helperClassName, method,
+                signatures);
         } else {
             //generate do<Action>() method
             if (method.isMandatoryAttributeExists()) {
-                javaBuffer.addLine("default Response %s(Action action) {", "do" + methodName.substring(0, 1).toUpperCase() + methodName.substring(1));
-                javaBuffer.addLine(helperClassName.getSimpleName() + ".validate" + getActionValidationMethodName(methodName) + "(action);");
-                javaBuffer.addLine("return " + methodName + "(action);");
-                javaBuffer.addLine("}");
+                String doMethodName = "do" + methodName.substring(0, 1).toUpperCase() + methodName.substring(1);
+                addEntryMethod(annotations, "Response", doMethodName, "Action", "action", suffix -> {
+                    javaBuffer.addLine("%s.validate%s(action);",
+                        helperClassName.getSimpleName(), getActionValidationMethodName(methodName));
+                    javaBuffer.addLine("return " + methodName + suffix + "(action);");
+                });
+                annotations = NO_ANNOTATIONS;
             }
             javaBuffer.addLine("");
             //generate <action>() method
-            addResponseReturnMethod(jaxrsNames.getMethodName(method.getName()) + "(Action action)");
+            addMethod(annotations, "Response", methodName, "Action", "action");
         }
         javaBuffer.addLine();
     }
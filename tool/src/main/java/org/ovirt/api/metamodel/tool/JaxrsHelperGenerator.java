@@ -5,7 +5,11 @@ import static java.util.stream.Collectors.joining;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -48,6 +52,10 @@ public class JaxrsHelperGenerator extends JavaGenerator {
     private List<Method> serviceMethods;
     private Map<Method, Set<Method>> baseMethods;
 
+    // The names of the variables that contain the result of evaluating each attribute path in the signature
+    // detection method being generated, indexed by the expression that evaluates the path:
+    private Map<String, String> pathVariables;
+
     private static final StructType ACTION_TYPE = new StructType();
     static {
         ACTION_TYPE.setName(ACTION);
@@ -86,7 +94,6 @@ public class JaxrsHelperGenerator extends JavaGenerator {
         baseMethods = jaxrsGeneratorUtils.getBaseMethodsMap(serviceMethods);
         javaBuffer = new JavaClassBuffer();
         javaBuffer.setClassName(helperName);
-        javaBuffer.addImport(resourceName);
     }
 
     private void generateHelperCode(Method method) {
@@ -123,24 +130,39 @@ public class JaxrsHelperGenerator extends JavaGenerator {
     private void generateSignatureDetection(Method method) {
         Set<Method> signatures = baseMethods.get(method);
         if (mandatoryAttributeExists(signatures)) {
-            javaBuffer.addImport(java.lang.reflect.Method.class);
             Parameter parameter = jaxrsGeneratorUtils.getMainAddParameter(method);
             Name parameterName = parameter.getName();
+            String argName = javaNames.getJavaMemberStyleName(parameterName);
             javaBuffer.addImports(schemaNames.getXjcTypeReference(parameter.getType()).getImports());
+            generateSignatureEnum(method, signatures);
             Name methodName = getSignatureDetectionMethodName(method);
-            javaBuffer.addLine("public static Method %s(%s %s) throws NoSuchMethodException, SecurityException {",
+            javaBuffer.addLine("public static %s %s(%s %s) {",
+                    jaxrsNames.getSignatureEnumName(method.getName()),
                     javaNames.getJavaMemberStyleName(methodName),
                     javaNames.getJavaClassStyleName(parameter.getType().getName()),
-                    javaNames.getJavaMemberStyleName(parameterName));
-            generateParameterValidation(parameter);
-            CyclicIterator iterator = new CyclicIterator(signatures);
-            while (iterator.hasNext()) {
-                Method signature = iterator.next();
-                if (!jaxrsHelperGeneratorUtils.isContained(signature, signatures)) {
-                    handleSignature(method.getName(), signature, parameterName, parameter.getType());
-                    iterator.remove();
+                    argName);
+            if (isValidationRequired(Collections.singletonList(parameter))) {
+                beginViolations();
+                generateParameterValidation(parameter);
+                endViolations();
+            }
+
+            // Evaluate the attribute paths used by the signatures, each of them only once:
+            pathVariables = new HashMap<>();
+            String root = getPathVariableName(parameterName, Collections.emptyList());
+            javaBuffer.addLine("boolean %s = %s!=null;", root, argName);
+            List<SignatureCandidate> candidates = new ArrayList<>();
+            for (Method signature : sortSignatures(signatures)) {
+                List<String> checks = new ArrayList<>();
+                for (MemberInvolvementTree attribute : signature.getParameter(parameterName).getMandatoryAttributes()) {
+                    checks.add(getAttributeCheck(argName, root, parameterName, attribute, null));
+                }
+                if (!checks.isEmpty()) {
+                    candidates.add(new SignatureCandidate(signature, checks));
                 }
             }
+            javaBuffer.addLine();
+            generateSignatureDecision(method.getName(), candidates);
             closeSignatureDetectionMethod();
         }
         //TODO: in the future fail for this
@@ -149,46 +171,158 @@ public class JaxrsHelperGenerator extends JavaGenerator {
 //        }
     }
 
-    private void handleSignature(Name parentMethodName, Method signature, Name parameterName, Type parameterType) {
-        Parameter parameter = signature.getParameter(parameterName);
-        Iterator<MemberInvolvementTree> iterator = parameter.getMandatoryAttributes().iterator();
-        if (iterator.hasNext()) {//if there are any mandatory attributes
-            javaBuffer.addDocComment(signature.getName().toString());
-            javaBuffer.addLine("if (" +javaNames.getJavaMemberStyleName(parameter.getName()) + "!=null");
-            while (iterator.hasNext()) {
-                MemberInvolvementTree attribute = iterator.next();
-                List<MemberInvolvementTree> list = stackAttributeComponents(attribute);
-                String attributeCheck = getFullAttributeCheck(javaNames.getJavaMemberStyleName(parameter.getName()), list, Operator.AND, true);
-                if (attribute.getAlternative()!=null) {//'or' expression
-                    list = stackAttributeComponents(attribute.getAlternative());
-                    String alternativeCheck = getFullAttributeCheck(javaNames.getJavaMemberStyleName(parameter.getName()), list, Operator.AND, true);
-                    String fullCheck = mergeChecks(attributeCheck, alternativeCheck);
-                    javaBuffer.addLine(fullCheck);
-                } else {
-                    javaBuffer.addLine(attributeCheck);
+    /**
+     * Returns the signatures in the order that they should be checked: a signature whose mandatory attributes are
+     * contained in the mandatory attributes of other signature is checked after that other signature.
+     */
+    private List<Method> sortSignatures(Set<Method> signatures) {
+        List<Method> remaining = new ArrayList<>(signatures);
+        remaining.sort(Comparator.comparing(Method::getName));
+        List<Method> sorted = new ArrayList<>();
+        CyclicIterator iterator = new CyclicIterator(remaining);
+        while (iterator.hasNext()) {
+            Method signature = iterator.next();
+            if (!jaxrsHelperGeneratorUtils.isContained(signature, remaining)) {
+                sorted.add(signature);
+                iterator.remove();
+            }
+        }
+        return sorted;
+    }
+
+    /**
+     * Returns the name of the boolean variable that indicates if the given attribute is present, declaring it and the
+     * variables of its prefixes if they haven't been declared yet. If the attribute has an alternative the result is
+     * an expression that combines both variables.
+     */
+    private String getAttributeCheck(String argName, String root, Name prefix, MemberInvolvementTree attribute,
+            MemberInvolvementTree first) {
+        String check = declarePathVariables(argName, root, prefix, stackAttributeComponents(attribute, first));
+        MemberInvolvementTree alternative = attribute.getAlternative();
+        if (alternative != null) {
+            String alternativeCheck = declarePathVariables(argName, root, prefix,
+                    stackAttributeComponents(alternative, first));
+            check = "(" + check + " || " + alternativeCheck + ")";
+        }
+        return check;
+    }
+
+    private List<MemberInvolvementTree> stackAttributeComponents(MemberInvolvementTree attribute,
+            MemberInvolvementTree first) {
+        List<MemberInvolvementTree> list = stackAttributeComponents(attribute);
+        if (first != null) {
+            list.add(0, first);
+        }
+        return list;
+    }
+
+    /**
+     * Declares a boolean variable for each prefix of the given chain of attributes, unless it has already been
+     * declared, so that each path is evaluated only once. The variable of each prefix is calculated from the variable
+     * of the previous one, so only the last step of the path needs to be checked. Returns the name of the variable
+     * of the complete chain.
+     */
+    private String declarePathVariables(String argName, String root, Name prefix, List<MemberInvolvementTree> list) {
+        String variable = root;
+        for (int i = 0; i < list.size(); i++) {
+            List<MemberInvolvementTree> components = list.subList(0, i + 1);
+            String path = getAttributePath(components, argName, Operator.AND);
+            String check = argName + path;
+            if (!path.endsWith(".size() > 0")) {
+                check += Operator.AND.comaprison + "null";
+            }
+            String next = pathVariables.get(check);
+            if (next == null) {
+                next = getPathVariableName(prefix, components);
+                javaBuffer.addLine("boolean %s = %s;", next, variable != null? variable + " && " + check: check);
+                pathVariables.put(check, next);
+            }
+            variable = next;
+        }
+        return variable;
+    }
+
+    /**
+     * Calculates the name of the variable that indicates if the given chain of attributes is present. For example,
+     * if the prefix is {@code vm} and the chain is {@code cluster.name} the result is {@code hasVmClusterName}.
+     */
+    private String getPathVariableName(Name prefix, List<MemberInvolvementTree> components) {
+        Name name = new Name();
+        name.addWord("has");
+        if (prefix != null) {
+            name.addWords(prefix.getWords());
+        }
+        components.forEach(x -> name.addWords(x.getName().getWords()));
+        String base = javaNames.getJavaMemberStyleName(name);
+        String result = base;
+        for (int i = 2; pathVariables.containsValue(result); i++) {
+            result = base + i;
+        }
+        return result;
+    }
+
+    /**
+     * Generates the code that selects the signature, using the variables that contain the result of each check. The
+     * candidates are checked in order. The check that is shared by the longest run of consecutive candidates is
+     * tested first, so that when it fails all those candidates are discarded at once, and then the rest of the checks
+     * of those candidates are tested inside it, in the same way.
+     */
+    private void generateSignatureDecision(Name methodName, List<SignatureCandidate> candidates) {
+        int i = 0;
+        while (i < candidates.size()) {
+            SignatureCandidate first = candidates.get(i);
+            if (first.checks.isEmpty()) {
+                generateSignatureReturn(methodName, first.signature);
+                return;
+            }
+            String selected = null;
+            int length = 0;
+            for (String check : first.checks) {
+                int count = 1;
+                while (i + count < candidates.size() && candidates.get(i + count).checks.contains(check)) {
+                    count++;
+                }
+                if (count > length) {
+                    selected = check;
+                    length = count;
                 }
             }
-            javaBuffer.addLine(") {");
-            javaBuffer.addLine("return " + resourceName.getSimpleName() + ".class.getMethod(\""
-                    + javaNames.getJavaMemberStyleName(parentMethodName)
-                    + javaNames.getJavaClassStyleName(signature.getName()) + "\", " + javaNames.getJavaClassStyleName(parameter.getType().getName()) + ".class);");
-            javaBuffer.addLine("}");
+            if (length == 1) {
+                javaBuffer.addLine("if (%s) {", String.join(" && ", first.checks));
+                generateSignatureReturn(methodName, first.signature);
+                javaBuffer.addLine("}");
+            }
+            else {
+                List<SignatureCandidate> group = new ArrayList<>();
+                for (SignatureCandidate candidate : candidates.subList(i, i + length)) {
+                    group.add(candidate.without(selected));
+                }
+                javaBuffer.addLine("if (%s) {", selected);
+                generateSignatureDecision(methodName, group);
+                javaBuffer.addLine("}");
+            }
+            i += length;
         }
     }
 
     /**
-     * Expected input: two strings of the structure:
-     *  && vm.getCluster()!=null && vm.getCluster().getName()!=null
-     *  && vm.getCluster()!=null && vm.getCluster().getId()!=null
-     * Expected output:
-     *  && ((vm.getCluster()!=null && vm.getCluster().getName()!=null) || (vm.getCluster()!=null && vm.getCluster().getId()!=null))
+     * A signature that is a candidate when generating the code that selects the signature, together with the checks
+     * that haven't been generated yet.
      */
-    private String mergeChecks(String check1, String check2) {
-        assert check1.startsWith(" && ") && check2.startsWith(" && ");
-        StringBuilder builder = new StringBuilder("&& ((");
-        builder.append(check1.substring(3)).append(") || (")
-        .append(check2.substring(3)).append("))");
-        return builder.toString();
+    private static class SignatureCandidate {
+        private final Method signature;
+        private final List<String> checks;
+
+        private SignatureCandidate(Method signature, List<String> checks) {
+            this.signature = signature;
+            this.checks = checks;
+        }
+
+        private SignatureCandidate without(String check) {
+            List<String> rest = new ArrayList<>(checks);
+            rest.remove(check);
+            return new SignatureCandidate(signature, rest);
+        }
     }
 
     private enum Operator {
@@ -287,9 +421,11 @@ public class JaxrsHelperGenerator extends JavaGenerator {
     private void generateValidation(Method method) {
         if (method.isMandatoryAttributeExists()) {
             generateValidationMethodName(method);
+            beginViolations();
             for (Parameter parameter : method.getParameters()) {
                 generateParameterValidation(parameter);
             }
+            endViolations();
             javaBuffer.addLine("}"); //close validation method
             javaBuffer.addLine("");
         }
@@ -304,6 +440,33 @@ public class JaxrsHelperGenerator extends JavaGenerator {
                 javaNames.getJavaMemberStyleName(parameter.getName()));
     }
 
+    /**
+     * Declares the variable where the validation code collects the problems found, so that all of them are reported
+     * together. The list is created only when the first problem is found.
+     */
+    private void beginViolations() {
+        javaBuffer.addImport(List.class);
+        javaBuffer.addLine("List<String> violations = null;");
+    }
+
+    /**
+     * Generates the code that throws the exception that reports all the problems collected, if any.
+     */
+    private void endViolations() {
+        javaBuffer.addLine("if (violations != null) {");
+        javaBuffer.addLine("throw new ValidationException(violations);");
+        javaBuffer.addLine("}");
+    }
+
+    private boolean isValidationRequired(List<Parameter> parameters) {
+        return parameters.stream().anyMatch(x -> x.isMandatory() || !x.getMandatoryAttributes().isEmpty());
+    }
+
+    private void addViolation(String message, Object... args) {
+        javaBuffer.addLine("violations = ValidationException.addViolation(violations, \"%s\");",
+                String.format(message, args));
+    }
+
     private void generateParameterValidation(Parameter parameter) {
         Name parameterName = parameter.getName();
         String argName = javaNames.getJavaMemberStyleName(parameterName);
@@ -311,51 +474,124 @@ public class JaxrsHelperGenerator extends JavaGenerator {
         List<MemberInvolvementTree> mandatoryAttributes = parameter.getMandatoryAttributes();
         if (parameter.isMandatory() || !mandatoryAttributes.isEmpty()) {
             javaBuffer.addLine("if (%1$s == null) {", argName);
-            javaBuffer.addLine(
-                "throw new ValidationException(\"Parameter '%1$s' is mandatory but was not provided.\");", tagName);
+            addViolation("Parameter '%1$s' is mandatory but was not provided.", tagName);
             javaBuffer.addLine("}");
+            if (!mandatoryAttributes.isEmpty()) {
+                javaBuffer.addLine("else {");
+                generateAttributesValidation(argName, argName + ".", mandatoryAttributes, null);
+                javaBuffer.addLine("}");
+            }
         }
-        for (MemberInvolvementTree attribute : mandatoryAttributes) {
-            List<MemberInvolvementTree> attributeComponents = stackAttributeComponents(attribute);
-            String attributePath = getSchemaPath(attributeComponents);
-            if (attribute.hasAlternative()) { //'OR' scenario
-                generateAlternativesValidation(parameterName, attribute, attributeComponents, attributePath);
+    }
+
+    /**
+     * Generates the code that checks the given mandatory attributes. The attributes are arranged in a tree, so that
+     * each path is checked only once: when an attribute is missing all the mandatory attributes below it are reported
+     * as missing, and they are only checked one by one when it is present. Attributes with alternatives are checked
+     * after that, as they may belong to different branches of the tree.
+     *
+     * @param argName the name of the variable that contains the object to check
+     * @param messagePrefix the prefix added to the paths of the attributes in the messages
+     * @param attributes the mandatory attributes
+     * @param first the component that is added at the beginning of all the paths, may be {@code null}
+     */
+    private void generateAttributesValidation(String argName, String messagePrefix,
+            List<MemberInvolvementTree> attributes, MemberInvolvementTree first) {
+        // Build the tree of the attributes that don't have alternatives:
+        AttributeNode root = new AttributeNode(Collections.emptyList());
+        for (MemberInvolvementTree attribute : attributes) {
+            if (!attribute.hasAlternative()) {
+                root.add(stackAttributeComponents(attribute, first));
             }
-            else {
-                javaBuffer.addLine(
-                    "if (%1$s) {",
-                    getFullAttributeCheck(argName, attributeComponents, Operator.OR, false)
-                );
-                //(TODO: replace line below with invocation of CompletenessAssertor)
-                String fullAttributePath = convertToModelNotation(argName + "." + attributePath);
-                javaBuffer.addLine("throw new ValidationException(\"Parameter '%1$s' is mandatory but was not provided.\");", fullAttributePath);
+        }
+        for (AttributeNode node : root.children.values()) {
+            generateAttributeNodeValidation(argName, messagePrefix, node);
+        }
+
+        // Check the attributes that have alternatives:
+        for (MemberInvolvementTree attribute : attributes) {
+            if (attribute.hasAlternative()) {
+                List<MemberInvolvementTree> components = stackAttributeComponents(attribute, first);
+                List<MemberInvolvementTree> alternativeComponents = stackAttributeComponents(
+                        attribute.getAlternative(), first);
+                javaBuffer.addLine("if ( (%s) && (%s) ) {",
+                        getFullAttributeCheck(argName, components, Operator.OR, false),
+                        getFullAttributeCheck(argName, alternativeComponents, Operator.OR, false));
+                addViolation("Parameters '%1$s' or '%2$s' are mandatory but both were not provided.",
+                        convertToModelNotation(messagePrefix + getSchemaPath(components)),
+                        convertToModelNotation(messagePrefix + getSchemaPath(alternativeComponents)));
+                javaBuffer.addLine("}");
+            }
+        }
+    }
+
+    private void generateAttributeNodeValidation(String argName, String messagePrefix, AttributeNode node) {
+        String path = getAttributePath(node.chain, argName, Operator.OR);
+        String check = argName + path;
+        if (!path.endsWith(".size() == 0")) {
+            check += Operator.OR.comaprison + "null";
+        }
+        javaBuffer.addLine("if (%s) {", check);
+        //(TODO: replace line below with invocation of CompletenessAssertor)
+        for (List<MemberInvolvementTree> chain : node.getMandatoryChains()) {
+            addViolation("Parameter '%1$s' is mandatory but was not provided.",
+                    convertToModelNotation(messagePrefix + getSchemaPath(chain)));
+        }
+        javaBuffer.addLine("}");
+        if (!node.children.isEmpty()) {
+            javaBuffer.addLine("else {");
+            for (AttributeNode child : node.children.values()) {
+                generateAttributeNodeValidation(argName, messagePrefix, child);
             }
             javaBuffer.addLine("}");
-            javaBuffer.addLine();
         }
     }
 
-    private void generateAlternativesValidation(Name parameterName, MemberInvolvementTree attribute, List<MemberInvolvementTree> attributeComponents, String attributePath) {
-        List<MemberInvolvementTree> alternativeAttributeComponents = stackAttributeComponents(attribute.getAlternative());
-        String condition1 = "if ( (" + getFullAttributeCheck(javaNames.getJavaMemberStyleName(parameterName), attributeComponents, Operator.OR, false) + ")";
-        String condition2 = "(" + getFullAttributeCheck(javaNames.getJavaMemberStyleName(parameterName), alternativeAttributeComponents, Operator.OR, false) + ") ) {";
-        javaBuffer.addLine(condition1 + " && " + condition2);
-        String fullAttributePath1 = convertToModelNotation(parameterName + "." + attributePath);
-        String fullAttributePath2 = convertToModelNotation(parameterName + "." + getSchemaPath(alternativeAttributeComponents));
-        javaBuffer.addLine(
-            "throw new ValidationException(\"Parameters '%1$s' or '%2$s' are mandatory but both were not provided.\");",
-                fullAttributePath1,
-                fullAttributePath2
-        );
+    /**
+     * A node of the tree of mandatory attributes used to generate the validation code. Each node corresponds to a
+     * path, and the children are the paths that extend it with one more component.
+     */
+    private static class AttributeNode {
+        private final List<MemberInvolvementTree> chain;
+        private final Map<Name, AttributeNode> children = new LinkedHashMap<>();
+        private boolean mandatory;
+
+        private AttributeNode(List<MemberInvolvementTree> chain) {
+            this.chain = chain;
+        }
+
+        private void add(List<MemberInvolvementTree> components) {
+            AttributeNode node = this;
+            for (int i = 0; i < components.size(); i++) {
+                MemberInvolvementTree component = components.get(i);
+                List<MemberInvolvementTree> chain = components.subList(0, i + 1);
+                node = node.children.computeIfAbsent(component.getName(), x -> new AttributeNode(chain));
+            }
+            node.mandatory = true;
+        }
+
+        /**
+         * Returns the paths of all the mandatory attributes of this node and its descendants.
+         */
+        private List<List<MemberInvolvementTree>> getMandatoryChains() {
+            List<List<MemberInvolvementTree>> result = new ArrayList<>();
+            if (mandatory) {
+                result.add(chain);
+            }
+            children.values().forEach(x -> result.addAll(x.getMandatoryChains()));
+            return result;
+        }
     }
 
     private void generateActionValidation(Method method) {
         if (method.isMandatoryAttributeExists()) {
             writeActionValidationMethodName(method);
             validateActionNotNull();
+            beginViolations();
             for (Parameter parameter : method.getParameters()) {
                 generateActionParameterValidation(parameter);
             }
+            endViolations();
             javaBuffer.addLine("}"); //close validation method
             javaBuffer.addLine("");
         }
@@ -374,39 +610,14 @@ public class JaxrsHelperGenerator extends JavaGenerator {
         if (parameter.isMandatory()) {//a simple parameter being mandatory only happens in 'action's.
             javaBuffer.addLine("if (action%1$s%2$s() == null) {", isOrGet(parameter.getType()), propertyName);
             //(TODO: replace line below with invocation of CompletenessAssertor)
-            javaBuffer.addLine("throw new ValidationException(\"Parameter '%1$s' is mandatory but was not provided.\");", tagName);
+            addViolation("Parameter '%1$s' is mandatory but was not provided.", tagName);
             javaBuffer.addLine("}");
         }
-        else {
-            for (MemberInvolvementTree attribute : parameter.getMandatoryAttributes()) {
-                List<MemberInvolvementTree> attributeComponents = stackAttributeComponents(attribute);
-                MemberInvolvementTree component = new MemberInvolvementTree(new Name(parameter.getName()));
-                component.setType(parameter.getType());
-                attributeComponents.add(0, component);
-                String attributePath = getSchemaPath(attributeComponents);
-                if (attribute.hasAlternative()) { //'OR' scenario
-                    List<MemberInvolvementTree> alternativeAttributeComponents = stackAttributeComponents(attribute.getAlternative());
-                    alternativeAttributeComponents.add(0, component);
-                    String condition1 = "if ( (" + getFullAttributeCheck(javaNames.getJavaMemberStyleName(ACTION), attributeComponents, Operator.OR, false) + ")";
-                    String condition2 = "(" + getFullAttributeCheck(javaNames.getJavaMemberStyleName(ACTION), alternativeAttributeComponents, Operator.OR, false) + ") ) {";
-                    javaBuffer.addLine(condition1 + " && " + condition2);
-                    javaBuffer.addLine(
-                        "throw new ValidationException(\"Parameters '%1$s' or '%2$s' are mandatory but both were not provided.\");",
-                        convertToModelNotation(attributePath),
-                        convertToModelNotation(getSchemaPath(alternativeAttributeComponents))
-                     );
-                }
-                else {
-                    javaBuffer.addLine("if (" + getFullAttributeCheck("action", attributeComponents, Operator.OR, false) + ") {");
-                    //(TODO: replace line below with invocation of CompletenessAssertor)
-                    javaBuffer.addLine(
-                        "throw new ValidationException(\"Parameter '%1$s' is mandatory but was not provided.\");",
-                        convertToModelNotation(attributePath)
-                    );
-                }
-                javaBuffer.addLine("}");
-                javaBuffer.addLine();
-            }
+        else if (!parameter.getMandatoryAttributes().isEmpty()) {
+            MemberInvolvementTree component = new MemberInvolvementTree(new Name(parameter.getName()));
+            component.setType(parameter.getType());
+            generateAttributesValidation(javaNames.getJavaMemberStyleName(ACTION), "",
+                    parameter.getMandatoryAttributes(), component);
         }
     }
 
@@ -414,80 +625,47 @@ public class JaxrsHelperGenerator extends JavaGenerator {
         Set<Method> signatures = baseMethods.get(method);
         if (mandatoryAttributeExists(signatures)) {
             //validate that the action object itself is not null
-            javaBuffer.addImport(java.lang.reflect.Method.class);
             javaBuffer.addImports(schemaNames.getXjcTypeReference(ACTION_TYPE).getImports());
+            generateSignatureEnum(method, signatures);
             Name methodName = getSignatureDetectionMethodName(method);
-            javaBuffer.addLine("public static Method %s(Action action) throws NoSuchMethodException, SecurityException {",
+            javaBuffer.addLine("public static %s %s(Action action) {",
+                    jaxrsNames.getSignatureEnumName(method.getName()),
                     javaNames.getJavaMemberStyleName(methodName));
             validateActionNotNull();
-            for (Parameter parameter : method.getParameters()) {
-                generateActionParameterValidation(parameter);
+            if (isValidationRequired(method.getParameters())) {
+                beginViolations();
+                for (Parameter parameter : method.getParameters()) {
+                    generateActionParameterValidation(parameter);
+                }
+                endViolations();
             }
-            javaBuffer.addLine();
-            for (Method signature : signatures) {
-                javaBuffer.addDocComment(signature.getName().toString());
-                if (signature.isMandatoryAttributeExists()) {
-                    javaBuffer.addLine("if (action!=null");
-                    for (Parameter parameter : signature.getParameters()) {
-                        if (parameter.isMandatory()) {
-                            assert parameter.getType() instanceof EnumType || parameter.getType() instanceof PrimitiveType;
-                            javaBuffer.addLine(" && %s!=null", "action" + isOrGet(parameter.getType()) + javaNames.getJavaClassStyleName(parameter.getName()) + "()");
-                        }
-                        else {
-                            Iterator<MemberInvolvementTree> iterator = parameter.getMandatoryAttributes().iterator();
-                            while (iterator.hasNext()) {
-                                // This will contain the potentially multiple checks for alternative attributes:
-                                List<String> checks = new ArrayList<>();
-
-                                // Add the first check:
-                                MemberInvolvementTree attribute = iterator.next();
-                                List<MemberInvolvementTree> list = stackAttributeComponents(attribute);
-                                list.add(0, new MemberInvolvementTree(parameter.getName()));
-                                String check = getFullAttributeCheck(
-                                    javaNames.getJavaMemberStyleName(ACTION),
-                                    list,
-                                    Operator.AND,
-                                    false
-                                );
-                                checks.add(check);
-
-                                // If there is an alternative then add the second check:
-                                MemberInvolvementTree alternative = attribute.getAlternative();
-                                if (alternative != null) {
-                                    list = stackAttributeComponents(alternative);
-                                    list.add(0, new MemberInvolvementTree(parameter.getName()));
-                                    check = getFullAttributeCheck(
-                                        javaNames.getJavaMemberStyleName(ACTION),
-                                        list,
-                                        Operator.AND,
-                                        false
-                                    );
-                                    checks.add(check);
-                                }
-
-                                // Build the complete check line:
-                                StringBuilder line = new StringBuilder();
-                                line.append(" && ");
-                                if (checks.size() > 1) {
-                                    line.append(checks.stream().collect(joining(" || ", "(", ")")));
-                                }
-                                else {
-                                    line.append(checks.get(0));
-                                }
-
-                                // Add the line to the file:
-                                javaBuffer.addLine(line.toString());
-                            }
+
+            // Evaluate the parameters and attribute paths used by the signatures, each of them only once:
+            String argName = javaNames.getJavaMemberStyleName(ACTION);
+            pathVariables = new HashMap<>();
+            List<SignatureCandidate> candidates = new ArrayList<>();
+            for (Method signature : sortSignatures(signatures)) {
+                List<String> checks = new ArrayList<>();
+                for (Parameter parameter : signature.getParameters()) {
+                    if (parameter.isMandatory()) {
+                        assert parameter.getType() instanceof EnumType || parameter.getType() instanceof PrimitiveType;
+                        MemberInvolvementTree component = new MemberInvolvementTree(parameter.getName());
+                        component.setType(parameter.getType());
+                        checks.add(declarePathVariables(argName, null, null, Collections.singletonList(component)));
+                    }
+                    else {
+                        for (MemberInvolvementTree attribute : parameter.getMandatoryAttributes()) {
+                            MemberInvolvementTree first = new MemberInvolvementTree(parameter.getName());
+                            checks.add(getAttributeCheck(argName, null, null, attribute, first));
                         }
                     }
                 }
-                javaBuffer.addLine(") {");
-                javaBuffer.addLine("return " + resourceName.getSimpleName() + ".class.getMethod(\""
-                        + javaNames.getJavaMemberStyleName(method.getName())
-                        + javaNames.getJavaClassStyleName(signature.getName()) + "\", Action.class);");
-                javaBuffer.addLine("}");
-                javaBuffer.addLine();
+                if (!checks.isEmpty()) {
+                    candidates.add(new SignatureCandidate(signature, checks));
+                }
             }
+            javaBuffer.addLine();
+            generateSignatureDecision(method.getName(), candidates);
             closeSignatureDetectionMethod();
         }
       //TODO: in the future fail for this
@@ -496,6 +674,27 @@ public class JaxrsHelperGenerator extends JavaGenerator {
 //        }
     }
 
+    /**
+     * Generates the enum that identifies the signatures of the given method. The detection method returns one of its
+     * constants, and the JAX-RS interface uses it in a {@code switch} that calls the method of the signature
+     * directly, without looking it up and invoking it using reflection.
+     */
+    private void generateSignatureEnum(Method method, Set<Method> signatures) {
+        javaBuffer.addLine("public enum %s {", jaxrsNames.getSignatureEnumName(method.getName()));
+        signatures.stream()
+            .map(Method::getName)
+            .sorted()
+            .forEach(x -> javaBuffer.addLine("%s,", jaxrsNames.getSignatureConstantName(x)));
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+    }
+
+    private void generateSignatureReturn(Name methodName, Method signature) {
+        javaBuffer.addLine("return %s.%s;",
+                jaxrsNames.getSignatureEnumName(methodName),
+                jaxrsNames.getSignatureConstantName(signature.getName()));
+    }
+
     private void validateActionNotNull() {
         javaBuffer.addLine("if (action == null) {");
         javaBuffer.addLine("throw new ValidationException(\"Action is mandatory but was not provided.\");");
@@ -10,7 +10,10 @@ import static java.util.stream.Collectors.joining;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
+import org.ovirt.api.metamodel.concepts.Locator;
+import org.ovirt.api.metamodel.concepts.Model;
 import org.ovirt.api.metamodel.concepts.Name;
+import org.ovirt.api.metamodel.concepts.Point;
 import org.ovirt.api.metamodel.concepts.Service;
 
 /**
@@ -21,6 +24,11 @@ public class JaxrsNames {
     // The suffix that will be added to interface names:
     private static final String RESOURCE_SUFFIX = "Resource";
     private static final String HELPER_SUFFIX = "Helper";
+    private static final String SIGNATURE_SUFFIX = "Signature";
+
+    // The names of the classes that match requests to the points of the model:
+    private static final String ROUTER_NAME = "ApiRouter";
+    private static final String ROUTER_FILTER_NAME = "ApiRouterFilter";
 
     // References to objects used to do calculations with words:
     @Inject Words words;
@@ -89,5 +97,55 @@ public class JaxrsNames {
         name.setSimpleName(javaNames.getJavaClassStyleName(service.getName()) + RESOURCE_SUFFIX + HELPER_SUFFIX);
         return name;
     }
-}
 
+    /**
+     * Calculates the name of the enum, nested inside the helper class, that identifies the signatures of the method
+     * with the given name. For example, if the name of the method is {@code add} then the returned string will be
+     * {@code AddSignature}.
+     */
+    public String getSignatureEnumName(Name name) {
+        return javaNames.getJavaClassStyleName(name) + SIGNATURE_SUFFIX;
+    }
+
+    /**
+     * Calculates the name of the enum constant that identifies the signature with the given name. For example, if
+     * the name of the signature is {@code fromScratch} then the returned string will be {@code FROM_SCRATCH}.
+     */
+    public String getSignatureConstantName(Name name) {
+        return javaNames.getJavaConstantStyleName(name);
+    }
+
+    /**
+     * Calculates the name of the class that matches the paths and HTTP methods of requests to the points of the
+     * given model. The class is placed in the same package than the interface of the root service.
+     */
+    public JavaClassName getRouterName(Model model) {
+        JavaClassName name = new JavaClassName();
+        name.setPackageName(javaPackages.getJaxrsPackageName(model.getRoot().getModule()));
+        name.setSimpleName(ROUTER_NAME);
+        return name;
+    }
+
+    /**
+     * Calculates the name of the JAX-RS filter that matches each request of the given model before the JAX-RS
+     * implementation does.
+     */
+    public JavaClassName getRouterFilterName(Model model) {
+        JavaClassName name = new JavaClassName();
+        name.setPackageName(javaPackages.getJaxrsPackageName(model.getRoot().getModule()));
+        name.setSimpleName(ROUTER_FILTER_NAME);
+        return name;
+    }
+
+    /**
+     * Calculates the name of the constant that identifies the given point. The name is the concatenation of the
+     * names of the locators and the name of the method. For example, if the point is the {@code start} method of
+     * the service located by {@code vms} and then {@code vm} the returned string will be {@code VMS_VM_START}.
+     */
+    public String getPointConstantName(Point point) {
+        Name name = new Name();
+        point.path().map(Locator::getName).map(Name::getWords).forEach(name::addWords);
+        name.addWords(point.getMethod().getName().getWords());
+        return javaNames.getJavaConstantStyleName(name);
+    }
+}
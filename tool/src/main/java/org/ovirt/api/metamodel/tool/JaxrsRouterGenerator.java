@@ -0,0 +1,262 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.ovirt.api.metamodel.tool;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.PreMatching;
+
+import org.ovirt.api.metamodel.concepts.Locator;
+import org.ovirt.api.metamodel.concepts.Method;
+import org.ovirt.api.metamodel.concepts.Model;
+import org.ovirt.api.metamodel.concepts.Name;
+import org.ovirt.api.metamodel.concepts.Point;
+import org.ovirt.api.metamodel.server.PathRouter;
+import org.ovirt.api.metamodel.tool.util.JaxrsGeneratorUtils;
+
+/**
+ * This class takes a model and generates a class that matches the paths and HTTP methods of requests to the points
+ * of the model, using a {@link PathRouter}, and a JAX-RS filter that uses it to match each request before the
+ * resource methods are selected.
+ */
+@ApplicationScoped
+public class JaxrsRouterGenerator extends JavaGenerator {
+    // Estimated size of the code generated to add each route:
+    private static final int ROUTE_SIZE = 16;
+
+    // Reference to the object that calculate names:
+    @Inject private JaxrsNames jaxrsNames;
+
+    // The names of the generated classes:
+    private JavaClassName routerName;
+    private JavaClassName routerFilterName;
+
+    @Override
+    public void generate(Model model) {
+        // Models without a root service, like the ones used to generate only types, don't have points:
+        if (model.getRoot() == null) {
+            return;
+        }
+        routerName = jaxrsNames.getRouterName(model);
+        routerFilterName = jaxrsNames.getRouterFilterName(model);
+        List<Route> routes = getRoutes(model);
+        generateClass(routerName, () -> generateRouterSource(routes));
+        generateClass(routerFilterName, this::generateRouterFilterSource);
+    }
+
+    private void generateClass(JavaClassName className, Runnable generator) {
+        javaBuffer = new JavaClassBuffer();
+        javaBuffer.setClassName(className);
+        generator.run();
+        try {
+            javaBuffer.write(outDir);
+        }
+        catch (IOException exception) {
+            throw new RuntimeException("Can't write file for class \"" + className + "\"", exception);
+        }
+    }
+
+    private List<Route> getRoutes(Model model) {
+        List<Route> routes = new ArrayList<>();
+        Set<String> constants = new HashSet<>();
+        for (Point point : model.getPoints()) {
+            Route route = new Route();
+            route.point = routes.size();
+            route.method = getHttpMethod(point.getMethod());
+            route.template = getTemplate(point);
+            String constant = jaxrsNames.getPointConstantName(point);
+            String candidate = constant;
+            for (int i = 2; !constants.add(candidate); i++) {
+                candidate = constant + "_" + i;
+            }
+            route.constant = candidate;
+            routes.add(route);
+        }
+        return routes;
+    }
+
+    /**
+     * Calculates the HTTP method that corresponds to the given method of the model, following the same rules that the
+     * {@link JaxrsGenerator} uses to add the JAX-RS annotations.
+     */
+    private String getHttpMethod(Method method) {
+        Name name = method.getName();
+        if (JaxrsGeneratorUtils.GET.equals(name) || JaxrsGeneratorUtils.LIST.equals(name)) {
+            return "GET";
+        }
+        if (JaxrsGeneratorUtils.UPDATE.equals(name)) {
+            return "PUT";
+        }
+        if (JaxrsGeneratorUtils.REMOVE.equals(name)) {
+            return "DELETE";
+        }
+        return "POST";
+    }
+
+    /**
+     * Calculates the template of the path of the given point, following the same rules that the
+     * {@link JaxrsGenerator} uses to add the {@code @Path} annotations to the locators and to the actions.
+     */
+    private String getTemplate(Point point) {
+        List<String> segments = new ArrayList<>();
+        for (Locator locator : point.getPath()) {
+            segments.add(locator.getParameters().isEmpty()? jaxrsNames.getActionPath(locator.getName()): "{id}");
+        }
+        Method method = point.getMethod();
+        if (method.isAction()) {
+            segments.add(jaxrsNames.getActionPath(method.getName()));
+        }
+        return String.join("/", segments);
+    }
+
+    private void generateRouterSource(List<Route> routes) {
+        // Add the required imports:
+        javaBuffer.addImport(List.class);
+        javaBuffer.addImport(PathRouter.class);
+
+        // Begin class:
+        javaBuffer.addDocComment(
+            "This class matches the paths and HTTP methods of requests to the points of the model. There is a",
+            "constant for each point, and the number returned when a request matches is the value of one of them.",
+            "The paths are relative to the root of the API, for example {@code vms/123/start}."
+        );
+        javaBuffer.addLine("public class %1$s {", routerName.getSimpleName());
+
+        // Generate the constants that identify the points:
+        for (Route route : routes) {
+            javaBuffer.addDocComment(String.format("The {@code %1$s %2$s} point.", route.method, route.template));
+            javaBuffer.addLine("public static final int %1$s = %2$d;", route.constant, route.point);
+            javaBuffer.addLine();
+        }
+
+        // Generate the methods that add the routes, split so that they don't exceed the size limit:
+        List<List<Route>> chunks = splitBySize(routes, route -> ROUTE_SIZE);
+        javaBuffer.addLine("// The router that contains the routes of all the points:");
+        javaBuffer.addLine("private static final PathRouter ROUTER = new PathRouter();");
+        javaBuffer.addLine();
+        javaBuffer.addLine("static {");
+        for (int i = 0; i < chunks.size(); i++) {
+            javaBuffer.addLine("addRoutes%1$d(ROUTER);", i);
+        }
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        for (int i = 0; i < chunks.size(); i++) {
+            javaBuffer.addLine("private static void addRoutes%1$d(PathRouter router) {", i);
+            for (Route route : chunks.get(i)) {
+                javaBuffer.addLine(
+                    "router.add(%1$s, \"%2$s\", \"%3$s\");",
+                    route.constant, route.method, route.template
+                );
+            }
+            javaBuffer.addLine("}");
+            javaBuffer.addLine();
+        }
+
+        javaBuffer.addLine("private %1$s() {", routerName.getSimpleName());
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+
+        // Generate the methods that delegate to the router:
+        javaBuffer.addDocComment(
+            "Finds the point that corresponds to the given HTTP method and path, and the identifiers contained in the",
+            "path.",
+            "",
+            "@param method the HTTP method of the request",
+            "@param path the path of the request, relative to the root of the API",
+            "@return the match, or {@code null} if there is no point for the method and path"
+        );
+        javaBuffer.addLine("public static PathRouter.Match match(String method, String path) {");
+        javaBuffer.addLine(  "return ROUTER.match(method, path);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addDocComment(
+            "Returns the HTTP methods that have points for the given path, or an empty list if the path doesn't exist."
+        );
+        javaBuffer.addLine("public static List<String> getAllowedMethods(String path) {");
+        javaBuffer.addLine(  "return ROUTER.getAllowedMethods(path);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addDocComment("Returns the HTTP method of the given point.");
+        javaBuffer.addLine("public static String getMethod(int point) {");
+        javaBuffer.addLine(  "return ROUTER.getMethod(point);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addDocComment(
+            "Returns the template of the path of the given point, for example {@code vms/{id}/start}."
+        );
+        javaBuffer.addLine("public static String getTemplate(int point) {");
+        javaBuffer.addLine(  "return ROUTER.getTemplate(point);");
+        javaBuffer.addLine("}");
+
+        // End class:
+        javaBuffer.addLine("}");
+    }
+
+    private void generateRouterFilterSource() {
+        // Add the required imports:
+        javaBuffer.addImport(ContainerRequestContext.class);
+        javaBuffer.addImport(ContainerRequestFilter.class);
+        javaBuffer.addImport(PathRouter.class);
+        javaBuffer.addImport(PreMatching.class);
+
+        // Begin class:
+        javaBuffer.addDocComment(
+            "This filter matches each request to a point of the model before the JAX-RS implementation selects the",
+            "resource method, and saves the result in the {@link #MATCH_PROPERTY} property of the request, so that",
+            "other filters and the resources can use it without matching the path again. Requests that don't match",
+            "any point are left unchanged. The filter isn't annotated with {@code @Provider}, so the application has",
+            "to register it explicitly."
+        );
+        javaBuffer.addLine("@PreMatching");
+        javaBuffer.addLine(
+            "public class %1$s implements ContainerRequestFilter {",
+            routerFilterName.getSimpleName()
+        );
+        javaBuffer.addDocComment(
+            "The name of the property of the request that contains the {@link PathRouter.Match} of the request."
+        );
+        javaBuffer.addLine("public static final String MATCH_PROPERTY = PathRouter.Match.class.getName();");
+        javaBuffer.addLine();
+        javaBuffer.addLine("@Override");
+        javaBuffer.addLine("public void filter(ContainerRequestContext context) {");
+        javaBuffer.addLine(
+            "PathRouter.Match match = %1$s.match(context.getMethod(), context.getUriInfo().getPath(false));",
+            routerName.getSimpleName()
+        );
+        javaBuffer.addLine(  "if (match != null) {");
+        javaBuffer.addLine(    "context.setProperty(MATCH_PROPERTY, match);");
+        javaBuffer.addLine(  "}");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addDocComment(
+            "Returns the match saved by the filter in the given request, or {@code null} if the request didn't match",
+            "any point."
+        );
+        javaBuffer.addLine("public static PathRouter.Match getMatch(ContainerRequestContext context) {");
+        javaBuffer.addLine(  "return (PathRouter.Match) context.getProperty(MATCH_PROPERTY);");
+        javaBuffer.addLine("}");
+
+        // End class:
+        javaBuffer.addLine("}");
+    }
+
+    /**
+     * The information needed to generate the route of a point.
+     */
+    private static class Route {
+        private int point;
+        private String method;
+        private String template;
+        private String constant;
+    }
+}
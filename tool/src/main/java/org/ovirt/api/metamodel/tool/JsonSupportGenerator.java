@@ -5,6 +5,8 @@
 
 package org.ovirt.api.metamodel.tool;
 
+import static java.util.stream.Collectors.toList;
+
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -24,6 +26,7 @@ import org.ovirt.api.metamodel.concepts.StructType;
 import org.ovirt.api.metamodel.concepts.Type;
 import org.ovirt.api.metamodel.runtime.json.JsonReader;
 import org.ovirt.api.metamodel.runtime.json.JsonWriter;
+import org.ovirt.api.metamodel.runtime.util.FieldMask;
 
 /**
  * This class generates the XML readers and writers.
@@ -111,55 +114,146 @@ public class JsonSupportGenerator extends JavaGenerator {
         javaBuffer.addImport(containerName);
         javaBuffer.addImport(JsonParser.class);
         javaBuffer.addImport(JsonReader.class);
+        javaBuffer.addImport(FieldMask.class);
 
         // Generate the that assumes that parsing of the object hasn't started yet, so it will expect the start of the
         // object as the first event:
         javaBuffer.addLine("public static %1$s readOne(JsonReader reader) {", typeName.getSimpleName());
-        javaBuffer.addLine(  "return readOne(reader, false);");
+        javaBuffer.addLine(  "return readOne(reader, false, FieldMask.ALL);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addLine("public static %1$s readOne(JsonReader reader, FieldMask mask) {", typeName.getSimpleName());
+        javaBuffer.addLine(  "return readOne(reader, false, mask);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addLine("public static %1$s readOne(JsonReader reader, boolean started) {", typeName.getSimpleName());
+        javaBuffer.addLine(  "return readOne(reader, started, FieldMask.ALL);");
         javaBuffer.addLine("}");
         javaBuffer.addLine();
 
         // Generate the method that receives a boolean parameter indicating if parsing of the object has already
-        // started. In that case the start event will have been consumed already.
+        // started. In that case the start event will have been consumed already. Members that aren't included in the
+        // mask are skipped without creating any object.
         List<StructMember> members = new ArrayList<>();
         members.addAll(type.getAttributes());
         members.addAll(type.getLinks());
-        javaBuffer.addLine("public static %1$s readOne(JsonReader reader, boolean started) {", typeName.getSimpleName());
+        members.sort(null);
+        List<String> names = members.stream()
+            .map(x -> schemaNames.getSchemaTagName(x.getName()))
+            .collect(toList());
+        List<List<StructMember>> chunks = splitBySize(members, this::estimateReadMemberSize);
+        javaBuffer.addLine(
+            "public static %1$s readOne(JsonReader reader, boolean started, FieldMask mask) {",
+            typeName.getSimpleName()
+        );
+        javaBuffer.addLine(  "return readOne(reader, started, mask, null);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+
+        // Generate the method that can store the result in an existing container, instead of creating a new one:
+        javaBuffer.addDocComment(
+            "Reads an object, storing the result in the given container if it isn't {@code null}. The container is",
+            "reset before reading, so nothing from the previous object remains, but objects previously returned",
+            "using the same container will be modified."
+        );
+        javaBuffer.addLine(
+            "public static %1$s readOne(JsonReader reader, boolean started, FieldMask mask, %2$s reuse) {",
+            typeName.getSimpleName(), containerName.getSimpleName()
+        );
         javaBuffer.addLine(  "if (!started) {");
         javaBuffer.addLine(    "reader.expect(JsonParser.Event.START_OBJECT);");
         javaBuffer.addLine(  "}");
-        javaBuffer.addLine(  "%1$s object = new %1$s();", containerName.getSimpleName());
+        javaBuffer.addLine(  "%1$s object;", containerName.getSimpleName());
+        javaBuffer.addLine(  "if (reuse != null) {");
+        javaBuffer.addLine(    "object = reuse;");
+        javaBuffer.addLine(    "object.reset();");
+        javaBuffer.addLine(  "}");
+        javaBuffer.addLine(  "else {");
+        javaBuffer.addLine(    "object = new %1$s();", containerName.getSimpleName());
+        javaBuffer.addLine(  "}");
         javaBuffer.addLine(  "while (reader.next() == JsonParser.Event.KEY_NAME) {");
         if (members.isEmpty()) {
-            javaBuffer.addLine("reader.skip();");
+            javaBuffer.addLine("reader.skipValue();");
         }
         else {
             javaBuffer.addLine("String name = reader.getString();");
-            javaBuffer.addLine("switch (name) {");
-            members.stream().sorted().forEach(this::generateStructReadMember);
+            javaBuffer.addLine("if (!mask.includes(name)) {");
+            javaBuffer.addLine(  "reader.skipValue();");
+            javaBuffer.addLine(  "continue;");
+            javaBuffer.addLine("}");
+        }
+        if (!members.isEmpty() && chunks.size() == 1) {
+            javaBuffer.addLine("switch (memberIndex(name)) {");
+            members.forEach(x -> generateStructReadMember(x, names));
             javaBuffer.addLine("default:");
-            javaBuffer.addLine(  "reader.skip();");
+            javaBuffer.addLine(  "reader.skipValue();");
+            javaBuffer.addLine("}");
+        }
+        else if (!members.isEmpty()) {
+            // The code to process all the members would be too large for one method, so each chunk of members is
+            // processed by a separate method, selected according to the index of the member:
+            javaBuffer.addLine("int index = memberIndex(name);");
+            int first = 0;
+            for (int i = 0; i < chunks.size(); i++) {
+                int last = first + chunks.get(i).size() - 1;
+                javaBuffer.addLine("%1$sif (index >= %2$d && index <= %3$d) {", i > 0 ? "else " : "", first, last);
+                javaBuffer.addLine(  "readMembers%1$d(reader, object, index, mask);", i);
+                javaBuffer.addLine("}");
+                first = last + 1;
+            }
+            javaBuffer.addLine("else {");
+            javaBuffer.addLine(  "reader.skipValue();");
             javaBuffer.addLine("}");
         }
         javaBuffer.addLine(  "}");
         javaBuffer.addLine(  "return object;");
         javaBuffer.addLine("}");
         javaBuffer.addLine();
+
+        // Generate the methods that process the chunks of members, if the code was too large for one method:
+        if (chunks.size() > 1) {
+            for (int i = 0; i < chunks.size(); i++) {
+                javaBuffer.addLine(
+                    "private static void readMembers%1$d(JsonReader reader, %2$s object, int index, FieldMask mask) {",
+                    i, containerName.getSimpleName()
+                );
+                javaBuffer.addLine(  "switch (index) {");
+                chunks.get(i).forEach(x -> generateStructReadMember(x, names));
+                javaBuffer.addLine(  "default:");
+                javaBuffer.addLine(    "reader.skipValue();");
+                javaBuffer.addLine(  "}");
+                javaBuffer.addLine("}");
+                javaBuffer.addLine();
+            }
+        }
+
+        // Generate the method that calculates the index of each member:
+        if (!names.isEmpty()) {
+            generateNameIndex("memberIndex", names);
+        }
     }
 
-    private void generateStructReadMember(StructMember member) {
+    private void generateStructReadMember(StructMember member, List<String> names) {
         Name name = member.getName();
         Type type = member.getType();
         String field = javaNames.getJavaMemberStyleName(name);
+        String property = javaNames.getJavaPropertyStyleName(name);
         String tag = schemaNames.getSchemaTagName(name);
-        javaBuffer.addLine("case \"%1$s\":", tag);
+        javaBuffer.addLine("case %1$d: // %2$s", names.indexOf(tag), tag);
         if (type instanceof PrimitiveType) {
             Model model = type.getModel();
             if (type == model.getBooleanType()) {
                 javaBuffer.addLine("object.%1$s(reader.readBoolean());", field);
             }
             else if (type == model.getIntegerType()) {
-                javaBuffer.addLine("object.%1$s(reader.readInteger());", field);
+                if (compactIntegers) {
+                    String image = field + "Image";
+                    javaBuffer.addLine("String %1$s = reader.readNumber();", image);
+                    generateCompactIntegerSet(field, image, "reader.parseInteger(" + image + ")");
+                }
+                else {
+                    javaBuffer.addLine("object.%1$s(reader.readInteger());", field);
+                }
             }
             else if (type == model.getDecimalType()) {
                 javaBuffer.addLine("object.%1$s(reader.readDecimal());", field);
@@ -171,10 +265,16 @@ public class JsonSupportGenerator extends JavaGenerator {
                 javaBuffer.addLine("object.%1$s(reader.readDate());", field);
             }
             else {
-                javaBuffer.addLine("reader.skip();");
+                javaBuffer.addLine("reader.skipValue();");
             }
         }
-        else if (type instanceof StructType || type instanceof EnumType) {
+        else if (type instanceof StructType) {
+            JavaClassName readerName = javaTypes.getJsonReaderName(type);
+            javaBuffer.addImport(readerName);
+            javaBuffer.addLine("object.%1$s(%2$s.readOne(reader, mask.child(\"%3$s\")));", field,
+                readerName.getSimpleName(), tag);
+        }
+        else if (type instanceof EnumType) {
             JavaClassName readerName = javaTypes.getJsonReaderName(type);
             javaBuffer.addImport(readerName);
             javaBuffer.addLine("object.%1$s(%2$s.readOne(reader));", field, readerName.getSimpleName());
@@ -184,51 +284,80 @@ public class JsonSupportGenerator extends JavaGenerator {
             Type elementType = listType.getElementType();
             JavaClassName readerName = javaTypes.getJsonReaderName(elementType);
             javaBuffer.addImport(readerName);
-            if (elementType instanceof StructType || elementType instanceof EnumType) {
-                javaBuffer.addLine("object.%1$s(%2$s.readMany(reader));", field, readerName.getSimpleName());
+            if (elementType instanceof StructType) {
+                javaBuffer.addLine("object.adopt%1$s(%2$s.readMany(reader, mask.child(\"%3$s\")));", property,
+                    readerName.getSimpleName(), tag);
+            }
+            else if (elementType instanceof EnumType) {
+                javaBuffer.addLine("object.adopt%1$s(%2$s.readMany(reader));", property, readerName.getSimpleName());
             }
             else if(elementType instanceof PrimitiveType) {
                 Model model = type.getModel();
                 if (elementType == model.getBooleanType()) {
-                    javaBuffer.addLine("object.%1$s(reader.readBooleans());", field);
+                    javaBuffer.addLine("object.adopt%1$s(reader.readBooleans());", property);
                 }
                 else if (elementType == model.getIntegerType()) {
-                    javaBuffer.addLine("object.%1$s(reader.readIntegers());", field);
+                    javaBuffer.addLine("object.adopt%1$s(reader.readIntegers());", property);
                 }
                 else if (elementType == model.getDecimalType()) {
-                    javaBuffer.addLine("object.%1$s(reader.readDecimals());", field);
+                    javaBuffer.addLine("object.adopt%1$s(reader.readDecimals());", property);
                 }
                 else if (elementType == model.getStringType()) {
-                    javaBuffer.addLine("object.%1$s(reader.readStrings());", field);
+                    javaBuffer.addLine("object.adopt%1$s(reader.readStrings());", property);
                 }
                 else if (elementType == model.getDateType()) {
-                    javaBuffer.addLine("object.%1$s(reader.readDates());", field);
+                    javaBuffer.addLine("object.adopt%1$s(reader.readDates());", property);
                 }
                 else {
-                    javaBuffer.addLine("reader.skip();");
+                    javaBuffer.addLine("reader.skipValue();");
                 }
             }
         }
         else {
-            javaBuffer.addLine("reader.skip();");
+            javaBuffer.addLine("reader.skipValue();");
         }
         javaBuffer.addLine("break;");
     }
 
     private void generateStructReadMany(StructType type) {
-        // Get the type name:
+        // Get the type and container name:
         JavaClassName typeName = javaTypes.getInterfaceName(type);
+        JavaClassName containerName = javaTypes.getContainerName(type);
 
-        // Iterate method:
+        // Iterate methods:
         javaBuffer.addImport(typeName);
+        javaBuffer.addImport(containerName);
         javaBuffer.addImport(Iterator.class);
         javaBuffer.addImport(JsonParser.class);
         javaBuffer.addImport(JsonReader.class);
         javaBuffer.addImport(NoSuchElementException.class);
+        javaBuffer.addImport(FieldMask.class);
         javaBuffer.addLine("public static Iterator<%1$s> iterateMany(JsonReader reader) {",
             typeName.getSimpleName());
+        javaBuffer.addLine(  "return iterateMany(reader, FieldMask.ALL);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addLine("public static Iterator<%1$s> iterateMany(JsonReader reader, FieldMask mask) {",
+            typeName.getSimpleName());
+        javaBuffer.addLine(  "return iterateMany(reader, mask, false);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addDocComment(
+            "Returns an iterator that reads the objects one by one. If {@code reuse} is {@code true} the iterator",
+            "returns the same container for all the objects, reset and filled again on each call to {@code next}.",
+            "That avoids creating a container for each object, but the caller must finish using each object before",
+            "asking for the next one."
+        );
+        javaBuffer.addLine(
+            "public static Iterator<%1$s> iterateMany(JsonReader reader, FieldMask mask, boolean reuse) {",
+            typeName.getSimpleName()
+        );
         javaBuffer.addLine(  "return new Iterator<%1$s>() {", typeName.getSimpleName());
         javaBuffer.addLine(    "private boolean first = true;");
+        javaBuffer.addLine(
+            "private final %1$s recycled = reuse? new %1$s(): null;",
+            containerName.getSimpleName()
+        );
         javaBuffer.addLine();
         javaBuffer.addLine(    "@Override");
         javaBuffer.addLine(    "public boolean hasNext() {");
@@ -241,7 +370,7 @@ public class JsonSupportGenerator extends JavaGenerator {
         javaBuffer.addLine();
         javaBuffer.addLine(    "@Override");
         javaBuffer.addLine(    "public %1$s next() {", typeName.getSimpleName());
-        javaBuffer.addLine(      "%1$s next = readOne(reader, true);", typeName.getSimpleName());
+        javaBuffer.addLine(      "%1$s next = readOne(reader, true, mask, recycled);", typeName.getSimpleName());
         javaBuffer.addLine(      "if (next == null) {");
         javaBuffer.addLine(        "throw new NoSuchElementException();");
         javaBuffer.addLine(      "}");
@@ -251,15 +380,20 @@ public class JsonSupportGenerator extends JavaGenerator {
         javaBuffer.addLine("}");
         javaBuffer.addLine();
 
-        // Read method:
+        // Read methods:
         javaBuffer.addImport(typeName);
         javaBuffer.addImport(ArrayList.class);
         javaBuffer.addImport(Iterator.class);
         javaBuffer.addImport(JsonReader.class);
         javaBuffer.addImport(List.class);
         javaBuffer.addLine("public static List<%1$s> readMany(JsonReader reader) {", typeName.getSimpleName());
+        javaBuffer.addLine(  "return readMany(reader, FieldMask.ALL);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addLine("public static List<%1$s> readMany(JsonReader reader, FieldMask mask) {",
+            typeName.getSimpleName());
         javaBuffer.addLine(  "List<%1$s> list = new ArrayList<>();", typeName.getSimpleName());
-        javaBuffer.addLine(  "Iterator<%1$s> iterator = iterateMany(reader);", typeName.getSimpleName());
+        javaBuffer.addLine(  "Iterator<%1$s> iterator = iterateMany(reader, mask);", typeName.getSimpleName());
         javaBuffer.addLine(  "while (iterator.hasNext()) {");
         javaBuffer.addLine(    "list.add(iterator.next());");
         javaBuffer.addLine(  "}");
@@ -399,23 +533,115 @@ public class JsonSupportGenerator extends JavaGenerator {
         javaBuffer.addLine(  "else {");
         javaBuffer.addLine(    "writer.writeStartObject();");
         javaBuffer.addLine(  "}");
-        Stream.concat(type.attributes(), type.links()).sorted().forEach(this::generateStructWriteMember);
+        List<StructMember> members = Stream.concat(type.attributes(), type.links()).sorted().collect(toList());
+        int[] positions = getContainerLayout(type).stream().mapToInt(members::indexOf).toArray();
+        if (!members.isEmpty()) {
+            generatePresentLoop(javaTypes.getContainerName(type), positions, "writeMember");
+        }
         javaBuffer.addLine(  "writer.writeEnd();");
         javaBuffer.addLine("}");
         javaBuffer.addLine();
+
+        if (!members.isEmpty()) {
+            // Generate the method that writes the member corresponding to an index:
+            List<List<StructMember>> chunks = splitBySize(members, this::estimateWriteMemberSize);
+            javaBuffer.addLine(
+                "private static void writeMember(%1$s object, int index, JsonWriter writer) {",
+                typeName.getSimpleName()
+            );
+            if (chunks.size() == 1) {
+                generateStructWriteMembers(type, chunks.get(0), members);
+            }
+            else {
+                // The code to write all the members would be too large for one method, so each chunk of members is
+                // written by a separate method, selected according to the index of the member:
+                for (int i = 0; i < chunks.size(); i++) {
+                    List<StructMember> chunk = chunks.get(i);
+                    int first = members.indexOf(chunk.get(0));
+                    int last = members.indexOf(chunk.get(chunk.size() - 1));
+                    javaBuffer.addLine("%1$sif (index >= %2$d && index <= %3$d) {", i > 0 ? "else " : "", first, last);
+                    javaBuffer.addLine(  "writeMembers%1$d(object, index, writer);", i);
+                    javaBuffer.addLine("}");
+                }
+            }
+            javaBuffer.addLine("}");
+            javaBuffer.addLine();
+
+            // If the code to write the members was too large for one method then generate a method for each chunk:
+            if (chunks.size() > 1) {
+                for (int i = 0; i < chunks.size(); i++) {
+                    javaBuffer.addLine(
+                        "private static void writeMembers%1$d(%2$s object, int index, JsonWriter writer) {",
+                        i, typeName.getSimpleName()
+                    );
+                    generateStructWriteMembers(type, chunks.get(i), members);
+                    javaBuffer.addLine("}");
+                    javaBuffer.addLine();
+                }
+            }
+
+            // Generate the method that finds the members that are present in objects that aren't containers:
+            generatePresentMembers(
+                typeName,
+                members.stream().map(x -> javaNames.getJavaMemberStyleName(x.getName())).collect(toList()),
+                positions
+            );
+        }
+    }
+
+    /**
+     * Generates the {@code switch} that writes the member corresponding to the index of a present member.
+     */
+    private void generateStructWriteMembers(StructType type, List<StructMember> chunk, List<StructMember> members) {
+        javaBuffer.addLine("switch (index) {");
+        for (StructMember member : chunk) {
+            javaBuffer.addLine("case %1$d: // %2$s", members.indexOf(member),
+                schemaNames.getSchemaTagName(member.getName()));
+            generateStructWriteMember(type, member);
+            javaBuffer.addLine("break;");
+        }
+        javaBuffer.addLine("}");
     }
 
-    private void generateStructWriteMember(StructMember member) {
+    /**
+     * Estimates the size, in bytes, of the code generated to read a member. This is the code of the {@code case}
+     * branch, calling the reader and then the setter, plus the entry in the table of the {@code switch}. Integers in
+     * compact mode need more code, to check if the value fits in a {@code long} before parsing it.
+     */
+    private int estimateReadMemberSize(StructMember member) {
+        return isCompactInteger(member.getType()) ? 40 : 24;
+    }
+
+    /**
+     * Estimates the size, in bytes, of the code generated to write a member. This includes the entry in the table of
+     * the {@code switch}, and the calls to get the value and to write it. Lists need additional calls to get the
+     * iterator and to write the start and end of the array. Integers in compact mode need more code, to check if the
+     * object is a container and the value fits in a {@code long}.
+     */
+    private int estimateWriteMemberSize(StructMember member) {
+        if (isCompactInteger(member.getType())) {
+            return 56;
+        }
+        return member.getType() instanceof ListType ? 40 : 28;
+    }
+
+    private void generateStructWriteMember(StructType declaringType, StructMember member) {
         Name name = member.getName();
         Type type = member.getType();
         String field = javaNames.getJavaMemberStyleName(name);
         String tag = schemaNames.getSchemaTagName(name);
-        javaBuffer.addLine("if (object.%1$sPresent()) {", field);
         if (type instanceof PrimitiveType) {
             Model model = type.getModel();
             if (type == model.getBooleanType()) {
                 javaBuffer.addLine("writer.writeBoolean(\"%1$s\", object.%2$s());", tag, field);
             }
+            else if (isCompactInteger(type)) {
+                generateCompactIntegerWrite(
+                    javaTypes.getContainerName(declaringType),
+                    field,
+                    "writer.writeInteger(\"" + tag + "\", %1$s);"
+                );
+            }
             else if (type == model.getIntegerType()) {
                 javaBuffer.addLine("writer.writeInteger(\"%1$s\", object.%2$s());", tag, field);
             }
@@ -468,7 +694,6 @@ public class JsonSupportGenerator extends JavaGenerator {
                 }
             }
         }
-        javaBuffer.addLine("}");
     }
 
     private void generateStructWriteMany(StructType type) {
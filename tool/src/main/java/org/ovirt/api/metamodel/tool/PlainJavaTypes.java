@@ -31,6 +31,7 @@ public class PlainJavaTypes implements JavaTypes {
     private static final Name BUILDER_NAME = NameParser.parseUsingCase("Builder");
     private static final Name READER_NAME = NameParser.parseUsingCase("Reader");
     private static final Name WRITER_NAME = NameParser.parseUsingCase("Writer");
+    private static final Name VIEW_NAME = NameParser.parseUsingCase("View");
 
     // Prefixes for the XML and JSON readers and writers:
     private static final Name XML_PREFIX = NameParser.parseUsingCase("Xml");
@@ -133,6 +134,11 @@ public class PlainJavaTypes implements JavaTypes {
         return getTypeName(type, javaPackages.getXmlPackageName(), XML_PREFIX, WRITER_NAME);
     }
 
+    @Override
+    public JavaClassName getXmlViewName(Type type) {
+        return getTypeName(type, javaPackages.getXmlPackageName(), XML_PREFIX, VIEW_NAME);
+    }
+
     private JavaClassName getTypeName(Type type, String packageName, Name prefix, Name suffix) {
         if (type instanceof PrimitiveType) {
             return getPrimitiveTypeName((PrimitiveType) type, true);
@@ -40,6 +40,7 @@ public class Tool {
     @Inject private JaxrsGenerator jaxrsGenerator;
     @Inject private TypesGenerator typesGenerator;
     @Inject private JaxrsHelperGenerator jaxrsHelperGenerator;
+    @Inject private JaxrsRouterGenerator jaxrsRouterGenerator;
     @Inject private XmlSupportGenerator xmlSupportGenerator;
     @Inject private JsonSupportGenerator jsonSupportGenerator;
 
@@ -54,6 +55,9 @@ public class Tool {
     private static final String JAXRS_OPTION = "jaxrs";
     private static final String VERSION_PREFIX_OPTION = "version-prefix";
     private static final String RESOURCES_OPTION = "resources";
+    private static final String METHOD_SIZE_LIMIT_OPTION = "method-size-limit";
+    private static final String COMPACT_INTEGERS_OPTION = "compact-integers";
+    private static final String JAXRS_ASYNC_OPTION = "jaxrs-async";
 
     // Names of options for Java package names:
     private static final String JAXRS_PACKAGE_OPTION = "jaxrs-package";
@@ -193,6 +197,41 @@ public class Tool {
             .build()
         );
 
+        // Options that control the generated code:
+        options.addOption(Option.builder()
+            .longOpt(METHOD_SIZE_LIMIT_OPTION)
+            .desc(
+                "The maximum size in bytes of the code of the generated methods. Larger methods are split. The " +
+                "default is " + JavaGenerator.DEFAULT_METHOD_SIZE_LIMIT + ", the largest method that the JIT " +
+                "compiler of the HotSpot virtual machine will compile."
+            )
+            .type(Number.class)
+            .required(false)
+            .hasArg(true)
+            .argName("BYTES")
+            .build()
+        );
+        options.addOption(Option.builder()
+            .longOpt(COMPACT_INTEGERS_OPTION)
+            .desc(
+                "Store integer members as primitive long values instead of BigInteger objects, using BigInteger " +
+                "only for the values that don't fit in a long."
+            )
+            .required(false)
+            .hasArg(false)
+            .build()
+        );
+        options.addOption(Option.builder()
+            .longOpt(JAXRS_ASYNC_OPTION)
+            .desc(
+                "Generate JAX-RS interfaces where the methods called by JAX-RS return completion stages, with " +
+                "default implementations that call the synchronous methods."
+            )
+            .required(false)
+            .hasArg(false)
+            .build()
+        );
+
         // Parse the command line:
         CommandLineParser parser = new DefaultParser();
         CommandLine line = null;
@@ -262,6 +301,24 @@ public class Tool {
             javaPackages.setXmlPackageName(xmlPackage);
         }
 
+        // Extract the maximum size of the generated methods:
+        Number methodSizeLimit = (Number) line.getParsedOptionValue(METHOD_SIZE_LIMIT_OPTION);
+        if (methodSizeLimit != null) {
+            typesGenerator.setMethodSizeLimit(methodSizeLimit.intValue());
+            jsonSupportGenerator.setMethodSizeLimit(methodSizeLimit.intValue());
+            xmlSupportGenerator.setMethodSizeLimit(methodSizeLimit.intValue());
+            jaxrsRouterGenerator.setMethodSizeLimit(methodSizeLimit.intValue());
+        }
+
+        // Check if integers should be stored as primitive values:
+        boolean compactIntegers = line.hasOption(COMPACT_INTEGERS_OPTION);
+        typesGenerator.setCompactIntegers(compactIntegers);
+        jsonSupportGenerator.setCompactIntegers(compactIntegers);
+        xmlSupportGenerator.setCompactIntegers(compactIntegers);
+
+        // Check if asynchronous variants of the JAX-RS methods should be generated:
+        jaxrsGenerator.setAsync(line.hasOption(JAXRS_ASYNC_OPTION));
+
         // Generate the XML schema:
         if (inSchemaFile != null && outSchemaFile != null) {
             schemaGenerator.setInFile(inSchemaFile);
@@ -277,6 +334,9 @@ public class Tool {
             // Generate the JAX-RS helper classes):
             jaxrsHelperGenerator.setOutDir(jaxrsDir);
             jaxrsHelperGenerator.generate(model);
+            // Generate the router that matches requests to the points of the model:
+            jaxrsRouterGenerator.setOutDir(jaxrsDir);
+            jaxrsRouterGenerator.generate(model);
         }
 
         // Generate the Java source:
@@ -12,9 +12,11 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 import javax.inject.Inject;
 
@@ -29,7 +31,9 @@ import org.ovirt.api.metamodel.concepts.StructMember;
 import org.ovirt.api.metamodel.concepts.StructType;
 import org.ovirt.api.metamodel.concepts.Type;
 import org.ovirt.api.metamodel.runtime.util.ArrayListWithHref;
+import org.ovirt.api.metamodel.runtime.util.Bits;
 import org.ovirt.api.metamodel.runtime.util.ListWithHref;
+import org.ovirt.api.metamodel.runtime.util.LogThrottle;
 import org.ovirt.api.metamodel.runtime.util.UnmodifiableListWithHref;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -112,23 +116,45 @@ public class TypesGenerator extends JavaGenerator {
         javaBuffer.addLine("}");
         javaBuffer.addLine();
 
-        // Generate the method that creates an instance from an string:
+        // Generate the method that creates an instance from an string. The exact images are checked with a switch,
+        // which doesn't create any object. Other spellings are accepted ignoring case, as they always were:
+        List<EnumValue> values = type.values().sorted().collect(toList());
         javaBuffer.addLine("public static %1$s fromValue(String value) {", enumName.getSimpleName());
-        javaBuffer.addLine(  "try {");
-        javaBuffer.addLine(    "return valueOf(value.toUpperCase());");
+        javaBuffer.addLine(  "switch (value) {");
+        for (EnumValue value : values) {
+            javaBuffer.addLine("case \"%1$s\":", getEnumValueImage(value));
+            javaBuffer.addLine(  "return %1$s;", getEnumValueName(value));
+        }
+        javaBuffer.addLine(  "default:");
+        javaBuffer.addLine(    "return fromOtherValue(value);");
         javaBuffer.addLine(  "}");
-        javaBuffer.addLine(  "catch (IllegalArgumentException exception) {");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+
+        // Generate the method that handles the values that aren't exact images. Invalid values are reported without
+        // the stack trace and at most once per minute, so that a client sending them can't flood the log:
+        javaBuffer.addImport(LogThrottle.class);
+        javaBuffer.addImport(TimeUnit.class);
+        javaBuffer.addLine("private static final LogThrottle invalidValues = new LogThrottle(1, TimeUnit.MINUTES);");
+        javaBuffer.addLine();
+        javaBuffer.addLine("private static %1$s fromOtherValue(String value) {", enumName.getSimpleName());
+        for (EnumValue value : values) {
+            javaBuffer.addLine("if (\"%1$s\".equalsIgnoreCase(value)) {", getEnumValueImage(value));
+            javaBuffer.addLine(  "return %1$s;", getEnumValueName(value));
+            javaBuffer.addLine("}");
+        }
+        javaBuffer.addLine(  "if (invalidValues.allow()) {");
         javaBuffer.addLine(    "log.error(");
         javaBuffer.addLine(
-            "\"The string '\" + value + \"' isn't a valid value for the '%1$s' enumerated type. \" +",
+            "\"The string '{}' isn't a valid value for the '%1$s' enumerated type. \" +",
             enumName.getSimpleName()
         );
-        List<String> images = type.values()
+        List<String> images = values.stream()
             .map(this::getEnumValueImage)
             .sorted()
             .collect(toList());
         if (images.size() == 1) {
-            javaBuffer.addLine("\"Valid value is '%1$s'.\",", images.get(0));
+            javaBuffer.addLine("\"Valid value is '%1$s'. \" +", images.get(0));
         }
         else {
             String head = images.stream()
@@ -136,12 +162,14 @@ public class TypesGenerator extends JavaGenerator {
                 .map(image -> "'" + image + "'")
                 .collect(joining(", "));
             String tail = images.get(images.size() - 1);
-            javaBuffer.addLine( "\"Valid values are %1$s and '%2$s'.\",", head, tail);
+            javaBuffer.addLine( "\"Valid values are %1$s and '%2$s'. \" +", head, tail);
         }
-        javaBuffer.addLine(      "exception");
+        javaBuffer.addLine(      "\"{} similar messages were suppressed since the previous one.\",");
+        javaBuffer.addLine(      "value,");
+        javaBuffer.addLine(      "invalidValues.takeSuppressed()");
         javaBuffer.addLine(    ");");
-        javaBuffer.addLine(    "return null;");
         javaBuffer.addLine(  "}");
+        javaBuffer.addLine(  "return null;");
         javaBuffer.addLine("}");
         javaBuffer.addLine();
 
@@ -266,6 +294,73 @@ public class TypesGenerator extends JavaGenerator {
         JavaClassName containerName = javaTypes.getBaseContainerName();
         javaBuffer.addLine("public class %1$s {", containerName.getSimpleName());
 
+        // The bits that indicate which members are present, and the constructor that creates them:
+        javaBuffer.addImport(Bits.class);
+        javaBuffer.addLine("private final long[] present;");
+        javaBuffer.addLine();
+        javaBuffer.addLine("protected %1$s(int size) {", containerName.getSimpleName());
+        javaBuffer.addLine(  "present = new long[Bits.words(size)];");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+
+        // Methods to check and change the presence bits. The methods that check them are public because the writers
+        // use them to find the present members without copying the bits:
+        javaBuffer.addDocComment(
+            "Checks if the member with the given index is present. The index of each member is given by the",
+            "{@code ..._INDEX} constants of the containers."
+        );
+        javaBuffer.addLine("public final boolean isPresent(int index) {");
+        javaBuffer.addLine(  "return Bits.isSet(present, index);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addDocComment(
+            "Returns the index of the first present member starting at the given index, or -1 if there is no such",
+            "member. This can be used to visit the present members without copying the bits."
+        );
+        javaBuffer.addLine("public final int nextPresent(int from) {");
+        javaBuffer.addLine(  "return Bits.next(present, from);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addDocComment(
+            "Returns the word of presence bits with the given index, which contains the bits of the members with",
+            "indexes from {@code 64 * word} to {@code 64 * word + 63}. The writers use it to move the bits to the",
+            "order of the members that they use, without copying the bits or checking each member."
+        );
+        javaBuffer.addLine("public final long presentWord(int word) {");
+        javaBuffer.addLine(  "return present[word];");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addLine("protected final void setPresent(int index, boolean value) {");
+        javaBuffer.addLine(  "if (value) {");
+        javaBuffer.addLine(    "Bits.set(present, index);");
+        javaBuffer.addLine(  "}");
+        javaBuffer.addLine(  "else {");
+        javaBuffer.addLine(    "Bits.clear(present, index);");
+        javaBuffer.addLine(  "}");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+
+        // Method that clears all the members, so that the container can be reused:
+        javaBuffer.addImport(Arrays.class);
+        javaBuffer.addDocComment(
+            "Clears all the members of this container, leaving it in the same state than a new one. Containers",
+            "of derived types clear their own members and then call this method."
+        );
+        javaBuffer.addLine("public void reset() {");
+        javaBuffer.addLine(  "Arrays.fill(present, 0L);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+
+        // Method that returns a copy of the presence bits:
+        javaBuffer.addDocComment(
+            "Returns a copy of the bits that indicate which members are present. The bit that corresponds to each",
+            "member is given by the {@code ..._INDEX} constants of the containers."
+        );
+        javaBuffer.addLine("public final long[] presentMembers() {");
+        javaBuffer.addLine(  "return present.clone();");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+
         // Method to make a byte:
         javaBuffer.addImport(BigInteger.class);
         javaBuffer.addLine("protected static Byte asByte(String type, String member, BigInteger value) {");
@@ -342,6 +437,23 @@ public class TypesGenerator extends JavaGenerator {
         javaBuffer.addLine("}");
         javaBuffer.addLine();
 
+        // Methods to convert the values stored as primitive long, only needed in compact integers mode:
+        if (compactIntegers) {
+            generateBaseContainerCompactConversion("Byte", "byte");
+            generateBaseContainerCompactConversion("Short", "short");
+            generateBaseContainerCompactConversion("Integer", "int");
+
+            javaBuffer.addLine(
+                "protected static Long asLong(String type, String member, long value, BigInteger overflow) {"
+            );
+            javaBuffer.addLine(  "if (overflow != null) {");
+            javaBuffer.addLine(    "return asLong(type, member, overflow);");
+            javaBuffer.addLine(  "}");
+            javaBuffer.addLine(  "return value;");
+            javaBuffer.addLine("}");
+            javaBuffer.addLine();
+        }
+
         // Method to make an unmodifiable list:
         javaBuffer.addLine("protected static <E> List<E> makeUnmodifiableList(List<E> original) {");
         javaBuffer.addLine(  "if (original == null) {");
@@ -356,6 +468,21 @@ public class TypesGenerator extends JavaGenerator {
         javaBuffer.addLine("}");
         javaBuffer.addLine();
 
+        // Method to make an unmodifiable copy of a list, used by the setters so that the getters can return the
+        // stored list directly, without creating a new view each time they are called:
+        javaBuffer.addLine("protected static <E> List<E> makeUnmodifiableCopy(List<E> original) {");
+        javaBuffer.addLine(  "if (original == null) {");
+        javaBuffer.addLine(    "return Collections.emptyList();");
+        javaBuffer.addLine(  "}");
+        javaBuffer.addLine(  "if (original instanceof ListWithHref) {");
+        javaBuffer.addLine(
+            "return new UnmodifiableListWithHref<E>(new ArrayListWithHref<E>((ListWithHref) original));"
+        );
+        javaBuffer.addLine(  "}");
+        javaBuffer.addLine(  "return Collections.unmodifiableList(new ArrayList<E>(original));");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+
         // Method to make an array list:
         javaBuffer.addLine("protected static <E> List<E> makeArrayList(List<E> original) {");
         javaBuffer.addLine(  "if (original == null) {");
@@ -373,6 +500,29 @@ public class TypesGenerator extends JavaGenerator {
         javaBuffer.addLine("}");
     }
 
+    /**
+     * Generates a method that converts an integer stored as a primitive {@code long}, plus the {@code BigInteger} used
+     * when it doesn't fit, to a smaller type. Values that don't fit in the smaller type are passed to the method that
+     * takes a {@code BigInteger}, so that the error is reported in the same way.
+     */
+    private void generateBaseContainerCompactConversion(String boxed, String primitive) {
+        String min = boxed + ".MIN_VALUE";
+        String max = boxed + ".MAX_VALUE";
+        javaBuffer.addLine(
+            "protected static %1$s as%1$s(String type, String member, long value, BigInteger overflow) {",
+            boxed
+        );
+        javaBuffer.addLine(  "if (overflow != null) {");
+        javaBuffer.addLine(    "return as%1$s(type, member, overflow);", boxed);
+        javaBuffer.addLine(  "}");
+        javaBuffer.addLine(  "if (value < %1$s || value > %2$s) {", min, max);
+        javaBuffer.addLine(    "return as%1$s(type, member, BigInteger.valueOf(value));", boxed);
+        javaBuffer.addLine(  "}");
+        javaBuffer.addLine(  "return (%1$s) value;", primitive);
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+    }
+
     private void generateContainer(StructType type) {
         javaBuffer = new JavaClassBuffer();
         JavaClassName containerName = javaTypes.getContainerName(type);
@@ -397,31 +547,108 @@ public class TypesGenerator extends JavaGenerator {
         javaBuffer.addLine("public class %1$s extends %2$s implements %3$s {",
             containerName.getSimpleName(), baseName.getSimpleName(), typeName.getSimpleName());
 
+        // Constants for the positions of the presence bits of the declared members, which go after the ones of the
+        // members of the base types:
+        List<StructMember> layout = getContainerLayout(type);
+        List<StructMember> declared = Stream.concat(type.declaredAttributes(), type.declaredLinks())
+            .sorted()
+            .collect(toList());
+        for (StructMember member : declared) {
+            javaBuffer.addLine("public static final int %1$s = %2$d;", getIndexConstant(member),
+                layout.indexOf(member));
+        }
+        javaBuffer.addLine();
+
         // Fields for attributes and links:
-        type.declaredAttributes().sorted().forEach(this::generateContainerFields);
-        type.declaredLinks().sorted().forEach(this::generateContainerFields);
+        declared.forEach(this::generateContainerFields);
+        javaBuffer.addLine();
+
+        // Constructors, the one that takes the number of members is used by the containers of derived types:
+        javaBuffer.addLine("public %1$s() {", containerName.getSimpleName());
+        javaBuffer.addLine(  "super(%1$d);", layout.size());
+        javaBuffer.addLine("}");
         javaBuffer.addLine();
+        javaBuffer.addLine("protected %1$s(int size) {", containerName.getSimpleName());
+        javaBuffer.addLine(  "super(size);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+
+        // Method to clear the members:
+        generateContainerReset(declared);
 
         // Methods for attributes and links:
-        type.declaredAttributes().sorted().forEach(this::generateContainerMethods);
-        type.declaredLinks().sorted().forEach(this::generateContainerMethods);
+        declared.forEach(this::generateContainerMethods);
 
         // End class:
         javaBuffer.addLine("}");
     }
 
+    private void generateContainerReset(List<StructMember> declared) {
+        javaBuffer.addLine("@Override");
+        javaBuffer.addLine("public void reset() {");
+        for (StructMember member : declared) {
+            String field = javaNames.getJavaMemberStyleName(member.getName());
+            Type type = member.getType();
+            Model model = type.getModel();
+            if (type == model.getBooleanType()) {
+                javaBuffer.addLine("%1$s = false;", field);
+            }
+            else if (type == model.getDateType()) {
+                javaBuffer.addLine("%1$s = 0;", field);
+            }
+            else if (isCompactInteger(type)) {
+                javaBuffer.addLine("%1$s = 0;", field);
+                javaBuffer.addLine("%1$sOverflow = null;", field);
+            }
+            else if (type instanceof ListType) {
+                javaBuffer.addLine("%1$s = Collections.emptyList();", field);
+            }
+            else {
+                javaBuffer.addLine("%1$s = null;", field);
+            }
+        }
+        javaBuffer.addLine(  "super.reset();");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+    }
+
     private void generateContainerFields(StructMember member) {
         // Get the name of the field:
         Name name = member.getName();
         String field = javaNames.getJavaMemberStyleName(name);
 
-        // Get the type reference:
+        // Booleans and dates are stored as primitive values, as the presence is tracked separately. In compact
+        // integers mode integers are stored as a primitive value plus a big integer that is used only when the value
+        // doesn't fit:
         Type type = member.getType();
+        Model model = type.getModel();
+        if (type == model.getBooleanType()) {
+            javaBuffer.addLine("private boolean %1$s;", field);
+            return;
+        }
+        if (type == model.getDateType()) {
+            javaBuffer.addLine("private long %1$s;", field);
+            return;
+        }
+        if (isCompactInteger(type)) {
+            javaBuffer.addImport(BigInteger.class);
+            javaBuffer.addLine("private long %1$s;", field);
+            javaBuffer.addLine("private BigInteger %1$sOverflow;", field);
+            return;
+        }
+
+        // Get the type reference:
         JavaTypeReference typeReference = javaTypes.getTypeReference(type, true);
         javaBuffer.addImports(typeReference.getImports());
 
-        // Generate the field:
-        javaBuffer.addLine("private %1$s %2$s;", typeReference.getText(), field);
+        // Generate the field, lists start empty so that the getter can return them directly:
+        if (type instanceof ListType) {
+            javaBuffer.addImport(Collections.class);
+            javaBuffer.addLine("private %1$s %2$s = Collections.emptyList();", typeReference.getText(), field);
+        }
+        else {
+            javaBuffer.addLine("private %1$s %2$s;", typeReference.getText(), field);
+        }
     }
 
     private void generateContainerMethods(StructMember member) {
@@ -432,6 +659,13 @@ public class TypesGenerator extends JavaGenerator {
         String field = javaNames.getJavaMemberStyleName(name);
         String property = javaNames.getJavaPropertyStyleName(name);
         String declaring = javaNames.getJavaClassStyleName(member.getDeclaringType().getName());
+        String index = getIndexConstant(member);
+
+        // Integers stored as primitive values have their own methods:
+        if (isCompactInteger(type)) {
+            generateContainerCompactIntegerMethods(member);
+            return;
+        }
 
         // Get the type reference:
         JavaTypeReference typeReference = javaTypes.getTypeReference(type, false);
@@ -467,19 +701,10 @@ public class TypesGenerator extends JavaGenerator {
         else if (type == model.getDateType()) {
             javaBuffer.addImport(Date.class);
             javaBuffer.addLine("public Date %1$s() {", field);
-            javaBuffer.addLine(  "if (%1$s == null) {", field);
+            javaBuffer.addLine(  "if (!isPresent(%1$s)) {", index);
             javaBuffer.addLine(    "return null;");
             javaBuffer.addLine(  "}");
-            javaBuffer.addLine(  "else {");
-            javaBuffer.addLine(    "return new Date(%1$s.getTime());", field);
-            javaBuffer.addLine(  "}");
-            javaBuffer.addLine("}");
-            javaBuffer.addLine();
-        }
-        else if (type instanceof ListType) {
-            javaBuffer.addImports(typeReference.getImports());
-            javaBuffer.addLine("public %1$s %2$s() {", typeReference.getText(), field);
-            javaBuffer.addLine(  "return makeUnmodifiableList(%1$s);", field);
+            javaBuffer.addLine(  "return new Date(%1$s);", field);
             javaBuffer.addLine("}");
             javaBuffer.addLine();
         }
@@ -492,60 +717,129 @@ public class TypesGenerator extends JavaGenerator {
         }
 
         // Generate the setter:
-        if (type instanceof PrimitiveType) {
-            if (type == model.getBooleanType()) {
-                // Generate the method that takes a "boolean" parameter:
-                javaBuffer.addLine("public void %1$s(boolean new%2$s) {", field, property);
-                javaBuffer.addLine(  "%1$s = Boolean.valueOf(new%2$s);", field, property);
-                javaBuffer.addLine("}");
-                javaBuffer.addLine();
+        if (type == model.getBooleanType()) {
+            // Generate the method that takes a "boolean" parameter:
+            javaBuffer.addLine("public void %1$s(boolean new%2$s) {", field, property);
+            javaBuffer.addLine(  "%1$s = new%2$s;", field, property);
+            javaBuffer.addLine(  "setPresent(%1$s, true);", index);
+            javaBuffer.addLine("}");
+            javaBuffer.addLine();
 
-                // Generate the method that takes a "Boolean" parameter:
-                javaBuffer.addLine("public void %1$s(Boolean new%2$s) {", field, property);
-                javaBuffer.addLine(  "%1$s = new%2$s;", field, property);
-                javaBuffer.addLine("}");
-                javaBuffer.addLine();
-            }
-            else if (type == model.getDateType()) {
-                javaBuffer.addImport(Date.class);
-                javaBuffer.addLine("public void %1$s(Date new%2$s) {", field, property);
-                javaBuffer.addLine(  "if (new%1$s == null) {", property);
-                javaBuffer.addLine(    "%1$s = null;", field);
-                javaBuffer.addLine(  "}");
-                javaBuffer.addLine(  "else {");
-                javaBuffer.addLine(    "%1$s = new Date(new%2$s.getTime());", field, property);
-                javaBuffer.addLine(  "}");
-                javaBuffer.addLine("}");
-                javaBuffer.addLine();
-            }
-            else {
-                javaBuffer.addLine("public void %1$s(%2$s new%3$s) {", field, typeReference.getText(), property);
-                javaBuffer.addLine(  "%1$s = new%2$s;", field, property);
-                javaBuffer.addLine("}");
-                javaBuffer.addLine();
-            }
+            // Generate the method that takes a "Boolean" parameter:
+            javaBuffer.addLine("public void %1$s(Boolean new%2$s) {", field, property);
+            javaBuffer.addLine(  "%1$s = new%2$s != null && new%2$s;", field, property);
+            javaBuffer.addLine(  "setPresent(%1$s, new%2$s != null);", index, property);
+            javaBuffer.addLine("}");
+            javaBuffer.addLine();
+        }
+        else if (type == model.getDateType()) {
+            javaBuffer.addImport(Date.class);
+            javaBuffer.addLine("public void %1$s(Date new%2$s) {", field, property);
+            javaBuffer.addLine(  "%1$s = new%2$s != null? new%2$s.getTime(): 0;", field, property);
+            javaBuffer.addLine(  "setPresent(%1$s, new%2$s != null);", index, property);
+            javaBuffer.addLine("}");
+            javaBuffer.addLine();
         }
         else if (type instanceof ListType) {
             javaBuffer.addLine("public void %1$s(%2$s new%3$s) {", field, typeReference.getText(), property);
-            javaBuffer.addLine(  "%1$s = makeArrayList(new%2$s);", field, property);
+            javaBuffer.addLine(  "%1$s = makeUnmodifiableCopy(new%2$s);", field, property);
+            javaBuffer.addLine(  "setPresent(%1$s, !%2$s.isEmpty());", index, field);
+            javaBuffer.addLine("}");
+            javaBuffer.addLine();
+
+            // Generate the method that takes ownership of the list instead of copying it:
+            javaBuffer.addDocComment(
+                "Replaces the value of this member with the given list, without copying it. This is intended for the",
+                "generated readers, that create the list and don't use it after calling this method. Other callers",
+                "should use the method that copies the list."
+            );
+            javaBuffer.addLine("public void adopt%1$s(%2$s new%1$s) {", property, typeReference.getText());
+            javaBuffer.addLine(  "%1$s = makeUnmodifiableList(new%2$s);", field, property);
+            javaBuffer.addLine(  "setPresent(%1$s, !%2$s.isEmpty());", index, field);
             javaBuffer.addLine("}");
             javaBuffer.addLine();
         }
         else {
             javaBuffer.addLine("public void %1$s(%2$s new%3$s) {", field, typeReference.getText(), property);
             javaBuffer.addLine(  "%1$s = new%2$s;", field, property);
+            javaBuffer.addLine(  "setPresent(%1$s, new%2$s != null);", index, property);
             javaBuffer.addLine("}");
             javaBuffer.addLine();
         }
 
         // Generate the checker:
         javaBuffer.addLine("public boolean %1$sPresent() {", field);
-        if (type instanceof ListType) {
-            javaBuffer.addLine("return %1$s != null && !%1$s.isEmpty();", field);
-        }
-        else {
-            javaBuffer.addLine("return %1$s != null;", field);
+        javaBuffer.addLine(  "return isPresent(%1$s);", index);
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+    }
+
+    private void generateContainerCompactIntegerMethods(StructMember member) {
+        // Get the name of the field:
+        Name name = member.getName();
+        String field = javaNames.getJavaMemberStyleName(name);
+        String property = javaNames.getJavaPropertyStyleName(name);
+        String declaring = javaNames.getJavaClassStyleName(member.getDeclaringType().getName());
+        String index = getIndexConstant(member);
+
+        // Generate the getters:
+        javaBuffer.addImport(BigInteger.class);
+        javaBuffer.addLine("public BigInteger %1$s() {", field);
+        javaBuffer.addLine(  "if (!isPresent(%1$s)) {", index);
+        javaBuffer.addLine(    "return null;");
+        javaBuffer.addLine(  "}");
+        javaBuffer.addLine(  "if (%1$sOverflow != null) {", field);
+        javaBuffer.addLine(    "return %1$sOverflow;", field);
+        javaBuffer.addLine(  "}");
+        javaBuffer.addLine(  "return BigInteger.valueOf(%1$s);", field);
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+
+        for (String boxed : new String[] { "Byte", "Short", "Integer", "Long" }) {
+            javaBuffer.addLine("public %1$s %2$sAs%1$s() {", boxed, field);
+            javaBuffer.addLine(  "if (!isPresent(%1$s)) {", index);
+            javaBuffer.addLine(    "return null;");
+            javaBuffer.addLine(  "}");
+            javaBuffer.addLine(  "return as%1$s(\"%2$s\", \"%3$s\", %3$s, %3$sOverflow);", boxed, declaring, field);
+            javaBuffer.addLine("}");
+            javaBuffer.addLine();
         }
+
+        // Generate the methods that the writers use to get the value without creating a big integer:
+        javaBuffer.addLine("public boolean %1$sFitsLong() {", field);
+        javaBuffer.addLine(  "return %1$sOverflow == null;", field);
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+
+        javaBuffer.addLine("public long %1$sLongValue() {", field);
+        javaBuffer.addLine(  "return %1$s;", field);
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+
+        // Generate the setters, the one that takes a big integer checks if the value fits in a long:
+        javaBuffer.addLine("public void %1$s(BigInteger new%2$s) {", field, property);
+        javaBuffer.addLine(  "if (new%1$s != null && new%1$s.bitLength() < Long.SIZE) {", property);
+        javaBuffer.addLine(    "%1$s = new%2$s.longValue();", field, property);
+        javaBuffer.addLine(    "%1$sOverflow = null;", field);
+        javaBuffer.addLine(  "}");
+        javaBuffer.addLine(  "else {");
+        javaBuffer.addLine(    "%1$s = 0;", field);
+        javaBuffer.addLine(    "%1$sOverflow = new%2$s;", field, property);
+        javaBuffer.addLine(  "}");
+        javaBuffer.addLine(  "setPresent(%1$s, new%2$s != null);", index, property);
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+
+        javaBuffer.addLine("public void %1$s(long new%2$s) {", field, property);
+        javaBuffer.addLine(  "%1$s = new%2$s;", field, property);
+        javaBuffer.addLine(  "%1$sOverflow = null;", field);
+        javaBuffer.addLine(  "setPresent(%1$s, true);", index);
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+
+        // Generate the checker:
+        javaBuffer.addLine("public boolean %1$sPresent() {", field);
+        javaBuffer.addLine(  "return isPresent(%1$s);", index);
         javaBuffer.addLine("}");
         javaBuffer.addLine();
     }
@@ -582,20 +876,44 @@ public class TypesGenerator extends JavaGenerator {
         JavaClassName containerName = javaTypes.getContainerName(type);
         javaBuffer.addImport(typeName);
         javaBuffer.addImport(containerName);
+        // Each call to a setter takes about 12 bytes of code:
+        List<List<StructMember>> chunks = splitBySize(
+            Stream.concat(type.attributes(), type.links()).sorted().collect(toList()),
+            member -> 12
+        );
         javaBuffer.addLine("public %1$s build() {", typeName.getSimpleName());
         javaBuffer.addLine(  "%1$s container = new %1$s();", containerName.getSimpleName());
-        Stream.concat(type.attributes(), type.links()).sorted().forEach(member -> {
-            Name name = member.getName();
-            String field = javaNames.getJavaMemberStyleName(name);
-            javaBuffer.addLine("container.%1$s(%1$s);", field);
-        });
+        if (chunks.size() == 1) {
+            chunks.get(0).forEach(this::generateBuilderCopy);
+        }
+        else {
+            for (int i = 0; i < chunks.size(); i++) {
+                javaBuffer.addLine("build%1$d(container);", i);
+            }
+        }
         javaBuffer.addLine(  "return container;");
         javaBuffer.addLine("}");
 
+        // If the code to copy the fields was too large for one method then generate a method for each chunk:
+        if (chunks.size() > 1) {
+            for (int i = 0; i < chunks.size(); i++) {
+                javaBuffer.addLine();
+                javaBuffer.addLine("private void build%1$d(%2$s container) {", i, containerName.getSimpleName());
+                chunks.get(i).forEach(this::generateBuilderCopy);
+                javaBuffer.addLine("}");
+            }
+        }
+
         // End class:
         javaBuffer.addLine("}");
     }
 
+    private void generateBuilderCopy(StructMember member) {
+        Name name = member.getName();
+        String field = javaNames.getJavaMemberStyleName(name);
+        javaBuffer.addLine("container.%1$s(%1$s);", field);
+    }
+
     private void generateBuilderFields(StructMember member) {
         // Get the name of the property:
         Name name = member.getName();
@@ -13,9 +13,16 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Stream;
 import javax.inject.Inject;
 
@@ -24,13 +31,19 @@ import org.ovirt.api.metamodel.concepts.Link;
 import org.ovirt.api.metamodel.concepts.ListType;
 import org.ovirt.api.metamodel.concepts.Model;
 import org.ovirt.api.metamodel.concepts.Name;
+import org.ovirt.api.metamodel.concepts.NameParser;
 import org.ovirt.api.metamodel.concepts.PrimitiveType;
 import org.ovirt.api.metamodel.concepts.StructMember;
 import org.ovirt.api.metamodel.concepts.StructType;
 import org.ovirt.api.metamodel.concepts.Type;
 import org.ovirt.api.metamodel.runtime.util.ArrayListWithHref;
+import org.ovirt.api.metamodel.runtime.util.FieldMask;
 import org.ovirt.api.metamodel.runtime.util.ListWithHref;
+import org.ovirt.api.metamodel.runtime.xml.XmlDispatcher;
+import org.ovirt.api.metamodel.runtime.xml.XmlException;
+import org.ovirt.api.metamodel.runtime.xml.XmlIndex;
 import org.ovirt.api.metamodel.runtime.xml.XmlReader;
+import org.ovirt.api.metamodel.runtime.xml.XmlTag;
 import org.ovirt.api.metamodel.runtime.xml.XmlWriter;
 
 /**
@@ -70,12 +83,17 @@ public class XmlSupportGenerator extends JavaGenerator {
             .map(EnumType.class::cast)
             .forEach(this::generateEnumSupportClasses);
 
-        generateXmlTagsPropertiesFile(model);
+        // Generate the class that selects the reader for each tag, and the file that tells the runtime its name:
+        generateDispatcher(model);
+        if (resourcesDir != null) {
+            generateDispatcherPropertiesFile();
+        }
     }
 
     private void generateStructSupportClasses(StructType type) {
         generateStructReader(type);
         generateStructWriter(type);
+        generateStructView(type);
     }
 
     private void generateEnumSupportClasses(EnumType type) {
@@ -83,35 +101,196 @@ public class XmlSupportGenerator extends JavaGenerator {
         generateEnumWriter(type);
     }
 
-    private void generateXmlTagsPropertiesFile(Model model) {
-        PropertiesBuffer propertiesBuffer = new PropertiesBuffer();
+    private void generateDispatcher(Model model) {
+        javaBuffer = new JavaClassBuffer();
+        JavaClassName dispatcherName = getDispatcherName();
+        javaBuffer.setClassName(dispatcherName);
+        generateDispatcherSource(model);
+        try {
+            javaBuffer.write(outDir);
+        }
+        catch (IOException exception) {
+            throw new RuntimeException("Can't write file for XML dispatcher \"" + dispatcherName + "\"", exception);
+        }
+    }
 
-        // Path of the methods.properties file:
-        String methods = XmlReader.class.getPackage().getName().replaceAll("\\.", "/") + "/" + XmlReader.METHODS_FILE;
+    private void generateDispatcherSource(Model model) {
+        // Add the required imports:
+        javaBuffer.addImport(Function.class);
+        javaBuffer.addImport(XmlDispatcher.class);
+        javaBuffer.addImport(XmlException.class);
+        javaBuffer.addImport(XmlReader.class);
+
+        // Begin class:
+        JavaClassName dispatcherName = getDispatcherName();
+        javaBuffer.addLine("public class %1$s implements XmlDispatcher {", dispatcherName.getSimpleName());
+        javaBuffer.addLine();
 
-        // Generate properties to register for every tag appropriate reader method:
+        // Calculate the tags, and the statements that handle each of them. The tags are identified by their position
+        // in the list, which is calculated by the name index method:
+        List<String> tags = new ArrayList<>();
+        Map<Integer, String> reads = new TreeMap<>();
+        Map<Integer, String> lookups = new TreeMap<>();
+        Map<Integer, String> iterators = new TreeMap<>();
         model.types()
             .filter(StructType.class::isInstance)
             .map(StructType.class::cast)
             .sorted()
             .forEach(type -> {
                 Name typeName = type.getName();
-                String singularTag = schemaNames.getSchemaTagName(typeName);
-                String pluralTag = schemaNames.getSchemaTagName(names.getPlural(typeName));
-                JavaClassName className = javaTypes.getXmlReaderName(type);
-
-                propertiesBuffer.addProperty(singularTag, String.format("%1$s.readOne", className));
-                propertiesBuffer.addProperty(pluralTag, String.format("%1$s.readMany", className));
+                JavaClassName readerName = javaTypes.getXmlReaderName(type);
+                String readerSimpleName = readerName.getSimpleName();
+                javaBuffer.addImport(readerName);
+                int singular = tags.size();
+                tags.add(schemaNames.getSchemaTagName(typeName));
+                reads.put(singular, String.format("return %1$s.readOne(reader);", readerSimpleName));
+                lookups.put(singular, String.format("return %1$s::readOne;", readerSimpleName));
+                int plural = tags.size();
+                tags.add(schemaNames.getSchemaTagName(names.getPlural(typeName)));
+                reads.put(plural, String.format("return %1$s.readMany(reader);", readerSimpleName));
+                lookups.put(plural, String.format("return %1$s::readMany;", readerSimpleName));
+                iterators.put(plural, String.format("return %1$s::iterateMany;", readerSimpleName));
             });
 
+        // Generate the method that calls the reader corresponding to each tag directly. The reader class is still
+        // loaded only when the call for one of its tags is executed for the first time:
+        generateDispatcherMethod(
+            "Object",
+            "read",
+            ", XmlReader reader",
+            ", reader",
+            reads,
+            "throw new XmlException(String.format(\"Can't find a reader for tag '%s'\", tag));"
+        );
+
+        // Generate the method that returns the reader corresponding to each tag, for the callers that need a
+        // function instead of the result:
+        generateDispatcherMethod(
+            "Function<XmlReader, ?>",
+            "lookup",
+            "",
+            "",
+            lookups,
+            "return null;"
+        );
+
+        // Generate the method that returns the iterator corresponding to each tag of a list:
+        javaBuffer.addImport(Iterator.class);
+        generateDispatcherMethod(
+            "Function<XmlReader, Iterator<?>>",
+            "lookupIterator",
+            "",
+            "",
+            iterators,
+            "return null;"
+        );
+
+        // Generate the method that calculates the position of a tag:
+        generateNameIndex("tagIndex", tags);
+
+        // End class:
+        javaBuffer.addLine("}");
+    }
+
+    /**
+     * Generates a method of the dispatcher that calculates the position of the tag and then executes the statement
+     * that corresponds to that position. If the statements don't fit in one method they are split in chunks, each
+     * handled by a separate method, and the main method selects the chunk using the range of positions that it
+     * covers.
+     *
+     * @param returnType the type returned by the method
+     * @param methodName the name of the method
+     * @param parameters the declarations of the parameters that follow the tag, starting with a comma, or an empty
+     *     string if there are no more parameters
+     * @param arguments the names of the parameters that follow the tag, starting with a comma, or an empty string
+     *     if there are no more parameters
+     * @param statements the statements for each position, indexed by position
+     * @param notFound the statement executed when the tag doesn't correspond to any of the statements
+     */
+    private void generateDispatcherMethod(String returnType, String methodName, String parameters, String arguments,
+            Map<Integer, String> statements, String notFound) {
+        // Each case takes about 16 bytes of code:
+        List<List<Map.Entry<Integer, String>>> chunks = splitBySize(
+            new ArrayList<>(statements.entrySet()),
+            entry -> 16
+        );
+
+        // Generate the main method:
+        javaBuffer.addLine("@Override");
+        javaBuffer.addLine("public %1$s %2$s(String tag%3$s) {", returnType, methodName, parameters);
+        if (chunks.size() == 1) {
+            javaBuffer.addLine("switch (tagIndex(tag)) {");
+            generateDispatcherCases(chunks.get(0));
+            javaBuffer.addLine("default:");
+            javaBuffer.addLine(  notFound);
+            javaBuffer.addLine("}");
+        }
+        else {
+            javaBuffer.addLine("int index = tagIndex(tag);");
+            for (int i = 0; i < chunks.size(); i++) {
+                List<Map.Entry<Integer, String>> chunk = chunks.get(i);
+                int first = chunk.get(0).getKey();
+                int last = chunk.get(chunk.size() - 1).getKey();
+                javaBuffer.addLine("if (index >= %1$d && index <= %2$d) {", first, last);
+                javaBuffer.addLine(  "return %1$s%2$d(index%3$s);", methodName, i, arguments);
+                javaBuffer.addLine("}");
+            }
+            javaBuffer.addLine(notFound);
+        }
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+
+        // If the statements were too large for one method then generate a method for each chunk. The positions that
+        // are inside the range of the chunk but don't have a statement return null, which is also what the methods
+        // that look up functions return when the tag doesn't correspond to a function:
+        if (chunks.size() > 1) {
+            for (int i = 0; i < chunks.size(); i++) {
+                javaBuffer.addLine(
+                    "private static %1$s %2$s%3$d(int index%4$s) {",
+                    returnType, methodName, i, parameters
+                );
+                javaBuffer.addLine(  "switch (index) {");
+                generateDispatcherCases(chunks.get(i));
+                javaBuffer.addLine(  "default:");
+                javaBuffer.addLine(    "return null;");
+                javaBuffer.addLine(  "}");
+                javaBuffer.addLine("}");
+                javaBuffer.addLine();
+            }
+        }
+    }
+
+    private void generateDispatcherCases(List<Map.Entry<Integer, String>> entries) {
+        for (Map.Entry<Integer, String> entry : entries) {
+            javaBuffer.addLine("case %1$d:", entry.getKey());
+            javaBuffer.addLine(  entry.getValue());
+        }
+    }
+
+    private void generateDispatcherPropertiesFile() {
+        PropertiesBuffer propertiesBuffer = new PropertiesBuffer();
+
+        // Path of the properties file, it has to be in the same package than the XML reader:
+        String path = XmlReader.class.getPackage().getName().replace('.', '/') + "/" + XmlReader.DISPATCHER_FILE;
+
+        // Generate the property that contains the name of the dispatcher class:
+        propertiesBuffer.addProperty("dispatcher", getDispatcherName().toString());
+
         try {
-            propertiesBuffer.write(new File(resourcesDir, methods));
+            propertiesBuffer.write(new File(resourcesDir, path));
         }
         catch (IOException exception) {
-            throw new RuntimeException("Can't write file for XML generic methods reader.", exception);
+            throw new RuntimeException("Can't write file for XML dispatcher properties.", exception);
         }
     }
 
+    private JavaClassName getDispatcherName() {
+        JavaClassName dispatcherName = new JavaClassName();
+        dispatcherName.setPackageName(javaPackages.getXmlPackageName());
+        dispatcherName.setSimpleName(javaNames.getJavaClassStyleName(NameParser.parseUsingCase("XmlReaders")));
+        return dispatcherName;
+    }
+
     private void generateStructReader(StructType type) {
         javaBuffer = new JavaClassBuffer();
         JavaClassName readerName = javaTypes.getXmlReaderName(type);
@@ -147,8 +326,9 @@ public class XmlSupportGenerator extends JavaGenerator {
 
         javaBuffer.addImport(ArrayListWithHref.class);
         javaBuffer.addImport(ListWithHref.class);
+        javaBuffer.addImport(FieldMask.class);
         javaBuffer.addLine(
-            "private static void processLink(%1$s object, String[] link) {",
+            "private static void processLink(%1$s object, String[] link, FieldMask mask) {",
             containerName.getSimpleName()
         );
         List<Link> links = type.links()
@@ -166,11 +346,22 @@ public class XmlSupportGenerator extends JavaGenerator {
             links.forEach(
                 link -> {
                     String field = javaNames.getJavaMemberStyleName(link.getName());
+                    String property = javaNames.getJavaPropertyStyleName(link.getName());
+                    String tag = schemaNames.getSchemaTagName(link.getName());
                     String rel = link.getName().words().map(String::toLowerCase).collect(joining());
                     javaBuffer.addLine("case \"%1$s\":", rel);
-                    javaBuffer.addLine("list = new ArrayListWithHref(object.%1$s());", field);
-                    javaBuffer.addLine("list.href(href);");
-                    javaBuffer.addLine("object.%1$s(list);", field);
+                    javaBuffer.addLine("if (mask.includes(\"%1$s\")) {", tag);
+                    // The readers store the elements of links in lists that already have an href, so it can be
+                    // set without copying the list. The list is only created here when there are no elements:
+                    javaBuffer.addLine(  "if (object.%1$s() instanceof ListWithHref) {", field);
+                    javaBuffer.addLine(    "((ListWithHref) object.%1$s()).href(href);", field);
+                    javaBuffer.addLine(  "}");
+                    javaBuffer.addLine(  "else {");
+                    javaBuffer.addLine(    "list = new ArrayListWithHref(object.%1$s());", field);
+                    javaBuffer.addLine(    "list.href(href);");
+                    javaBuffer.addLine(    "object.adopt%1$s(list);", property);
+                    javaBuffer.addLine(  "}");
+                    javaBuffer.addLine("}");
                     javaBuffer.addLine("break;");
                 }
             );
@@ -202,24 +393,72 @@ public class XmlSupportGenerator extends JavaGenerator {
         List<StructMember> asElements = allMembers.stream()
             .filter(x -> !schemaNames.isRepresentedAsAttribute(x.getName()))
             .collect(toList());
+
+        // Calculate the names of the attributes and elements, and the index that will be used to select the code that
+        // processes each of them. The "link" element is always added at the end:
+        List<String> names = new ArrayList<>();
+        asAttributes.stream()
+            .sorted()
+            .map(x -> schemaNames.getSchemaTagName(x.getName()))
+            .forEach(names::add);
+        asElements.stream()
+            .sorted()
+            .map(x -> schemaNames.getSchemaTagName(x.getName()))
+            .forEach(names::add);
+        names.add("link");
+
+        // Generate the method that reads all the members:
+        javaBuffer.addImport(FieldMask.class);
         javaBuffer.addLine("public static %1$s readOne(XmlReader reader) {", typeName.getSimpleName());
+        javaBuffer.addLine(  "return readOne(reader, FieldMask.ALL);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+
+        // Generate the method that reads only the members included in the mask. Elements that aren't included are
+        // skipped without creating any object. The "link" elements are always processed, as they are selected
+        // later, according to the value of their "rel" attribute:
+        javaBuffer.addLine("public static %1$s readOne(XmlReader reader, FieldMask mask) {", typeName.getSimpleName());
+        javaBuffer.addLine(  "return readOne(reader, mask, null);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+
+        // Generate the method that can store the result in an existing container, instead of creating a new one:
+        javaBuffer.addDocComment(
+            "Reads an object, storing the result in the given container if it isn't {@code null}. The container is",
+            "reset before reading, so nothing from the previous object remains, but objects previously returned",
+            "using the same container will be modified."
+        );
+        javaBuffer.addLine(
+            "public static %1$s readOne(XmlReader reader, FieldMask mask, %2$s reuse) {",
+            typeName.getSimpleName(), containerName.getSimpleName()
+        );
         javaBuffer.addLine(  "// Do nothing if there aren't more tags:");
         javaBuffer.addLine(  "if (!reader.forward()) {");
         javaBuffer.addLine(    "return null;");
         javaBuffer.addLine(  "}");
         javaBuffer.addLine();
-        javaBuffer.addLine(  "// Create the object:");
-        javaBuffer.addLine(  "%1$s object = new %1$s();", containerName.getSimpleName());
+        javaBuffer.addLine(  "// Create the object, or reuse the given one:");
+        javaBuffer.addLine(  "%1$s object;", containerName.getSimpleName());
+        javaBuffer.addLine(  "if (reuse != null) {");
+        javaBuffer.addLine(    "object = reuse;");
+        javaBuffer.addLine(    "object.reset();");
+        javaBuffer.addLine(  "}");
+        javaBuffer.addLine(  "else {");
+        javaBuffer.addLine(    "object = new %1$s();", containerName.getSimpleName());
+        javaBuffer.addLine(  "}");
         javaBuffer.addLine();
         if (!asAttributes.isEmpty()) {
             javaBuffer.addLine("// Process the attributes:");
             javaBuffer.addLine("for (int i = 0; i < reader.getAttributeCount(); i++) {");
             javaBuffer.addLine(  "String name = reader.getAttributeLocalName(i);");
+            javaBuffer.addLine(  "if (!mask.includes(name)) {");
+            javaBuffer.addLine(    "continue;");
+            javaBuffer.addLine(  "}");
             javaBuffer.addLine(  "String image = reader.getAttributeValue(i);");
-            javaBuffer.addLine(  "switch (name) {");
+            javaBuffer.addLine(  "switch (memberIndex(name)) {");
             asAttributes.stream()
                 .sorted()
-                .forEach(this::generateStructReadMemberFromAttribute);
+                .forEach(x -> generateStructReadMemberFromAttribute(x, names));
             javaBuffer.addLine(  "default:");
             javaBuffer.addLine(    "break;");
             javaBuffer.addLine(  "}");
@@ -230,26 +469,50 @@ public class XmlSupportGenerator extends JavaGenerator {
         javaBuffer.addLine(  "List<String[]> links = new ArrayList<>();");
         javaBuffer.addLine(  "reader.next();");
         javaBuffer.addLine(  "while (reader.forward()) {");
+        List<List<StructMember>> chunks = splitBySize(
+            asElements.stream().sorted().collect(toList()),
+            this::estimateReadMemberSize
+        );
+        int linkIndex = names.indexOf("link");
         if (!asElements.isEmpty()) {
             javaBuffer.addLine("String name = reader.getLocalName();");
-            javaBuffer.addLine("switch (name) {");
+            javaBuffer.addLine("int index = memberIndex(name);");
+            javaBuffer.addLine("if (index != %1$d && !mask.includes(name)) {", linkIndex);
+            javaBuffer.addLine(  "reader.skip();");
+            javaBuffer.addLine(  "continue;");
+            javaBuffer.addLine("}");
+        }
+        if (!asElements.isEmpty() && chunks.size() == 1) {
+            javaBuffer.addLine("switch (index) {");
             asElements.stream()
                 .sorted()
-                .forEach(this::generateStructReadMemberFromElement);
-            javaBuffer.addLine("case \"link\":");
-            javaBuffer.addLine("// Process the attributes:");
-            javaBuffer.addLine("String rel = reader.getAttributeValue(\"rel\");");
-            javaBuffer.addLine("String href = reader.getAttributeValue(\"href\");");
-            javaBuffer.addLine("if (rel != null && href != null) {");
-            javaBuffer.addLine(  "links.add(new String[]{rel, href});");
-            javaBuffer.addLine("}");
-            javaBuffer.addLine("reader.skip();");
+                .forEach(x -> generateStructReadMemberFromElement(x, names));
+            javaBuffer.addLine("case %1$d: // link", linkIndex);
+            generateStructReadLink();
             javaBuffer.addLine("break;");
             javaBuffer.addLine("default:");
             javaBuffer.addLine(  "reader.skip();");
             javaBuffer.addLine(  "break;");
             javaBuffer.addLine("}");
         }
+        else if (!asElements.isEmpty()) {
+            // The code to process all the elements would be too large for one method, so each chunk of elements is
+            // processed by a separate method, selected according to the index of the element:
+            for (int i = 0; i < chunks.size(); i++) {
+                List<StructMember> chunk = chunks.get(i);
+                int first = names.indexOf(schemaNames.getSchemaTagName(chunk.get(0).getName()));
+                int last = names.indexOf(schemaNames.getSchemaTagName(chunk.get(chunk.size() - 1).getName()));
+                javaBuffer.addLine("%1$sif (index >= %2$d && index <= %3$d) {", i > 0 ? "else " : "", first, last);
+                javaBuffer.addLine(  "readElements%1$d(reader, object, index, mask);", i);
+                javaBuffer.addLine("}");
+            }
+            javaBuffer.addLine("else if (index == %1$d) {", linkIndex);
+            generateStructReadLink();
+            javaBuffer.addLine("}");
+            javaBuffer.addLine("else {");
+            javaBuffer.addLine(  "reader.skip();");
+            javaBuffer.addLine("}");
+        }
         else {
             javaBuffer.addLine("reader.skip();");
         }
@@ -258,7 +521,7 @@ public class XmlSupportGenerator extends JavaGenerator {
         // Process the links:
         javaBuffer.addLine("if (links != null) {");
         javaBuffer.addLine(  "for (String[] link : links) {");
-        javaBuffer.addLine(    "processLink(object, link);");
+        javaBuffer.addLine(    "processLink(object, link, mask);");
         javaBuffer.addLine(  "}");
         javaBuffer.addLine("}");
 
@@ -269,14 +532,55 @@ public class XmlSupportGenerator extends JavaGenerator {
         javaBuffer.addLine(  "return object;");
         javaBuffer.addLine("}");
         javaBuffer.addLine();
+
+        // Generate the methods that process the chunks of elements, if the code was too large for one method:
+        if (chunks.size() > 1) {
+            for (int i = 0; i < chunks.size(); i++) {
+                javaBuffer.addLine(
+                    "private static void readElements%1$d(XmlReader reader, %2$s object, int index, FieldMask mask) {",
+                    i, containerName.getSimpleName()
+                );
+                javaBuffer.addLine(  "switch (index) {");
+                chunks.get(i).forEach(x -> generateStructReadMemberFromElement(x, names));
+                javaBuffer.addLine(  "default:");
+                javaBuffer.addLine(    "reader.skip();");
+                javaBuffer.addLine(    "break;");
+                javaBuffer.addLine(  "}");
+                javaBuffer.addLine("}");
+                javaBuffer.addLine();
+            }
+        }
+
+        // Generate the method that calculates the index of each attribute or element:
+        generateNameIndex("memberIndex", names);
     }
 
-    private void generateStructReadMemberFromAttribute(StructMember member) {
+    private void generateStructReadLink() {
+        javaBuffer.addLine("// Process the attributes:");
+        javaBuffer.addLine("String rel = reader.getAttributeValue(\"rel\");");
+        javaBuffer.addLine("String href = reader.getAttributeValue(\"href\");");
+        javaBuffer.addLine("if (rel != null && href != null) {");
+        javaBuffer.addLine(  "links.add(new String[]{rel, href});");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine("reader.skip();");
+    }
+
+    /**
+     * Estimates the size, in bytes, of the code generated to read a member represented as an XML element. This is the
+     * code of the {@code case} branch, calling the reader and then the setter, plus the entry in the table of the
+     * {@code switch}. Integers in compact mode need more code, to check if the value fits in a {@code long} before
+     * parsing it.
+     */
+    private int estimateReadMemberSize(StructMember member) {
+        return isCompactInteger(member.getType()) ? 40 : 24;
+    }
+
+    private void generateStructReadMemberFromAttribute(StructMember member, List<String> names) {
         Name name = member.getName();
         Type type = member.getType();
         String field = javaNames.getJavaMemberStyleName(name);
         String tag = schemaNames.getSchemaTagName(name);
-        javaBuffer.addLine("case \"%1$s\":", tag);
+        javaBuffer.addLine("case %1$d: // %2$s", names.indexOf(tag), tag);
         if (type instanceof PrimitiveType) {
             Model model = type.getModel();
             if (type == model.getBooleanType()) {
@@ -284,7 +588,12 @@ public class XmlSupportGenerator extends JavaGenerator {
             }
             else if (type == model.getIntegerType()) {
                 javaBuffer.addImport(BigInteger.class);
-                javaBuffer.addLine("object.%1$s(new BigInteger(image));", field);
+                if (compactIntegers) {
+                    generateCompactIntegerSet(field, "image", "new BigInteger(image)");
+                }
+                else {
+                    javaBuffer.addLine("object.%1$s(new BigInteger(image));", field);
+                }
             }
             else if (type == model.getDecimalType()) {
                 javaBuffer.addImport(BigDecimal.class);
@@ -294,7 +603,7 @@ public class XmlSupportGenerator extends JavaGenerator {
                 javaBuffer.addLine("object.%1$s(image);", field);
             }
             else if (type == model.getDateType()) {
-                javaBuffer.addLine("object.%1$s(DATE_FORMAT.parse(image));", field);
+                javaBuffer.addLine("object.%1$s(reader.parseDate(image));", field);
             }
         }
         else if (type instanceof EnumType) {
@@ -305,19 +614,27 @@ public class XmlSupportGenerator extends JavaGenerator {
         javaBuffer.addLine("break;");
     }
 
-    private void generateStructReadMemberFromElement(StructMember member) {
+    private void generateStructReadMemberFromElement(StructMember member, List<String> names) {
         Name name = member.getName();
         Type type = member.getType();
         String field = javaNames.getJavaMemberStyleName(name);
+        String property = javaNames.getJavaPropertyStyleName(name);
         String tag = schemaNames.getSchemaTagName(name);
-        javaBuffer.addLine("case \"%1$s\":", tag);
+        javaBuffer.addLine("case %1$d: // %2$s", names.indexOf(tag), tag);
         if (type instanceof PrimitiveType) {
             Model model = type.getModel();
             if (type == model.getBooleanType()) {
                 javaBuffer.addLine("object.%1$s(reader.readBoolean());", field);
             }
             else if (type == model.getIntegerType()) {
-                javaBuffer.addLine("object.%1$s(reader.readInteger());", field);
+                if (compactIntegers) {
+                    String image = field + "Image";
+                    javaBuffer.addLine("String %1$s = reader.readString();", image);
+                    generateCompactIntegerSet(field, image, "reader.parseInteger(" + image + ")");
+                }
+                else {
+                    javaBuffer.addLine("object.%1$s(reader.readInteger());", field);
+                }
             }
             else if (type == model.getDecimalType()) {
                 javaBuffer.addLine("object.%1$s(reader.readDecimal());", field);
@@ -332,7 +649,13 @@ public class XmlSupportGenerator extends JavaGenerator {
                 javaBuffer.addLine("reader.skip();");
             }
         }
-        else if (type instanceof StructType || type instanceof EnumType) {
+        else if (type instanceof StructType) {
+            JavaClassName readerName = javaTypes.getXmlReaderName(type);
+            javaBuffer.addImport(readerName);
+            javaBuffer.addLine("object.%1$s(%2$s.readOne(reader, mask.child(\"%3$s\")));", field,
+                readerName.getSimpleName(), tag);
+        }
+        else if (type instanceof EnumType) {
             JavaClassName readerName = javaTypes.getXmlReaderName(type);
             javaBuffer.addImport(readerName);
             javaBuffer.addLine("object.%1$s(%2$s.readOne(reader));", field, readerName.getSimpleName());
@@ -342,25 +665,37 @@ public class XmlSupportGenerator extends JavaGenerator {
             Type elementType = listType.getElementType();
             JavaClassName readerName = javaTypes.getXmlReaderName(elementType);
             javaBuffer.addImport(readerName);
-            if (elementType instanceof StructType || elementType instanceof EnumType) {
-                javaBuffer.addLine("object.%1$s(%2$s.readMany(reader));", field, readerName.getSimpleName());
+            if (elementType instanceof StructType && member instanceof Link) {
+                // The elements of links are stored in a list that can later receive the href of the link:
+                javaBuffer.addImport(ArrayListWithHref.class);
+                javaBuffer.addLine(
+                    "object.adopt%1$s(%2$s.readMany(reader, mask.child(\"%3$s\"), new ArrayListWithHref<>()));",
+                    property, readerName.getSimpleName(), tag
+                );
+            }
+            else if (elementType instanceof StructType) {
+                javaBuffer.addLine("object.adopt%1$s(%2$s.readMany(reader, mask.child(\"%3$s\")));", property,
+                    readerName.getSimpleName(), tag);
+            }
+            else if (elementType instanceof EnumType) {
+                javaBuffer.addLine("object.adopt%1$s(%2$s.readMany(reader));", property, readerName.getSimpleName());
             }
             else if(elementType instanceof PrimitiveType) {
                 Model model = type.getModel();
                 if (elementType == model.getBooleanType()) {
-                    javaBuffer.addLine("object.%1$s(reader.readBooleans());", field);
+                    javaBuffer.addLine("object.adopt%1$s(reader.readBooleans());", property);
                 }
                 else if (elementType == model.getIntegerType()) {
-                    javaBuffer.addLine("object.%1$s(reader.readIntegers());", field);
+                    javaBuffer.addLine("object.adopt%1$s(reader.readIntegers());", property);
                 }
                 else if (elementType == model.getDecimalType()) {
-                    javaBuffer.addLine("object.%1$s(reader.readDecimals());", field);
+                    javaBuffer.addLine("object.adopt%1$s(reader.readDecimals());", property);
                 }
                 else if (elementType == model.getStringType()) {
-                    javaBuffer.addLine("object.%1$s(reader.readStrings());", field);
+                    javaBuffer.addLine("object.adopt%1$s(reader.readStrings());", property);
                 }
                 else if (elementType == model.getDateType()) {
-                    javaBuffer.addLine("object.%1$s(reader.readDates());", field);
+                    javaBuffer.addLine("object.adopt%1$s(reader.readDates());", property);
                 }
                 else {
                     javaBuffer.addLine("reader.skip();");
@@ -374,21 +709,48 @@ public class XmlSupportGenerator extends JavaGenerator {
     }
 
     private void generateStructReadMany(StructType type) {
-        // Get the type name:
+        // Get the type and container name:
         JavaClassName typeName = javaTypes.getInterfaceName(type);
+        JavaClassName containerName = javaTypes.getContainerName(type);
 
         // Add the required imports:
         javaBuffer.addImport(typeName);
+        javaBuffer.addImport(containerName);
         javaBuffer.addImport(ArrayList.class);
         javaBuffer.addImport(Iterator.class);
         javaBuffer.addImport(List.class);
         javaBuffer.addImport(NoSuchElementException.class);
         javaBuffer.addImport(XmlReader.class);
 
-        // Iterate method:
-        javaBuffer.addLine("public static Iterator<%1$s> iterateMany(final XmlReader reader) {", typeName.getSimpleName());
+        // Iterate methods:
+        javaBuffer.addImport(FieldMask.class);
+        javaBuffer.addLine("public static Iterator<%1$s> iterateMany(XmlReader reader) {", typeName.getSimpleName());
+        javaBuffer.addLine(  "return iterateMany(reader, FieldMask.ALL);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addLine(
+            "public static Iterator<%1$s> iterateMany(final XmlReader reader, final FieldMask mask) {",
+            typeName.getSimpleName()
+        );
+        javaBuffer.addLine(  "return iterateMany(reader, mask, false);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addDocComment(
+            "Returns an iterator that reads the objects one by one. If {@code reuse} is {@code true} the iterator",
+            "returns the same container for all the objects, reset and filled again on each call to {@code next}.",
+            "That avoids creating a container for each object, but the caller must finish using each object before",
+            "asking for the next one."
+        );
+        javaBuffer.addLine(
+            "public static Iterator<%1$s> iterateMany(final XmlReader reader, final FieldMask mask, boolean reuse) {",
+            typeName.getSimpleName()
+        );
         javaBuffer.addLine(  "return new Iterator<%1$s>() {", typeName.getSimpleName());
         javaBuffer.addLine(    "private boolean first = true;");
+        javaBuffer.addLine(
+            "private final %1$s recycled = reuse? new %1$s(): null;",
+            containerName.getSimpleName()
+        );
         javaBuffer.addLine();
         javaBuffer.addLine(    "@Override");
         javaBuffer.addLine(    "public void remove() {");
@@ -413,7 +775,7 @@ public class XmlSupportGenerator extends JavaGenerator {
         javaBuffer.addLine();
         javaBuffer.addLine(    "@Override");
         javaBuffer.addLine(    "public %1$s next() {", typeName.getSimpleName());
-        javaBuffer.addLine(      "%1$s next = readOne(reader);", typeName.getSimpleName());
+        javaBuffer.addLine(      "%1$s next = readOne(reader, mask, recycled);", typeName.getSimpleName());
         javaBuffer.addLine(      "if (next == null) {");
         javaBuffer.addLine(        "throw new NoSuchElementException();");
         javaBuffer.addLine(      "}");
@@ -423,11 +785,22 @@ public class XmlSupportGenerator extends JavaGenerator {
         javaBuffer.addLine("}");
         javaBuffer.addLine();
 
-        // Read method:
+        // Read methods:
         javaBuffer.addLine("public static List<%1$s> readMany(XmlReader reader) {",
             typeName.getSimpleName());
-        javaBuffer.addLine(  "List<%1$s> list = new ArrayList<>();", typeName.getSimpleName());
-        javaBuffer.addLine(  "Iterator<%1$s> iterator = iterateMany(reader);", typeName.getSimpleName());
+        javaBuffer.addLine(  "return readMany(reader, FieldMask.ALL);");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addLine("public static List<%1$s> readMany(XmlReader reader, FieldMask mask) {",
+            typeName.getSimpleName());
+        javaBuffer.addLine(  "return readMany(reader, mask, new ArrayList<>());");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addLine(
+            "public static List<%1$s> readMany(XmlReader reader, FieldMask mask, List<%1$s> list) {",
+            typeName.getSimpleName()
+        );
+        javaBuffer.addLine(  "Iterator<%1$s> iterator = iterateMany(reader, mask);", typeName.getSimpleName());
         javaBuffer.addLine(  "while (iterator.hasNext()) {");
         javaBuffer.addLine(    "list.add(iterator.next());");
         javaBuffer.addLine(  "}");
@@ -533,6 +906,9 @@ public class XmlSupportGenerator extends JavaGenerator {
         javaBuffer.addLine("public class %1$s {", writerName.getSimpleName());
         javaBuffer.addLine();
 
+        // Generate the constants for the names of the elements and attributes:
+        generateWriterTags(getStructWriterTags(type));
+
         // Generate methods to write one instance and a list of instances:
         generateStructWriteOne(type);
         generateStructWriteMany(type);
@@ -542,6 +918,57 @@ public class XmlSupportGenerator extends JavaGenerator {
         javaBuffer.addLine();
     }
 
+    /**
+     * Calculates the names of all the elements and attributes used by the writer of the given type.
+     */
+    private Set<String> getStructWriterTags(StructType type) {
+        Set<String> tags = new TreeSet<>();
+        tags.add(schemaNames.getSchemaTagName(type.getName()));
+        tags.add(schemaNames.getSchemaTagName(names.getPlural(type.getName())));
+        Stream.concat(type.attributes(), type.links()).forEach(member -> {
+            Name name = member.getName();
+            Type memberType = member.getType();
+            tags.add(schemaNames.getSchemaTagName(name));
+            if (memberType instanceof ListType) {
+                Type elementType = ((ListType) memberType).getElementType();
+                if (elementType instanceof StructType) {
+                    tags.add(schemaNames.getSchemaTagName(elementType.getName()));
+                }
+                else if (elementType instanceof EnumType) {
+                    tags.add(schemaNames.getSchemaTagName(names.getSingular(name)));
+                }
+            }
+        });
+        return tags;
+    }
+
+    /**
+     * Generates a constant containing the pre-encoded name for each of the given tags. The writers use these
+     * constants instead of strings, so that the names don't need to be encoded each time they are written.
+     */
+    private void generateWriterTags(Set<String> tags) {
+        javaBuffer.addImport(XmlTag.class);
+        for (String tag : tags) {
+            javaBuffer.addLine("private static final XmlTag %1$s = XmlTag.of(\"%2$s\");", getTagConstant(tag), tag);
+        }
+        javaBuffer.addLine();
+    }
+
+    /**
+     * Calculates the name of the constant that contains the given tag.
+     */
+    private String getTagConstant(String tag) {
+        return tag.toUpperCase(Locale.ROOT) + "_TAG";
+    }
+
+    /**
+     * Generates the expression that converts the given parameter into a tag. When the parameter contains the default
+     * tag the expression returns the existing constant, so that the common case doesn't create a new tag each time.
+     */
+    private String getTagExpression(String parameter, String tag) {
+        return String.format("\"%1$s\".equals(%2$s) ? %3$s : XmlTag.of(%2$s)", tag, parameter, getTagConstant(tag));
+    }
+
     private void generateStructWriteOne(StructType type) {
         // Calculate the name of the type and the XML tag:
         JavaClassName typeName = javaTypes.getInterfaceName(type);
@@ -553,81 +980,186 @@ public class XmlSupportGenerator extends JavaGenerator {
 
         // Generate the method that uses the default tag name:
         javaBuffer.addLine("public static void writeOne(%1$s object, XmlWriter writer) {", typeName.getSimpleName());
-        javaBuffer.addLine(  "writeOne(object, \"%1$s\", writer);", tag);
+        javaBuffer.addLine(  "writeOne(object, %1$s, writer);", getTagConstant(tag));
         javaBuffer.addLine("}");
         javaBuffer.addLine();
 
-        // Generate the method that receives the tag name as parameter:
+        // Generate the methods that receive the tag name as parameter:
         javaBuffer.addLine( "public static void writeOne(%1$s object, String tag, XmlWriter writer) {",
             typeName.getSimpleName());
+        javaBuffer.addLine(  "writeOne(object, %1$s, writer);", getTagExpression("tag", tag));
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addLine( "public static void writeOne(%1$s object, XmlTag tag, XmlWriter writer) {",
+            typeName.getSimpleName());
         javaBuffer.addLine("writer.writeStartElement(tag);");
-        Stream.concat(type.attributes(), type.links())
+
+        // The attributes are written first, and then the elements, both sorted by name. The loop visits the present
+        // members in this order:
+        List<StructMember> asAttributes = Stream.concat(type.attributes(), type.links())
             .filter(x -> schemaNames.isRepresentedAsAttribute(x.getName()))
             .sorted()
-            .forEach(this::generateStructWriteMemberAsAttribute);
-        Stream.concat(type.attributes(), type.links())
+            .collect(toList());
+        List<StructMember> asElements = Stream.concat(type.attributes(), type.links())
             .filter(x -> !schemaNames.isRepresentedAsAttribute(x.getName()))
             .sorted()
-            .forEach(this::generateStructWriteMemberAsElement);
+            .collect(toList());
+        List<StructMember> members = new ArrayList<>(asAttributes);
+        members.addAll(asElements);
+        int[] positions = getContainerLayout(type).stream().mapToInt(members::indexOf).toArray();
+        if (!members.isEmpty()) {
+            generatePresentLoop(javaTypes.getContainerName(type), positions, "writeMember");
+        }
         javaBuffer.addLine("writer.writeEndElement();");
         javaBuffer.addLine("}");
         javaBuffer.addLine();
+
+        if (!members.isEmpty()) {
+            // Generate the method that writes the attribute or element corresponding to an index:
+            List<List<StructMember>> chunks = splitBySize(members, this::estimateWriteMemberSize);
+            javaBuffer.addLine(
+                "private static void writeMember(%1$s object, int index, XmlWriter writer) {",
+                typeName.getSimpleName()
+            );
+            if (chunks.size() == 1) {
+                generateStructWriteMembers(type, chunks.get(0), members);
+            }
+            else {
+                // The code to write all the members would be too large for one method, so each chunk of members is
+                // written by a separate method, selected according to the index of the member:
+                for (int i = 0; i < chunks.size(); i++) {
+                    List<StructMember> chunk = chunks.get(i);
+                    int first = members.indexOf(chunk.get(0));
+                    int last = members.indexOf(chunk.get(chunk.size() - 1));
+                    javaBuffer.addLine("%1$sif (index >= %2$d && index <= %3$d) {", i > 0 ? "else " : "", first, last);
+                    javaBuffer.addLine(  "writeElements%1$d(object, index, writer);", i);
+                    javaBuffer.addLine("}");
+                }
+            }
+            javaBuffer.addLine("}");
+            javaBuffer.addLine();
+
+            // If the code to write the members was too large for one method then generate a method for each chunk:
+            if (chunks.size() > 1) {
+                for (int i = 0; i < chunks.size(); i++) {
+                    javaBuffer.addLine(
+                        "private static void writeElements%1$d(%2$s object, int index, XmlWriter writer) {",
+                        i, typeName.getSimpleName()
+                    );
+                    generateStructWriteMembers(type, chunks.get(i), members);
+                    javaBuffer.addLine("}");
+                    javaBuffer.addLine();
+                }
+            }
+
+            // Generate the method that finds the members that are present in objects that aren't containers:
+            generatePresentMembers(
+                typeName,
+                members.stream().map(x -> javaNames.getJavaMemberStyleName(x.getName())).collect(toList()),
+                positions
+            );
+        }
     }
 
-    private void generateStructWriteMemberAsAttribute(StructMember member) {
+    /**
+     * Generates the {@code switch} that writes the attribute or element corresponding to the index of a present
+     * member.
+     */
+    private void generateStructWriteMembers(StructType type, List<StructMember> chunk, List<StructMember> members) {
+        javaBuffer.addLine("switch (index) {");
+        for (StructMember member : chunk) {
+            javaBuffer.addLine("case %1$d: // %2$s", members.indexOf(member),
+                schemaNames.getSchemaTagName(member.getName()));
+            if (schemaNames.isRepresentedAsAttribute(member.getName())) {
+                generateStructWriteMemberAsAttribute(type, member);
+            }
+            else {
+                generateStructWriteMemberAsElement(type, member);
+            }
+            javaBuffer.addLine("break;");
+        }
+        javaBuffer.addLine("}");
+    }
+
+    /**
+     * Estimates the size, in bytes, of the code generated to write a member represented as an XML element. This
+     * includes the entry in the table of the {@code switch}, and the calls to get the value and to write it. Lists need
+     * additional calls to get the iterator, and the names of the elements. Integers in compact mode need more code, to
+     * check if the object is a container and the value fits in a {@code long}.
+     */
+    private int estimateWriteMemberSize(StructMember member) {
+        if (isCompactInteger(member.getType())) {
+            return 56;
+        }
+        return member.getType() instanceof ListType ? 36 : 28;
+    }
+
+    private void generateStructWriteMemberAsAttribute(StructType declaringType, StructMember member) {
         Name name = member.getName();
         Type type = member.getType();
         String field = javaNames.getJavaMemberStyleName(name);
         String tag = schemaNames.getSchemaTagName(name);
-        javaBuffer.addLine("if (object.%1$sPresent()) {", field);
         if (type instanceof PrimitiveType) {
             Model model = type.getModel();
-            if (type == model.getBooleanType() || type == model.getIntegerType() || type == model.getDecimalType()) {
-                javaBuffer.addLine("writer.writeAttribute(\"%1$s\", object.%2$s().toString());", tag, field);
+            if (isCompactInteger(type)) {
+                generateCompactIntegerWrite(
+                    javaTypes.getContainerName(declaringType),
+                    field,
+                    "writer.writeAttribute(" + getTagConstant(tag) + ", XmlWriter.renderInteger(%1$s));"
+                );
+            }
+            else if (type == model.getBooleanType() || type == model.getIntegerType() ||
+                    type == model.getDecimalType()) {
+                javaBuffer.addLine("writer.writeAttribute(%1$s, object.%2$s().toString());", getTagConstant(tag), field);
             }
             else if (type == model.getStringType()) {
-                javaBuffer.addLine("writer.writeAttribute(\"%1$s\", object.%2$s());", tag, field);
+                javaBuffer.addLine("writer.writeAttribute(%1$s, object.%2$s());", getTagConstant(tag), field);
             }
             else if (type == model.getDateType()) {
-                // TODO: This isn't the XML schema format.
-                javaBuffer.addLine("writer.writeAttribute(\"%1$s\", object.%2$s().toString());", tag, field);
+                javaBuffer.addLine("writer.writeAttribute(%1$s, XmlWriter.renderDate(object.%2$s()));", getTagConstant(tag),
+                    field);
             }
         }
         else if (type instanceof EnumType) {
-            javaBuffer.addLine("writer.writeAttribute(\"%1$s\", object.%2$s().value());", tag, field);
+            javaBuffer.addLine("writer.writeAttribute(%1$s, object.%2$s().value());", getTagConstant(tag), field);
         }
-        javaBuffer.addLine("}");
     }
 
-    private void generateStructWriteMemberAsElement(StructMember member) {
+    private void generateStructWriteMemberAsElement(StructType declaringType, StructMember member) {
         Name name = member.getName();
         Type type = member.getType();
         String field = javaNames.getJavaMemberStyleName(name);
         String tag = schemaNames.getSchemaTagName(name);
-        javaBuffer.addLine("if (object.%1$sPresent()) {", field);
         if (type instanceof PrimitiveType) {
             Model model = type.getModel();
             if (type == model.getBooleanType()) {
-                javaBuffer.addLine("writer.writeBoolean(\"%1$s\", object.%2$s());", tag, field);
+                javaBuffer.addLine("writer.writeBoolean(%1$s, object.%2$s());", getTagConstant(tag), field);
+            }
+            else if (isCompactInteger(type)) {
+                generateCompactIntegerWrite(
+                    javaTypes.getContainerName(declaringType),
+                    field,
+                    "writer.writeInteger(" + getTagConstant(tag) + ", %1$s);"
+                );
             }
             else if (type == model.getIntegerType()) {
-                javaBuffer.addLine("writer.writeInteger(\"%1$s\", object.%2$s());", tag, field);
+                javaBuffer.addLine("writer.writeInteger(%1$s, object.%2$s());", getTagConstant(tag), field);
             }
             else if (type == model.getDecimalType()) {
-                javaBuffer.addLine("writer.writeDecimal(\"%1$s\", object.%2$s());", tag, field);
+                javaBuffer.addLine("writer.writeDecimal(%1$s, object.%2$s());", getTagConstant(tag), field);
             }
             else if (type == model.getStringType()) {
-                javaBuffer.addLine("writer.writeElement(\"%1$s\", object.%2$s());", tag, field);
+                javaBuffer.addLine("writer.writeElement(%1$s, object.%2$s());", getTagConstant(tag), field);
             }
             else if (type == model.getDateType()) {
-                javaBuffer.addLine("writer.writeDate(\"%1$s\", object.%2$s());", tag, field);
+                javaBuffer.addLine("writer.writeDate(%1$s, object.%2$s());", getTagConstant(tag), field);
             }
         }
         else if (type instanceof StructType || type instanceof EnumType) {
             JavaClassName writerName = javaTypes.getXmlWriterName(type);
             javaBuffer.addImport(writerName);
-            javaBuffer.addLine("%1$s.writeOne(object.%2$s(), \"%3$s\", writer);", writerName.getSimpleName(), field,
-                tag);
+            javaBuffer.addLine("%1$s.writeOne(object.%2$s(), %3$s, writer);", writerName.getSimpleName(), field,
+                getTagConstant(tag));
         }
         else if (type instanceof ListType) {
             ListType listType = (ListType) type;
@@ -637,11 +1169,11 @@ public class XmlSupportGenerator extends JavaGenerator {
                 String elementTag = schemaNames.getSchemaTagName(elementType.getName());
                 javaBuffer.addImport(writerName);
                 javaBuffer.addLine(
-                    "%1$s.writeMany(object.%2$s().iterator(), \"%3$s\", \"%4$s\", writer);",
+                    "%1$s.writeMany(object.%2$s().iterator(), %3$s, %4$s, writer);",
                     writerName.getSimpleName(),
                     field,
-                    elementTag,
-                    tag
+                    getTagConstant(elementTag),
+                    getTagConstant(tag)
                 );
             }
             else if (elementType instanceof EnumType) {
@@ -649,33 +1181,32 @@ public class XmlSupportGenerator extends JavaGenerator {
                 String elementTag = schemaNames.getSchemaTagName(names.getSingular(name));
                 javaBuffer.addImport(writerName);
                 javaBuffer.addLine(
-                    "%1$s.writeMany(object.%2$s().iterator(), \"%3$s\", \"%4$s\", writer);",
+                    "%1$s.writeMany(object.%2$s().iterator(), %3$s, %4$s, writer);",
                     writerName.getSimpleName(),
                     field,
-                    elementTag,
-                    tag
+                    getTagConstant(elementTag),
+                    getTagConstant(tag)
                 );
             }
             else if (elementType instanceof PrimitiveType) {
                 Model model = type.getModel();
                 if (elementType == model.getBooleanType()) {
-                    javaBuffer.addLine("writer.writeBooleans(\"%1$s\", object.%2$s());", tag, field);
+                    javaBuffer.addLine("writer.writeBooleans(%1$s, object.%2$s());", getTagConstant(tag), field);
                 }
                 else if (elementType == model.getIntegerType()) {
-                    javaBuffer.addLine("writer.writeIntegers(\"%1$s\", object.%2$s());", tag, field);
+                    javaBuffer.addLine("writer.writeIntegers(%1$s, object.%2$s());", getTagConstant(tag), field);
                 }
                 else if (elementType == model.getDecimalType()) {
-                    javaBuffer.addLine("writer.writeDecimals(\"%1$s\", object.%2$s());", tag, field);
+                    javaBuffer.addLine("writer.writeDecimals(%1$s, object.%2$s());", getTagConstant(tag), field);
                 }
                 else if (elementType == model.getStringType()) {
-                    javaBuffer.addLine("writer.writeElements(\"%1$s\", object.%2$s());", tag, field);
+                    javaBuffer.addLine("writer.writeElements(%1$s, object.%2$s());", getTagConstant(tag), field);
                 }
                 else if (elementType == model.getDateType()) {
-                    javaBuffer.addLine("writer.writeDates(\"%1$s\", object.%2$s());", tag, field);
+                    javaBuffer.addLine("writer.writeDates(%1$s, object.%2$s());", getTagConstant(tag), field);
                 }
             }
         }
-        javaBuffer.addLine("}");
     }
 
     private void generateStructWriteMany(StructType type) {
@@ -706,14 +1237,22 @@ public class XmlSupportGenerator extends JavaGenerator {
         // Generate the method that uses the default tag names:
         javaBuffer.addLine("public static void writeMany(Iterator<%1$s> list, XmlWriter writer) {",
             typeName.getSimpleName());
-        javaBuffer.addLine(  "writeMany(list, \"%1$s\", \"%2$s\", writer);", singularTag, pluralTag);
+        javaBuffer.addLine(  "writeMany(list, %1$s, %2$s, writer);", getTagConstant(singularTag),
+            getTagConstant(pluralTag));
         javaBuffer.addLine("}");
         javaBuffer.addLine();
 
-        // Generate the method that uses custom tag names:
+        // Generate the methods that use custom tag names:
         javaBuffer.addLine(
             "public static void writeMany(Iterator<%1$s> list, String singular, String plural, XmlWriter writer) {",
             typeName.getSimpleName());
+        javaBuffer.addLine(  "writeMany(list, %1$s, %2$s, writer);", getTagExpression("singular", singularTag),
+            getTagExpression("plural", pluralTag));
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addLine(
+            "public static void writeMany(Iterator<%1$s> list, XmlTag singular, XmlTag plural, XmlWriter writer) {",
+            typeName.getSimpleName());
         javaBuffer.addLine(  "writer.writeStartElement(plural);");
         javaBuffer.addLine(  "while (list.hasNext()) {");
         javaBuffer.addLine(    "%1$s.writeOne(list.next(), singular, writer);", writerName.getSimpleName());
@@ -723,6 +1262,217 @@ public class XmlSupportGenerator extends JavaGenerator {
         javaBuffer.addLine();
     }
 
+    private void generateStructView(StructType type) {
+        javaBuffer = new JavaClassBuffer();
+        JavaClassName viewName = javaTypes.getXmlViewName(type);
+        javaBuffer.setClassName(viewName);
+        generateStructViewSource(type);
+        try {
+            javaBuffer.write(outDir);
+        }
+        catch (IOException exception) {
+            throw new RuntimeException("Can't write file for XML view \"" + viewName + "\"", exception);
+        }
+    }
+
+    /**
+     * Generates a class that implements the interface of the type reading the members directly from the text of the
+     * XML document, only when they are requested. The members are grouped in slots: the first slot contains all the
+     * members represented as attributes, as they are decoded together from the start tag, and then there is one slot
+     * for each member represented as an element. Each slot is decoded by the regular reader, from a document that
+     * contains only the start tag and the elements of that slot. Members that are structs aren't decoded, instead
+     * they are returned as views of the inner element.
+     */
+    private void generateStructViewSource(StructType type) {
+        // Get the names of the classes:
+        JavaClassName typeName = javaTypes.getInterfaceName(type);
+        JavaClassName viewName = javaTypes.getXmlViewName(type);
+        JavaClassName readerName = javaTypes.getXmlReaderName(type);
+        javaBuffer.addImport(typeName);
+        javaBuffer.addImport(readerName);
+        javaBuffer.addImport(FieldMask.class);
+        javaBuffer.addImport(XmlIndex.class);
+        javaBuffer.addImport(XmlReader.class);
+
+        // Assign the slots:
+        List<StructMember> members = Stream.concat(type.attributes(), type.links())
+            .sorted()
+            .collect(toList());
+        boolean hasAttributes = members.stream()
+            .anyMatch(x -> schemaNames.isRepresentedAsAttribute(x.getName()));
+        List<String> tags = new ArrayList<>();
+        List<String> masks = new ArrayList<>();
+        if (hasAttributes) {
+            tags.add("");
+            masks.add("FieldMask.ALL");
+        }
+        Map<StructMember, Integer> slots = new HashMap<>();
+        for (StructMember member : members) {
+            if (schemaNames.isRepresentedAsAttribute(member.getName())) {
+                slots.put(member, 0);
+            }
+            else if (!(member.getType() instanceof StructType)) {
+                String tag = schemaNames.getSchemaTagName(member.getName());
+                slots.put(member, tags.size());
+                if (member instanceof Link && member.getType() instanceof ListType) {
+                    tags.add(String.format("\"%1$s\", \"link\"", tag));
+                }
+                else {
+                    tags.add(String.format("\"%1$s\"", tag));
+                }
+                masks.add(String.format("FieldMask.of(\"%1$s\")", tag));
+            }
+        }
+
+        // Begin class:
+        javaBuffer.addDocComment(
+            String.format("View of an object of type {@code %1$s} that decodes each member from the text of the",
+                typeName.getSimpleName()),
+            "XML document only when it is requested. The text isn't copied, so the complete element can be",
+            "forwarded using {@link #getXmlIndex()}. Instances of this class aren't thread safe."
+        );
+        javaBuffer.addLine(
+            "public class %1$s implements %2$s {",
+            viewName.getSimpleName(), typeName.getSimpleName()
+        );
+        javaBuffer.addLine();
+
+        // Generate the tables that contain the elements and the mask used to decode each slot:
+        if (!tags.isEmpty()) {
+            javaBuffer.addLine("// The elements that are included to decode each slot, and the mask used:");
+            javaBuffer.addLine("private static final String[][] TAGS = {");
+            tags.forEach(x -> javaBuffer.addLine("{%1$s},", x));
+            javaBuffer.addLine("};");
+            javaBuffer.addLine("private static final FieldMask[] MASKS = {");
+            masks.forEach(x -> javaBuffer.addLine("%1$s,", x));
+            javaBuffer.addLine("};");
+            javaBuffer.addLine();
+        }
+
+        // Generate the fields:
+        javaBuffer.addLine("// The index of the element that contains the object:");
+        javaBuffer.addLine("private final XmlIndex index;");
+        javaBuffer.addLine();
+        if (!tags.isEmpty()) {
+            javaBuffer.addLine("// The objects decoded for each slot, or null if the slot hasn't been decoded yet:");
+            javaBuffer.addLine("private final %1$s[] decoded = new %1$s[%2$d];", typeName.getSimpleName(), tags.size());
+            javaBuffer.addLine();
+        }
+        List<StructMember> structs = members.stream()
+            .filter(x -> !slots.containsKey(x))
+            .collect(toList());
+        if (!structs.isEmpty()) {
+            javaBuffer.addLine("// The views of the members that are structs, created when they are first requested:");
+            for (StructMember member : structs) {
+                JavaClassName memberViewName = javaTypes.getXmlViewName(member.getType());
+                javaBuffer.addImport(memberViewName);
+                javaBuffer.addLine(
+                    "private %1$s %2$s;",
+                    memberViewName.getSimpleName(), javaNames.getJavaMemberStyleName(member.getName())
+                );
+            }
+            javaBuffer.addLine();
+        }
+
+        // Generate the constructors:
+        javaBuffer.addDocComment("Creates a view of the root element of the given document.");
+        javaBuffer.addLine("public %1$s(String text) {", viewName.getSimpleName());
+        javaBuffer.addLine(  "this(XmlIndex.of(text));");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addDocComment("Creates a view of the element described by the given index.");
+        javaBuffer.addLine("public %1$s(XmlIndex index) {", viewName.getSimpleName());
+        javaBuffer.addLine(  "this.index = index;");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addDocComment(
+            "Returns the index of the element, which gives access to its original text."
+        );
+        javaBuffer.addLine("public XmlIndex getXmlIndex() {");
+        javaBuffer.addLine(  "return index;");
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+
+        // Generate the getters:
+        for (StructMember member : members) {
+            Integer slot = slots.get(member);
+            if (slot != null) {
+                generateStructViewDecodedMember(member, slot);
+            }
+            else {
+                generateStructViewStructMember(member);
+            }
+        }
+
+        // Generate the method that decodes the slots:
+        if (!tags.isEmpty()) {
+            javaBuffer.addLine("private %1$s decode(int slot) {", typeName.getSimpleName());
+            javaBuffer.addLine(  "%1$s object = decoded[slot];", typeName.getSimpleName());
+            javaBuffer.addLine(  "if (object == null) {");
+            javaBuffer.addLine(    "try (XmlReader reader = index.open(TAGS[slot])) {");
+            javaBuffer.addLine(      "object = %1$s.readOne(reader, MASKS[slot]);", readerName.getSimpleName());
+            javaBuffer.addLine(    "}");
+            javaBuffer.addLine(    "decoded[slot] = object;");
+            javaBuffer.addLine(  "}");
+            javaBuffer.addLine(  "return object;");
+            javaBuffer.addLine("}");
+            javaBuffer.addLine();
+        }
+
+        // End class:
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+    }
+
+    private void generateStructViewDecodedMember(StructMember member, int slot) {
+        Type type = member.getType();
+        String field = javaNames.getJavaMemberStyleName(member.getName());
+        String tag = schemaNames.getSchemaTagName(member.getName());
+        JavaTypeReference typeReference = javaTypes.getTypeReference(type, false);
+        javaBuffer.addImports(typeReference.getImports());
+        List<String> getters = new ArrayList<>();
+        getters.add(typeReference.getText() + " " + field);
+        if (type == type.getModel().getIntegerType()) {
+            getters.add("Byte " + field + "AsByte");
+            getters.add("Short " + field + "AsShort");
+            getters.add("Integer " + field + "AsInteger");
+            getters.add("Long " + field + "AsLong");
+        }
+        getters.add("boolean " + field + "Present");
+        for (String getter : getters) {
+            String method = getter.substring(getter.lastIndexOf(' ') + 1);
+            javaBuffer.addLine("@Override");
+            javaBuffer.addLine("public %1$s() {", getter);
+            javaBuffer.addLine(  "return decode(%1$d).%2$s(); // %3$s", slot, method, tag);
+            javaBuffer.addLine("}");
+            javaBuffer.addLine();
+        }
+    }
+
+    private void generateStructViewStructMember(StructMember member) {
+        JavaClassName typeName = javaTypes.getInterfaceName(member.getType());
+        JavaClassName viewName = javaTypes.getXmlViewName(member.getType());
+        javaBuffer.addImport(typeName);
+        String field = javaNames.getJavaMemberStyleName(member.getName());
+        String tag = schemaNames.getSchemaTagName(member.getName());
+        javaBuffer.addLine("@Override");
+        javaBuffer.addLine("public %1$s %2$s() {", typeName.getSimpleName(), field);
+        javaBuffer.addLine(  "if (%1$s == null) {", field);
+        javaBuffer.addLine(    "XmlIndex child = index.child(\"%1$s\");", tag);
+        javaBuffer.addLine(    "if (child != null) {");
+        javaBuffer.addLine(      "%1$s = new %2$s(child);", field, viewName.getSimpleName());
+        javaBuffer.addLine(    "}");
+        javaBuffer.addLine(  "}");
+        javaBuffer.addLine(  "return %1$s;", field);
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addLine("@Override");
+        javaBuffer.addLine("public boolean %1$sPresent() {", field);
+        javaBuffer.addLine(  "return %1$s() != null;", field);
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+    }
+
     private void generateEnumWriter(EnumType type) {
         javaBuffer = new JavaClassBuffer();
         JavaClassName writerName = javaTypes.getXmlWriterName(type);
@@ -742,6 +1492,12 @@ public class XmlSupportGenerator extends JavaGenerator {
         javaBuffer.addLine("public class %1$s {", writerName.getSimpleName());
         javaBuffer.addLine();
 
+        // Generate the constants for the names of the elements:
+        Set<String> tags = new TreeSet<>();
+        tags.add(schemaNames.getSchemaTagName(type.getName()));
+        tags.add(schemaNames.getSchemaTagName(names.getPlural(type.getName())));
+        generateWriterTags(tags);
+
         // Generate methods to write one instance and a list of instances:
         generateEnumWriteOne(type);
         generateEnumWriteMany(type);
@@ -762,13 +1518,18 @@ public class XmlSupportGenerator extends JavaGenerator {
 
         // Generate the method that uses the default tag name:
         javaBuffer.addLine("public static void writeOne(%1$s object, XmlWriter writer) {", typeName.getSimpleName());
-        javaBuffer.addLine(  "writeOne(object, \"%1$s\", writer);", tag);
+        javaBuffer.addLine(  "writeOne(object, %1$s, writer);", getTagConstant(tag));
         javaBuffer.addLine("}");
         javaBuffer.addLine();
 
-        // Generate the method that receives the tag name as parameter:
+        // Generate the methods that receive the tag name as parameter:
         javaBuffer.addLine( "public static void writeOne(%1$s object, String tag, XmlWriter writer) {",
                 typeName.getSimpleName());
+        javaBuffer.addLine(  "writeOne(object, %1$s, writer);", getTagExpression("tag", tag));
+        javaBuffer.addLine("}");
+        javaBuffer.addLine();
+        javaBuffer.addLine( "public static void writeOne(%1$s object, XmlTag tag, XmlWriter writer) {",
+                typeName.getSimpleName());
         javaBuffer.addLine("writer.writeElement(tag, object.value());");
         javaBuffer.addLine("}");
         javaBuffer.addLine();
@@ -1,8 +1,9 @@
 package org.ovirt.api.metamodel.tool.util;
 
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -37,34 +38,26 @@ public class JaxrsHelperGeneratorUtils {
         if (!method.getBase().getName().equals(method2.getBase().getName())) {
             return false; //different parents, containment irrelevant.
         }
-        return isParametersContained(method.getMandatoryParameters(), method2.getMandatoryParameters())
-                && isAttributesContained(method.getMandatoryAttributes(), method2.getMandatoryAttributes());
+        //the method is contained if its mandatory parameters and attributes are a proper subset of those of the
+        //other method, equal sets don't count, otherwise the methods would be contained in each other.
+        Set<Name> parameters1 = toParameterNames(method.getMandatoryParameters());
+        Set<Name> parameters2 = toParameterNames(method2.getMandatoryParameters());
+        Set<Name> attributes1 = toNames(method.getMandatoryAttributes());
+        Set<Name> attributes2 = toNames(method2.getMandatoryAttributes());
+        return parameters2.containsAll(parameters1) && attributes2.containsAll(attributes1)
+                && (parameters2.size() > parameters1.size() || attributes2.size() > attributes1.size());
     }
 
-    private boolean isParametersContained(List<Parameter> mandatoryParameters1, List<Parameter> mandatoryParameters2) {
-        if (mandatoryParameters1.isEmpty() && mandatoryParameters2.isEmpty()) {
-            return false;
+    private Set<Name> toParameterNames(List<Parameter> parameters) {
+        Set<Name> names = new HashSet<>();
+        for (Parameter parameter : parameters) {
+            names.add(parameter.getName());
         }
-        List<Name> names1 = new ArrayList<>();
-        List<Name> names2 = new ArrayList<>();
-        for (Parameter p : mandatoryParameters1) {
-            names1.add(p.getName());
-        }
-        for (Parameter p : mandatoryParameters2) {
-            names2.add(p.getName());
-        }
-        return names2.containsAll(names1);
-    }
-
-    private boolean isAttributesContained(List<MemberInvolvementTree> mandatoryAttributes1, List<MemberInvolvementTree> mandatoryAttributes2) {
-        if (mandatoryAttributes1.isEmpty() && mandatoryAttributes2.isEmpty()) {
-            return false;
-        }
-        return toNames(mandatoryAttributes2).containsAll(toNames(mandatoryAttributes1));
+        return names;
     }
 
-    private List<Name> toNames(List<MemberInvolvementTree> attributes) {
-        List<Name> names = new ArrayList<>();
+    private Set<Name> toNames(List<MemberInvolvementTree> attributes) {
+        Set<Name> names = new HashSet<>();
         for (MemberInvolvementTree attribute : attributes) {
             names.add(attribute.getAlternative()==null ?
                     attribute.shallowToString() : combineAlternatives(attribute));